@@ -1,21 +1,45 @@
-plugins {
-    id("java")
-}
+subprojects {
+    apply(plugin = "java")
 
-group = "com.kaiounet"
-version = "1.0-SNAPSHOT"
+    group = "com.kaiounet"
+    version = "1.0-SNAPSHOT"
 
-repositories {
-    mavenCentral()
-}
+    repositories {
+        mavenCentral()
+    }
 
-dependencies {
-    testImplementation(platform("org.junit:junit-bom:5.10.0"))
-    testImplementation("org.junit.jupiter:junit-jupiter")
-    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
-    implementation("uk.co.electronstudio.jaylib:jaylib:5.5.+")
-}
+    dependencies {
+        "testImplementation"(platform("org.junit:junit-bom:5.10.0"))
+        "testImplementation"("org.junit.jupiter:junit-jupiter")
+        "testRuntimeOnly"("org.junit.platform:junit-platform-launcher")
+    }
+
+    tasks.withType<JavaCompile> {
+        options.encoding = "UTF-8" // Console messages use ✓ / ✗
+    }
 
-tasks.test {
-    useJUnitPlatform()
-}
\ No newline at end of file
+    // Tests tagged "benchmark" print measurements and only run with ./gradlew benchmark
+    val testSources = the<SourceSetContainer>()["test"]
+
+    tasks.named<Test>("test") {
+        useJUnitPlatform {
+            excludeTags("benchmark")
+        }
+    }
+
+    tasks.register<Test>("benchmark") {
+        group = "verification"
+        description = "Runs the benchmark harnesses (tests tagged benchmark) and prints their results"
+        testClassesDirs = testSources.output.classesDirs
+        classpath = testSources.runtimeClasspath
+        useJUnitPlatform {
+            includeTags("benchmark")
+        }
+        maxHeapSize = "1g"
+        testLogging {
+            showStandardStreams = true
+        }
+        outputs.upToDateWhen { false }
+        shouldRunAfter("test")
+    }
+}
@@ -0,0 +1,17 @@
+plugins {
+    application
+}
+
+dependencies {
+    implementation(project(":core"))
+    implementation("uk.co.electronstudio.jaylib:jaylib:5.5.+")
+}
+
+application {
+    mainClass.set("com.kaiounet.GameClientApp")
+}
+
+tasks.named<JavaExec>("run") {
+    standardInput = System.`in` // Server address prompt
+    workingDir = rootProject.projectDir // Optional .env at the repository root
+}
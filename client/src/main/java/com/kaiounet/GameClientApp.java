@@ -1,13 +1,28 @@
 package com.kaiounet;
 
+import com.kaiounet.config.Config;
+import com.kaiounet.config.ConfigWatcher;
+import com.kaiounet.game.LockstepGame;
 import com.kaiounet.game.MultiplayerGame;
 import com.kaiounet.network.GameClient;
+import java.io.File;
+import java.io.IOException;
 import java.util.Scanner;
 
 public class GameClientApp {
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
         
+        // Optional tuning overrides from a local .env (hot-reloaded)
+        if (new File(".env").exists()) {
+            Config.load();
+            try {
+                ConfigWatcher.start(".env");
+            } catch (IOException e) {
+                System.err.println("✗ Config hot-reload disabled: " + e.getMessage());
+            }
+        }
+        
         System.out.println("\n╔════════════════════════════════════════╗");
         System.out.println("║      MULTIPLAYER GAME CLIENT           ║");
         System.out.println("╚════════════════════════════════════════╝\n");
@@ -31,12 +46,24 @@ public class GameClientApp {
             System.out.println("Invalid port, using default: 5555");
         }
         
+        // Spectators watch without a player (directly or through a SpectatorRelay)
+        System.out.print("Spectate only? (y/N): ");
+        boolean spectate = scanner.nextLine().trim().equalsIgnoreCase("y");
+        
+        // Lockstep: peers exchange inputs and simulate the same match locally
+        boolean lockstep = false;
+        if (!spectate) {
+            System.out.print("Mode: (1) server-authoritative, (2) lockstep (default: 1): ");
+            lockstep = scanner.nextLine().trim().equals("2");
+        }
+        
         System.out.println("\n╔════════════════════════════════════════╗");
         System.out.println("║ Connecting to: " + String.format("%-22s", host) + " ║");
         System.out.println("║ Port: " + String.format("%-32d", port) + " ║");
         System.out.println("╚════════════════════════════════════════╝\n");
         
         GameClient client = new GameClient(host, port);
+        client.setSpectator(spectate);
         
         if (!client.connect()) {
             System.err.println("✗ Failed to connect to server at " + host + ":" + port);
@@ -46,10 +73,17 @@ public class GameClientApp {
         System.out.println("✓ Connected to server!");
         System.out.println("Starting game...\n");
         
-        MultiplayerGame game = new MultiplayerGame(client);
-        game.initialize();
-        game.run();
-        game.close();
+        if (lockstep) {
+            LockstepGame game = new LockstepGame(client);
+            game.initialize();
+            game.run();
+            game.close();
+        } else {
+            MultiplayerGame game = new MultiplayerGame(client);
+            game.initialize();
+            game.run();
+            game.close();
+        }
         
         scanner.close();
     }
@@ -0,0 +1,243 @@
+package com.kaiounet.game;
+
+import com.kaiounet.network.GameClient;
+import com.kaiounet.network.GameMessage;
+import com.kaiounet.network.LockstepSession;
+import com.kaiounet.ui.UIRenderer;
+import com.kaiounet.utils.Log;
+import static com.raylib.Colors.*;
+import static com.raylib.Raylib.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Client loop for deterministic lockstep play.
+ *
+ * Asks the server for a match (LOCKSTEP_START), builds a {@link LockstepSession}
+ * from the roster and seed the server hands out, then samples local input at
+ * {@link LockstepSimulation#TICK_RATE} and renders the predicted simulation.
+ * The server never sends positions in this mode; only inputs and checksums
+ * travel. When a member leaves, the match ends and a new one is requested.
+ */
+public class LockstepGame {
+    // Ticks between sampling input and simulating it (~50 ms), hides one-way latency
+    private static final int INPUT_DELAY = 3;
+    private static final int MAX_TICKS_PER_FRAME = 8;
+    private static final long TICK_NANOS = 1_000_000_000L / LockstepSimulation.TICK_RATE;
+    private static final int MAX_MESSAGES_PER_FRAME = 4096;
+    
+    private final GameClient client;
+    private final UIRenderer uiRenderer = new UIRenderer();
+    private final int width = 1200;
+    private final int height = 800;
+    private final int worldWidth;
+    private final int worldHeight;
+    private final Consumer<GameMessage> messageHandler = this::onMessage;
+    
+    private int localPlayerId = -1;
+    private boolean matchRequested = false;
+    private int matchId = -1;
+    private LockstepSession session;
+    private String status = "Connecting...";
+    private long lastTickTime;
+    private long tickAccumulator = 0;
+    
+    // Predicted state mirrored into Players so the shared HUD code can draw it
+    private final Map<Integer, Player> players = new LinkedHashMap<>();
+    private final Camera2D camera = new Camera2D();
+    private final Vector2 cameraOffset = new Vector2();
+    private final Vector2 cameraTarget = new Vector2();
+    
+    public LockstepGame(GameClient client) {
+        this.client = client;
+        this.worldWidth = client.getWorldWidth();
+        this.worldHeight = client.getWorldHeight();
+    }
+    
+    public void initialize() {
+        InitWindow(width, height, "Multiplayer Shooting Game - Lockstep");
+        SetTargetFPS(60);
+        lastTickTime = System.nanoTime();
+    }
+    
+    public void run() {
+        while (!WindowShouldClose() && client.isConnected()) {
+            client.drainMessages(messageHandler, MAX_MESSAGES_PER_FRAME);
+            if (localPlayerId >= 0 && !matchRequested) {
+                client.sendMessage(new GameMessage(GameMessage.MessageType.LOCKSTEP_START, localPlayerId, 0, 0, 0));
+                matchRequested = true;
+                status = "Waiting for other players...";
+            }
+            if (session != null) {
+                submitInputs();
+                session.advance();
+                mirrorPlayers(session.getPredicted());
+            }
+            render();
+        }
+    }
+    
+    private void onMessage(GameMessage message) {
+        switch (message.type) {
+            case PLAYER_JOIN:
+                if (localPlayerId == -1) {
+                    localPlayerId = message.playerId;
+                }
+                break;
+            
+            case LOCKSTEP_START:
+                if (message.joinedIds.length > 0) {
+                    startMatch(message);
+                } else if (message.tick == matchId) {
+                    Log.info("Lockstep match %d ended: a player left", matchId);
+                    session = null;
+                    matchId = -1;
+                    players.clear();
+                    matchRequested = false; // Queue for the next one
+                }
+                break;
+            
+            case LOCKSTEP_INPUT:
+            case LOCKSTEP_CHECKSUM:
+                if (session != null) {
+                    session.onMessage(message);
+                }
+                break;
+            
+            default:
+                break; // The server-authoritative world is not shown in this mode
+        }
+    }
+    
+    private void startMatch(GameMessage message) {
+        matchId = message.tick;
+        session = new LockstepSession(client, localPlayerId, message.joinedIds, message.checksum,
+            worldWidth, worldHeight, INPUT_DELAY);
+        players.clear();
+        for (int id : message.joinedIds) {
+            players.put(id, new Player(id, 0, 0, Player.paletteColor(id)));
+        }
+        lastTickTime = System.nanoTime();
+        tickAccumulator = 0;
+        status = null;
+        Log.info("Lockstep match %d with %d players", matchId, message.joinedIds.length);
+    }
+    
+    /**
+     * Sample and send one input per simulation tick of real time
+     */
+    private void submitInputs() {
+        long now = System.nanoTime();
+        tickAccumulator += now - lastTickTime;
+        lastTickTime = now;
+        int ticks = 0;
+        while (tickAccumulator >= TICK_NANOS) {
+            if (ticks == MAX_TICKS_PER_FRAME) {
+                tickAccumulator = 0; // Too far behind; do not flood the peers
+                break;
+            }
+            if (!session.submitLocalInput(sampleInput())) {
+                tickAccumulator = 0; // A full input window ahead of the slowest peer
+                break;
+            }
+            tickAccumulator -= TICK_NANOS;
+            ticks++;
+        }
+    }
+    
+    private int sampleInput() {
+        int angle = 0;
+        Player local = players.get(localPlayerId);
+        if (local != null) {
+            Vector2 mouse = GetScreenToWorld2D(GetMousePosition(), camera);
+            angle = LockstepInput.angleFromDirection(mouse.x() - (local.x + Player.SIZE / 2f),
+                mouse.y() - (local.y + Player.SIZE / 2f));
+        }
+        return LockstepInput.encode(
+            IsKeyDown(KEY_LEFT) || IsKeyDown(KEY_A),
+            IsKeyDown(KEY_RIGHT) || IsKeyDown(KEY_D),
+            IsKeyDown(KEY_UP) || IsKeyDown(KEY_W),
+            IsKeyDown(KEY_DOWN) || IsKeyDown(KEY_S),
+            IsKeyDown(KEY_SPACE),
+            angle);
+    }
+    
+    private void mirrorPlayers(LockstepSimulation simulation) {
+        for (int i = 0; i < simulation.getPlayerCount(); i++) {
+            LockstepSimulation.SimPlayer simPlayer = simulation.getPlayer(i);
+            Player player = players.get(simPlayer.id);
+            player.move(Fixed.toFloat(simPlayer.x), Fixed.toFloat(simPlayer.y));
+            player.health = simPlayer.health;
+            player.score = simPlayer.score;
+        }
+    }
+    
+    private void render() {
+        updateCamera();
+        BeginDrawing();
+        ClearBackground(DARKGRAY);
+        
+        BeginMode2D(camera);
+        DrawRectangleLines(0, 0, worldWidth, worldHeight, LIGHTGRAY);
+        if (session != null) {
+            LockstepSimulation simulation = session.getPredicted();
+            for (int i = 0; i < simulation.getBeamCount(); i++) {
+                LockstepSimulation.SimBeam beam = simulation.getBeam(i);
+                int shooterId = simulation.getPlayer(beam.shooterIndex).id;
+                DrawRectangle(Fixed.toInt(beam.x), Fixed.toInt(beam.y), Beam.WIDTH, Beam.HEIGHT,
+                    MultiplayerGame.createColorFromInt(Player.paletteColor(shooterId)));
+            }
+            for (Player player : players.values()) {
+                DrawRectangle((int) player.x, (int) player.y, Player.SIZE, Player.SIZE,
+                    MultiplayerGame.createColorFromInt(player.color));
+                uiRenderer.drawHealthBar(player);
+                DrawText(uiRenderer.getTextCache().playerLabel(player.id),
+                    (int) player.x + 5, (int) player.y - 50, 12, WHITE);
+            }
+        }
+        EndMode2D();
+        
+        if (session != null) {
+            uiRenderer.drawScoreboard(players, localPlayerId, width, height);
+            int behind = session.getPredicted().getTick() - session.getConfirmed().getTick();
+            DrawText(String.format("Lockstep match %d, tick %d (%d predicted)", matchId,
+                session.getConfirmed().getTick(), behind), 10, 10, 16, WHITE);
+            if (session.isDesynced()) {
+                DrawText(String.format("DESYNC at tick %d with player %d", session.getDesyncTick(),
+                    session.getDesyncPlayerId()), 10, 32, 20, RED);
+            }
+        } else if (status != null) {
+            DrawText(status, width / 2 - MeasureText(status, 20) / 2, height / 2, 20, WHITE);
+        }
+        DrawFPS(width - 100, 10);
+        EndDrawing();
+    }
+    
+    /**
+     * Follow the local player, keeping the view inside the world
+     */
+    private void updateCamera() {
+        float halfW = width / 2f;
+        float halfH = height / 2f;
+        float targetX = halfW;
+        float targetY = halfH;
+        Player local = players.get(localPlayerId);
+        if (local != null) {
+            targetX = local.x + Player.SIZE / 2f;
+            targetY = local.y + Player.SIZE / 2f;
+        }
+        targetX = worldWidth <= width ? worldWidth / 2f : Math.max(halfW, Math.min(targetX, worldWidth - halfW));
+        targetY = worldHeight <= height ? worldHeight / 2f : Math.max(halfH, Math.min(targetY, worldHeight - halfH));
+        camera.offset(cameraOffset.x(halfW).y(halfH))
+            .target(cameraTarget.x(targetX).y(targetY))
+            .rotation(0)
+            .zoom(1);
+    }
+    
+    public void close() {
+        client.disconnect();
+        uiRenderer.unload();
+        CloseWindow();
+    }
+}
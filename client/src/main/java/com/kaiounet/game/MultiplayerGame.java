@@ -0,0 +1,633 @@
+package com.kaiounet.game;
+
+import com.kaiounet.config.TuningConfig;
+import com.kaiounet.network.*;
+import com.kaiounet.ui.DebugStats;
+import com.kaiounet.ui.UIRenderer;
+import com.kaiounet.utils.Log;
+import static com.raylib.Colors.*;
+import static com.raylib.Raylib.*;
+import com.raylib.Raylib.Color;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public class MultiplayerGame {
+    private final GameClient client;
+    private final UIRenderer uiRenderer;
+    private final int width = 1200;   // Window (viewport) size
+    private final int height = 800;
+    private final int worldWidth;      // Arena size, independent of the window
+    private final int worldHeight;
+    private final Map<Integer, Player> players = new HashMap<>();
+    private final Map<Integer, Beam> beams = new HashMap<>();
+    private Player localPlayer;
+    private int localPlayerId = -1;
+    private int nextBeamId = 1;
+    private long lastFireTime = 0;
+    private long lastSendTime = 0;
+    private boolean positionDirty = false;
+    
+    // Beams advance in fixed steps of 1 / SIM_RATE seconds, decoupled from the frame rate
+    private static final int MAX_SIM_STEPS_PER_FRAME = 8;
+    private static final float FRAMES_PER_SECOND = 60f; // Beam.SPEED is per 60 Hz frame
+    private long lastSimTime = System.nanoTime();
+    private long simAccumulator = 0;
+    // Last frame's beam simulation cost, for the frame event
+    private long simNanos = 0;
+    private int simSteps = 0;
+    private final ForkJoinPool simPool;
+    private final BeamSimulation beamSimulation;
+    private final BeamSimulation.HitListener beamHitHandler = this::onBeamHit;
+    // Held in a field: a capturing lambda at the call site would allocate every step
+    private final Predicate<Beam> beamExpired = this::isExpired;
+    
+    // Network apply budget per frame (TuningConfig), so a burst of messages cannot stall rendering
+    private final Consumer<GameMessage> networkMessageHandler = this::applyNetworkMessage;
+    private final DebugStats debugStats = new DebugStats();
+    private final AllocationTracker frameAllocations = new AllocationTracker();
+    private boolean showDebugOverlay = false;
+    // Connection lost; the client retries on its own thread
+    private boolean reconnecting = false;
+    // Dead as the server sees it; predicted health can be wrong when a hit is rejected
+    private boolean localPlayerDead = false;
+    
+    // Camera follows the local player; only entities inside its view are drawn
+    private static final int GRID_CELL_SIZE = 256;
+    private final Camera2D camera = new Camera2D();
+    private final Vector2 cameraOffset = new Vector2();
+    private final Vector2 cameraTarget = new Vector2();
+    private final SpatialGrid<Player> playerGrid;
+    private final SpatialGrid<Beam> beamGrid;
+    private final Consumer<Player> drawPlayerVisitor = this::drawPlayer;
+    private final Consumer<Beam> drawBeamVisitor = this::drawBeam;
+    private float viewMinX, viewMinY, viewMaxX, viewMaxY;
+    private int drawCalls;
+    private final float[] aim = new float[2];
+    
+    /**
+     * Uses the world size the server announced at connect
+     */
+    public MultiplayerGame(GameClient client) {
+        this(client, client.getWorldWidth(), client.getWorldHeight());
+    }
+    
+    public MultiplayerGame(GameClient client, int worldWidth, int worldHeight) {
+        this.client = client;
+        this.uiRenderer = new UIRenderer();
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.playerGrid = new SpatialGrid<>(worldWidth, worldHeight, GRID_CELL_SIZE, Player.SIZE);
+        this.beamGrid = new SpatialGrid<>(worldWidth, worldHeight, GRID_CELL_SIZE, Beam.WIDTH);
+        int simThreads = TuningConfig.current().simThreads;
+        this.simPool = simThreads > 1 ? new ForkJoinPool(simThreads) : null;
+        this.beamSimulation = new BeamSimulation(worldWidth, worldHeight, GRID_CELL_SIZE, simPool);
+    }
+    
+    public void initialize() {
+        InitWindow(width, height, "Multiplayer Shooting Game - Jaylib");
+        SetTargetFPS(60);
+    }
+    
+    public void run() {
+        while (!WindowShouldClose() && (client.isConnected() || pollReconnect())) {
+            GameEvents.Frame frame = new GameEvents.Frame();
+            frame.begin();
+            frameAllocations.begin();
+            // While reconnecting the world stays frozen but keeps being drawn
+            if (!reconnecting) {
+                update();
+            }
+            long renderStart = System.nanoTime();
+            render();
+            long renderNanos = System.nanoTime() - renderStart;
+            debugStats.frameAllocatedBytes = frameAllocations.end();
+            debugStats.frameAllocatedPeak = frameAllocations.getPeakBytes();
+            if (frame.shouldCommit()) {
+                frame.networkNanos = debugStats.networkApplyNanos;
+                frame.messagesApplied = debugStats.messagesApplied;
+                frame.inboundBacklog = debugStats.inboundBacklog;
+                frame.simulationNanos = simNanos;
+                frame.simulationSteps = simSteps;
+                frame.renderNanos = renderNanos;
+                frame.allocatedBytes = debugStats.frameAllocatedBytes;
+                frame.commit();
+            }
+        }
+    }
+    
+    private void update() {
+        if (IsKeyPressed(KEY_F3)) {
+            showDebugOverlay = !showDebugOverlay;
+        }
+        
+        // Process network messages FIRST
+        processNetworkMessages();
+        
+        // Handle local input; a dead player waits for the server's PLAYER_RESPAWN
+        if (localPlayer != null && !localPlayerDead) {
+            TuningConfig tuning = TuningConfig.current();
+            float moveSpeed = tuning.moveSpeed;
+            
+            // Movement
+            float newX = localPlayer.x;
+            float newY = localPlayer.y;
+            
+            if (IsKeyDown(KEY_LEFT) || IsKeyDown(KEY_A)) newX -= moveSpeed;
+            if (IsKeyDown(KEY_RIGHT) || IsKeyDown(KEY_D)) newX += moveSpeed;
+            if (IsKeyDown(KEY_UP) || IsKeyDown(KEY_W)) newY -= moveSpeed;
+            if (IsKeyDown(KEY_DOWN) || IsKeyDown(KEY_S)) newY += moveSpeed;
+            
+            // Clamp to world bounds
+            newX = Math.max(0, Math.min(newX, worldWidth - Player.SIZE));
+            newY = Math.max(0, Math.min(newY, worldHeight - Player.SIZE));
+            
+            if (newX != localPlayer.x || newY != localPlayer.y) {
+                localPlayer.move(newX, newY);
+                positionDirty = true;
+            }
+            
+            // Send position update if moved, at most SEND_RATE times per second
+            long now = System.currentTimeMillis();
+            if (positionDirty && now - lastSendTime >= 1000 / tuning.sendRate) {
+                GameMessage msg = new GameMessage(
+                    GameMessage.MessageType.PLAYER_MOVE,
+                    localPlayerId,
+                    localPlayer.x,
+                    localPlayer.y,
+                    localPlayer.color,
+                    localPlayer.health,
+                    localPlayer.score
+                );
+                client.sendMessage(msg);
+                lastSendTime = now;
+                positionDirty = false;
+            }
+            
+            // Shooting
+            handleShooting();
+        }
+        
+        simulateBeams(TuningConfig.current().simRate);
+    }
+    
+    /**
+     * Run as many fixed beam steps as real time calls for
+     */
+    private void simulateBeams(int simRate) {
+        long now = System.nanoTime();
+        simAccumulator += now - lastSimTime;
+        lastSimTime = now;
+        
+        long stepNanos = 1_000_000_000L / simRate;
+        int steps = 0;
+        while (simAccumulator >= stepNanos) {
+            if (steps == MAX_SIM_STEPS_PER_FRAME) {
+                simAccumulator = 0; // Too far behind (e.g. window dragged); drop the backlog
+                break;
+            }
+            stepBeams(FRAMES_PER_SECOND / simRate);
+            simAccumulator -= stepNanos;
+            steps++;
+        }
+        simSteps = steps;
+        simNanos = System.nanoTime() - now;
+    }
+    
+    private void stepBeams(float frames) {
+        // Swept test over the whole step, so fast beams or low SIM_RATE cannot tunnel
+        beamSimulation.step(beams.values(), players.values(), frames, beamHitHandler);
+        
+        beams.values().removeIf(beamExpired);
+    }
+    
+    private boolean isExpired(Beam beam) {
+        int lifetimeMs = TuningConfig.current().beamLifetimeMs;
+        return !beam.isActive() || beam.isOutOfBounds(worldWidth, worldHeight)
+            || (lifetimeMs > 0 && beam.getAgeMillis() > lifetimeMs);
+    }
+    
+    private void handleShooting() {
+        if (IsKeyPressed(KEY_SPACE)) {
+            long now = System.currentTimeMillis();
+            if (now - lastFireTime > TuningConfig.current().fireCooldownMs) {
+                // Shoot towards the mouse, converted from screen to world coordinates
+                Vector2 mouse = GetScreenToWorld2D(GetMousePosition(), camera);
+                
+                float dirX = mouse.x() - (localPlayer.x + Player.SIZE / 2);
+                float dirY = mouse.y() - (localPlayer.y + Player.SIZE / 2);
+                float len = (float) Math.sqrt(dirX * dirX + dirY * dirY);
+                
+                if (len > 0) {
+                    dirX /= len;
+                    dirY /= len;
+                } else {
+                    dirX = 1;
+                    dirY = 0;
+                }
+                
+                // Fire along the direction other players will decode
+                GameMessageCodec.quantizeDirection(dirX, dirY, aim);
+                dirX = aim[0];
+                dirY = aim[1];
+                
+                int beamId = nextBeamId++;
+                Beam beam = new Beam(
+                    beamId,
+                    localPlayerId,
+                    localPlayer.x + Player.SIZE / 2 - Beam.WIDTH / 2,
+                    localPlayer.y + Player.SIZE / 2 - Beam.HEIGHT / 2,
+                    dirX,
+                    dirY,
+                    localPlayer.color
+                );
+                
+                beams.put(beamId, beam);
+                lastFireTime = now;
+                
+                // Broadcast beam fire to other players
+                GameMessage msg = new GameMessage(GameMessage.MessageType.BEAM_FIRE, localPlayerId, 
+                    beam.x, beam.y, beam.color);
+                msg.beamId = beamId;
+                msg.vx = dirX;
+                msg.vy = dirY;
+                client.sendMessage(msg);
+            }
+        }
+    }
+    
+    /**
+     * Apply one hit; BeamSimulation reports them in (time of impact, beam id) order
+     */
+    private void onBeamHit(Beam beam, Player player, float timeOfImpact) {
+        // Hit!
+        Log.debug("COLLISION: Beam hit P%d (health before=%d)", player.id, player.health);
+        player.takeDamage(Beam.DAMAGE);
+        Log.debug("COLLISION: P%d health after damage=%d", player.id, player.health);
+        beam.deactivate();
+        
+        // Add visual feedback - damage number
+        uiRenderer.addDamageNumber(player.x + Player.SIZE / 2, player.y - 20, Beam.DAMAGE);
+        
+        Player shooter = players.get(beam.shooterId);
+        
+        // If player died, credit shooter BEFORE sending messages
+        if (player.health == 0) {
+            Log.debug("DEATH: Player %d died! Health was %d", player.id, player.health);
+            if (shooter != null) {
+                shooter.addScore(1);
+                Log.debug("DEATH: Shooter %d score now: %d", shooter.id, shooter.score);
+                // Add kill message feedback
+                uiRenderer.addKillMessage("P" + shooter.id, "P" + player.id, shooter.score);
+            }
+        }
+        
+        // Only the shooter reports hits; the server validates them with lag compensation
+        if (beam.shooterId != localPlayerId) {
+            return;
+        }
+        
+        GameMessage hitMsg = new GameMessage(GameMessage.MessageType.PLAYER_HIT,
+            beam.shooterId, player.x, player.y, beam.color);
+        hitMsg.targetPlayerId = player.id;
+        hitMsg.beamId = beam.id;
+        hitMsg.damage = Beam.DAMAGE;
+        hitMsg.health = player.health;
+        hitMsg.score = (shooter != null) ? shooter.score : 0;
+        client.sendMessage(hitMsg);
+        // A kill is the server's call: it respawns the player when an accepted hit empties its health
+    }
+    
+    /**
+     * Apply queued network messages in batches until the queue is empty or the
+     * per-frame budget is spent. Whatever is left is applied next frame.
+     */
+    private void processNetworkMessages() {
+        TuningConfig tuning = TuningConfig.current();
+        long start = System.nanoTime();
+        int applied = 0;
+        while (applied < tuning.netApplyMaxMessages) {
+            int batch = Math.min(tuning.netApplyBatch, tuning.netApplyMaxMessages - applied);
+            int drained = client.drainMessages(networkMessageHandler, batch);
+            applied += drained;
+            if (drained < batch || System.nanoTime() - start > tuning.netApplyBudgetNanos) {
+                break;
+            }
+        }
+        
+        debugStats.messagesApplied = applied;
+        debugStats.networkApplyNanos = System.nanoTime() - start;
+        debugStats.inboundBacklog = client.getInboundDepth();
+        debugStats.inboundHighWater = client.getInboundHighWaterMark();
+        debugStats.inboundCapacity = client.getInboundCapacity();
+        debugStats.outboundDropped = client.getDroppedOutboundCount();
+        debugStats.outboundCoalesced = client.getCoalescedMoveCount();
+        debugStats.roundTripMillis = client.getRoundTripMillis();
+        debugStats.jitterMillis = client.getJitterMillis();
+        debugStats.serverOffsetMillis = client.getServerTimeOffsetMillis();
+        if (debugStats.inboundBacklog > 0) {
+            debugStats.framesBehind++;
+        } else {
+            debugStats.framesBehind = 0;
+        }
+    }
+    
+    /**
+     * The connection dropped: get the session back without blocking the
+     * frame. If the server gave us a new player instead, start over with an
+     * empty world.
+     *
+     * @return false once reconnecting has failed
+     */
+    private boolean pollReconnect() {
+        if (!reconnecting) {
+            Log.info("Connection lost, reconnecting...");
+            client.startReconnect();
+            reconnecting = true;
+            return true;
+        }
+        switch (client.getConnectionState()) {
+            case RECONNECTING:
+                return true;
+            case CONNECTED:
+                reconnecting = false;
+                if (!client.isResumed()) {
+                    players.clear();
+                    beams.clear();
+                    localPlayerId = -1;
+                    localPlayer = null;
+                    localPlayerDead = false;
+                }
+                return true;
+            default:
+                Log.warn("✗ Could not reconnect to the server");
+                return false;
+        }
+    }
+    
+    private void applyNetworkMessage(GameMessage message) {
+        switch (message.type) {
+            case PLAYER_JOIN:
+                if (message.playerId == localPlayerId) {
+                    // Resumed session: the server kept our state; our position is newer than its copy
+                    localPlayer.health = message.health;
+                    localPlayer.score = message.score;
+                    localPlayerDead = message.health <= 0;
+                    positionDirty = true;
+                } else if (localPlayerId == -1) {
+                    localPlayerId = message.playerId;
+                    localPlayer = new Player(message.playerId, message.x, message.y, message.color);
+                    localPlayer.health = message.health;
+                    localPlayer.score = message.score;
+                    players.put(message.playerId, localPlayer);
+                } else {
+                    Player newPlayer = new Player(message.playerId, message.x, message.y, message.color);
+                    newPlayer.health = message.health;
+                    newPlayer.score = message.score;
+                    players.put(message.playerId, newPlayer);
+                }
+                break;
+            
+            case PLAYER_MOVE:
+                if (message.playerId != localPlayerId) {
+                    Player player = players.get(message.playerId);
+                    if (player != null) {
+                        player.move(message.x, message.y);
+                        // Don't update health from PLAYER_MOVE - only from PLAYER_HIT and PLAYER_RESPAWN
+                        // This prevents late-arriving PLAYER_MOVE messages from resetting health after respawn
+                    }
+                }
+                break;
+            
+            case PLAYER_LEAVE:
+                players.remove(message.playerId);
+                break;
+            
+            case ROSTER_DELTA:
+                applyRosterDelta(message);
+                break;
+            
+            case BEAM_FIRE:
+                if (message.playerId != localPlayerId) {
+                    Beam beam = new Beam(message.beamId, message.playerId, 
+                        message.x, message.y, message.vx, message.vy, message.color);
+                    beams.put(message.beamId, beam);
+                }
+                break;
+            
+            case PLAYER_HIT:
+                Player targetPlayer = players.get(message.targetPlayerId);
+                if (targetPlayer != null) {
+                    targetPlayer.health = message.health;
+                    if (message.targetPlayerId == localPlayerId) {
+                        localPlayerDead = message.health <= 0;
+                    }
+                    Log.debug("HIT: Player %d health now %d", message.targetPlayerId, targetPlayer.health);
+                } else {
+                    Log.debug("HIT: Target player %d not found!", message.targetPlayerId);
+                }
+                // Don't update score on HIT - will update on RESPAWN if death
+                break;
+            
+            case PLAYER_RESPAWN:
+                if (message.playerId == localPlayerId) {
+                    localPlayerDead = false;
+                }
+                Player respawnPlayer = players.get(message.playerId);
+                if (respawnPlayer != null) {
+                    Log.debug("RESPAWN HANDLER: P%d health before=%d isAlive=%b",
+                        message.playerId, respawnPlayer.health, respawnPlayer.isAlive());
+                    respawnPlayer.health = Player.MAX_HEALTH;
+                    Log.debug("RESPAWN HANDLER: P%d health after=%d isAlive=%b",
+                        message.playerId, respawnPlayer.health, respawnPlayer.isAlive());
+                } else {
+                    Log.debug("RESPAWN HANDLER: Player %d NOT FOUND in players map! (%d known)",
+                        message.playerId, players.size());
+                }
+                // Update killer's score
+                if (message.killerId > 0) {
+                    Player killer = players.get(message.killerId);
+                    if (killer != null) {
+                        killer.score = message.score;
+                        Log.debug("RESPAWN HANDLER: Killer %d score now %d", message.killerId, killer.score);
+                    }
+                }
+                break;
+            
+            case LEADERBOARD_UPDATE:
+                uiRenderer.setServerRanking(message.rankedIds, message.rankedScores, message.rank);
+                break;
+            
+            case STATE_UPDATE:
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Apply a batch of leaves, then joins. Players already known are kept as they are.
+     */
+    private void applyRosterDelta(GameMessage message) {
+        for (int id : message.leftIds) {
+            if (id != localPlayerId) {
+                players.remove(id);
+            }
+        }
+        for (int i = 0; i < message.joinedIds.length; i++) {
+            int id = message.joinedIds[i];
+            if (players.containsKey(id)) {
+                continue;
+            }
+            Player player = new Player(id, message.joinedX[i], message.joinedY[i], message.joinedColors[i]);
+            player.health = message.joinedHealth[i];
+            player.score = message.joinedScores[i];
+            players.put(id, player);
+        }
+    }
+    
+    private void render() {
+        updateCamera();
+        rebuildSpatialIndex();
+        drawCalls = 0;
+        
+        BeginDrawing();
+        ClearBackground(DARKGRAY);
+        
+        // World space: only entities inside the camera view are drawn
+        BeginMode2D(camera);
+        DrawRectangleLines(0, 0, worldWidth, worldHeight, LIGHTGRAY);
+        drawCalls++;
+        int beamsVisited = beamGrid.query(viewMinX, viewMinY, viewMaxX, viewMaxY, drawBeamVisitor);
+        int playersVisited = playerGrid.query(viewMinX, viewMinY, viewMaxX, viewMaxY, drawPlayerVisitor);
+        uiRenderer.updateAndDrawDamageNumbers();
+        EndMode2D();
+        
+        debugStats.entitiesTotal = beams.size() + players.size();
+        debugStats.entitiesVisited = beamsVisited + playersVisited;
+        debugStats.worldDrawCalls = drawCalls;
+        
+        // Screen space HUD
+        // Draw improved scoreboard
+        uiRenderer.drawScoreboard(players, localPlayerId, width, height);
+        
+        // Draw info panel
+        uiRenderer.drawInfoPanel(players.size());
+        
+        // Draw local player HUD
+        if (localPlayerId >= 0 && localPlayer != null) {
+            uiRenderer.drawPlayerHUD(localPlayer, localPlayerId, height);
+        }
+        
+        // Update and draw feedback effects
+        uiRenderer.updateAndDrawKillMessages(height);
+        
+        if (showDebugOverlay) {
+            uiRenderer.drawDebugOverlay(debugStats);
+        }
+        
+        if (reconnecting) {
+            uiRenderer.drawReconnecting(width, height);
+        }
+        
+        DrawFPS(width - 100, 10);
+        EndDrawing();
+    }
+    
+    /**
+     * Center the camera on the local player, keeping the view inside the world
+     */
+    private void updateCamera() {
+        float halfW = width / 2f;
+        float halfH = height / 2f;
+        float targetX = halfW;
+        float targetY = halfH;
+        if (localPlayer != null) {
+            targetX = localPlayer.x + Player.SIZE / 2f;
+            targetY = localPlayer.y + Player.SIZE / 2f;
+        }
+        targetX = worldWidth <= width ? worldWidth / 2f : Math.max(halfW, Math.min(targetX, worldWidth - halfW));
+        targetY = worldHeight <= height ? worldHeight / 2f : Math.max(halfH, Math.min(targetY, worldHeight - halfH));
+        
+        camera.offset(cameraOffset.x(halfW).y(halfH))
+            .target(cameraTarget.x(targetX).y(targetY))
+            .rotation(0)
+            .zoom(1);
+        
+        // Health bars and labels extend above and around the entity
+        viewMinX = targetX - halfW - 30;
+        viewMinY = targetY - halfH;
+        viewMaxX = targetX + halfW;
+        viewMaxY = targetY + halfH + 60;
+    }
+    
+    private void rebuildSpatialIndex() {
+        playerGrid.clear();
+        for (Player player : players.values()) {
+            playerGrid.insert(player, player.x, player.y);
+        }
+        beamGrid.clear();
+        for (Beam beam : beams.values()) {
+            if (beam.isActive()) {
+                beamGrid.insert(beam, beam.x, beam.y);
+            }
+        }
+    }
+    
+    private void drawBeam(Beam beam) {
+        Color rayColor = createColorFromInt(beam.color);
+        DrawRectangle(
+            (int) beam.x,
+            (int) beam.y,
+            Beam.WIDTH,
+            Beam.HEIGHT,
+            rayColor
+        );
+        drawCalls++;
+    }
+    
+    private void drawPlayer(Player player) {
+        Color rayColor = createColorFromInt(player.color);
+        DrawRectangle(
+            (int) player.x,
+            (int) player.y,
+            Player.SIZE,
+            Player.SIZE,
+            rayColor
+        );
+        
+        // Draw improved health bar
+        drawCalls += uiRenderer.drawHealthBar(player);
+        
+        // Draw player ID
+        DrawText(
+            uiRenderer.getTextCache().playerLabel(player.id),
+            (int) player.x + 5,
+            (int) player.y - 50,
+            12,
+            WHITE
+        );
+        drawCalls += 2;
+    }
+    
+    static Color createColorFromInt(int colorInt) {
+        switch (colorInt) {
+            case 0xFF0000FF: return RED;
+            case 0x00FF00FF: return GREEN;
+            case 0x0000FFFF: return BLUE;
+            case 0xFFFF00FF: return YELLOW;
+            case 0xFF00FFFF: return MAGENTA;
+            case 0xFF8800FF: return ORANGE;
+            default: return WHITE;
+        }
+    }
+    
+    public void close() {
+        client.disconnect();
+        if (simPool != null) {
+            simPool.shutdown();
+        }
+        uiRenderer.unload();
+        CloseWindow();
+    }
+}
@@ -0,0 +1,32 @@
+package com.kaiounet.ui;
+
+/**
+ * Per-frame counters shown by the debug overlay (toggle with F3)
+ */
+public class DebugStats {
+    // Network inbound queue
+    public int messagesApplied;
+    public long networkApplyNanos;
+    public int inboundBacklog;
+    public int inboundHighWater;
+    public int inboundCapacity;
+    public int framesBehind;
+    
+    // Network outbound queue
+    public long outboundDropped;
+    public long outboundCoalesced;
+    
+    // Connection timing
+    public double roundTripMillis;
+    public double jitterMillis;
+    public double serverOffsetMillis;
+    
+    // Heap bytes allocated by the game thread (update + render)
+    public long frameAllocatedBytes;
+    public long frameAllocatedPeak;
+    
+    // World rendering
+    public int worldDrawCalls;
+    public int entitiesVisited;
+    public int entitiesTotal;
+}
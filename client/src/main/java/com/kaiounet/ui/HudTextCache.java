@@ -0,0 +1,79 @@
+package com.kaiounet.ui;
+
+import com.kaiounet.game.Player;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Preformatted HUD strings and their measured widths.
+ *
+ * Health values are bounded by Player.MAX_HEALTH, so every health label is
+ * built once; widths are measured lazily on first use and then reused.
+ */
+public class HudTextCache {
+    public static final int HEALTH_BAR_FONT = 10;
+    public static final int HUD_HEALTH_FONT = 12;
+    
+    private final TextMeasurer measurer;
+    private final String[] healthBarText = new String[Player.MAX_HEALTH + 1];
+    private final String[] hudHealthText = new String[Player.MAX_HEALTH + 1];
+    private final int[] healthBarWidth = new int[Player.MAX_HEALTH + 1];
+    private final int[] hudHealthWidth = new int[Player.MAX_HEALTH + 1];
+    private final Map<Integer, String> playerLabels = new HashMap<>();
+    
+    public HudTextCache(TextMeasurer measurer) {
+        this.measurer = measurer;
+        for (int health = 0; health <= Player.MAX_HEALTH; health++) {
+            healthBarText[health] = health + "/" + Player.MAX_HEALTH;
+            hudHealthText[health] = health + " / " + Player.MAX_HEALTH;
+            healthBarWidth[health] = -1;
+            hudHealthWidth[health] = -1;
+        }
+    }
+    
+    /**
+     * Label drawn inside the small per-player health bar, e.g. "80/100"
+     */
+    public String healthBarText(int health) {
+        return healthBarText[clamp(health)];
+    }
+    
+    public int healthBarTextWidth(int health) {
+        int h = clamp(health);
+        if (healthBarWidth[h] < 0) {
+            healthBarWidth[h] = measurer.measure(healthBarText[h], HEALTH_BAR_FONT);
+        }
+        return healthBarWidth[h];
+    }
+    
+    /**
+     * Label drawn inside the local player's HUD health bar, e.g. "80 / 100"
+     */
+    public String hudHealthText(int health) {
+        return hudHealthText[clamp(health)];
+    }
+    
+    public int hudHealthTextWidth(int health) {
+        int h = clamp(health);
+        if (hudHealthWidth[h] < 0) {
+            hudHealthWidth[h] = measurer.measure(hudHealthText[h], HUD_HEALTH_FONT);
+        }
+        return hudHealthWidth[h];
+    }
+    
+    /**
+     * Player name tag, e.g. "P3"
+     */
+    public String playerLabel(int playerId) {
+        String label = playerLabels.get(playerId);
+        if (label == null) {
+            label = "P" + playerId;
+            playerLabels.put(playerId, label);
+        }
+        return label;
+    }
+    
+    private static int clamp(int health) {
+        return Math.max(0, Math.min(health, Player.MAX_HEALTH));
+    }
+}
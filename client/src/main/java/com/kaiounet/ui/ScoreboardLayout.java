@@ -0,0 +1,226 @@
+package com.kaiounet.ui;
+
+import com.kaiounet.game.Player;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retained scoreboard layout.
+ *
+ * Each frame {@link #update} compares the players' (id, score, health) with
+ * the last snapshot. Only when something changed are rows re-sorted and their
+ * strings rebuilt; otherwise the previous layout is reused as is. When the
+ * server provides a ranking, {@link #updateRanked} lays out its top K in the
+ * given order instead of sorting. Has no raylib dependency, so it can be
+ * exercised without a window.
+ */
+public class ScoreboardLayout {
+    public static final int ENTRY_HEIGHT = 28;
+    public static final int HEADER_HEIGHT = 40;
+    
+    private static final Comparator<Player> BY_SCORE =
+        (a, b) -> a.score != b.score ? Integer.compare(b.score, a.score) : Integer.compare(a.id, b.id);
+    
+    private final List<Player> sorted = new ArrayList<>();
+    private final List<Row> rows = new ArrayList<>();
+    private int rowCount = 0;
+    private int localPlayerId = -1;
+    private int localRank = -1;
+    private boolean ranked = false;
+    private int version = 0;
+    
+    // Snapshot of the inputs used for the current layout, in map iteration order
+    private int[] snapshotIds = new int[16];
+    private int[] snapshotScores = new int[16];
+    private int[] snapshotHealth = new int[16];
+    private int snapshotCount = -1;
+    
+    /**
+     * One laid-out scoreboard line
+     */
+    public static class Row {
+        public int slot;
+        public int playerId;
+        public int rank;
+        public int score;
+        public int health;
+        public boolean local;
+        public String rankText;
+        public String infoText;
+        
+        /** Vertical offset of this row from the first entry */
+        public int offsetY() {
+            return slot * ENTRY_HEIGHT;
+        }
+    }
+    
+    /**
+     * Bring the layout up to date.
+     *
+     * @return true if the layout changed since the previous call
+     */
+    public boolean update(Map<Integer, Player> players, int localPlayerId) {
+        if (!ranked && !isDirty(players, localPlayerId)) {
+            return false;
+        }
+        takeSnapshot(players);
+        this.ranked = false;
+        this.localPlayerId = localPlayerId;
+        relayout(players);
+        version++;
+        return true;
+    }
+    
+    /**
+     * Lay out a server-provided ranking: the top entries in the given order,
+     * followed by the local player's own row if it is not among them.
+     *
+     * @return true if the layout changed since the previous call
+     */
+    public boolean updateRanked(int[] topIds, int[] topScores, int localRank,
+                                Map<Integer, Player> players, int localPlayerId) {
+        int count = topIds.length;
+        boolean dirty = !ranked || snapshotCount != count || this.localPlayerId != localPlayerId
+            || this.localRank != localRank;
+        for (int i = 0; i < count && !dirty; i++) {
+            dirty = snapshotIds[i] != topIds[i] || snapshotScores[i] != topScores[i]
+                || snapshotHealth[i] != healthOf(players, topIds[i]);
+        }
+        Player local = players.get(localPlayerId);
+        if (!dirty && local != null) {
+            dirty = rows.size() > count && rowCount > count
+                && (rows.get(count).health != local.health || rows.get(count).score != local.score);
+        }
+        if (!dirty) {
+            return false;
+        }
+        
+        ensureSnapshotCapacity(count);
+        boolean localListed = false;
+        for (int i = 0; i < count; i++) {
+            snapshotIds[i] = topIds[i];
+            snapshotScores[i] = topScores[i];
+            snapshotHealth[i] = healthOf(players, topIds[i]);
+            localListed |= topIds[i] == localPlayerId;
+        }
+        snapshotCount = count;
+        this.ranked = true;
+        this.localPlayerId = localPlayerId;
+        this.localRank = localRank;
+        
+        rowCount = 0;
+        for (int i = 0; i < count; i++) {
+            setRow(rowCount++, topIds[i], i + 1, topScores[i], snapshotHealth[i]);
+        }
+        if (!localListed && local != null && localRank > 0) {
+            setRow(rowCount++, localPlayerId, localRank, local.score, local.health);
+        }
+        version++;
+        return true;
+    }
+    
+    private static int healthOf(Map<Integer, Player> players, int playerId) {
+        Player player = players.get(playerId);
+        return player != null ? player.health : 0;
+    }
+    
+    private boolean isDirty(Map<Integer, Player> players, int localPlayerId) {
+        if (snapshotCount != players.size() || this.localPlayerId != localPlayerId) {
+            return true;
+        }
+        int i = 0;
+        for (Player player : players.values()) {
+            if (snapshotIds[i] != player.id || snapshotScores[i] != player.score
+                    || snapshotHealth[i] != player.health) {
+                return true;
+            }
+            i++;
+        }
+        return false;
+    }
+    
+    private void ensureSnapshotCapacity(int count) {
+        if (snapshotIds.length < count) {
+            int capacity = Math.max(count, snapshotIds.length * 2);
+            snapshotIds = new int[capacity];
+            snapshotScores = new int[capacity];
+            snapshotHealth = new int[capacity];
+        }
+    }
+    
+    private void takeSnapshot(Map<Integer, Player> players) {
+        int count = players.size();
+        ensureSnapshotCapacity(count);
+        int i = 0;
+        for (Player player : players.values()) {
+            snapshotIds[i] = player.id;
+            snapshotScores[i] = player.score;
+            snapshotHealth[i] = player.health;
+            i++;
+        }
+        snapshotCount = count;
+    }
+    
+    private void relayout(Map<Integer, Player> players) {
+        sorted.clear();
+        sorted.addAll(players.values());
+        sorted.sort(BY_SCORE);
+        
+        rowCount = sorted.size();
+        for (int i = 0; i < rowCount; i++) {
+            Player player = sorted.get(i);
+            setRow(i, player.id, i + 1, player.score, player.health);
+        }
+        sorted.clear();
+    }
+    
+    private void setRow(int slot, int playerId, int rank, int score, int health) {
+        while (rows.size() <= slot) {
+            rows.add(new Row());
+        }
+        Row row = rows.get(slot);
+        
+        // Rebuild strings only for rows whose content actually moved
+        if (row.infoText == null || row.playerId != playerId || row.score != score
+                || row.health != health) {
+            row.infoText = String.format("P%-2d | HP:%3d | %d kills", playerId, health, score);
+        }
+        if (row.rankText == null || row.rank != rank) {
+            row.rankText = rank + ".";
+        }
+        row.slot = slot;
+        row.playerId = playerId;
+        row.rank = rank;
+        row.score = score;
+        row.health = health;
+        row.local = playerId == localPlayerId;
+    }
+    
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    public Row getRow(int index) {
+        if (index < 0 || index >= rowCount) {
+            throw new IndexOutOfBoundsException("row " + index + " of " + rowCount);
+        }
+        return rows.get(index);
+    }
+    
+    /**
+     * Height of the entry area (header plus rows)
+     */
+    public int getBoardHeight() {
+        return HEADER_HEIGHT + rowCount * ENTRY_HEIGHT;
+    }
+    
+    /**
+     * Incremented every time the layout is rebuilt; renderers compare it to
+     * decide whether a cached panel is stale
+     */
+    public int getVersion() {
+        return version;
+    }
+}
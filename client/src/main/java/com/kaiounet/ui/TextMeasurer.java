@@ -0,0 +1,12 @@
+package com.kaiounet.ui;
+
+/**
+ * Measures rendered text width in pixels.
+ *
+ * At runtime this is raylib's MeasureText; layout code only depends on this
+ * interface so it can run without a window.
+ */
+@FunctionalInterface
+public interface TextMeasurer {
+    int measure(String text, int fontSize);
+}
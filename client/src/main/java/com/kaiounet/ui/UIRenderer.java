@@ -16,10 +16,61 @@ public class UIRenderer {
     private static final int MAX_DAMAGE_NUMBERS = 100;
     private static final int MAX_KILL_MESSAGES = 50;
     
+    // Retained HUD state: strings, widths and scoreboard layout are rebuilt only when dirty
+    private final HudTextCache textCache;
+    private final ScoreboardLayout scoreboardLayout = new ScoreboardLayout();
+    private String hudIdText;
+    private int hudIdPlayer = -1;
+    
+    // Server-provided ranking (top K + own rank); null until the first update arrives
+    private int[] rankedIds;
+    private int[] rankedScores;
+    private int localRank = -1;
+    
+    // Optional offscreen copy of the scoreboard panel, redrawn only when the layout changes
+    private boolean scoreboardTextureEnabled = false;
+    private RenderTexture scoreboardTexture;
+    private int scoreboardTextureWidth;
+    private int scoreboardTextureHeight;
+    private int scoreboardTextureVersion = -1;
+    
+    public UIRenderer() {
+        this.textCache = new HudTextCache((text, fontSize) -> MeasureText(text, fontSize));
+    }
+    
+    public HudTextCache getTextCache() {
+        return textCache;
+    }
+    
+    /**
+     * Use the server's ranking instead of sorting all known players locally.
+     * Null arrays keep the previously received top K.
+     */
+    public void setServerRanking(int[] topIds, int[] topScores, int localRank) {
+        if (topIds != null && topScores != null) {
+            this.rankedIds = topIds;
+            this.rankedScores = topScores;
+        }
+        this.localRank = localRank;
+    }
+    
+    /**
+     * Render the scoreboard panel once into a texture and blit it until the
+     * layout changes. Off by default.
+     */
+    public void setScoreboardTextureEnabled(boolean enabled) {
+        this.scoreboardTextureEnabled = enabled;
+        if (!enabled) {
+            releaseScoreboardTexture();
+        }
+    }
+    
     /**
      * Draw improved health bar for a player
+     *
+     * @return number of draw calls issued
      */
-    public void drawHealthBar(Player player) {
+    public int drawHealthBar(Player player) {
         float barWidth = 50;
         float barHeight = 8;
         float x = player.x - barWidth / 2;
@@ -42,13 +93,14 @@ public class UIRenderer {
         DrawRectangleLines((int) x, (int) y, (int) barWidth, (int) barHeight, WHITE);
         
         // Health text (inside bar)
-        String healthText = (int) player.health + "/" + Player.MAX_HEALTH;
-        int textWidth = MeasureText(healthText, 10);
+        String healthText = textCache.healthBarText(player.health);
+        int textWidth = textCache.healthBarTextWidth(player.health);
         DrawText(healthText, 
             (int) (x + barWidth / 2 - textWidth / 2), 
             (int) y - 1, 
-            10, 
+            HudTextCache.HEALTH_BAR_FONT, 
             WHITE);
+        return 5;
     }
     
     /**
@@ -58,14 +110,52 @@ public class UIRenderer {
                                int screenWidth, int screenHeight) {
         int scoreboardX = screenWidth - 280;
         int scoreboardY = 50;
-        int entryHeight = 28;
         int padding = 15;
         
-        // Sort players by score (descending)
-        List<Player> sortedPlayers = new ArrayList<>(players.values());
-        sortedPlayers.sort((a, b) -> Integer.compare(b.score, a.score));
+        // Re-sorts and rebuilds row strings only if scores, health or membership changed
+        if (rankedIds != null) {
+            scoreboardLayout.updateRanked(rankedIds, rankedScores, localRank, players, localPlayerId);
+        } else {
+            scoreboardLayout.update(players, localPlayerId);
+        }
+        
+        if (!scoreboardTextureEnabled) {
+            drawScoreboardPanel(scoreboardX, scoreboardY);
+            return;
+        }
+        
+        int panelWidth = 250 + padding * 2;
+        int panelHeight = scoreboardLayout.getBoardHeight() + 20;
+        if (scoreboardTexture == null || panelWidth > scoreboardTextureWidth
+                || panelHeight > scoreboardTextureHeight) {
+            releaseScoreboardTexture();
+            scoreboardTextureWidth = panelWidth;
+            // Leave headroom for a few more rows before reallocating
+            scoreboardTextureHeight = panelHeight + 4 * ScoreboardLayout.ENTRY_HEIGHT;
+            scoreboardTexture = LoadRenderTexture(scoreboardTextureWidth, scoreboardTextureHeight);
+        }
         
-        int boardHeight = 40 + sortedPlayers.size() * entryHeight;
+        if (scoreboardTextureVersion != scoreboardLayout.getVersion()) {
+            BeginTextureMode(scoreboardTexture);
+            ClearBackground(BLANK);
+            // Panel origin maps to the texture's top-left corner
+            drawScoreboardPanel(padding, 30);
+            EndTextureMode();
+            scoreboardTextureVersion = scoreboardLayout.getVersion();
+        }
+        
+        // Render textures are stored upside down, so flip the source rectangle
+        Rectangle source = new Rectangle()
+            .x(0).y(scoreboardTextureHeight - panelHeight)
+            .width(panelWidth).height(-panelHeight);
+        Vector2 position = new Vector2().x(scoreboardX - padding).y(scoreboardY - 30);
+        DrawTextureRec(scoreboardTexture.texture(), source, position, WHITE);
+    }
+    
+    private void drawScoreboardPanel(int scoreboardX, int scoreboardY) {
+        int entryHeight = ScoreboardLayout.ENTRY_HEIGHT;
+        int padding = 15;
+        int boardHeight = scoreboardLayout.getBoardHeight();
         
         // Background with border
         DrawRectangle(scoreboardX - padding, scoreboardY - 30, 250 + padding * 2, boardHeight + 20,
@@ -78,27 +168,38 @@ public class UIRenderer {
         DrawLine(scoreboardX - padding + 5, scoreboardY - 5, scoreboardX + 250, scoreboardY - 5, YELLOW);
         
         // Draw entries
-        int rank = 1;
-        for (Player player : sortedPlayers) {
-            int yPos = scoreboardY + (rank - 1) * entryHeight;
+        for (int i = 0; i < scoreboardLayout.getRowCount(); i++) {
+            ScoreboardLayout.Row row = scoreboardLayout.getRow(i);
+            int yPos = scoreboardY + row.offsetY();
             
             // Highlight local player
-            if (player.id == localPlayerId) {
+            if (row.local) {
                 DrawRectangle(scoreboardX - padding + 5, yPos - 2, 240, entryHeight - 2,
                     Fade(YELLOW, 0.2f));
             }
             
             // Rank number
-            DrawText(String.valueOf(rank) + ".", scoreboardX, yPos, 14, WHITE);
+            DrawText(row.rankText, scoreboardX, yPos, 14, WHITE);
             
             // Player info: ID, Health, Kills
-            String playerInfo = String.format("P%-2d | HP:%3d | %d kills",
-                player.id, (int)player.health, player.score);
-            Color textColor = (player.id == localPlayerId) ? YELLOW : WHITE;
-            DrawText(playerInfo, scoreboardX + 25, yPos, 14, textColor);
-            
-            rank++;
+            Color textColor = row.local ? YELLOW : WHITE;
+            DrawText(row.infoText, scoreboardX + 25, yPos, 14, textColor);
+        }
+    }
+    
+    private void releaseScoreboardTexture() {
+        if (scoreboardTexture != null) {
+            UnloadRenderTexture(scoreboardTexture);
+            scoreboardTexture = null;
         }
+        scoreboardTextureVersion = -1;
+    }
+    
+    /**
+     * Free GPU resources owned by the renderer (call before CloseWindow)
+     */
+    public void unload() {
+        releaseScoreboardTexture();
     }
     
     /**
@@ -120,7 +221,11 @@ public class UIRenderer {
         DrawLine(hudX, hudY + 18, hudX + 150, hudY + 18, SKYBLUE);
         
         // Player ID
-        DrawText("ID: P" + localPlayerId, hudX + 10, hudY + 25, 13, WHITE);
+        if (hudIdText == null || hudIdPlayer != localPlayerId) {
+            hudIdText = "ID: " + textCache.playerLabel(localPlayerId);
+            hudIdPlayer = localPlayerId;
+        }
+        DrawText(hudIdText, hudX + 10, hudY + 25, 13, WHITE);
         
         // Health section
         DrawText("Health:", hudX + 10, hudY + 45, 13, WHITE);
@@ -144,9 +249,10 @@ public class UIRenderer {
         DrawRectangleLines(healthBarX, healthBarY, healthBarWidth, healthBarHeight, WHITE);
         
         // Health text
-        String healthText = String.format("%d / %d", (int)localPlayer.health, Player.MAX_HEALTH);
-        int textWidth = MeasureText(healthText, 12);
-        DrawText(healthText, healthBarX + healthBarWidth / 2 - textWidth / 2, healthBarY + 2, 12, WHITE);
+        String healthText = textCache.hudHealthText(localPlayer.health);
+        int textWidth = textCache.hudHealthTextWidth(localPlayer.health);
+        DrawText(healthText, healthBarX + healthBarWidth / 2 - textWidth / 2, healthBarY + 2, 
+            HudTextCache.HUD_HEALTH_FONT, WHITE);
     }
     
     /**
@@ -174,6 +280,55 @@ public class UIRenderer {
             infoX + 10, infoY + 45, 12, YELLOW);
     }
     
+    /**
+     * Draw the connection-lost notice (screen center)
+     */
+    public void drawReconnecting(int screenWidth, int screenHeight) {
+        String text = "Connection lost - reconnecting...";
+        int fontSize = 24;
+        int textWidth = MeasureText(text, fontSize);
+        int x = (screenWidth - textWidth) / 2;
+        int y = screenHeight / 2 - fontSize;
+        DrawRectangle(x - 15, y - 10, textWidth + 30, fontSize + 20, Fade(BLACK, 0.7f));
+        DrawText(text, x, y, fontSize, YELLOW);
+    }
+    
+    /**
+     * Draw debug overlay (below the info panel)
+     */
+    public void drawDebugOverlay(DebugStats stats) {
+        int x = 15;
+        int y = 95;
+        int panelWidth = 380;
+        int panelHeight = 139;
+        
+        DrawRectangle(x - 5, y - 5, panelWidth, panelHeight, Fade(BLACK, 0.7f));
+        DrawRectangleLines(x - 5, y - 5, panelWidth, panelHeight, ORANGE);
+        DrawText("DEBUG (F3)", x, y, 14, ORANGE);
+        
+        DrawText(String.format("Net applied: %d msgs in %.2f ms", 
+                stats.messagesApplied, stats.networkApplyNanos / 1_000_000.0),
+            x + 10, y + 22, 12, WHITE);
+        
+        // Backlog turns red while the client is falling behind the server
+        Color backlogColor = stats.framesBehind > 1 ? RED : WHITE;
+        DrawText(String.format("Net backlog: %d / %d (peak %d, behind %d frames)",
+                stats.inboundBacklog, stats.inboundCapacity, stats.inboundHighWater, stats.framesBehind),
+            x + 10, y + 40, 12, backlogColor);
+        DrawText(String.format("Outbound rejected: %d, moves coalesced: %d",
+                stats.outboundDropped, stats.outboundCoalesced),
+            x + 10, y + 58, 12, WHITE);
+        DrawText(String.format("World: %d draw calls, %d / %d entities in view",
+                stats.worldDrawCalls, stats.entitiesVisited, stats.entitiesTotal),
+            x + 10, y + 76, 12, WHITE);
+        DrawText(String.format("RTT: %.1f ms (jitter %.1f), server clock %+.1f ms",
+                stats.roundTripMillis, stats.jitterMillis, stats.serverOffsetMillis),
+            x + 10, y + 94, 12, WHITE);
+        DrawText(String.format("Alloc: %d B/frame (peak %d B)",
+                stats.frameAllocatedBytes, stats.frameAllocatedPeak),
+            x + 10, y + 112, 12, WHITE);
+    }
+    
     /**
      * Add a damage number popup
      */
@@ -0,0 +1,38 @@
+package com.kaiounet.ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kaiounet.game.Player;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class HudTextCacheTest {
+    // Fake measurer: 6 px per character, counting how often each string is measured
+    private final Map<String, Integer> measured = new HashMap<>();
+    private final HudTextCache cache = new HudTextCache((text, fontSize) -> {
+        measured.merge(text, 1, Integer::sum);
+        return text.length() * 6;
+    });
+    
+    @Test
+    void measuresEachLabelOnce() {
+        for (int frame = 0; frame < 100; frame++) {
+            assertEquals(6 * "80/100".length(), cache.healthBarTextWidth(80));
+            assertEquals(6 * "80 / 100".length(), cache.hudHealthTextWidth(80));
+        }
+        assertEquals(Map.of("80/100", 1, "80 / 100", 1), measured);
+        
+        cache.healthBarTextWidth(79);
+        assertEquals(1, measured.get("79/100"));
+    }
+    
+    @Test
+    void clampsHealthAndReusesStrings() {
+        assertEquals("0/" + Player.MAX_HEALTH, cache.healthBarText(-5));
+        assertEquals(Player.MAX_HEALTH + " / " + Player.MAX_HEALTH, cache.hudHealthText(500));
+        assertSame(cache.healthBarText(50), cache.healthBarText(50));
+        assertSame(cache.playerLabel(3), cache.playerLabel(3));
+        assertEquals("P3", cache.playerLabel(3));
+    }
+}
@@ -0,0 +1,110 @@
+package com.kaiounet.ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kaiounet.game.Player;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ScoreboardLayoutTest {
+    private final ScoreboardLayout layout = new ScoreboardLayout();
+    private final Map<Integer, Player> players = new LinkedHashMap<>();
+    
+    @BeforeEach
+    void addPlayers() {
+        for (int id = 1; id <= 3; id++) {
+            players.put(id, new Player(id, 100 * id, 100, Player.paletteColor(id)));
+        }
+    }
+    
+    @Test
+    void sortsByScoreThenId() {
+        players.get(2).score = 5;
+        players.get(3).score = 5;
+        assertTrue(layout.update(players, 1));
+        
+        assertEquals(3, layout.getRowCount());
+        assertEquals(2, layout.getRow(0).playerId);
+        assertEquals(3, layout.getRow(1).playerId);
+        assertEquals(1, layout.getRow(2).playerId);
+        assertEquals("3.", layout.getRow(2).rankText);
+        assertTrue(layout.getRow(2).local);
+    }
+    
+    @Test
+    void unchangedScoresAndHealthKeepTheLayout() {
+        layout.update(players, 1);
+        int version = layout.getVersion();
+        String text = layout.getRow(0).infoText;
+        
+        // Movement alone is not shown on the scoreboard
+        for (Player player : players.values()) {
+            player.x += 50;
+            player.y -= 20;
+        }
+        assertFalse(layout.update(players, 1));
+        assertFalse(layout.update(players, 1));
+        assertEquals(version, layout.getVersion());
+        assertSame(text, layout.getRow(0).infoText);
+    }
+    
+    @Test
+    void scoreHealthAndMembershipChangesRelayout() {
+        layout.update(players, 1);
+        int version = layout.getVersion();
+        
+        players.get(3).score++;
+        assertTrue(layout.update(players, 1));
+        assertEquals(3, layout.getRow(0).playerId);
+        assertEquals(++version, layout.getVersion());
+        
+        players.get(2).health -= 10;
+        assertTrue(layout.update(players, 1));
+        assertEquals(++version, layout.getVersion());
+        
+        players.put(4, new Player(4, 0, 0, Player.paletteColor(4)));
+        assertTrue(layout.update(players, 1));
+        assertEquals(4, layout.getRowCount());
+        assertEquals(++version, layout.getVersion());
+        
+        players.remove(1);
+        assertTrue(layout.update(players, 1));
+        assertEquals(3, layout.getRowCount());
+        assertEquals(++version, layout.getVersion());
+        
+        assertFalse(layout.update(players, 1));
+        assertEquals(version, layout.getVersion());
+    }
+    
+    @Test
+    void onlyChangedRowsRebuildTheirText() {
+        layout.update(players, 1);
+        String first = layout.getRow(0).infoText;
+        String last = layout.getRow(2).infoText;
+        
+        players.get(3).health -= 10; // Player 3 keeps the last slot
+        assertTrue(layout.update(players, 1));
+        assertSame(first, layout.getRow(0).infoText);
+        assertNotSame(last, layout.getRow(2).infoText);
+        assertTrue(layout.getRow(2).infoText.contains("HP: 90"));
+    }
+    
+    @Test
+    void rankedLayoutAppendsTheLocalPlayerOnlyOnChange() {
+        players.get(1).score = 1;
+        assertTrue(layout.updateRanked(new int[] {3, 2}, new int[] {9, 7}, 5, players, 1));
+        assertEquals(3, layout.getRowCount());
+        assertEquals(5, layout.getRow(2).rank);
+        assertTrue(layout.getRow(2).local);
+        int version = layout.getVersion();
+        
+        assertFalse(layout.updateRanked(new int[] {3, 2}, new int[] {9, 7}, 5, players, 1));
+        assertEquals(version, layout.getVersion());
+        
+        players.get(1).health = 40;
+        assertTrue(layout.updateRanked(new int[] {3, 2}, new int[] {9, 7}, 5, players, 1));
+        assertEquals(40, layout.getRow(2).health);
+    }
+}
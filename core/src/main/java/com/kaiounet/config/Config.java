@@ -0,0 +1,233 @@
+package com.kaiounet.config;
+
+import com.kaiounet.utils.Log;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class Config {
+    // Replaced as a whole on reload, never mutated after publication
+    private static volatile Map<String, String> config = Collections.emptyMap();
+    private static final String DEFAULT_ENV_PATH = ".env";
+    private static boolean loaded = false;
+    
+    // Configuration keys
+    public static final String SERVER_HOST = "SERVER_HOST";
+    public static final String SERVER_PORT = "SERVER_PORT";
+    public static final String RELAY_PORT = "RELAY_PORT";
+    public static final String RELAY_DELAY_MS = "RELAY_DELAY_MS";
+    public static final String RELAY_MAX_DELAYED_FRAMES = "RELAY_MAX_DELAYED_FRAMES";
+    
+    // Default values
+    private static final String DEFAULT_SERVER_HOST = "0.0.0.0";
+    private static final int DEFAULT_SERVER_PORT = 5555;
+    private static final int DEFAULT_RELAY_PORT = 5556;
+    private static final int DEFAULT_RELAY_MAX_DELAYED_FRAMES = 65_536;
+    
+    /**
+     * Load configuration from .env file
+     */
+    public static void load() {
+        load(DEFAULT_ENV_PATH);
+    }
+    
+    /**
+     * Load configuration from specified .env file
+     */
+    public static synchronized void load(String envPath) {
+        if (loaded) {
+            return; // Already loaded
+        }
+        
+        File envFile = new File(envPath);
+        
+        if (!envFile.exists()) {
+            // Create default .env file if it doesn't exist
+            createDefaultEnv(envPath);
+            loadDefaults();
+        } else {
+            // Load from existing .env file
+            try {
+                config = parse(envFile);
+                // Log reads LOG_LEVEL on first use, so only log once the values are published
+                Log.info("✓ Loaded configuration from: %s", envFile.getAbsolutePath());
+            } catch (IOException e) {
+                loadDefaults();
+                Log.error("✗ Error reading .env file: %s", e.getMessage());
+            }
+        }
+        TuningConfig.reloadFromConfig();
+        
+        loaded = true;
+    }
+    
+    /**
+     * Re-read the .env file, replacing all values at once. Unlike {@link #load},
+     * this always reads the file. On error the previous values stay active.
+     *
+     * @return true if the file was read
+     */
+    public static synchronized boolean reload(String envPath) {
+        try {
+            config = parse(new File(envPath));
+            loaded = true;
+            return true;
+        } catch (IOException e) {
+            Log.warn("✗ Error reloading .env file: %s", e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Immutable view of all loaded key/value pairs
+     */
+    public static Map<String, String> snapshot() {
+        return config;
+    }
+    
+    private static Map<String, String> parse(File envFile) throws IOException {
+        Map<String, String> values = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(envFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Skip comments and empty lines
+                if (line.trim().isEmpty() || line.trim().startsWith("#")) {
+                    continue;
+                }
+                
+                // Parse key=value
+                String[] parts = line.split("=", 2);
+                if (parts.length == 2) {
+                    String key = parts[0].trim();
+                    String value = parts[1].trim();
+                    // Remove quotes if present
+                    if ((value.startsWith("\"") && value.endsWith("\"")) ||
+                        (value.startsWith("'") && value.endsWith("'"))) {
+                        value = value.substring(1, value.length() - 1);
+                    }
+                    values.put(key, value);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(values);
+    }
+    
+    /**
+     * Get server host
+     */
+    public static String getServerHost() {
+        return config.getOrDefault(SERVER_HOST, DEFAULT_SERVER_HOST);
+    }
+    
+    /**
+     * Get server port
+     */
+    public static int getServerPort() {
+        try {
+            return Integer.parseInt(config.getOrDefault(SERVER_PORT, String.valueOf(DEFAULT_SERVER_PORT)));
+        } catch (NumberFormatException e) {
+            return DEFAULT_SERVER_PORT;
+        }
+    }
+    
+    /**
+     * Get the port the spectator relay listens on
+     */
+    public static int getRelayPort() {
+        try {
+            return Integer.parseInt(config.getOrDefault(RELAY_PORT, String.valueOf(DEFAULT_RELAY_PORT)));
+        } catch (NumberFormatException e) {
+            return DEFAULT_RELAY_PORT;
+        }
+    }
+    
+    /**
+     * Get how long the spectator relay holds frames back (0 = live)
+     */
+    public static long getRelayDelayMs() {
+        try {
+            return Math.max(0, Long.parseLong(config.getOrDefault(RELAY_DELAY_MS, "0")));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    /**
+     * Get how many frames the spectator relay may hold back at once
+     */
+    public static int getRelayMaxDelayedFrames() {
+        try {
+            return Math.max(1, Integer.parseInt(config.getOrDefault(RELAY_MAX_DELAYED_FRAMES,
+                String.valueOf(DEFAULT_RELAY_MAX_DELAYED_FRAMES))));
+        } catch (NumberFormatException e) {
+            return DEFAULT_RELAY_MAX_DELAYED_FRAMES;
+        }
+    }
+    
+    /**
+     * Load default configuration values
+     */
+    private static void loadDefaults() {
+        Map<String, String> values = new HashMap<>();
+        values.put(SERVER_HOST, DEFAULT_SERVER_HOST);
+        values.put(SERVER_PORT, String.valueOf(DEFAULT_SERVER_PORT));
+        config = Collections.unmodifiableMap(values);
+    }
+    
+    /**
+     * Create default .env file if it doesn't exist
+     */
+    private static void createDefaultEnv(String envPath) {
+        try {
+            StringBuilder content = new StringBuilder();
+            content.append("# Multiplayer Shooting Game - Server Configuration\n");
+            content.append("# ================================================\n\n");
+            content.append("# SERVER CONFIGURATION\n");
+            content.append("# Bind address: 0.0.0.0 (all interfaces) or specific IP\n");
+            content.append("SERVER_HOST=0.0.0.0\n");
+            content.append("# Server port (1024-65535)\n");
+            content.append("SERVER_PORT=5555\n\n");
+            content.append("# NOTE: Client will prompt user to enter server address when starting\n");
+            content.append("#       No client configuration needed here\n\n");
+            content.append("# EXAMPLES:\n");
+            content.append("# --------\n");
+            content.append("# Local testing (accept connections from anywhere):\n");
+            content.append("#   SERVER_HOST=0.0.0.0\n");
+            content.append("#   SERVER_PORT=5555\n\n");
+            content.append("# Network play (bind to specific IP):\n");
+            content.append("#   SERVER_HOST=192.168.1.100\n");
+            content.append("#   SERVER_PORT=5555\n\n");
+            content.append("# Custom port for multiple servers:\n");
+            content.append("#   SERVER_HOST=0.0.0.0\n");
+            content.append("#   SERVER_PORT=9999\n\n");
+            content.append("# Localhost only (no network access):\n");
+            content.append("#   SERVER_HOST=127.0.0.1\n");
+            content.append("#   SERVER_PORT=5555\n");
+            
+            Files.write(Paths.get(envPath), content.toString().getBytes());
+            loadDefaults();
+            Log.info("✓ Created default .env file at: %s", new File(envPath).getAbsolutePath());
+        } catch (IOException e) {
+            loadDefaults();
+            Log.error("✗ Error creating .env file: %s", e.getMessage());
+        }
+    }
+    
+    /**
+     * Print current configuration (for debugging)
+     */
+    public static void printConfig() {
+        Log.info("%n╔════════════════════════════════════════╗%n"
+            + "║       SERVER CONFIGURATION             ║%n"
+            + "╠════════════════════════════════════════╣%n"
+            + "║ Server Host:    %-21s ║%n"
+            + "║ Server Port:    %-21d ║%n"
+            + "╚════════════════════════════════════════╝%n", getServerHost(), getServerPort());
+    }
+}
@@ -0,0 +1,95 @@
+package com.kaiounet.config;
+
+import com.kaiounet.utils.Log;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the .env file and hot-reloads tuning values when it changes.
+ *
+ * Runs on a single daemon thread using the platform WatchService. Editors
+ * often write a file in several steps, so events are debounced before the
+ * file is re-read and the new {@link TuningConfig} is published.
+ */
+public class ConfigWatcher implements Runnable {
+    private static final long DEBOUNCE_MS = 200;
+    
+    private final Path envFile;
+    private final WatchService watchService;
+    private volatile boolean running = true;
+    private Thread thread;
+    
+    private ConfigWatcher(Path envFile) throws IOException {
+        this.envFile = envFile.toAbsolutePath().normalize();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Path directory = this.envFile.getParent();
+        directory.register(watchService,
+            StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_CREATE);
+    }
+    
+    /**
+     * Start watching the given .env file on a background thread
+     */
+    public static ConfigWatcher start(String envPath) throws IOException {
+        ConfigWatcher watcher = new ConfigWatcher(Paths.get(envPath));
+        watcher.thread = new Thread(watcher, "config-watcher");
+        watcher.thread.setDaemon(true);
+        watcher.thread.start();
+        return watcher;
+    }
+    
+    @Override
+    public void run() {
+        Path fileName = envFile.getFileName();
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            }
+            
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() != StandardWatchEventKinds.OVERFLOW
+                        && fileName.equals(event.context())) {
+                    changed = true;
+                }
+            }
+            key.reset();
+            
+            if (changed) {
+                drainPendingEvents();
+                if (Config.reload(envFile.toString()) && TuningConfig.reloadFromConfig()) {
+                    Log.info("✓ Reloaded tuning configuration: %s", TuningConfig.current());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Swallow the burst of events a single save usually produces
+     */
+    private void drainPendingEvents() {
+        try {
+            WatchKey key;
+            while ((key = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                key.pollEvents();
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public void stop() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            Log.error("Error closing config watcher", e);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.kaiounet.config;
+
+import com.kaiounet.utils.Log;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed, validated performance tuning values.
+ *
+ * Instances are immutable. The active instance is published through a single
+ * volatile reference, so hot paths read {@link #current()} once and see a
+ * consistent set of values even while a reload swaps in a new one. Values
+ * marked "new connections only" are read when a connection is created.
+ */
+public final class TuningConfig {
+    // .env keys
+    public static final String SEND_RATE = "SEND_RATE";
+    public static final String FIRE_COOLDOWN_MS = "FIRE_COOLDOWN_MS";
+    public static final String MOVE_SPEED = "MOVE_SPEED";
+    public static final String NET_APPLY_BUDGET_MS = "NET_APPLY_BUDGET_MS";
+    public static final String NET_APPLY_MAX_MESSAGES = "NET_APPLY_MAX_MESSAGES";
+    public static final String NET_APPLY_BATCH = "NET_APPLY_BATCH";
+    public static final String INBOUND_QUEUE_CAPACITY = "INBOUND_QUEUE_CAPACITY";
+    public static final String OUTBOUND_QUEUE_CAPACITY = "OUTBOUND_QUEUE_CAPACITY";
+    public static final String WRITE_BATCH_SIZE = "WRITE_BATCH_SIZE";
+    public static final String LEADERBOARD_TOP_K = "LEADERBOARD_TOP_K";
+    public static final String WORLD_WIDTH = "WORLD_WIDTH";
+    public static final String WORLD_HEIGHT = "WORLD_HEIGHT";
+    public static final String COMPRESSION_ENABLED = "COMPRESSION_ENABLED";
+    public static final String COMPRESSION_LEVEL = "COMPRESSION_LEVEL";
+    public static final String COMPRESSION_MIN_BYTES = "COMPRESSION_MIN_BYTES";
+    public static final String PING_INTERVAL_MS = "PING_INTERVAL_MS";
+    public static final String OUTBOX_CAPACITY = "OUTBOX_CAPACITY";
+    public static final String OUTBOX_MAX_AGE_MS = "OUTBOX_MAX_AGE_MS";
+    public static final String TICK_RATE = "TICK_RATE";
+    public static final String CLIENT_BYTES_PER_SECOND = "CLIENT_BYTES_PER_SECOND";
+    public static final String SIM_RATE = "SIM_RATE";
+    public static final String SIM_THREADS = "SIM_THREADS";
+    public static final String SERVER_MAX_PLAYERS = "SERVER_MAX_PLAYERS";
+    public static final String ALLOC_REPORT_SECONDS = "ALLOC_REPORT_SECONDS";
+    public static final String SESSION_GRACE_MS = "SESSION_GRACE_MS";
+    public static final String RESPAWN_DELAY_MS = "RESPAWN_DELAY_MS";
+    public static final String BEAM_LIFETIME_MS = "BEAM_LIFETIME_MS";
+    public static final String IDLE_TIMEOUT_MS = "IDLE_TIMEOUT_MS";
+    public static final String LOCKSTEP_MATCH_SIZE = "LOCKSTEP_MATCH_SIZE";
+    
+    /** Largest allowed LEADERBOARD_TOP_K */
+    public static final int MAX_LEADERBOARD_TOP_K = 100;
+    
+    /** Client position updates per second */
+    public final int sendRate;
+    /** Minimum time between shots */
+    public final long fireCooldownMs;
+    /** Local player movement per frame, in pixels */
+    public final float moveSpeed;
+    /** Time the client game loop may spend applying network messages per frame */
+    public final long netApplyBudgetNanos;
+    /** Upper bound on network messages applied per frame */
+    public final int netApplyMaxMessages;
+    /** Messages drained from the inbound queue per batch */
+    public final int netApplyBatch;
+    /** Client inbound queue slots (new connections only) */
+    public final int inboundQueueCapacity;
+    /** Client outbound queue slots (new connections only) */
+    public final int outboundQueueCapacity;
+    /** Messages written per flush by client and server writer threads */
+    public final int writeBatchSize;
+    /** Entries the server sends in leaderboard updates */
+    public final int leaderboardTopK;
+    /** Arena size (server value is sent to clients at connect) */
+    public final int worldWidth;
+    public final int worldHeight;
+    /** Deflate server-to-client traffic when the client asks for it (new connections only) */
+    public final boolean compressionEnabled;
+    /** Deflater level, 1 (fastest) to 9 (smallest) */
+    public final int compressionLevel;
+    /** Flushes smaller than this are sent uncompressed */
+    public final int compressionMinBytes;
+    /** Time between RTT probes on each connection */
+    public final long pingIntervalMs;
+    /** Server: reliable messages queued per client before it is evicted (new connections only) */
+    public final int outboxCapacity;
+    /** Server: oldest undelivered message age before a client is evicted */
+    public final long outboxMaxAgeMs;
+    /** Server simulation and state-update ticks per second */
+    public final int tickRate;
+    /** Server: encoded bytes per second each client may receive (before compression) */
+    public final int clientBytesPerSecond;
+    /** Client beam simulation steps per second (swept collision keeps hits step-independent) */
+    public final int simRate;
+    /** Threads for the beam simulation step, 1 = run on the game thread (read at client start) */
+    public final int simThreads;
+    /** Server: player records preallocated off-heap; joins beyond this are refused (read at server start) */
+    public final int serverMaxPlayers;
+    /** Server: seconds between tick allocation reports, 0 = off */
+    public final int allocReportSeconds;
+    /** Server: how long a dropped player's session waits for a reconnect, 0 = no resumption */
+    public final int sessionGraceMs;
+    /** Server: time between a death and the respawn it announces */
+    public final int respawnDelayMs;
+    /** How long a beam flies before it expires, 0 = until it leaves the world */
+    public final int beamLifetimeMs;
+    /** Server: players who neither move nor shoot for this long are disconnected, 0 = never */
+    public final int idleTimeoutMs;
+    /** Server: players per lockstep match; a match starts once this many have asked for one */
+    public final int lockstepMatchSize;
+    
+    private static final TuningConfig DEFAULTS = new TuningConfig(Collections.emptyMap());
+    private static volatile TuningConfig current = DEFAULTS;
+    
+    private TuningConfig(Map<String, String> values) {
+        List<String> errors = new ArrayList<>();
+        sendRate = readInt(values, SEND_RATE, 60, 1, 240, errors);
+        fireCooldownMs = readInt(values, FIRE_COOLDOWN_MS, 200, 0, 10_000, errors);
+        moveSpeed = readFloat(values, MOVE_SPEED, 5f, 0.1f, 100f, errors);
+        netApplyBudgetNanos = readInt(values, NET_APPLY_BUDGET_MS, 4, 1, 100, errors) * 1_000_000L;
+        netApplyMaxMessages = readInt(values, NET_APPLY_MAX_MESSAGES, 1024, 1, 1_000_000, errors);
+        netApplyBatch = readInt(values, NET_APPLY_BATCH, 64, 1, 65_536, errors);
+        inboundQueueCapacity = readInt(values, INBOUND_QUEUE_CAPACITY, 4096, 16, 1 << 20, errors);
+        outboundQueueCapacity = readInt(values, OUTBOUND_QUEUE_CAPACITY, 1024, 16, 1 << 20, errors);
+        writeBatchSize = readInt(values, WRITE_BATCH_SIZE, 64, 1, 65_536, errors);
+        leaderboardTopK = readInt(values, LEADERBOARD_TOP_K, 10, 1, MAX_LEADERBOARD_TOP_K, errors);
+        worldWidth = readInt(values, WORLD_WIDTH, 4000, 400, 100_000, errors);
+        worldHeight = readInt(values, WORLD_HEIGHT, 4000, 400, 100_000, errors);
+        compressionEnabled = readInt(values, COMPRESSION_ENABLED, 1, 0, 1, errors) == 1;
+        compressionLevel = readInt(values, COMPRESSION_LEVEL, 1, 1, 9, errors);
+        compressionMinBytes = readInt(values, COMPRESSION_MIN_BYTES, 48, 0, 65_536, errors);
+        pingIntervalMs = readInt(values, PING_INTERVAL_MS, 1000, 100, 60_000, errors);
+        outboxCapacity = readInt(values, OUTBOX_CAPACITY, 1024, 16, 1 << 20, errors);
+        outboxMaxAgeMs = readInt(values, OUTBOX_MAX_AGE_MS, 5000, 100, 600_000, errors);
+        tickRate = readInt(values, TICK_RATE, 30, 1, 240, errors);
+        clientBytesPerSecond = readInt(values, CLIENT_BYTES_PER_SECOND, 32_768, 1024, 100_000_000, errors);
+        simRate = readInt(values, SIM_RATE, 60, 1, 240, errors);
+        simThreads = readInt(values, SIM_THREADS, 1, 1, 256, errors);
+        serverMaxPlayers = readInt(values, SERVER_MAX_PLAYERS, 4096, 2, 1 << 20, errors);
+        allocReportSeconds = readInt(values, ALLOC_REPORT_SECONDS, 60, 0, 86_400, errors);
+        sessionGraceMs = readInt(values, SESSION_GRACE_MS, 30_000, 0, 600_000, errors);
+        respawnDelayMs = readInt(values, RESPAWN_DELAY_MS, 2000, 0, 60_000, errors);
+        beamLifetimeMs = readInt(values, BEAM_LIFETIME_MS, 3000, 0, 60_000, errors);
+        idleTimeoutMs = readInt(values, IDLE_TIMEOUT_MS, 300_000, 0, 3_600_000, errors);
+        lockstepMatchSize = readInt(values, LOCKSTEP_MATCH_SIZE, 2, 2, 16, errors);
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid tuning configuration: " + String.join("; ", errors));
+        }
+    }
+    
+    /**
+     * Build a validated config from raw key/value pairs. Missing keys use defaults.
+     *
+     * @throws IllegalArgumentException listing every invalid value
+     */
+    public static TuningConfig fromMap(Map<String, String> values) {
+        return new TuningConfig(values);
+    }
+    
+    public static TuningConfig defaults() {
+        return DEFAULTS;
+    }
+    
+    /**
+     * The active tuning values. Read once per operation and keep the reference.
+     */
+    public static TuningConfig current() {
+        return current;
+    }
+    
+    /**
+     * Atomically replace the active tuning values
+     */
+    public static void publish(TuningConfig config) {
+        if (config == null) {
+            throw new NullPointerException("config");
+        }
+        current = config;
+    }
+    
+    /**
+     * Re-read tuning values from the loaded .env entries and publish them.
+     * An invalid file leaves the previous values active.
+     *
+     * @return true if new values were published
+     */
+    public static boolean reloadFromConfig() {
+        try {
+            TuningConfig next = fromMap(Config.snapshot());
+            publish(next);
+            return true;
+        } catch (IllegalArgumentException e) {
+            Log.warn("✗ %s (keeping previous values)", e.getMessage());
+            return false;
+        }
+    }
+    
+    private static int readInt(Map<String, String> values, String key, int defaultValue,
+                               int min, int max, List<String> errors) {
+        String raw = values.get(key);
+        if (raw == null || raw.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            int value = Integer.parseInt(raw.trim());
+            if (value < min || value > max) {
+                errors.add(key + "=" + raw + " (expected " + min + ".." + max + ")");
+                return defaultValue;
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            errors.add(key + "=" + raw + " (not an integer)");
+            return defaultValue;
+        }
+    }
+    
+    private static float readFloat(Map<String, String> values, String key, float defaultValue,
+                                   float min, float max, List<String> errors) {
+        String raw = values.get(key);
+        if (raw == null || raw.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            float value = Float.parseFloat(raw.trim());
+            if (!(value >= min && value <= max)) {
+                errors.add(key + "=" + raw + " (expected " + min + ".." + max + ")");
+                return defaultValue;
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            errors.add(key + "=" + raw + " (not a number)");
+            return defaultValue;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("TuningConfig{sendRate=%d, fireCooldownMs=%d, moveSpeed=%.1f, "
+                + "netApplyBudgetMs=%d, netApplyMaxMessages=%d, netApplyBatch=%d, "
+                + "inboundQueue=%d, outboundQueue=%d, writeBatch=%d, topK=%d, world=%dx%d, "
+                + "compression=%b/%d/%d, pingIntervalMs=%d, "
+                + "outbox=%d/%dms, tickRate=%d, clientBytesPerSecond=%d, "
+                + "simRate=%d, simThreads=%d, serverMaxPlayers=%d, allocReportSeconds=%d, "
+                + "sessionGraceMs=%d, respawnDelayMs=%d, beamLifetimeMs=%d, idleTimeoutMs=%d, "
+                + "lockstepMatchSize=%d}",
+            sendRate, fireCooldownMs, moveSpeed, netApplyBudgetNanos / 1_000_000,
+            netApplyMaxMessages, netApplyBatch, inboundQueueCapacity, outboundQueueCapacity,
+            writeBatchSize, leaderboardTopK, worldWidth, worldHeight,
+            compressionEnabled, compressionLevel, compressionMinBytes, pingIntervalMs,
+            outboxCapacity, outboxMaxAgeMs, tickRate, clientBytesPerSecond,
+            simRate, simThreads, serverMaxPlayers, allocReportSeconds,
+            sessionGraceMs, respawnDelayMs, beamLifetimeMs, idleTimeoutMs,
+            lockstepMatchSize);
+    }
+}
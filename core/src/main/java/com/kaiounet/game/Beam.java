@@ -0,0 +1,85 @@
+package com.kaiounet.game;
+
+public class Beam {
+    public int id;
+    public int shooterId;
+    public float x;
+    public float y;
+    // Position before the last update; the swept segment for collision
+    public float prevX;
+    public float prevY;
+    public float vx;
+    public float vy;
+    public int color;
+    public static final int WIDTH = 10;
+    public static final int HEIGHT = 10;
+    public static final float SPEED = 8;
+    public static final int DAMAGE = 10;
+    private boolean active = true;
+    // 60 Hz frames flown since the beam was fired (or received)
+    private float age = 0;
+    // Result of the last BeamSimulation step; written by the task that owns the beam's cell
+    Player hitTarget;
+    float hitTime;
+    
+    public Beam(int id, int shooterId, float x, float y, float vx, float vy, int color) {
+        this.id = id;
+        this.shooterId = shooterId;
+        this.x = x;
+        this.y = y;
+        this.prevX = x;
+        this.prevY = y;
+        this.vx = vx;
+        this.vy = vy;
+        this.color = color;
+    }
+    
+    public void update() {
+        update(1f);
+    }
+    
+    /**
+     * Advance by a number of 60 Hz frames (fractional or several at once)
+     */
+    public void update(float frames) {
+        prevX = x;
+        prevY = y;
+        x += vx * SPEED * frames;
+        y += vy * SPEED * frames;
+        age += frames;
+    }
+    
+    /**
+     * Simulated flight time in milliseconds
+     */
+    public float getAgeMillis() {
+        return age * 1000f / 60f;
+    }
+    
+    /**
+     * Swept test of the last update against a square target.
+     *
+     * @return fraction of the step at which the beam first touches the target,
+     *         or -1 if it missed; independent of how large the step was
+     */
+    public float timeOfImpact(float targetX, float targetY, float targetSize) {
+        return Collision.segmentVsBox(prevX, prevY, x, y,
+            targetX - WIDTH, targetY - HEIGHT, targetX + targetSize, targetY + targetSize);
+    }
+    
+    /**
+     * @param width  world width (not the window size)
+     * @param height world height
+     */
+    public boolean isOutOfBounds(int width, int height) {
+        return x < 0 || x > width || y < 0 || y > height;
+    }
+    
+    public void deactivate() {
+        active = false;
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+}
@@ -0,0 +1,166 @@
+package com.kaiounet.game;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * One beam simulation step: integration, swept collision and hit resolution.
+ *
+ * Beams are bucketed by spatial cell and each cell is integrated and tested
+ * against a read-only player grid as an independent task, on a ForkJoinPool
+ * when one is given or inline otherwise. A task only writes the beams of its
+ * own cells. Hits are then merged in (time of impact, beam id) order, so the
+ * result does not depend on how the cells were split across threads.
+ */
+public class BeamSimulation {
+    
+    /**
+     * Receives hits in deterministic order
+     */
+    public interface HitListener {
+        void onHit(Beam beam, Player target, float timeOfImpact);
+    }
+    
+    /** Cells handled by one task before it stops splitting */
+    private static final int MIN_CELLS_PER_TASK = 4;
+    
+    private static final Comparator<Beam> HIT_ORDER = (a, b) -> {
+        int byTime = Float.compare(a.hitTime, b.hitTime);
+        return byTime != 0 ? byTime : Integer.compare(a.id, b.id);
+    };
+    
+    private final SpatialGrid<Beam> beamGrid;
+    private final SpatialGrid<Player> playerGrid;
+    private final ForkJoinPool pool;
+    private Beam[] hits = new Beam[64];
+    private float frames;
+    
+    /**
+     * @param pool threads for the cell phase, or null to run every cell on the caller
+     */
+    public BeamSimulation(int worldWidth, int worldHeight, int cellSize, ForkJoinPool pool) {
+        this.beamGrid = new SpatialGrid<>(worldWidth, worldHeight, cellSize, Beam.WIDTH);
+        this.playerGrid = new SpatialGrid<>(worldWidth, worldHeight, cellSize, Player.SIZE);
+        this.pool = pool;
+    }
+    
+    /**
+     * Advance all active beams by the given number of 60 Hz frames and report
+     * each beam's first hit on a living player other than its shooter
+     */
+    public void step(Collection<Beam> beams, Collection<Player> players, float frames, HitListener listener) {
+        // Phase 1 (sequential): bucket beams by where they start, players by where they are
+        beamGrid.clear();
+        for (Beam beam : beams) {
+            if (beam.isActive()) {
+                beamGrid.insert(beam, beam.x, beam.y);
+            }
+        }
+        playerGrid.clear();
+        for (Player player : players) {
+            if (player.isAlive()) {
+                playerGrid.insert(player, player.x, player.y);
+            }
+        }
+        
+        // Phase 2 (parallel by cell): integrate and find each beam's earliest target
+        this.frames = frames;
+        int cells = beamGrid.getOccupiedCount();
+        if (pool == null || cells <= MIN_CELLS_PER_TASK) {
+            simulateCells(0, cells);
+        } else {
+            pool.invoke(new CellTask(0, cells));
+        }
+        
+        // Phase 3 (sequential): merge hits in a fixed order
+        int hitCount = 0;
+        for (int i = 0; i < cells; i++) {
+            List<Beam> cell = beamGrid.occupiedCell(i);
+            for (int j = 0, n = cell.size(); j < n; j++) {
+                Beam beam = cell.get(j);
+                if (beam.hitTarget != null) {
+                    if (hitCount == hits.length) {
+                        hits = Arrays.copyOf(hits, hitCount * 2);
+                    }
+                    hits[hitCount++] = beam;
+                }
+            }
+        }
+        Arrays.sort(hits, 0, hitCount, HIT_ORDER);
+        for (int i = 0; i < hitCount; i++) {
+            Beam beam = hits[i];
+            Player target = beam.hitTarget;
+            beam.hitTarget = null;
+            hits[i] = null;
+            listener.onHit(beam, target, beam.hitTime);
+        }
+    }
+    
+    private void simulateCells(int from, int to) {
+        for (int i = from; i < to; i++) {
+            List<Beam> cell = beamGrid.occupiedCell(i);
+            for (int j = 0, n = cell.size(); j < n; j++) {
+                Beam beam = cell.get(j);
+                beam.update(frames);
+                findTarget(beam);
+            }
+        }
+    }
+    
+    /**
+     * Earliest player touched by the beam's swept path (ties: lowest player id)
+     */
+    private void findTarget(Beam beam) {
+        float reach = playerGrid.getMaxEntitySize();
+        int firstColumn = playerGrid.cellColumn(Math.min(beam.prevX, beam.x) - reach);
+        int lastColumn = playerGrid.cellColumn(Math.max(beam.prevX, beam.x) + Beam.WIDTH);
+        int firstRow = playerGrid.cellRow(Math.min(beam.prevY, beam.y) - reach);
+        int lastRow = playerGrid.cellRow(Math.max(beam.prevY, beam.y) + Beam.HEIGHT);
+        
+        Player best = null;
+        float bestTime = Float.MAX_VALUE;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                List<Player> cell = playerGrid.cell(column, row);
+                for (int k = 0, n = cell.size(); k < n; k++) {
+                    Player player = cell.get(k);
+                    if (player.id == beam.shooterId) {
+                        continue;
+                    }
+                    float time = beam.timeOfImpact(player.x, player.y, Player.SIZE);
+                    if (time >= 0 && (time < bestTime || (time == bestTime && player.id < best.id))) {
+                        best = player;
+                        bestTime = time;
+                    }
+                }
+            }
+        }
+        beam.hitTarget = best;
+        beam.hitTime = bestTime;
+    }
+    
+    private class CellTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        
+        CellTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_CELLS_PER_TASK) {
+                simulateCells(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new CellTask(from, mid), new CellTask(mid, to));
+        }
+    }
+}
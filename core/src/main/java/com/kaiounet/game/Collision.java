@@ -0,0 +1,77 @@
+package com.kaiounet.game;
+
+/**
+ * Collision helpers shared by the client simulation and the server.
+ */
+public final class Collision {
+    
+    private Collision() {
+    }
+    
+    /**
+     * Static AABB overlap test
+     */
+    public static boolean overlaps(float ax, float ay, float aw, float ah,
+                                   float bx, float by, float bw, float bh) {
+        return ax < bx + bw && ax + aw > bx && ay < by + bh && ay + ah > by;
+    }
+    
+    /**
+     * Time of impact of a point moving from (x0, y0) to (x1, y1) against the
+     * box [minX, maxX] x [minY, maxY] (slab method).
+     *
+     * A moving box can be tested by expanding the target box by the moving
+     * box's size (Minkowski sum) and passing the moving box's corner.
+     *
+     * @return fraction of the segment in [0, 1] where the point first enters
+     *         the box, 0 if it starts inside, or -1 if it never touches it
+     */
+    public static float segmentVsBox(float x0, float y0, float x1, float y1,
+                                     float minX, float minY, float maxX, float maxY) {
+        float tEnter = 0f;
+        float tExit = 1f;
+        
+        float dx = x1 - x0;
+        if (dx == 0f) {
+            if (x0 < minX || x0 > maxX) {
+                return -1f;
+            }
+        } else {
+            float inv = 1f / dx;
+            float t1 = (minX - x0) * inv;
+            float t2 = (maxX - x0) * inv;
+            if (t1 > t2) {
+                float tmp = t1;
+                t1 = t2;
+                t2 = tmp;
+            }
+            tEnter = Math.max(tEnter, t1);
+            tExit = Math.min(tExit, t2);
+            if (tEnter > tExit) {
+                return -1f;
+            }
+        }
+        
+        float dy = y1 - y0;
+        if (dy == 0f) {
+            if (y0 < minY || y0 > maxY) {
+                return -1f;
+            }
+        } else {
+            float inv = 1f / dy;
+            float t1 = (minY - y0) * inv;
+            float t2 = (maxY - y0) * inv;
+            if (t1 > t2) {
+                float tmp = t1;
+                t1 = t2;
+                t2 = tmp;
+            }
+            tEnter = Math.max(tEnter, t1);
+            tExit = Math.min(tExit, t2);
+            if (tEnter > tExit) {
+                return -1f;
+            }
+        }
+        return tEnter;
+    }
+}
@@ -0,0 +1,42 @@
+package com.kaiounet.game;
+
+/**
+ * Seeded xorshift64* generator whose sequence is identical on every peer.
+ *
+ * java.util.Random would also be deterministic, but keeping the state as one
+ * long makes it trivial to snapshot, restore and fold into checksums.
+ */
+public class DeterministicRandom {
+    private long state;
+    
+    public DeterministicRandom(long seed) {
+        setState(seed);
+    }
+    
+    public long getState() {
+        return state;
+    }
+    
+    public void setState(long state) {
+        this.state = state != 0 ? state : 0x9E3779B97F4A7C15L;
+    }
+    
+    public long nextLong() {
+        long x = state;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        state = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+    
+    /**
+     * Uniform value in [0, bound)
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        return (int) ((nextLong() >>> 33) % bound);
+    }
+}
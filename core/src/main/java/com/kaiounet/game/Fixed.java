@@ -0,0 +1,65 @@
+package com.kaiounet.game;
+
+/**
+ * Fixed-point arithmetic (20.12) for the deterministic simulation.
+ *
+ * Integer math gives bit-identical results on every JVM and CPU, which float
+ * math does not guarantee. 12 fractional bits leave enough integer range for
+ * worlds up to ~500 000 pixels.
+ */
+public final class Fixed {
+    public static final int FRACTION_BITS = 12;
+    public static final int ONE = 1 << FRACTION_BITS;
+    
+    /** Unit-circle lookup for the 256 fire angles, built with StrictMath */
+    private static final int[] COS = new int[256];
+    private static final int[] SIN = new int[256];
+    
+    static {
+        for (int i = 0; i < 256; i++) {
+            double angle = StrictMath.PI * 2 * i / 256;
+            COS[i] = (int) StrictMath.round(StrictMath.cos(angle) * ONE);
+            SIN[i] = (int) StrictMath.round(StrictMath.sin(angle) * ONE);
+        }
+    }
+    
+    private Fixed() {
+    }
+    
+    public static int fromInt(int value) {
+        return value << FRACTION_BITS;
+    }
+    
+    /**
+     * Convert a float constant. Only use on values known at startup, never on simulated state.
+     */
+    public static int fromFloat(float value) {
+        return Math.round(value * ONE);
+    }
+    
+    public static int toInt(int fixed) {
+        return fixed >> FRACTION_BITS;
+    }
+    
+    public static float toFloat(int fixed) {
+        return fixed / (float) ONE;
+    }
+    
+    public static int mul(int a, int b) {
+        return (int) (((long) a * b) >> FRACTION_BITS);
+    }
+    
+    /** Cosine of an 8-bit angle (0..255 maps to 0..2π) */
+    public static int cos(int angle) {
+        return COS[angle & 0xFF];
+    }
+    
+    /** Sine of an 8-bit angle (0..255 maps to 0..2π) */
+    public static int sin(int angle) {
+        return SIN[angle & 0xFF];
+    }
+    
+    public static int clamp(int value, int min, int max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+}
@@ -0,0 +1,57 @@
+package com.kaiounet.game;
+
+/**
+ * One player's input for one simulation tick, packed into 16 bits.
+ *
+ * <pre>
+ * bit 0..3   left, right, up, down
+ * bit 4      fire
+ * bit 8..15  fire direction as an 8-bit angle (0..255 = 0..2π)
+ * </pre>
+ */
+public final class LockstepInput {
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int UP = 1 << 2;
+    public static final int DOWN = 1 << 3;
+    public static final int FIRE = 1 << 4;
+    private static final int ANGLE_SHIFT = 8;
+    
+    /** Input meaning "no keys pressed" */
+    public static final int NONE = 0;
+    
+    private LockstepInput() {
+    }
+    
+    public static int encode(boolean left, boolean right, boolean up, boolean down,
+                             boolean fire, int angle) {
+        int input = 0;
+        if (left) input |= LEFT;
+        if (right) input |= RIGHT;
+        if (up) input |= UP;
+        if (down) input |= DOWN;
+        if (fire) input |= FIRE;
+        return input | ((angle & 0xFF) << ANGLE_SHIFT);
+    }
+    
+    public static boolean has(int input, int flag) {
+        return (input & flag) != 0;
+    }
+    
+    public static int angle(int input) {
+        return (input >>> ANGLE_SHIFT) & 0xFF;
+    }
+    
+    /**
+     * Quantize an aim direction to an 8-bit angle. Only the sender calls this;
+     * peers use the transmitted angle, so float differences cannot desync them.
+     */
+    public static int angleFromDirection(float dx, float dy) {
+        if (dx == 0 && dy == 0) {
+            return 0;
+        }
+        double radians = StrictMath.atan2(dy, dx);
+        int angle = (int) StrictMath.round(radians / (StrictMath.PI * 2) * 256);
+        return angle & 0xFF;
+    }
+}
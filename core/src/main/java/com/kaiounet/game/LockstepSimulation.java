@@ -0,0 +1,265 @@
+package com.kaiounet.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic simulation for lockstep play.
+ *
+ * Given the same seed, roster and per-tick inputs, every peer computes the
+ * same state bit for bit: positions and velocities are fixed-point ints,
+ * randomness comes from a seeded {@link DeterministicRandom}, and players are
+ * always processed in roster order. {@link #checksum()} hashes the full state
+ * so peers can detect a desync, and {@link #copyFrom} supports rollback.
+ */
+public class LockstepSimulation {
+    public static final int TICK_RATE = 60;
+    public static final int MOVE_SPEED = Fixed.fromInt(5);
+    public static final int BEAM_SPEED = Fixed.fromInt((int) Beam.SPEED);
+    public static final int FIRE_COOLDOWN_TICKS = 12; // 200 ms at 60 Hz
+    
+    private static final int PLAYER_SIZE = Fixed.fromInt(Player.SIZE);
+    private static final int BEAM_WIDTH = Fixed.fromInt(Beam.WIDTH);
+    private static final int BEAM_HEIGHT = Fixed.fromInt(Beam.HEIGHT);
+    
+    /**
+     * Fixed-point player state
+     */
+    public static class SimPlayer {
+        public int id;
+        public int x;
+        public int y;
+        public int health;
+        public int score;
+        public int cooldown;
+        
+        void copyFrom(SimPlayer other) {
+            id = other.id;
+            x = other.x;
+            y = other.y;
+            health = other.health;
+            score = other.score;
+            cooldown = other.cooldown;
+        }
+    }
+    
+    /**
+     * Fixed-point beam state
+     */
+    public static class SimBeam {
+        public int id;
+        public int shooterIndex;
+        public int x;
+        public int y;
+        public int vx;
+        public int vy;
+        
+        void copyFrom(SimBeam other) {
+            id = other.id;
+            shooterIndex = other.shooterIndex;
+            x = other.x;
+            y = other.y;
+            vx = other.vx;
+            vy = other.vy;
+        }
+    }
+    
+    private final int worldWidth;
+    private final int worldHeight;
+    private final SimPlayer[] players;
+    private final List<SimBeam> beams = new ArrayList<>();
+    private final List<SimBeam> beamPool = new ArrayList<>();
+    private final DeterministicRandom random;
+    private int tick = 0;
+    private int nextBeamId = 1;
+    
+    /**
+     * @param playerIds roster; every peer must pass the same ids in the same order
+     */
+    public LockstepSimulation(long seed, int[] playerIds, int worldWidth, int worldHeight) {
+        this.worldWidth = Fixed.fromInt(worldWidth);
+        this.worldHeight = Fixed.fromInt(worldHeight);
+        this.random = new DeterministicRandom(seed);
+        this.players = new SimPlayer[playerIds.length];
+        for (int i = 0; i < playerIds.length; i++) {
+            SimPlayer player = new SimPlayer();
+            player.id = playerIds[i];
+            player.health = Player.MAX_HEALTH;
+            spawn(player);
+            players[i] = player;
+        }
+    }
+    
+    /**
+     * Advance one tick.
+     *
+     * @param inputs one packed {@link LockstepInput} per roster slot
+     */
+    public void step(int[] inputs) {
+        if (inputs.length != players.length) {
+            throw new IllegalArgumentException("expected " + players.length + " inputs, got " + inputs.length);
+        }
+        
+        // Movement and firing, in roster order
+        for (int i = 0; i < players.length; i++) {
+            SimPlayer player = players[i];
+            int input = inputs[i];
+            if (LockstepInput.has(input, LockstepInput.LEFT)) player.x -= MOVE_SPEED;
+            if (LockstepInput.has(input, LockstepInput.RIGHT)) player.x += MOVE_SPEED;
+            if (LockstepInput.has(input, LockstepInput.UP)) player.y -= MOVE_SPEED;
+            if (LockstepInput.has(input, LockstepInput.DOWN)) player.y += MOVE_SPEED;
+            player.x = Fixed.clamp(player.x, 0, worldWidth - PLAYER_SIZE);
+            player.y = Fixed.clamp(player.y, 0, worldHeight - PLAYER_SIZE);
+            
+            if (player.cooldown > 0) {
+                player.cooldown--;
+            }
+            if (LockstepInput.has(input, LockstepInput.FIRE) && player.cooldown == 0) {
+                fire(i, LockstepInput.angle(input));
+                player.cooldown = FIRE_COOLDOWN_TICKS;
+            }
+        }
+        
+        // Beams: integrate, cull, collide (beam order is creation order on every peer)
+        for (int b = beams.size() - 1; b >= 0; b--) {
+            SimBeam beam = beams.get(b);
+            beam.x += beam.vx;
+            beam.y += beam.vy;
+            if (beam.x < 0 || beam.x > worldWidth || beam.y < 0 || beam.y > worldHeight) {
+                releaseBeam(b);
+                continue;
+            }
+            for (int i = 0; i < players.length; i++) {
+                SimPlayer target = players[i];
+                if (i == beam.shooterIndex || target.health <= 0) {
+                    continue;
+                }
+                if (beam.x < target.x + PLAYER_SIZE && beam.x + BEAM_WIDTH > target.x
+                        && beam.y < target.y + PLAYER_SIZE && beam.y + BEAM_HEIGHT > target.y) {
+                    target.health = Math.max(0, target.health - Beam.DAMAGE);
+                    if (target.health == 0) {
+                        players[beam.shooterIndex].score++;
+                        target.health = Player.MAX_HEALTH;
+                        spawn(target);
+                    }
+                    releaseBeam(b);
+                    break;
+                }
+            }
+        }
+        tick++;
+    }
+    
+    private void fire(int shooterIndex, int angle) {
+        SimPlayer shooter = players[shooterIndex];
+        SimBeam beam = beamPool.isEmpty() ? new SimBeam() : beamPool.remove(beamPool.size() - 1);
+        beam.id = nextBeamId++;
+        beam.shooterIndex = shooterIndex;
+        beam.x = shooter.x + PLAYER_SIZE / 2 - BEAM_WIDTH / 2;
+        beam.y = shooter.y + PLAYER_SIZE / 2 - BEAM_HEIGHT / 2;
+        beam.vx = Fixed.mul(BEAM_SPEED, Fixed.cos(angle));
+        beam.vy = Fixed.mul(BEAM_SPEED, Fixed.sin(angle));
+        beams.add(beam);
+    }
+    
+    private void releaseBeam(int index) {
+        beamPool.add(beams.remove(index));
+    }
+    
+    private void spawn(SimPlayer player) {
+        player.x = Fixed.fromInt(random.nextInt(Fixed.toInt(worldWidth - PLAYER_SIZE)));
+        player.y = Fixed.fromInt(random.nextInt(Fixed.toInt(worldHeight - PLAYER_SIZE)));
+    }
+    
+    /**
+     * 64-bit FNV-1a hash of the complete simulation state
+     */
+    public long checksum() {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, tick);
+        hash = mix(hash, nextBeamId);
+        hash = mix(hash, (int) random.getState());
+        hash = mix(hash, (int) (random.getState() >>> 32));
+        for (SimPlayer player : players) {
+            hash = mix(hash, player.id);
+            hash = mix(hash, player.x);
+            hash = mix(hash, player.y);
+            hash = mix(hash, player.health);
+            hash = mix(hash, player.score);
+            hash = mix(hash, player.cooldown);
+        }
+        for (SimBeam beam : beams) {
+            hash = mix(hash, beam.id);
+            hash = mix(hash, beam.shooterIndex);
+            hash = mix(hash, beam.x);
+            hash = mix(hash, beam.y);
+            hash = mix(hash, beam.vx);
+            hash = mix(hash, beam.vy);
+        }
+        return hash;
+    }
+    
+    private static long mix(long hash, int value) {
+        for (int i = 0; i < 4; i++) {
+            hash ^= (value >>> (i * 8)) & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    /**
+     * Overwrite this simulation with another's state (same roster), used for rollback
+     */
+    public void copyFrom(LockstepSimulation other) {
+        if (other.players.length != players.length) {
+            throw new IllegalArgumentException("roster size mismatch");
+        }
+        for (int i = 0; i < players.length; i++) {
+            players[i].copyFrom(other.players[i]);
+        }
+        while (beams.size() > other.beams.size()) {
+            releaseBeam(beams.size() - 1);
+        }
+        for (int i = 0; i < other.beams.size(); i++) {
+            if (i == beams.size()) {
+                beams.add(beamPool.isEmpty() ? new SimBeam() : beamPool.remove(beamPool.size() - 1));
+            }
+            beams.get(i).copyFrom(other.beams.get(i));
+        }
+        random.setState(other.random.getState());
+        tick = other.tick;
+        nextBeamId = other.nextBeamId;
+    }
+    
+    /**
+     * Roster slot of a player id, or -1
+     */
+    public int indexOf(int playerId) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i].id == playerId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    public int getTick() {
+        return tick;
+    }
+    
+    public int getPlayerCount() {
+        return players.length;
+    }
+    
+    public SimPlayer getPlayer(int index) {
+        return players[index];
+    }
+    
+    public int getBeamCount() {
+        return beams.size();
+    }
+    
+    public SimBeam getBeam(int index) {
+        return beams.get(index);
+    }
+}
@@ -10,6 +10,10 @@ public class Player {
     public static final int SIZE = 30;
     public static final int MAX_HEALTH = 100;
     
+    // Colors handed out by the server, indexed by player id (the wire format sends the index)
+    private static final int[] PALETTE = {0xFF0000FF, 0x00FF00FF, 0x0000FFFF, 0xFFFF00FF, 0xFF00FFFF, 0x00FFFFFF};
+    public static final int PALETTE_SIZE = PALETTE.length;
+    
     public Player(int id, float x, float y, int color) {
         this.id = id;
         this.x = x;
@@ -40,6 +44,25 @@ public class Player {
         return health > 0;
     }
     
+    /**
+     * Color for a palette slot (wraps around)
+     */
+    public static int paletteColor(int index) {
+        return PALETTE[Math.floorMod(index, PALETTE.length)];
+    }
+    
+    /**
+     * @return palette slot of the color, or -1 if it is not a palette color
+     */
+    public static int paletteIndex(int color) {
+        for (int i = 0; i < PALETTE.length; i++) {
+            if (PALETTE[i] == color) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
     @Override
     public String toString() {
         return String.format("Player{id=%d, pos=(%.1f,%.1f), health=%d, score=%d}", id, x, y, health, score);
@@ -0,0 +1,150 @@
+package com.kaiounet.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Uniform grid spatial index over the world.
+ *
+ * Each entity is bucketed by the cell containing its top-left corner, so it is
+ * stored exactly once. Queries widen their range by the largest entity size to
+ * still find entities that overlap the area from a neighbouring cell. Cell
+ * lists are created lazily and reused; {@link #clear} only touches cells that
+ * were filled, so rebuilding every frame stays proportional to the entity count.
+ */
+public class SpatialGrid<T> {
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final float maxEntitySize;
+    private final List<List<T>> cells; // Fixed size, null until a cell is first filled
+    private final int[] occupied; // Indices of non-empty cells, in fill order
+    private int occupiedCount = 0;
+    private int size = 0;
+    
+    public SpatialGrid(float worldWidth, float worldHeight, int cellSize, float maxEntitySize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(worldWidth / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(worldHeight / cellSize));
+        this.maxEntitySize = maxEntitySize;
+        this.cells = new ArrayList<>(Collections.nCopies(columns * rows, null));
+        this.occupied = new int[columns * rows];
+    }
+    
+    /**
+     * Remove all entities, keeping cell storage for reuse
+     */
+    public void clear() {
+        for (int i = 0; i < occupiedCount; i++) {
+            cells.get(occupied[i]).clear();
+        }
+        occupiedCount = 0;
+        size = 0;
+    }
+    
+    /**
+     * Add an entity whose top-left corner is at (x, y)
+     */
+    public void insert(T entity, float x, float y) {
+        int index = cellRow(y) * columns + cellColumn(x);
+        List<T> cell = cells.get(index);
+        if (cell == null) {
+            cell = new ArrayList<>();
+            cells.set(index, cell);
+        }
+        if (cell.isEmpty()) {
+            occupied[occupiedCount++] = index;
+        }
+        cell.add(entity);
+        size++;
+    }
+    
+    /**
+     * Visit every entity that may overlap the rectangle. Results are candidates:
+     * entities near the edges may lie just outside it.
+     *
+     * @return number of entities visited
+     */
+    public int query(float minX, float minY, float maxX, float maxY, Consumer<? super T> visitor) {
+        int firstColumn = cellColumn(minX - maxEntitySize);
+        int lastColumn = cellColumn(maxX);
+        int firstRow = cellRow(minY - maxEntitySize);
+        int lastRow = cellRow(maxY);
+        
+        int visited = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            int base = row * columns;
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                List<T> cell = cells.get(base + column);
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0, n = cell.size(); i < n; i++) {
+                    visitor.accept(cell.get(i));
+                }
+                visited += cell.size();
+            }
+        }
+        return visited;
+    }
+    
+    /**
+     * Entities bucketed in the given cell (live view; do not modify)
+     */
+    public List<T> cell(int column, int row) {
+        List<T> cell = cells.get(row * columns + column);
+        return cell != null ? cell : Collections.emptyList();
+    }
+    
+    public int cellColumn(float x) {
+        return clamp((int) Math.floor(x / cellSize), columns);
+    }
+    
+    public int cellRow(float y) {
+        return clamp((int) Math.floor(y / cellSize), rows);
+    }
+    
+    private static int clamp(int value, int count) {
+        return value < 0 ? 0 : (value >= count ? count - 1 : value);
+    }
+    
+    /**
+     * Number of non-empty cells; with {@link #occupiedCell} this lets callers
+     * partition work by cell
+     */
+    public int getOccupiedCount() {
+        return occupiedCount;
+    }
+    
+    /**
+     * The i-th non-empty cell (live view; do not modify)
+     */
+    public List<T> occupiedCell(int i) {
+        return cells.get(occupied[i]);
+    }
+    
+    public float getMaxEntitySize() {
+        return maxEntitySize;
+    }
+    
+    public int getColumns() {
+        return columns;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getCellSize() {
+        return cellSize;
+    }
+    
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,108 @@
+package com.kaiounet.network;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Heap bytes allocated by one thread per frame or tick.
+ *
+ * Reads the JVM's per-thread allocation counter
+ * (com.sun.management.ThreadMXBean), which costs a few nanoseconds and does
+ * not allocate. Call {@link #begin} and {@link #end} from the thread being
+ * measured. Other threads may read the results. When the JVM does not
+ * provide the counter, every sample is 0.
+ */
+public class AllocationTracker {
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    
+    private long startBytes;
+    private volatile long lastBytes;
+    private volatile long peakBytes;
+    private volatile long totalBytes;
+    private volatile long samples;
+    
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                if (bean.isThreadAllocatedMemorySupported()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                    return bean;
+                }
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            // Fall through: tracking disabled
+        }
+        return null;
+    }
+    
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+    
+    /**
+     * Bytes the calling thread has allocated since it started, or 0 if unsupported
+     */
+    public static long currentThreadAllocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+    
+    /**
+     * Start a sample on the calling thread
+     */
+    public void begin() {
+        startBytes = currentThreadAllocatedBytes();
+    }
+    
+    /**
+     * Finish the sample started by {@link #begin} on the same thread
+     *
+     * @return bytes allocated since begin
+     */
+    public long end() {
+        long bytes = currentThreadAllocatedBytes() - startBytes;
+        lastBytes = bytes;
+        if (bytes > peakBytes) {
+            peakBytes = bytes;
+        }
+        totalBytes += bytes;
+        samples++;
+        return bytes;
+    }
+    
+    public long getLastBytes() {
+        return lastBytes;
+    }
+    
+    public long getPeakBytes() {
+        return peakBytes;
+    }
+    
+    public long getSampleCount() {
+        return samples;
+    }
+    
+    /**
+     * Bytes over every sample since creation or the last reset
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    /**
+     * Mean bytes per sample since creation or the last reset
+     */
+    public long getAverageBytes() {
+        long n = samples;
+        return n > 0 ? totalBytes / n : 0;
+    }
+    
+    /**
+     * Start a new reporting window. Call from the measured thread.
+     */
+    public void reset() {
+        peakBytes = 0;
+        totalBytes = 0;
+        samples = 0;
+    }
+}
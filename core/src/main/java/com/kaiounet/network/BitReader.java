@@ -0,0 +1,77 @@
+package com.kaiounet.network;
+
+/**
+ * Reads values written by {@link BitWriter}. The instance can be pointed at
+ * a new buffer with {@link #reset(byte[], int)} so decoding does not allocate.
+ */
+public class BitReader {
+    private byte[] buffer;
+    private long limit;
+    private long position;
+    
+    public BitReader() {
+        reset(new byte[0], 0);
+    }
+    
+    public BitReader(byte[] buffer, int length) {
+        reset(buffer, length);
+    }
+    
+    public void reset(byte[] buffer, int length) {
+        this.buffer = buffer;
+        this.limit = (long) length << 3;
+        this.position = 0;
+    }
+    
+    /**
+     * Read {@code bits} bits (1..32) as an unsigned value
+     *
+     * @throws IllegalStateException if the message is shorter than expected
+     */
+    public int readBits(int bits) {
+        if (bits < 1 || bits > 32) {
+            throw new IllegalArgumentException("bits must be 1..32: " + bits);
+        }
+        if (position + bits > limit) {
+            throw new IllegalStateException("Read past end of message");
+        }
+        int value = 0;
+        for (int i = 0; i < bits; i++) {
+            int bit = (buffer[(int) (position >>> 3)] >>> (7 - (position & 7))) & 1;
+            value = (value << 1) | bit;
+            position++;
+        }
+        return value;
+    }
+    
+    public boolean readBoolean() {
+        return readBits(1) != 0;
+    }
+    
+    public long readLong() {
+        long high = readBits(32) & 0xFFFFFFFFL;
+        long low = readBits(32) & 0xFFFFFFFFL;
+        return (high << 32) | low;
+    }
+    
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 4) {
+            int group = readBits(5);
+            value |= (group & 0xF) << shift;
+            if ((group & 0x10) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint too long");
+    }
+    
+    public int readSignedVarInt() {
+        int raw = readVarInt();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+    
+    public long bitsRemaining() {
+        return limit - position;
+    }
+}
@@ -0,0 +1,92 @@
+package com.kaiounet.network;
+
+import java.util.Arrays;
+
+/**
+ * Packs values into a reusable byte buffer at bit granularity, most
+ * significant bit first. Call {@link #reset()} before each message.
+ */
+public class BitWriter {
+    private byte[] buffer;
+    private long bitLength = 0;
+    
+    public BitWriter() {
+        this(64);
+    }
+    
+    public BitWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(1, initialCapacity)];
+    }
+    
+    public void reset() {
+        Arrays.fill(buffer, 0, byteLength(), (byte) 0);
+        bitLength = 0;
+    }
+    
+    /**
+     * Write the low {@code bits} bits of value (1..32)
+     */
+    public void writeBits(int value, int bits) {
+        if (bits < 1 || bits > 32) {
+            throw new IllegalArgumentException("bits must be 1..32: " + bits);
+        }
+        ensureCapacity(bitLength + bits);
+        for (int i = bits - 1; i >= 0; i--) {
+            if (((value >>> i) & 1) != 0) {
+                int index = (int) (bitLength >>> 3);
+                buffer[index] |= (byte) (0x80 >>> (bitLength & 7));
+            }
+            bitLength++;
+        }
+    }
+    
+    public void writeBoolean(boolean value) {
+        writeBits(value ? 1 : 0, 1);
+    }
+    
+    public void writeLong(long value) {
+        writeBits((int) (value >>> 32), 32);
+        writeBits((int) value, 32);
+    }
+    
+    /**
+     * Unsigned varint in 4-bit groups plus a continuation bit: 0-15 costs 5
+     * bits, 16-255 costs 10, and so on. Negative values take 40 bits.
+     */
+    public void writeVarInt(int value) {
+        while ((value & ~0xF) != 0) {
+            writeBits((value & 0xF) | 0x10, 5);
+            value >>>= 4;
+        }
+        writeBits(value, 5);
+    }
+    
+    /**
+     * Zigzag-encoded varint, so small negative values stay short
+     */
+    public void writeSignedVarInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+    
+    private void ensureCapacity(long bits) {
+        int bytes = (int) ((bits + 7) >>> 3);
+        if (bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(bytes, buffer.length * 2));
+        }
+    }
+    
+    /**
+     * Backing array; only the first {@link #byteLength()} bytes are meaningful
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+    
+    public long bitLength() {
+        return bitLength;
+    }
+    
+    public int byteLength() {
+        return (int) ((bitLength + 7) >>> 3);
+    }
+}
@@ -0,0 +1,137 @@
+package com.kaiounet.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reading side of {@link CompressedOutputStream}.
+ *
+ * Frames are decoded one at a time into a reusable buffer. A single Inflater
+ * lives for the whole connection, mirroring the sender's Deflater window.
+ */
+public class CompressedInputStream extends InputStream {
+    private final InputStream in;
+    private final Inflater inflater = new Inflater(true);
+    private byte[] frame = new byte[1024];
+    private byte[] buffer = new byte[1024];
+    private int position = 0;
+    private int limit = 0;
+    
+    public CompressedInputStream(InputStream in) {
+        this.in = in;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        if (position == limit && !nextFrame()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position == limit && !nextFrame()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+    
+    @Override
+    public int available() {
+        return limit - position;
+    }
+    
+    /**
+     * Decode the next non-empty frame into the buffer
+     *
+     * @return false at end of stream
+     */
+    private boolean nextFrame() throws IOException {
+        do {
+            int kind = in.read();
+            if (kind < 0) {
+                return false;
+            }
+            int length = readVarint();
+            if (length > frame.length) {
+                frame = new byte[Math.max(length, frame.length * 2)];
+            }
+            readFully(frame, length);
+            
+            if (kind == CompressedOutputStream.FRAME_RAW) {
+                if (length > buffer.length) {
+                    buffer = new byte[Math.max(length, buffer.length * 2)];
+                }
+                System.arraycopy(frame, 0, buffer, 0, length);
+                limit = length;
+            } else if (kind == CompressedOutputStream.FRAME_DEFLATE) {
+                limit = inflate(length);
+            } else {
+                throw new IOException("Unknown frame kind " + kind);
+            }
+            position = 0;
+        } while (limit == 0);
+        return true;
+    }
+    
+    private int inflate(int length) throws IOException {
+        inflater.setInput(frame, 0, length);
+        int produced = 0;
+        try {
+            while (true) {
+                int n = inflater.inflate(buffer, produced, buffer.length - produced);
+                produced += n;
+                if (produced == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                } else if (n == 0 && inflater.needsInput()) {
+                    return produced;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed frame", e);
+        }
+    }
+    
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated frame header");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Frame length too long");
+    }
+    
+    private void readFully(byte[] b, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int n = in.read(b, read, length - read);
+            if (n < 0) {
+                throw new EOFException("Truncated frame");
+            }
+            read += n;
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+}
@@ -0,0 +1,136 @@
+package com.kaiounet.network;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Per-connection compressing stream that emits one frame per flush().
+ *
+ * Writes are buffered until flush(). Payloads smaller than the threshold are
+ * sent raw; larger ones are deflated with SYNC_FLUSH through one long-lived
+ * Deflater, so the message headers, player ids and slowly changing positions
+ * that recur from tick to tick compress against the shared window. The
+ * bit-packed codec leaves less redundancy than the old serialized form, so
+ * CompressionBenchmark reports what each level still saves per CPU microsecond.
+ * Buffers are reused between frames.
+ *
+ * Frame: [kind:1][length:varint][payload], kind 0 = raw, 1 = deflate.
+ */
+public class CompressedOutputStream extends OutputStream {
+    static final int FRAME_RAW = 0;
+    static final int FRAME_DEFLATE = 1;
+    
+    private final OutputStream out;
+    private final Deflater deflater;
+    private final int minCompressBytes;
+    private byte[] buffer = new byte[1024];
+    private int length = 0;
+    private byte[] compressed = new byte[1024];
+    private final byte[] header = new byte[6];
+    private long payloadBytes = 0;
+    private long wireBytes = 0;
+    private long compressNanos = 0;
+    
+    /**
+     * @param level            Deflater level (1 = fastest .. 9 = smallest)
+     * @param minCompressBytes payloads shorter than this are sent uncompressed
+     */
+    public CompressedOutputStream(OutputStream out, int level, int minCompressBytes) {
+        this.out = out;
+        this.deflater = new Deflater(level, true);
+        this.minCompressBytes = minCompressBytes;
+    }
+    
+    @Override
+    public void write(int b) {
+        ensureCapacity(length + 1);
+        buffer[length++] = (byte) b;
+    }
+    
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(length + len);
+        System.arraycopy(b, off, buffer, length, len);
+        length += len;
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        if (length > 0) {
+            writeFrame();
+        }
+        out.flush();
+    }
+    
+    private void writeFrame() throws IOException {
+        payloadBytes += length;
+        if (length < minCompressBytes) {
+            writeHeader(FRAME_RAW, length);
+            out.write(buffer, 0, length);
+            wireBytes += length;
+        } else {
+            long start = System.nanoTime();
+            deflater.setInput(buffer, 0, length);
+            int compressedLength = 0;
+            while (true) {
+                compressedLength += deflater.deflate(compressed, compressedLength,
+                    compressed.length - compressedLength, Deflater.SYNC_FLUSH);
+                if (compressedLength < compressed.length) {
+                    break; // Everything flushed
+                }
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressNanos += System.nanoTime() - start;
+            writeHeader(FRAME_DEFLATE, compressedLength);
+            out.write(compressed, 0, compressedLength);
+            wireBytes += compressedLength;
+        }
+        length = 0;
+    }
+    
+    private void writeHeader(int kind, int payloadLength) throws IOException {
+        int n = 0;
+        header[n++] = (byte) kind;
+        int value = payloadLength;
+        while ((value & ~0x7F) != 0) {
+            header[n++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        header[n++] = (byte) value;
+        out.write(header, 0, n);
+        wireBytes += n;
+    }
+    
+    /** Bytes handed to this stream */
+    public long getPayloadBytes() {
+        return payloadBytes;
+    }
+    
+    /** Bytes actually written to the socket, including frame headers */
+    public long getWireBytes() {
+        return wireBytes;
+    }
+    
+    /** CPU time spent in deflate */
+    public long getCompressNanos() {
+        return compressNanos;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+}
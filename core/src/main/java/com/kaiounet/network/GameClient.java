@@ -0,0 +1,440 @@
+package com.kaiounet.network;
+
+import com.kaiounet.config.TuningConfig;
+import com.kaiounet.utils.Log;
+import java.io.*;
+import java.net.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+public class GameClient {
+    /**
+     * What the connection is doing, for a UI that polls once per frame
+     */
+    public enum ConnectionState { CONNECTED, RECONNECTING, DISCONNECTED }
+    
+    private final String host;
+    private final int port;
+    private Socket socket;
+    private MessageWriter out;
+    private MessageReader in;
+    // Inbound path: reader thread -> ring buffer -> game loop (batch drain)
+    private final RingBuffer<GameMessage> messageQueue;
+    private Thread readerThread;
+    private volatile boolean connected = false;
+    private boolean compressed = false;
+    private int worldWidth;
+    private int worldHeight;
+    
+    // Outbound path: game thread -> ring buffer -> single writer thread. Positions are
+    // absolute, so only the newest unsent PLAYER_MOVE is kept; everything else is reliable.
+    private static final long BLOCK_PARK_NANOS = 50_000;
+    private final RingBuffer<GameMessage> outbound;
+    private final RingBuffer.OverflowPolicy overflowPolicy;
+    private final AtomicReference<GameMessage> pendingMove = new AtomicReference<>();
+    private final AtomicLong coalescedMoves = new AtomicLong();
+    private final AtomicLong rejectedOutbound = new AtomicLong();
+    private Thread writerThread;
+    private volatile boolean writerParked = false;
+    
+    // Connection timing: the writer pings on a timer, the reader feeds pongs to the estimator
+    private final RttEstimator rtt = new RttEstimator();
+    private final GameMessage ping = new GameMessage(GameMessage.MessageType.PING, 0, 0, 0, 0);
+    
+    // Session resumption: token from the server, and the last roster epoch received
+    private static final int RECONNECT_ATTEMPTS = 5;
+    private static final long RECONNECT_BACKOFF_MS = 250;
+    private long sessionToken = 0;
+    private volatile int rosterEpoch = 0;
+    private volatile Thread reconnectThread;
+    private boolean resumed = false;
+    private boolean spectator = false;
+    
+    public GameClient(String host, int port) {
+        this(host, port, RingBuffer.OverflowPolicy.BLOCK);
+    }
+    
+    /**
+     * @param overflowPolicy what sendMessage does with a message other than
+     *                       PLAYER_MOVE when the writer falls OUTBOUND_QUEUE_CAPACITY
+     *                       messages behind: BLOCK or FAIL. Moves are always coalesced.
+     */
+    public GameClient(String host, int port, RingBuffer.OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == RingBuffer.OverflowPolicy.DROP_OLDEST) {
+            throw new IllegalArgumentException("DROP_OLDEST would discard reliable messages");
+        }
+        TuningConfig tuning = TuningConfig.current();
+        this.host = host;
+        this.port = port;
+        this.messageQueue = new RingBuffer<>(tuning.inboundQueueCapacity, RingBuffer.OverflowPolicy.BLOCK);
+        this.outbound = new RingBuffer<>(tuning.outboundQueueCapacity, overflowPolicy);
+        this.overflowPolicy = overflowPolicy;
+    }
+    
+    public boolean connect() {
+        socket = null;
+        try {
+            socket = new Socket(host, port);
+            OutputStream rawOut = socket.getOutputStream();
+            InputStream rawIn = new BufferedInputStream(socket.getInputStream());
+            
+            // Ask for compression; the server decides
+            int requested = TuningConfig.current().compressionEnabled ? Handshake.FLAG_COMPRESSION : 0;
+            if (spectator) {
+                requested |= Handshake.FLAG_SPECTATOR;
+            }
+            Handshake.writeHello(rawOut, requested, sessionToken, rosterEpoch);
+            Handshake reply = Handshake.readReply(rawIn);
+            compressed = reply.has(Handshake.FLAG_COMPRESSION);
+            resumed = reply.has(Handshake.FLAG_RESUMED);
+            sessionToken = reply.sessionToken;
+            worldWidth = reply.worldWidth;
+            worldHeight = reply.worldHeight;
+            
+            GameMessageCodec codec = new GameMessageCodec(worldWidth, worldHeight);
+            out = new MessageWriter(new BufferedOutputStream(rawOut), codec);
+            in = new MessageReader(compressed ? new CompressedInputStream(rawIn) : rawIn, codec);
+            connected = true;
+            
+            // Start listening for messages
+            readerThread = new Thread(this::listenForMessages, "GameClient-reader");
+            readerThread.start();
+            
+            // Single writer owns the output stream, so no locking on send
+            writerThread = new Thread(this::writeMessages, "GameClient-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+            System.out.println("Connected to server at " + host + ":" + port
+                + (compressed ? " (compressed)" : "") + (resumed ? " (session resumed)" : ""));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to connect to server: " + e.getMessage());
+            // The handshake failed on an open socket
+            closeConnection();
+            return false;
+        }
+    }
+    
+    /**
+     * Queue a message for the writer thread. Never performs I/O on the caller's thread.
+     * A PLAYER_MOVE replaces any move the writer has not sent yet; other messages are
+     * never dropped once queued, and wait (BLOCK) or are rejected (FAIL) while the ring
+     * is full.
+     *
+     * @return false if the message was rejected
+     */
+    public boolean sendMessage(GameMessage message) {
+        if (!connected) return false;
+        if (message.type == GameMessage.MessageType.PLAYER_MOVE) {
+            if (pendingMove.getAndSet(message) != null) {
+                coalescedMoves.incrementAndGet();
+            }
+        } else if (!enqueueReliable(message)) {
+            return false;
+        }
+        if (writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+        return true;
+    }
+    
+    private boolean enqueueReliable(GameMessage message) {
+        while (!outbound.tryOffer(message)) {
+            if (overflowPolicy == RingBuffer.OverflowPolicy.FAIL || !connected
+                    || Thread.currentThread().isInterrupted()) {
+                rejectedOutbound.incrementAndGet();
+                return false;
+            }
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+        }
+        return true;
+    }
+    
+    /**
+     * Next message for the writer: queued messages first, then the latest move
+     */
+    private GameMessage nextOutbound() {
+        GameMessage message = outbound.poll();
+        return message != null ? message : pendingMove.getAndSet(null);
+    }
+    
+    private void writeMessages() {
+        long nextPing = System.nanoTime();
+        try {
+            while (connected) {
+                long now = System.nanoTime();
+                if (now - nextPing >= 0) {
+                    ping.timestamp = RttEstimator.nowMicros();
+                    out.writeMessage(ping);
+                    out.flush();
+                    nextPing = now + TuningConfig.current().pingIntervalMs * 1_000_000L;
+                }
+                
+                GameMessage message = nextOutbound();
+                if (message == null) {
+                    // Publish the parked flag, then re-check so a concurrent offer is not missed
+                    writerParked = true;
+                    if (outbound.isEmpty() && pendingMove.get() == null && connected) {
+                        LockSupport.parkNanos(this, nextPing - System.nanoTime());
+                    }
+                    writerParked = false;
+                    continue;
+                }
+                
+                // Write a batch and flush once for the whole batch
+                int batchSize = TuningConfig.current().writeBatchSize;
+                int written = 0;
+                do {
+                    out.writeMessage(message);
+                    written++;
+                } while (written < batchSize && (message = nextOutbound()) != null);
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (connected) {
+                Log.warn("Error sending message: %s", e.getMessage());
+            }
+            closeConnection();
+        }
+    }
+    
+    /**
+     * Arena size announced by the server (valid after connect)
+     */
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+    
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+    
+    /**
+     * Smoothed round-trip time to the server (0 until the first pong)
+     */
+    public double getRoundTripMillis() {
+        return rtt.getRoundTripMillis();
+    }
+    
+    public double getJitterMillis() {
+        return rtt.getJitterMillis();
+    }
+    
+    /**
+     * Server clock minus local clock
+     */
+    public double getServerTimeOffsetMillis() {
+        return rtt.getClockOffsetMillis();
+    }
+    
+    /**
+     * Current time on the server's monotonic clock, in microseconds
+     */
+    public long estimateServerTimeMicros() {
+        return rtt.toPeerMicros(RttEstimator.nowMicros());
+    }
+    
+    /**
+     * Messages rejected because the outbound ring was full (FAIL), or because
+     * the connection closed while waiting for room (BLOCK)
+     */
+    public long getDroppedOutboundCount() {
+        return rejectedOutbound.get();
+    }
+    
+    /**
+     * Moves replaced by a newer one before the writer sent them
+     */
+    public long getCoalescedMoveCount() {
+        return coalescedMoves.get();
+    }
+    
+    private void listenForMessages() {
+        try {
+            while (connected) {
+                GameMessage message = in.readMessage();
+                // Timing messages are answered here and never reach the game loop
+                if (message.type == GameMessage.MessageType.PING) {
+                    message.type = GameMessage.MessageType.PONG;
+                    message.peerTime = RttEstimator.nowMicros();
+                    // Never wait for room here: a pong that does not fit is skipped, and
+                    // the next ping is answered; blocking would stall the inbound path
+                    if (outbound.tryOffer(message) && writerParked) {
+                        LockSupport.unpark(writerThread);
+                    }
+                    continue;
+                }
+                if (message.type == GameMessage.MessageType.PONG) {
+                    rtt.onPong(message.timestamp, message.peerTime, RttEstimator.nowMicros());
+                    continue;
+                }
+                if (message.type == GameMessage.MessageType.ROSTER_DELTA) {
+                    rosterEpoch = message.tick;
+                }
+                if (!messageQueue.offer(message)) {
+                    break; // Interrupted while waiting for the game loop to catch up
+                }
+            }
+        } catch (EOFException e) {
+            Log.info("Connection closed by server");
+        } catch (IOException e) {
+            if (connected) {
+                Log.warn("Error receiving messages: %s", e.getMessage());
+            }
+        } finally {
+            closeConnection();
+        }
+    }
+    
+    public GameMessage pollMessage() {
+        return messageQueue.poll();
+    }
+    
+    public GameMessage peekMessage() {
+        return messageQueue.peek();
+    }
+    
+    public boolean hasMessages() {
+        return !messageQueue.isEmpty();
+    }
+    
+    /**
+     * Apply up to max queued messages to the consumer, oldest first.
+     *
+     * @return number of messages drained
+     */
+    public int drainMessages(Consumer<GameMessage> consumer, int max) {
+        return messageQueue.drainTo(consumer, max);
+    }
+    
+    /**
+     * Messages received but not yet applied by the game loop
+     */
+    public int getInboundDepth() {
+        return messageQueue.size();
+    }
+    
+    /**
+     * Deepest inbound backlog seen since the last reset
+     */
+    public int getInboundHighWaterMark() {
+        return messageQueue.getHighWaterMark();
+    }
+    
+    public void resetInboundHighWaterMark() {
+        messageQueue.resetHighWaterMark();
+    }
+    
+    public int getInboundCapacity() {
+        return messageQueue.capacity();
+    }
+    
+    /**
+     * Close the connection, and stop a reconnect that is in progress
+     */
+    public void disconnect() {
+        Thread reconnecting = reconnectThread;
+        if (reconnecting != null && reconnecting != Thread.currentThread()) {
+            reconnecting.interrupt();
+        }
+        closeConnection();
+    }
+    
+    private void closeConnection() {
+        connected = false;
+        try {
+            if (socket != null && !socket.isClosed()) {
+                socket.close();
+            }
+        } catch (IOException e) {
+            Log.error("Error closing connection", e);
+        }
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+        }
+        // Interrupt the reader if it is blocked on a full inbound ring
+        if (readerThread != null && readerThread != Thread.currentThread()) {
+            readerThread.interrupt();
+        }
+    }
+    
+    /**
+     * Start connecting again after the connection dropped, presenting the
+     * session token so the server can hand back the same player. Retries with
+     * backoff on a background thread and returns at once; poll
+     * {@link #getConnectionState()} until it leaves RECONNECTING, then check
+     * {@link #isResumed()} to see whether the player kept its id or joined as
+     * a new one. Messages left over from the dropped session are discarded.
+     *
+     * @return false if connected or already reconnecting
+     */
+    public synchronized boolean startReconnect() {
+        if (connected || reconnectThread != null) {
+            return false;
+        }
+        Thread thread = new Thread(this::reconnect, "GameClient-reconnect");
+        thread.setDaemon(true);
+        reconnectThread = thread;
+        thread.start();
+        return true;
+    }
+    
+    private void reconnect() {
+        closeConnection();
+        try {
+            for (Thread thread : new Thread[] {readerThread, writerThread}) {
+                if (thread != null) {
+                    thread.join(1000);
+                }
+            }
+            // Both session threads are gone, so nothing refills the rings
+            messageQueue.drainTo(message -> { }, Integer.MAX_VALUE);
+            outbound.drainTo(message -> { }, Integer.MAX_VALUE);
+            pendingMove.set(null);
+            for (int attempt = 0; attempt < RECONNECT_ATTEMPTS; attempt++) {
+                Thread.sleep(RECONNECT_BACKOFF_MS << attempt);
+                if (connect()) {
+                    if (Thread.interrupted()) {
+                        closeConnection(); // disconnect() raced with the last attempt
+                    }
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Cancelled by disconnect()
+        } finally {
+            reconnectThread = null;
+        }
+    }
+    
+    public ConnectionState getConnectionState() {
+        if (connected) {
+            return ConnectionState.CONNECTED;
+        }
+        return reconnectThread != null ? ConnectionState.RECONNECTING : ConnectionState.DISCONNECTED;
+    }
+    
+    /**
+     * Join as a read-only spectator (server or SpectatorRelay); call before connect()
+     */
+    public void setSpectator(boolean spectator) {
+        this.spectator = spectator;
+    }
+    
+    public boolean isSpectator() {
+        return spectator;
+    }
+    
+    /**
+     * True if the last connect resumed an existing session
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+    
+    public boolean isConnected() {
+        return connected;
+    }
+}
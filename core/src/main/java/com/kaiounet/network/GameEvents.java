@@ -0,0 +1,124 @@
+package com.kaiounet.network;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder events for the server and client hot paths.
+ *
+ * Events cost next to nothing while recording is off or below threshold;
+ * check {@code shouldCommit()} before filling fields that take work to
+ * compute. Thresholds for a continuous production recording are in
+ * jfr/kaiounet.jfc.
+ */
+public final class GameEvents {
+    
+    private GameEvents() {
+    }
+    
+    @Name("com.kaiounet.MessageHandled")
+    @Label("Message Handled")
+    @Description("Server reader thread handling one client message")
+    @Category({"Kaiounet", "Server"})
+    @StackTrace(false)
+    public static class MessageHandled extends Event {
+        @Label("Message Type")
+        public String messageType;
+        
+        @Label("Player Id")
+        public int playerId;
+    }
+    
+    @Name("com.kaiounet.Broadcast")
+    @Label("Broadcast")
+    @Description("Fan-out of one message to client outboxes")
+    @Category({"Kaiounet", "Server"})
+    @StackTrace(false)
+    public static class Broadcast extends Event {
+        @Label("Message Type")
+        public String messageType;
+        
+        @Label("Recipients")
+        public int recipients;
+    }
+    
+    @Name("com.kaiounet.ClientWrite")
+    @Label("Client Write")
+    @Description("Server writer thread encoding and flushing one batch to a client")
+    @Category({"Kaiounet", "Server"})
+    @StackTrace(false)
+    public static class ClientWrite extends Event {
+        @Label("Player Id")
+        public int playerId;
+        
+        @Label("Messages")
+        public int messages;
+        
+        @Label("Encoded Size")
+        @Description("Bytes before compression, including length prefixes")
+        @DataAmount
+        public long bytes;
+        
+        @Label("Flush Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long flushNanos;
+    }
+    
+    @Name("com.kaiounet.ServerTick")
+    @Label("Server Tick")
+    @Description("One server tick: roster delta, snapshots and per-client state updates")
+    @Category({"Kaiounet", "Server"})
+    @StackTrace(false)
+    public static class ServerTick extends Event {
+        @Label("Clients")
+        public int clients;
+        
+        @Label("Players")
+        public int players;
+        
+        @Label("Allocated")
+        @Description("Heap bytes allocated by the tick thread during the tick")
+        @DataAmount
+        public long allocatedBytes;
+    }
+    
+    @Name("com.kaiounet.Frame")
+    @Label("Client Frame")
+    @Description("One client frame, split into phases")
+    @Category({"Kaiounet", "Client"})
+    @StackTrace(false)
+    public static class Frame extends Event {
+        @Label("Network Apply Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long networkNanos;
+        
+        @Label("Messages Applied")
+        public int messagesApplied;
+        
+        @Label("Inbound Backlog")
+        @Description("Messages left in the inbound queue after the frame's apply budget")
+        public int inboundBacklog;
+        
+        @Label("Simulation Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long simulationNanos;
+        
+        @Label("Simulation Steps")
+        public int simulationSteps;
+        
+        @Label("Render Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long renderNanos;
+        
+        @Label("Allocated")
+        @Description("Heap bytes allocated by the game thread during the frame")
+        @DataAmount
+        public long allocatedBytes;
+    }
+}
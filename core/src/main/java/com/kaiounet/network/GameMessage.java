@@ -0,0 +1,84 @@
+package com.kaiounet.network;
+
+public class GameMessage {
+    public enum MessageType {
+        PLAYER_JOIN,
+        PLAYER_MOVE,
+        PLAYER_LEAVE,
+        STATE_UPDATE,
+        BEAM_FIRE,
+        PLAYER_HIT,
+        PLAYER_RESPAWN,
+        LEADERBOARD_UPDATE,
+        LOCKSTEP_INPUT,
+        LOCKSTEP_CHECKSUM,
+        PING,
+        PONG,
+        ROSTER_DELTA,
+        LOCKSTEP_START
+    }
+    
+    public MessageType type;
+    public int playerId;
+    public float x;
+    public float y;
+    public int color;
+    public int health;
+    public int score;
+    // Beam specific fields
+    public int beamId;
+    public float vx;
+    public float vy;
+    // Hit/damage fields
+    public int targetPlayerId;
+    public int killerId;
+    public int damage;
+    // Leaderboard fields (server -> client)
+    public int[] rankedIds;     // Top-K player ids, best first; null if unchanged
+    public int[] rankedScores;  // Scores matching rankedIds
+    public int rank;            // Recipient's own 1-based rank
+    public int rankedTotal;     // Number of ranked players
+    // Lockstep fields; LOCKSTEP_START (server -> client) carries the match id in tick,
+    // the seed in checksum and the roster in joinedIds (empty: the match is over)
+    public int tick;
+    public int input;           // Packed LockstepInput
+    public long checksum;       // LockstepSimulation state hash at tick
+    // Ping fields (microseconds, each side's own monotonic clock)
+    public long timestamp;      // PING: sender clock; PONG: the echoed PING timestamp
+    public long peerTime;       // PONG: responder clock when answering
+    // Roster delta fields (server -> client): leaves apply before joins; tick carries the roster epoch
+    public int[] joinedIds;
+    public float[] joinedX;
+    public float[] joinedY;
+    public int[] joinedColors;
+    public int[] joinedHealth;
+    public int[] joinedScores;
+    public int[] leftIds;
+    
+    public GameMessage(MessageType type, int playerId, float x, float y, int color) {
+        this.type = type;
+        this.playerId = playerId;
+        this.x = x;
+        this.y = y;
+        this.color = color;
+        this.health = 100;
+        this.score = 0;
+    }
+    
+    public GameMessage(MessageType type, int playerId, float x, float y, int color, int health, int score) {
+        this.type = type;
+        this.playerId = playerId;
+        this.x = x;
+        this.y = y;
+        this.color = color;
+        this.health = health;
+        this.score = score;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("GameMessage{type=%s, playerId=%d, pos=(%.1f,%.1f)}", 
+            type, playerId, x, y);
+    }
+}
+
@@ -0,0 +1,405 @@
+package com.kaiounet.network;
+
+import com.kaiounet.config.TuningConfig;
+import com.kaiounet.game.Player;
+
+/**
+ * Compact bit-packed wire format for {@link GameMessage}.
+ *
+ * Every message starts with a 4-bit type and the player id; after that only
+ * the fields the type actually uses are written, each with its own rule:
+ * <ul>
+ *   <li>Positions: 16 bits per axis over [0, world size]. Values outside are
+ *       clamped; inside, the error is at most world / 131070 (0.031 px for a
+ *       4000 px world, 0.76 px for the 100000 px maximum).</li>
+ *   <li>Beam directions: 8-bit angle, at most 0.71 degrees off. The shooter
+ *       snaps its own beam with {@link #quantizeDirection} so every peer
+ *       simulates the same path.</li>
+ *   <li>Health and damage: 7 bits, exact for 0..127 (clamped outside).</li>
+ *   <li>Colors: 3-bit palette index, exact; non-palette colors cost 32 more bits.</li>
+ *   <li>Ids, ticks, ranks and scores: varints, exact.</li>
+ *   <li>Lockstep input: 16 bits, checksum, seed and ping timestamps: 64 bits, exact.</li>
+ * </ul>
+ *
+ * Both ends must use the same world size; the server sends it in the handshake.
+ */
+public class GameMessageCodec {
+    public static final int TYPE_BITS = 4;
+    public static final int POSITION_BITS = 16;
+    public static final int DIRECTION_BITS = 8;
+    public static final int HEALTH_BITS = 7;
+    public static final int PALETTE_BITS = 3;
+    
+    private static final int POSITION_MAX = (1 << POSITION_BITS) - 1;
+    private static final int HEALTH_MAX = (1 << HEALTH_BITS) - 1;
+    private static final int DIRECTION_STEPS = 1 << DIRECTION_BITS;
+    private static final int PALETTE_ESCAPE = (1 << PALETTE_BITS) - 1;
+    private static final GameMessage.MessageType[] TYPES = GameMessage.MessageType.values();
+    
+    // StrictMath so every JVM builds bit-identical tables
+    private static final float[] DIRECTION_X = new float[DIRECTION_STEPS];
+    private static final float[] DIRECTION_Y = new float[DIRECTION_STEPS];
+    
+    static {
+        if (TYPES.length > (1 << TYPE_BITS) || Player.PALETTE_SIZE > PALETTE_ESCAPE) {
+            throw new ExceptionInInitializerError("GameMessageCodec field widths too small");
+        }
+        for (int i = 0; i < DIRECTION_STEPS; i++) {
+            double angle = 2 * Math.PI * i / DIRECTION_STEPS;
+            DIRECTION_X[i] = (float) StrictMath.cos(angle);
+            DIRECTION_Y[i] = (float) StrictMath.sin(angle);
+        }
+    }
+    
+    private final float worldWidth;
+    private final float worldHeight;
+    
+    public GameMessageCodec(int worldWidth, int worldHeight) {
+        if (worldWidth <= 0 || worldHeight <= 0) {
+            throw new IllegalArgumentException("world size must be positive: " + worldWidth + "x" + worldHeight);
+        }
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+    
+    /**
+     * True if this codec quantizes positions against the given world size
+     */
+    public boolean hasWorldSize(int width, int height) {
+        return worldWidth == width && worldHeight == height;
+    }
+    
+    public void encode(GameMessage message, BitWriter out) {
+        out.writeBits(message.type.ordinal(), TYPE_BITS);
+        out.writeVarInt(message.playerId);
+        
+        switch (message.type) {
+            case PLAYER_JOIN:
+                writePosition(out, message.x, message.y);
+                writeColor(out, message.color);
+                writeHealth(out, message.health);
+                out.writeSignedVarInt(message.score);
+                break;
+            
+            case PLAYER_MOVE:
+                writePosition(out, message.x, message.y);
+                break;
+            
+            case BEAM_FIRE:
+                writePosition(out, message.x, message.y);
+                writeColor(out, message.color);
+                out.writeVarInt(message.beamId);
+                out.writeBits(directionIndex(message.vx, message.vy), DIRECTION_BITS);
+                break;
+            
+            case PLAYER_HIT:
+                writePosition(out, message.x, message.y);
+                writeColor(out, message.color);
+                out.writeVarInt(message.targetPlayerId);
+                out.writeVarInt(message.beamId);
+                writeHealth(out, message.damage);
+                writeHealth(out, message.health);
+                out.writeSignedVarInt(message.score);
+                break;
+            
+            case PLAYER_RESPAWN:
+                writePosition(out, message.x, message.y);
+                writeColor(out, message.color);
+                writeHealth(out, message.health);
+                out.writeSignedVarInt(message.score);
+                out.writeVarInt(message.killerId);
+                break;
+            
+            case LEADERBOARD_UPDATE:
+                out.writeSignedVarInt(message.rank);
+                out.writeVarInt(message.rankedTotal);
+                out.writeBoolean(message.rankedIds != null);
+                if (message.rankedIds != null) {
+                    int count = Math.min(message.rankedIds.length, message.rankedScores.length);
+                    out.writeVarInt(count);
+                    for (int i = 0; i < count; i++) {
+                        out.writeVarInt(message.rankedIds[i]);
+                        out.writeSignedVarInt(message.rankedScores[i]);
+                    }
+                }
+                break;
+            
+            case LOCKSTEP_INPUT:
+                out.writeVarInt(message.tick);
+                out.writeBits(message.input, 16);
+                break;
+            
+            case LOCKSTEP_CHECKSUM:
+                out.writeVarInt(message.tick);
+                out.writeLong(message.checksum);
+                break;
+            
+            case LOCKSTEP_START: {
+                out.writeVarInt(message.tick); // Match id
+                out.writeLong(message.checksum); // Seed
+                int count = message.joinedIds != null ? message.joinedIds.length : 0;
+                out.writeVarInt(count);
+                for (int i = 0; i < count; i++) {
+                    out.writeVarInt(message.joinedIds[i]);
+                }
+                break;
+            }
+                
+            case PING:
+                out.writeLong(message.timestamp);
+                break;
+                
+            case PONG:
+                out.writeLong(message.timestamp);
+                out.writeLong(message.peerTime);
+                break;
+                
+            case ROSTER_DELTA: {
+                out.writeVarInt(message.tick); // Roster epoch
+                int left = message.leftIds != null ? message.leftIds.length : 0;
+                out.writeVarInt(left);
+                for (int i = 0; i < left; i++) {
+                    out.writeVarInt(message.leftIds[i]);
+                }
+                int joined = message.joinedIds != null ? message.joinedIds.length : 0;
+                out.writeVarInt(joined);
+                for (int i = 0; i < joined; i++) {
+                    out.writeVarInt(message.joinedIds[i]);
+                    writePosition(out, message.joinedX[i], message.joinedY[i]);
+                    writeColor(out, message.joinedColors[i]);
+                    writeHealth(out, message.joinedHealth[i]);
+                    out.writeSignedVarInt(message.joinedScores[i]);
+                }
+                break;
+            }
+            
+            case PLAYER_LEAVE:
+            case STATE_UPDATE:
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * @throws IllegalStateException if the bits do not form a valid message
+     */
+    public GameMessage decode(BitReader in) {
+        int typeIndex = in.readBits(TYPE_BITS);
+        if (typeIndex >= TYPES.length) {
+            throw new IllegalStateException("Unknown message type " + typeIndex);
+        }
+        GameMessage message = new GameMessage(TYPES[typeIndex], in.readVarInt(), 0, 0, 0, 0, 0);
+        
+        switch (message.type) {
+            case PLAYER_JOIN:
+                readPosition(in, message);
+                message.color = readColor(in);
+                message.health = in.readBits(HEALTH_BITS);
+                message.score = in.readSignedVarInt();
+                break;
+            
+            case PLAYER_MOVE:
+                readPosition(in, message);
+                break;
+            
+            case BEAM_FIRE:
+                readPosition(in, message);
+                message.color = readColor(in);
+                message.beamId = in.readVarInt();
+                int direction = in.readBits(DIRECTION_BITS);
+                message.vx = DIRECTION_X[direction];
+                message.vy = DIRECTION_Y[direction];
+                break;
+            
+            case PLAYER_HIT:
+                readPosition(in, message);
+                message.color = readColor(in);
+                message.targetPlayerId = in.readVarInt();
+                message.beamId = in.readVarInt();
+                message.damage = in.readBits(HEALTH_BITS);
+                message.health = in.readBits(HEALTH_BITS);
+                message.score = in.readSignedVarInt();
+                break;
+            
+            case PLAYER_RESPAWN:
+                readPosition(in, message);
+                message.color = readColor(in);
+                message.health = in.readBits(HEALTH_BITS);
+                message.score = in.readSignedVarInt();
+                message.killerId = in.readVarInt();
+                break;
+            
+            case LEADERBOARD_UPDATE:
+                message.rank = in.readSignedVarInt();
+                message.rankedTotal = in.readVarInt();
+                if (in.readBoolean()) {
+                    int count = in.readVarInt();
+                    if (count > TuningConfig.MAX_LEADERBOARD_TOP_K) {
+                        throw new IllegalStateException("Leaderboard too long: " + count);
+                    }
+                    message.rankedIds = new int[count];
+                    message.rankedScores = new int[count];
+                    for (int i = 0; i < count; i++) {
+                        message.rankedIds[i] = in.readVarInt();
+                        message.rankedScores[i] = in.readSignedVarInt();
+                    }
+                }
+                break;
+            
+            case LOCKSTEP_INPUT:
+                message.tick = in.readVarInt();
+                message.input = in.readBits(16);
+                break;
+            
+            case LOCKSTEP_CHECKSUM:
+                message.tick = in.readVarInt();
+                message.checksum = in.readLong();
+                break;
+            
+            case LOCKSTEP_START: {
+                message.tick = in.readVarInt();
+                message.checksum = in.readLong();
+                int count = readCount(in);
+                message.joinedIds = new int[count];
+                for (int i = 0; i < count; i++) {
+                    message.joinedIds[i] = in.readVarInt();
+                }
+                break;
+            }
+                
+            case PING:
+                message.timestamp = in.readLong();
+                break;
+                
+            case PONG:
+                message.timestamp = in.readLong();
+                message.peerTime = in.readLong();
+                break;
+                
+            case ROSTER_DELTA: {
+                message.tick = in.readVarInt();
+                int left = readCount(in);
+                message.leftIds = new int[left];
+                for (int i = 0; i < left; i++) {
+                    message.leftIds[i] = in.readVarInt();
+                }
+                int joined = readCount(in);
+                message.joinedIds = new int[joined];
+                message.joinedX = new float[joined];
+                message.joinedY = new float[joined];
+                message.joinedColors = new int[joined];
+                message.joinedHealth = new int[joined];
+                message.joinedScores = new int[joined];
+                for (int i = 0; i < joined; i++) {
+                    message.joinedIds[i] = in.readVarInt();
+                    message.joinedX[i] = readX(in);
+                    message.joinedY[i] = readY(in);
+                    message.joinedColors[i] = readColor(in);
+                    message.joinedHealth[i] = in.readBits(HEALTH_BITS);
+                    message.joinedScores[i] = in.readSignedVarInt();
+                }
+                break;
+            }
+            
+            case PLAYER_LEAVE:
+            case STATE_UPDATE:
+            default:
+                break;
+        }
+        return message;
+    }
+    
+    private void writePosition(BitWriter out, float x, float y) {
+        out.writeBits(quantize(x, worldWidth), POSITION_BITS);
+        out.writeBits(quantize(y, worldHeight), POSITION_BITS);
+    }
+    
+    private void readPosition(BitReader in, GameMessage message) {
+        message.x = readX(in);
+        message.y = readY(in);
+    }
+    
+    private float readX(BitReader in) {
+        return dequantize(in.readBits(POSITION_BITS), worldWidth);
+    }
+    
+    private float readY(BitReader in) {
+        return dequantize(in.readBits(POSITION_BITS), worldHeight);
+    }
+    
+    /**
+     * Array length that cannot exceed what the remaining bits could hold
+     */
+    private static int readCount(BitReader in) {
+        int count = in.readVarInt();
+        if (count < 0 || count > in.bitsRemaining()) {
+            throw new IllegalStateException("Bad element count " + count);
+        }
+        return count;
+    }
+    
+    private static int quantize(float value, float range) {
+        if (!(value > 0)) {
+            return 0; // Also maps NaN to 0
+        }
+        if (value >= range) {
+            return POSITION_MAX;
+        }
+        return (int) Math.round((double) value / range * POSITION_MAX);
+    }
+    
+    /**
+     * In double: step * range overflows float's 24-bit mantissa, which would
+     * add rounding error on top of the quantization error and miss the edges
+     */
+    private static float dequantize(int step, float range) {
+        return (float) ((double) step * range / POSITION_MAX);
+    }
+    
+    private static void writeHealth(BitWriter out, int value) {
+        out.writeBits(Math.max(0, Math.min(value, HEALTH_MAX)), HEALTH_BITS);
+    }
+    
+    private static void writeColor(BitWriter out, int color) {
+        int index = Player.paletteIndex(color);
+        if (index >= 0) {
+            out.writeBits(index, PALETTE_BITS);
+        } else {
+            out.writeBits(PALETTE_ESCAPE, PALETTE_BITS);
+            out.writeBits(color, 32);
+        }
+    }
+    
+    private static int readColor(BitReader in) {
+        int index = in.readBits(PALETTE_BITS);
+        if (index == PALETTE_ESCAPE) {
+            return in.readBits(32);
+        }
+        if (index >= Player.PALETTE_SIZE) {
+            throw new IllegalStateException("Unknown palette index " + index);
+        }
+        return Player.paletteColor(index);
+    }
+    
+    /**
+     * Nearest 8-bit angle for a direction vector; (0, 0) maps to +x
+     */
+    public static int directionIndex(float vx, float vy) {
+        if (vx == 0 && vy == 0) {
+            return 0;
+        }
+        double angle = Math.atan2(vy, vx);
+        return (int) Math.round(angle / (2 * Math.PI) * DIRECTION_STEPS) & (DIRECTION_STEPS - 1);
+    }
+    
+    /**
+     * Snap a direction to what receivers will decode.
+     *
+     * @param out receives the unit vector as {x, y}
+     */
+    public static void quantizeDirection(float vx, float vy, float[] out) {
+        int index = directionIndex(vx, vy);
+        out[0] = DIRECTION_X[index];
+        out[1] = DIRECTION_Y[index];
+    }
+}
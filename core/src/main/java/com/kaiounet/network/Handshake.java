@@ -0,0 +1,111 @@
+package com.kaiounet.network;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Connection handshake exchanged before any game messages.
+ *
+ * The client sends [magic:2][version:1][requested flags:1][session token:8]
+ * [roster epoch:4]; the token is 0 on a first connect, otherwise the one the
+ * server issued, with the epoch of the last roster delta the client applied.
+ * The server answers with the same header carrying the flags it accepted,
+ * the world size both sides quantize positions against, and the session
+ * token to present next time.
+ */
+public final class Handshake {
+    public static final int MAGIC = 0x5346; // "SF"
+    public static final int VERSION = 4;
+    
+    /** Server -> client traffic is framed by CompressedOutputStream */
+    public static final int FLAG_COMPRESSION = 1;
+    /** Reply only: the session token was accepted and the player keeps its id and state */
+    public static final int FLAG_RESUMED = 2;
+    /** Read-only connection: receives the game's updates but is not a player */
+    public static final int FLAG_SPECTATOR = 4;
+    
+    public final int flags;
+    public final int worldWidth;
+    public final int worldHeight;
+    public final long sessionToken;
+    public final int rosterEpoch;
+    
+    private Handshake(int flags, int worldWidth, int worldHeight, long sessionToken, int rosterEpoch) {
+        this.flags = flags;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.sessionToken = sessionToken;
+        this.rosterEpoch = rosterEpoch;
+    }
+    
+    public boolean has(int flag) {
+        return (flags & flag) != 0;
+    }
+    
+    /**
+     * @param sessionToken token from an earlier reply, or 0 to join as a new player
+     */
+    public static void writeHello(OutputStream out, int flags, long sessionToken, int rosterEpoch) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        writeHeader(data, flags);
+        data.writeLong(sessionToken);
+        data.writeInt(rosterEpoch);
+        data.flush();
+    }
+    
+    /**
+     * @return the client's requested flags, session token and roster epoch (world size unset)
+     */
+    public static Handshake readHello(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int flags = readHeader(data);
+        long sessionToken = data.readLong();
+        int rosterEpoch = data.readInt();
+        return new Handshake(flags, 0, 0, sessionToken, rosterEpoch);
+    }
+    
+    public static void writeReply(OutputStream out, int flags, int worldWidth, int worldHeight,
+                                  long sessionToken) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        writeHeader(data, flags);
+        data.writeInt(worldWidth);
+        data.writeInt(worldHeight);
+        data.writeLong(sessionToken);
+        data.flush();
+    }
+    
+    public static Handshake readReply(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int flags = readHeader(data);
+        int worldWidth = data.readInt();
+        int worldHeight = data.readInt();
+        if (worldWidth <= 0 || worldHeight <= 0) {
+            throw new IOException("Invalid world size " + worldWidth + "x" + worldHeight);
+        }
+        long sessionToken = data.readLong();
+        return new Handshake(flags, worldWidth, worldHeight, sessionToken, 0);
+    }
+    
+    private static void writeHeader(DataOutputStream data, int flags) throws IOException {
+        data.writeShort(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(flags);
+    }
+    
+    /**
+     * @throws IOException if the peer does not speak this protocol version
+     */
+    private static int readHeader(DataInputStream data) throws IOException {
+        int magic = data.readUnsignedShort();
+        int version = data.readUnsignedByte();
+        int flags = data.readUnsignedByte();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Unsupported handshake (magic=" + Integer.toHexString(magic)
+                + ", version=" + version + ")");
+        }
+        return flags;
+    }
+}
@@ -0,0 +1,240 @@
+package com.kaiounet.network;
+
+import com.kaiounet.game.LockstepInput;
+import com.kaiounet.game.LockstepSimulation;
+import com.kaiounet.utils.Log;
+import java.util.Arrays;
+
+/**
+ * Input-only networking for a deterministic {@link LockstepSimulation}.
+ *
+ * Each peer sends only its packed per-tick input (LOCKSTEP_INPUT) and, every
+ * CHECKSUM_INTERVAL ticks, a state hash (LOCKSTEP_CHECKSUM). The confirmed
+ * simulation advances only when every player's input for the next tick is
+ * known. For rendering, a predicted copy is rolled back to the confirmed state
+ * each frame and re-simulated with the last known input of any player whose
+ * input has not arrived yet.
+ */
+public class LockstepSession {
+    public static final int INPUT_WINDOW = 256;       // Ticks of input kept per player
+    public static final int CHECKSUM_INTERVAL = 30;   // Ticks between checksum exchanges
+    private static final int CHECKSUM_HISTORY = 16;
+    
+    private final GameClient client;
+    private final int localPlayerId;
+    private final int localIndex;
+    private final int inputDelay;
+    private final int playerCount;
+    private final LockstepSimulation confirmed;
+    private final LockstepSimulation predicted;
+    
+    private final int[][] inputTicks;
+    private final int[][] inputs;
+    private final int[] lastKnownInput;
+    private final int[] stepInputs;
+    private int nextLocalTick;
+    
+    private final int[] localChecksumTicks = new int[CHECKSUM_HISTORY];
+    private final long[] localChecksums = new long[CHECKSUM_HISTORY];
+    private final int[][] remoteChecksumTicks;
+    private final long[][] remoteChecksums;
+    private volatile int desyncTick = -1;
+    private volatile int desyncPlayerId = -1;
+    
+    /**
+     * @param roster     player ids in the same order on every peer
+     * @param inputDelay ticks between sampling local input and simulating it;
+     *                   hides one-way latency
+     */
+    public LockstepSession(GameClient client, int localPlayerId, int[] roster, long seed,
+                           int worldWidth, int worldHeight, int inputDelay) {
+        this.client = client;
+        this.localPlayerId = localPlayerId;
+        this.inputDelay = Math.max(0, Math.min(inputDelay, INPUT_WINDOW / 2));
+        this.playerCount = roster.length;
+        this.confirmed = new LockstepSimulation(seed, roster, worldWidth, worldHeight);
+        this.predicted = new LockstepSimulation(seed, roster, worldWidth, worldHeight);
+        this.localIndex = confirmed.indexOf(localPlayerId);
+        if (localIndex < 0) {
+            throw new IllegalArgumentException("local player " + localPlayerId + " not in roster");
+        }
+        
+        this.inputTicks = new int[playerCount][INPUT_WINDOW];
+        this.inputs = new int[playerCount][INPUT_WINDOW];
+        this.lastKnownInput = new int[playerCount];
+        this.stepInputs = new int[playerCount];
+        this.remoteChecksumTicks = new int[playerCount][CHECKSUM_HISTORY];
+        this.remoteChecksums = new long[playerCount][CHECKSUM_HISTORY];
+        for (int i = 0; i < playerCount; i++) {
+            Arrays.fill(inputTicks[i], -1);
+            Arrays.fill(remoteChecksumTicks[i], -1);
+        }
+        Arrays.fill(localChecksumTicks, -1);
+        this.nextLocalTick = this.inputDelay;
+    }
+    
+    /**
+     * Schedule this frame's local input and send it to the other peers.
+     *
+     * @return false if the local peer is a full input window ahead and must wait
+     */
+    public boolean submitLocalInput(int input) {
+        if (nextLocalTick - confirmed.getTick() >= INPUT_WINDOW - 1) {
+            return false;
+        }
+        int tick = nextLocalTick++;
+        storeInput(localIndex, tick, input);
+        
+        GameMessage message = new GameMessage(GameMessage.MessageType.LOCKSTEP_INPUT, localPlayerId, 0, 0, 0);
+        message.tick = tick;
+        message.input = input;
+        client.sendMessage(message);
+        return true;
+    }
+    
+    /**
+     * Feed a lockstep message received from the server.
+     *
+     * @return true if the message belonged to the lockstep protocol
+     */
+    public boolean onMessage(GameMessage message) {
+        switch (message.type) {
+            case LOCKSTEP_INPUT: {
+                int index = confirmed.indexOf(message.playerId);
+                if (index >= 0 && index != localIndex) {
+                    storeInput(index, message.tick, message.input);
+                }
+                return true;
+            }
+            case LOCKSTEP_CHECKSUM: {
+                int index = confirmed.indexOf(message.playerId);
+                if (index >= 0 && index != localIndex) {
+                    int slot = (message.tick / CHECKSUM_INTERVAL) % CHECKSUM_HISTORY;
+                    remoteChecksumTicks[index][slot] = message.tick;
+                    remoteChecksums[index][slot] = message.checksum;
+                    compareChecksums(message.tick);
+                }
+                return true;
+            }
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Step the confirmed simulation as far as known inputs allow, then rebuild
+     * the predicted state up to the latest local tick.
+     *
+     * @return number of confirmed ticks simulated
+     */
+    public int advance() {
+        int stepped = 0;
+        while (collectInputs(confirmed.getTick(), false)) {
+            confirmed.step(stepInputs);
+            stepped++;
+            int tick = confirmed.getTick();
+            if (tick % CHECKSUM_INTERVAL == 0) {
+                publishChecksum(tick);
+            }
+        }
+        
+        // Roll back and re-simulate the unconfirmed ticks with predicted inputs
+        predicted.copyFrom(confirmed);
+        while (predicted.getTick() < nextLocalTick) {
+            collectInputs(predicted.getTick(), true);
+            predicted.step(stepInputs);
+        }
+        return stepped;
+    }
+    
+    /**
+     * Fill stepInputs for a tick.
+     *
+     * @param predict use each player's last known input when the real one is missing
+     * @return true if every input was known
+     */
+    private boolean collectInputs(int tick, boolean predict) {
+        boolean complete = true;
+        for (int i = 0; i < playerCount; i++) {
+            if (tick < inputDelay) {
+                stepInputs[i] = LockstepInput.NONE;
+                continue;
+            }
+            int slot = tick % INPUT_WINDOW;
+            if (inputTicks[i][slot] == tick) {
+                stepInputs[i] = inputs[i][slot];
+            } else if (predict) {
+                // Repeat movement but never predict a shot
+                stepInputs[i] = lastKnownInput[i] & ~LockstepInput.FIRE;
+                complete = false;
+            } else {
+                return false;
+            }
+        }
+        return complete;
+    }
+    
+    private void storeInput(int index, int tick, int input) {
+        if (tick < confirmed.getTick() || tick - confirmed.getTick() >= INPUT_WINDOW) {
+            return; // Too old or too far ahead for the window
+        }
+        int slot = tick % INPUT_WINDOW;
+        inputTicks[index][slot] = tick;
+        inputs[index][slot] = input;
+        lastKnownInput[index] = input;
+    }
+    
+    private void publishChecksum(int tick) {
+        long checksum = confirmed.checksum();
+        int slot = (tick / CHECKSUM_INTERVAL) % CHECKSUM_HISTORY;
+        localChecksumTicks[slot] = tick;
+        localChecksums[slot] = checksum;
+        
+        GameMessage message = new GameMessage(GameMessage.MessageType.LOCKSTEP_CHECKSUM, localPlayerId, 0, 0, 0);
+        message.tick = tick;
+        message.checksum = checksum;
+        client.sendMessage(message);
+        compareChecksums(tick);
+    }
+    
+    private void compareChecksums(int tick) {
+        int slot = (tick / CHECKSUM_INTERVAL) % CHECKSUM_HISTORY;
+        if (localChecksumTicks[slot] != tick) {
+            return; // Not simulated locally yet; compared when it is
+        }
+        for (int i = 0; i < playerCount; i++) {
+            if (i != localIndex && remoteChecksumTicks[i][slot] == tick
+                    && remoteChecksums[i][slot] != localChecksums[slot] && desyncTick < 0) {
+                desyncTick = tick;
+                desyncPlayerId = confirmed.getPlayer(i).id;
+                Log.error("✗ Lockstep desync at tick %d with player %d", tick, desyncPlayerId);
+            }
+        }
+    }
+    
+    /**
+     * State to render: confirmed ticks plus locally predicted ones
+     */
+    public LockstepSimulation getPredicted() {
+        return predicted;
+    }
+    
+    public LockstepSimulation getConfirmed() {
+        return confirmed;
+    }
+    
+    public boolean isDesynced() {
+        return desyncTick >= 0;
+    }
+    
+    /**
+     * First tick whose checksum differed, or -1
+     */
+    public int getDesyncTick() {
+        return desyncTick;
+    }
+    
+    public int getDesyncPlayerId() {
+        return desyncPlayerId;
+    }
+}
@@ -0,0 +1,75 @@
+package com.kaiounet.network;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads frames written by {@link MessageWriter}. Not thread-safe.
+ */
+public class MessageReader implements Closeable {
+    /** Upper bound on a single frame; a larger prefix means a corrupt stream */
+    public static final int MAX_FRAME_BYTES = 64 * 1024;
+    
+    private final InputStream in;
+    private final GameMessageCodec codec;
+    private final BitReader bits = new BitReader();
+    private byte[] frame = new byte[128];
+    
+    public MessageReader(InputStream in, GameMessageCodec codec) {
+        this.in = in;
+        this.codec = codec;
+    }
+    
+    /**
+     * Block until the next message arrives
+     *
+     * @throws EOFException when the peer closed the connection
+     * @throws IOException  on a malformed frame
+     */
+    public GameMessage readMessage() throws IOException {
+        int length = readLength();
+        if (length > frame.length) {
+            frame = new byte[Math.max(length, frame.length * 2)];
+        }
+        int read = 0;
+        while (read < length) {
+            int n = in.read(frame, read, length - read);
+            if (n < 0) {
+                throw new EOFException("Truncated message");
+            }
+            read += n;
+        }
+        
+        bits.reset(frame, length);
+        try {
+            return codec.decode(bits);
+        } catch (IllegalStateException e) {
+            throw new IOException("Malformed message: " + e.getMessage(), e);
+        }
+    }
+    
+    private int readLength() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0 || value > MAX_FRAME_BYTES) {
+                    throw new IOException("Frame too large: " + value);
+                }
+                return value;
+            }
+        }
+        throw new IOException("Frame length too long");
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
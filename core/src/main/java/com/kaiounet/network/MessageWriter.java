@@ -0,0 +1,94 @@
+package com.kaiounet.network;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes {@link GameMessage}s as length-prefixed {@link GameMessageCodec} frames.
+ *
+ * Frame: [length:varint bytes][bit-packed message]. Encoding reuses one
+ * BitWriter, so steady-state writes do not allocate. Frames encoded once for
+ * many connections ({@link SharedFrame}) are copied out as-is. Not thread-safe.
+ */
+public class MessageWriter implements Flushable, Closeable {
+    private final OutputStream out;
+    private final GameMessageCodec codec;
+    private final BitWriter bits = new BitWriter(128);
+    private final byte[] header = new byte[5];
+    // Volatile so other threads can meter bandwidth while the writer runs
+    private volatile long messagesWritten = 0;
+    private volatile long bytesWritten = 0;
+    
+    public MessageWriter(OutputStream out, GameMessageCodec codec) {
+        this.out = out;
+        this.codec = codec;
+    }
+    
+    public void writeMessage(GameMessage message) throws IOException {
+        bits.reset();
+        codec.encode(message, bits);
+        int length = bits.byteLength();
+        
+        int n = writeLengthPrefix(length, header);
+        out.write(header, 0, n);
+        out.write(bits.getBuffer(), 0, length);
+        
+        messagesWritten++;
+        bytesWritten += n + length;
+    }
+    
+    /**
+     * Write a frame another thread already encoded, as-is
+     */
+    public void writeFrame(SharedFrame frame) throws IOException {
+        frame.writeTo(out);
+        messagesWritten++;
+        bytesWritten += frame.length();
+    }
+    
+    /**
+     * Write a payload length as a varint at the start of dest
+     *
+     * @return bytes written (1-5)
+     */
+    static int writeLengthPrefix(int length, byte[] dest) {
+        int n = 0;
+        int value = length;
+        while ((value & ~0x7F) != 0) {
+            dest[n++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dest[n++] = (byte) value;
+        return n;
+    }
+    
+    static int lengthPrefixBytes(int length) {
+        int n = 1;
+        while ((length & ~0x7F) != 0) {
+            length >>>= 7;
+            n++;
+        }
+        return n;
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+    
+    public long getMessagesWritten() {
+        return messagesWritten;
+    }
+    
+    /** Encoded bytes including length prefixes, before any compression */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,211 @@
+package com.kaiounet.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, preallocated lock-free queue (Vyukov-style sequenced ring).
+ *
+ * Any number of threads may offer and poll concurrently. Slots are allocated
+ * once up front, so steady-state offer/poll does not allocate.
+ */
+public class RingBuffer<T> {
+    
+    /**
+     * What {@link #offer} does when the ring is full
+     */
+    public enum OverflowPolicy {
+        /** Discard the oldest queued element to make room */
+        DROP_OLDEST,
+        /** Wait until a consumer frees a slot */
+        BLOCK,
+        /** Reject the new element */
+        FAIL
+    }
+    
+    private static final long BLOCK_PARK_NANOS = 50_000;
+    
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final OverflowPolicy policy;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong highWater = new AtomicLong();
+    
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public RingBuffer(int capacity, OverflowPolicy policy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.policy = policy;
+    }
+    
+    /**
+     * Enqueue an element, applying the overflow policy if the ring is full.
+     *
+     * @return false only if the element was rejected (FAIL policy, or BLOCK interrupted)
+     */
+    public boolean offer(T element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        while (true) {
+            if (tryOffer(element)) {
+                return true;
+            }
+            switch (policy) {
+                case DROP_OLDEST:
+                    if (poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                    break;
+                case BLOCK:
+                    if (Thread.currentThread().isInterrupted()) {
+                        dropped.incrementAndGet();
+                        return false;
+                    }
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                    break;
+                case FAIL:
+                default:
+                    dropped.incrementAndGet();
+                    return false;
+            }
+        }
+    }
+    
+    /**
+     * Enqueue without applying the overflow policy (nothing is counted as dropped)
+     *
+     * @return false if the ring is full
+     */
+    public boolean tryOffer(T element) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long seq = sequences.get(index);
+            long diff = seq - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[index] = element;
+                    sequences.set(index, pos + 1);
+                    long depth = pos + 1 - head.get();
+                    if (depth > highWater.get()) {
+                        highWater.accumulateAndGet(depth, Math::max);
+                    }
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // Full
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+    
+    /**
+     * Dequeue the oldest element, or null if the ring is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long pos = head.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long seq = sequences.get(index);
+            long diff = seq - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    T element = (T) slots[index];
+                    slots[index] = null;
+                    sequences.set(index, pos + slots.length);
+                    return element;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null; // Empty
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+    
+    /**
+     * Look at the oldest element without removing it. Only meaningful with a single consumer.
+     */
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        long pos = head.get();
+        int index = (int) pos & mask;
+        if (sequences.get(index) != pos + 1) {
+            return null;
+        }
+        return (T) slots[index];
+    }
+    
+    /**
+     * Remove up to max elements, handing each to the consumer in FIFO order.
+     *
+     * @return number of elements drained
+     */
+    public int drainTo(Consumer<? super T> consumer, int max) {
+        int drained = 0;
+        T element;
+        while (drained < max && (element = poll()) != null) {
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+    
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    
+    /**
+     * Approximate number of queued elements
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, slots.length));
+    }
+    
+    public int capacity() {
+        return slots.length;
+    }
+    
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+    
+    /**
+     * Number of elements discarded or rejected by the overflow policy
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+    
+    /**
+     * Largest depth observed since creation (or the last reset)
+     */
+    public int getHighWaterMark() {
+        return (int) Math.min(highWater.get(), slots.length);
+    }
+    
+    public void resetHighWaterMark() {
+        highWater.set(size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.kaiounet.network;
+
+/**
+ * Smoothed round-trip time, jitter and clock offset for one connection.
+ *
+ * RTT and jitter follow the TCP retransmission timer estimator (RFC 6298:
+ * SRTT gain 1/8, RTTVAR gain 1/4). The offset maps local time to the peer's
+ * clock assuming symmetric paths; samples that took much longer than usual
+ * are left out of the offset because their delay is probably one-sided.
+ */
+public class RttEstimator {
+    private static final double RTT_GAIN = 0.125;
+    private static final double VARIANCE_GAIN = 0.25;
+    private static final double OFFSET_GAIN = 0.125;
+    
+    private long samples = 0;
+    private double smoothedRtt;
+    private double rttVariance;
+    private double minRtt;
+    private double clockOffset;
+    
+    /**
+     * Local clock for ping timestamps, in microseconds
+     */
+    public static long nowMicros() {
+        return System.nanoTime() / 1_000;
+    }
+    
+    /**
+     * Feed one ping/pong exchange.
+     *
+     * @param sentMicros     local time the ping was sent (echoed back by the peer)
+     * @param peerMicros     peer clock when it answered
+     * @param receivedMicros local time the pong arrived
+     */
+    public synchronized void onPong(long sentMicros, long peerMicros, long receivedMicros) {
+        double rtt = receivedMicros - sentMicros;
+        if (rtt < 0) {
+            return; // Not one of our timestamps
+        }
+        double offset = peerMicros + rtt / 2 - receivedMicros;
+        
+        if (samples == 0) {
+            smoothedRtt = rtt;
+            rttVariance = rtt / 2;
+            minRtt = rtt;
+            clockOffset = offset;
+        } else {
+            boolean typical = rtt <= smoothedRtt + 2 * rttVariance;
+            rttVariance += VARIANCE_GAIN * (Math.abs(smoothedRtt - rtt) - rttVariance);
+            smoothedRtt += RTT_GAIN * (rtt - smoothedRtt);
+            minRtt = Math.min(minRtt, rtt);
+            if (typical) {
+                clockOffset += OFFSET_GAIN * (offset - clockOffset);
+            }
+        }
+        samples++;
+    }
+    
+    public synchronized boolean hasSample() {
+        return samples > 0;
+    }
+    
+    public synchronized long getSampleCount() {
+        return samples;
+    }
+    
+    public synchronized double getRoundTripMillis() {
+        return smoothedRtt / 1000.0;
+    }
+    
+    /**
+     * Mean deviation of the round-trip time
+     */
+    public synchronized double getJitterMillis() {
+        return rttVariance / 1000.0;
+    }
+    
+    /**
+     * Retransmission timeout, SRTT + 4 * RTTVAR (RFC 6298 without its 1 s floor)
+     */
+    public synchronized double getTimeoutMillis() {
+        return (smoothedRtt + 4 * rttVariance) / 1000.0;
+    }
+    
+    public synchronized double getMinRoundTripMillis() {
+        return minRtt / 1000.0;
+    }
+    
+    /**
+     * Peer clock minus local clock
+     */
+    public synchronized double getClockOffsetMillis() {
+        return clockOffset / 1000.0;
+    }
+    
+    /**
+     * Convert a local timestamp to the peer's clock
+     */
+    public synchronized long toPeerMicros(long localMicros) {
+        return localMicros + Math.round(clockOffset);
+    }
+}
@@ -0,0 +1,101 @@
+package com.kaiounet.network;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One message encoded once and shared by every connection it is sent to.
+ *
+ * The bytes are a complete frame exactly as {@link MessageWriter} writes it,
+ * so writers copy them out without touching the codec. Each holder owns one
+ * reference; the last release returns small buffers to a pool for the next
+ * frame. The bytes never change while a reference is held. A frame whose
+ * references are dropped without release is simply garbage collected.
+ */
+public final class SharedFrame {
+    /** Buffers up to this size are pooled; a PLAYER_MOVE frame is 8 bytes */
+    private static final int POOLED_BYTES = 64;
+    private static final RingBuffer<SharedFrame> POOL =
+        new RingBuffer<>(4096, RingBuffer.OverflowPolicy.FAIL);
+    private static final ThreadLocal<BitWriter> SCRATCH = ThreadLocal.withInitial(() -> new BitWriter(128));
+    
+    private final byte[] bytes;
+    private int length;
+    private GameMessageCodec codec;
+    private final AtomicInteger refs = new AtomicInteger();
+    
+    private SharedFrame(int capacity) {
+        this.bytes = new byte[capacity];
+    }
+    
+    /**
+     * Encode a message; the caller owns the single reference
+     */
+    public static SharedFrame encode(GameMessageCodec codec, GameMessage message) {
+        BitWriter bits = SCRATCH.get();
+        bits.reset();
+        codec.encode(message, bits);
+        int payload = bits.byteLength();
+        int size = MessageWriter.lengthPrefixBytes(payload) + payload;
+        
+        SharedFrame frame = size <= POOLED_BYTES ? POOL.poll() : null;
+        if (frame == null) {
+            frame = new SharedFrame(Math.max(size, POOLED_BYTES));
+        }
+        int offset = MessageWriter.writeLengthPrefix(payload, frame.bytes);
+        System.arraycopy(bits.getBuffer(), 0, frame.bytes, offset, payload);
+        frame.length = size;
+        frame.codec = codec;
+        frame.refs.set(1);
+        return frame;
+    }
+    
+    /**
+     * Take another reference for a new holder
+     */
+    public void retain() {
+        if (refs.getAndIncrement() <= 0) {
+            throw new IllegalStateException("frame already released");
+        }
+    }
+    
+    /**
+     * Drop one reference; the holder must not use the frame afterwards
+     */
+    public void release() {
+        int left = refs.decrementAndGet();
+        if (left == 0) {
+            codec = null;
+            if (bytes.length == POOLED_BYTES) {
+                POOL.offer(this);
+            }
+        } else if (left < 0) {
+            throw new IllegalStateException("frame released too often");
+        }
+    }
+    
+    /**
+     * True if the frame can be written to a connection using this codec
+     * (same world size, so the same quantization)
+     */
+    public boolean encodedWith(GameMessageCodec codec) {
+        return this.codec == codec;
+    }
+    
+    /** Frame size on the wire, length prefix included */
+    public int length() {
+        return length;
+    }
+    
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+    
+    /**
+     * Released frames waiting for reuse
+     */
+    static int pooledCount() {
+        return POOL.size();
+    }
+}
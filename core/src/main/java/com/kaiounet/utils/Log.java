@@ -0,0 +1,182 @@
+package com.kaiounet.utils;
+
+import com.kaiounet.config.Config;
+import com.kaiounet.network.RingBuffer;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous, level-gated console logging.
+ *
+ * Callers only enqueue the pattern and its arguments; a background thread
+ * formats them ({@link String#format} syntax) and prints DEBUG/INFO to
+ * stdout, WARN/ERROR to stderr. The queue is a bounded {@link RingBuffer};
+ * when it is full, new entries are dropped and counted, and the writer
+ * reports the count. The level is read once from LOG_LEVEL in .env when
+ * this class is first used. The level flags are constants, so a disabled
+ * call is one folded branch plus building its arguments; guard call sites
+ * whose arguments are costly with {@code if (Log.DEBUG)}. A trailing
+ * Throwable argument is printed with its stack trace.
+ */
+public final class Log {
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+    
+    /** .env key: DEBUG, INFO (default), WARN, ERROR or OFF */
+    public static final String LOG_LEVEL = "LOG_LEVEL";
+    
+    public static final Level LEVEL = parseLevel(Config.snapshot().get(LOG_LEVEL));
+    public static final boolean DEBUG = isEnabled(LEVEL, Level.DEBUG);
+    public static final boolean INFO = isEnabled(LEVEL, Level.INFO);
+    public static final boolean WARN = isEnabled(LEVEL, Level.WARN);
+    public static final boolean ERROR = isEnabled(LEVEL, Level.ERROR);
+    
+    private static final int CAPACITY = 4096;
+    private static final int DRAIN_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = 2_000_000;
+    private static final Object[] NO_ARGS = new Object[0];
+    
+    private static final Sink SINK = new Sink(CAPACITY, System.out, System.err);
+    
+    static {
+        Thread writer = new Thread(Log::writeLoop, "Log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(SINK::drain, "Log-flush"));
+    }
+    
+    private Log() {
+    }
+    
+    public static void debug(String pattern, Object... args) {
+        if (DEBUG) {
+            SINK.offer(Level.DEBUG, pattern, args);
+        }
+    }
+    
+    public static void info(String pattern, Object... args) {
+        if (INFO) {
+            SINK.offer(Level.INFO, pattern, args);
+        }
+    }
+    
+    public static void warn(String pattern, Object... args) {
+        if (WARN) {
+            SINK.offer(Level.WARN, pattern, args);
+        }
+    }
+    
+    public static void error(String pattern, Object... args) {
+        if (ERROR) {
+            SINK.offer(Level.ERROR, pattern, args);
+        }
+    }
+    
+    /**
+     * Entries dropped because the queue was full
+     */
+    public static long getDroppedCount() {
+        return SINK.getDroppedCount();
+    }
+    
+    private static void writeLoop() {
+        while (true) {
+            if (SINK.drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+    
+    /**
+     * Whether a call at level prints when the configured level is threshold
+     */
+    static boolean isEnabled(Level threshold, Level level) {
+        return level != Level.OFF && threshold.compareTo(level) <= 0;
+    }
+    
+    /**
+     * The bounded queue and the printing, apart from the writer thread and
+     * the process-wide streams
+     */
+    static final class Sink {
+        private static final class Entry {
+            final Level level;
+            final String pattern;
+            final Object[] args;
+            
+            Entry(Level level, String pattern, Object[] args) {
+                this.level = level;
+                this.pattern = pattern;
+                this.args = args;
+            }
+        }
+        
+        private final RingBuffer<Entry> queue;
+        private final PrintStream out;
+        private final PrintStream err;
+        private long reportedDrops = 0;
+        
+        Sink(int capacity, PrintStream out, PrintStream err) {
+            this.queue = new RingBuffer<>(capacity, RingBuffer.OverflowPolicy.FAIL);
+            this.out = out;
+            this.err = err;
+        }
+        
+        /**
+         * @return false if the queue was full and the entry was dropped
+         */
+        boolean offer(Level level, String pattern, Object[] args) {
+            return queue.offer(new Entry(level, pattern, args));
+        }
+        
+        long getDroppedCount() {
+            return queue.getDroppedCount();
+        }
+        
+        /**
+         * Print everything queued so far
+         *
+         * @return number of entries printed
+         */
+        synchronized int drain() {
+            int printed = 0;
+            int n;
+            while ((n = queue.drainTo(this::print, DRAIN_BATCH)) > 0) {
+                printed += n;
+            }
+            long dropped = queue.getDroppedCount();
+            if (dropped != reportedDrops) {
+                err.println("✗ Log queue full: " + (dropped - reportedDrops) + " messages dropped");
+                reportedDrops = dropped;
+            }
+            return printed;
+        }
+        
+        private void print(Entry entry) {
+            Object[] args = entry.args != null ? entry.args : NO_ARGS;
+            String text;
+            try {
+                text = args.length == 0 ? entry.pattern : String.format(entry.pattern, args);
+            } catch (RuntimeException e) {
+                text = entry.pattern + " (bad log format: " + e.getMessage() + ")";
+            }
+            PrintStream stream = entry.level.compareTo(Level.WARN) >= 0 ? err : out;
+            stream.println(text);
+            if (args.length > 0 && args[args.length - 1] instanceof Throwable) {
+                ((Throwable) args[args.length - 1]).printStackTrace(stream);
+            }
+        }
+    }
+    
+    static Level parseLevel(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return Level.INFO;
+        }
+        try {
+            return Level.valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("✗ Unknown " + LOG_LEVEL + "=" + raw + ", using INFO");
+            return Level.INFO;
+        }
+    }
+}
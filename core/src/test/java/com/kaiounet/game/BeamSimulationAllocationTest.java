@@ -0,0 +1,72 @@
+package com.kaiounet.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.kaiounet.network.AllocationTracker;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Once the grids have grown, a headless beam step allocates nothing.
+ */
+class BeamSimulationAllocationTest {
+    private static final int BEAMS = 1_000;
+    private static final int PLAYERS = 100;
+    private static final int WARMUP_STEPS = 20_000; // Long enough for the JIT to remove iterators
+    private static final int STEPS = 10_000;
+    private static final long MAX_AVERAGE_BYTES = 16;
+    
+    private int hits;
+    private final BeamSimulation.HitListener countHits = (beam, target, time) -> hits++;
+    
+    @Test
+    void steadyStateStepDoesNotAllocate() {
+        assumeTrue(AllocationTracker.isSupported(), "JVM has no per-thread allocation counter");
+        Random random = new Random(99);
+        List<Player> players = new ArrayList<>();
+        for (int id = 1; id <= PLAYERS; id++) {
+            players.add(new Player(id, random.nextFloat() * BeamSimulationTest.WORLD,
+                random.nextFloat() * BeamSimulationTest.WORLD, 0));
+        }
+        List<Beam> beams = new ArrayList<>();
+        for (int id = 0; id < BEAMS; id++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            beams.add(new Beam(id, 1 + random.nextInt(PLAYERS), random.nextFloat() * BeamSimulationTest.WORLD,
+                random.nextFloat() * BeamSimulationTest.WORLD, (float) Math.cos(angle), (float) Math.sin(angle), 0));
+        }
+        BeamSimulation simulation = new BeamSimulation(BeamSimulationTest.WORLD, BeamSimulationTest.WORLD,
+            BeamSimulationTest.CELL_SIZE, null);
+        
+        AllocationTracker tracker = new AllocationTracker();
+        for (int step = 0; step < WARMUP_STEPS + STEPS; step++) {
+            if (step == WARMUP_STEPS) {
+                tracker.reset();
+            }
+            tracker.begin();
+            simulation.step(beams, players, 1, countHits);
+            tracker.end();
+            wrap(beams);
+        }
+        assertTrue(hits > 0);
+        assertTrue(tracker.getAverageBytes() <= MAX_AVERAGE_BYTES,
+            "beam step allocated " + tracker.getAverageBytes() + " B on average (peak "
+                + tracker.getPeakBytes() + " B)");
+    }
+    
+    /**
+     * Keep the beam count steady: beams leaving the world re-enter on the other side
+     */
+    private static void wrap(List<Beam> beams) {
+        float world = BeamSimulationTest.WORLD;
+        for (int i = 0, n = beams.size(); i < n; i++) {
+            Beam beam = beams.get(i);
+            if (beam.isOutOfBounds(BeamSimulationTest.WORLD, BeamSimulationTest.WORLD)) {
+                beam.x = (beam.x % world + world) % world;
+                beam.y = (beam.y % world + world) % world;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.kaiounet.game;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Beam step time against SIM_THREADS, from 1 (inline) up to the core count
+ * (at least 4). Run with {@code ./gradlew :core:benchmark}.
+ */
+@Tag("benchmark")
+class BeamSimulationBenchmark {
+    private static final int BEAMS = 100_000;
+    private static final int PLAYERS = 5_000;
+    private static final int STEPS = 60;
+    
+    @Test
+    void stepTimeAgainstThreadCount() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxThreads = Math.max(4, cores);
+        for (int i = 0; i < 5; i++) {
+            measure(null); // Warm-up
+        }
+        double baseline = measure(null);
+        System.out.printf("%d cores, %d beams, %d players%n", cores, BEAMS, PLAYERS);
+        System.out.printf("threads  1: %7.2f ms/step%n", baseline);
+        for (int threads = 2; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                measure(pool);
+                double millis = measure(pool);
+                System.out.printf("threads %2d: %7.2f ms/step (%.2fx)%n", threads, millis, baseline / millis);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+    
+    private static double measure(ForkJoinPool pool) {
+        long start = System.nanoTime();
+        BeamSimulationTest.run(pool, BEAMS, PLAYERS, STEPS);
+        return (System.nanoTime() - start) / 1e6 / STEPS;
+    }
+}
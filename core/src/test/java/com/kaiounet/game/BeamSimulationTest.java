@@ -0,0 +1,142 @@
+package com.kaiounet.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The cell-parallel step must report the same hits in the same order for
+ * any thread count, and the swept test the same hits for any step size.
+ */
+class BeamSimulationTest {
+    static final int WORLD = 4000;
+    static final int CELL_SIZE = 256;
+    
+    @Test
+    void hitSequenceDoesNotDependOnThreadCount() {
+        List<String> sequential = run(null, 20_000, 2_000, 60);
+        assertTrue(sequential.size() > 1000, "only " + sequential.size() + " hits");
+        for (int threads : new int[] {2, 4, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                assertEquals(sequential, run(pool, 20_000, 2_000, 60), threads + " threads");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+    
+    @Test
+    void reportsTheEarliestTargetAndSkipsTheShooterAndTheDead() {
+        Player shooter = new Player(1, 100, 100, 0);
+        Player far = new Player(2, 160, 100, 0);
+        Player near = new Player(3, 130, 100, 0);
+        Player dead = new Player(4, 115, 100, 0);
+        dead.health = 0;
+        Beam beam = new Beam(9, shooter.id, 100, 110, 1, 0, 0);
+        List<Beam> beams = List.of(beam);
+        List<Player> players = List.of(shooter, far, near, dead);
+        BeamSimulation simulation = new BeamSimulation(WORLD, WORLD, CELL_SIZE, null);
+        
+        List<Player> hit = new ArrayList<>();
+        for (int i = 0; i < 10 && hit.isEmpty(); i++) {
+            simulation.step(beams, players, 1, (b, target, time) -> hit.add(target));
+        }
+        assertEquals(List.of(near), hit);
+    }
+    
+    @Test
+    void hitsDoNotDependOnStepSize() {
+        // 120 frames at SIM_RATE 60, 20 and 5: steps of 1, 3 and 12 frames (8 to 96 px)
+        Set<String> reference = hitsOver(120, 1);
+        assertTrue(reference.size() > 200, "only " + reference.size() + " hits");
+        assertEquals(reference, hitsOver(120, 3), "SIM_RATE 20");
+        assertEquals(reference, hitsOver(120, 12), "SIM_RATE 5");
+    }
+    
+    @Test
+    void fastBeamCannotTunnelThroughATarget() {
+        Player shooter = new Player(1, 100, 100, 0);
+        Player target = new Player(2, 200, 100, 0);
+        // One step carries the beam from in front of the 30 px target to past it
+        Beam beam = new Beam(9, shooter.id, 170, 110, 1, 0, 0);
+        BeamSimulation simulation = new BeamSimulation(WORLD, WORLD, CELL_SIZE, null);
+        List<Player> hit = new ArrayList<>();
+        simulation.step(List.of(beam), List.of(shooter, target), 12, (b, player, time) -> hit.add(player));
+        assertTrue(beam.x > target.x + Player.SIZE, "beam did not pass the target in one step");
+        assertEquals(List.of(target), hit);
+    }
+    
+    /**
+     * Beams flying through players that stay put; a hit only stops the beam,
+     * so every step size sees the same world
+     *
+     * @return every hit as "beam->target"
+     */
+    private static Set<String> hitsOver(int totalFrames, int framesPerStep) {
+        Random random = new Random(40);
+        List<Player> players = new ArrayList<>();
+        for (int id = 1; id <= 400; id++) {
+            // Whole box inside the world, where beams are still simulated
+            players.add(new Player(id, Beam.WIDTH + random.nextFloat() * (WORLD - Player.SIZE - Beam.WIDTH),
+                Beam.HEIGHT + random.nextFloat() * (WORLD - Player.SIZE - Beam.HEIGHT), 0));
+        }
+        List<Beam> beams = new ArrayList<>();
+        for (int id = 0; id < 4_000; id++) {
+            Player shooter = players.get(random.nextInt(players.size()));
+            double angle = random.nextDouble() * 2 * Math.PI;
+            beams.add(new Beam(id, shooter.id, shooter.x, shooter.y,
+                (float) Math.cos(angle), (float) Math.sin(angle), 0));
+        }
+        
+        BeamSimulation simulation = new BeamSimulation(WORLD, WORLD, CELL_SIZE, null);
+        Set<String> hits = new TreeSet<>();
+        for (int frame = 0; frame < totalFrames; frame += framesPerStep) {
+            simulation.step(beams, players, framesPerStep, (beam, target, time) -> {
+                beam.deactivate();
+                hits.add(beam.id + "->" + target.id);
+            });
+            beams.removeIf(beam -> !beam.isActive() || beam.isOutOfBounds(WORLD, WORLD));
+        }
+        return hits;
+    }
+    
+    /**
+     * Run a seeded battle; hits damage their target and stop the beam
+     *
+     * @return every hit in reported order, as "step:beam->target@time"
+     */
+    static List<String> run(ForkJoinPool pool, int beamCount, int playerCount, int steps) {
+        Random random = new Random(1234);
+        List<Player> players = new ArrayList<>();
+        for (int id = 1; id <= playerCount; id++) {
+            players.add(new Player(id, random.nextFloat() * WORLD, random.nextFloat() * WORLD, 0));
+        }
+        List<Beam> beams = new ArrayList<>();
+        for (int id = 0; id < beamCount; id++) {
+            Player shooter = players.get(random.nextInt(playerCount));
+            double angle = random.nextDouble() * 2 * Math.PI;
+            beams.add(new Beam(id, shooter.id, shooter.x, shooter.y,
+                (float) Math.cos(angle), (float) Math.sin(angle), 0));
+        }
+        
+        BeamSimulation simulation = new BeamSimulation(WORLD, WORLD, CELL_SIZE, pool);
+        List<String> hits = new ArrayList<>();
+        for (int step = 0; step < steps; step++) {
+            int current = step;
+            simulation.step(beams, players, 1.5f, (beam, target, time) -> {
+                target.takeDamage(Beam.DAMAGE);
+                beam.deactivate();
+                hits.add(current + ":" + beam.id + "->" + target.id + "@" + time);
+            });
+            beams.removeIf(beam -> !beam.isActive() || beam.isOutOfBounds(WORLD, WORLD));
+        }
+        return hits;
+    }
+}
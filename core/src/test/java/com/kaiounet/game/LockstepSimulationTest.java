@@ -0,0 +1,97 @@
+package com.kaiounet.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Peers that start from the same seed and roster and apply the same inputs
+ * must stay bit-identical.
+ */
+class LockstepSimulationTest {
+    private static final int[] ROSTER = {3, 7, 12, 40};
+    private static final long SEED = 0x5eed_1234_abcdL;
+    private static final int WORLD = 800; // Small, so players meet and beams hit
+    private static final int TICKS = 5_000;
+    
+    @Test
+    void identicalInputsGiveIdenticalStateEveryTick() {
+        LockstepSimulation a = new LockstepSimulation(SEED, ROSTER, WORLD, WORLD);
+        LockstepSimulation b = new LockstepSimulation(SEED, ROSTER, WORLD, WORLD);
+        assertEquals(a.checksum(), b.checksum());
+        
+        Random script = new Random(42);
+        int[] inputs = new int[ROSTER.length];
+        int kills = 0;
+        for (int tick = 0; tick < TICKS; tick++) {
+            randomInputs(script, inputs);
+            a.step(inputs);
+            b.step(inputs.clone());
+            assertEquals(a.checksum(), b.checksum(), "diverged at tick " + tick);
+            kills = totalScore(a);
+        }
+        assertEquals(TICKS, a.getTick());
+        assertTrue(kills > 0, "the script should exercise hits, kills and respawns");
+    }
+    
+    @Test
+    void rollbackAndResimulateMatchesStraightRun() {
+        LockstepSimulation straight = new LockstepSimulation(SEED, ROSTER, WORLD, WORLD);
+        LockstepSimulation confirmed = new LockstepSimulation(SEED, ROSTER, WORLD, WORLD);
+        LockstepSimulation predicted = new LockstepSimulation(SEED, ROSTER, WORLD, WORLD);
+        
+        Random script = new Random(7);
+        int[][] inputs = new int[TICKS][ROSTER.length];
+        for (int[] tickInputs : inputs) {
+            randomInputs(script, tickInputs);
+        }
+        for (int tick = 0; tick < TICKS; tick++) {
+            straight.step(inputs[tick]);
+        }
+        
+        // Confirmed trails by up to 10 ticks; predicted rolls back to it each time
+        for (int tick = 0; tick < TICKS; tick++) {
+            if (tick % 10 == 9) {
+                while (confirmed.getTick() <= tick) {
+                    confirmed.step(inputs[confirmed.getTick()]);
+                }
+            }
+            predicted.copyFrom(confirmed);
+            while (predicted.getTick() <= tick) {
+                predicted.step(inputs[predicted.getTick()]);
+            }
+        }
+        assertEquals(straight.checksum(), predicted.checksum());
+        assertEquals(straight.checksum(), confirmed.checksum());
+    }
+    
+    @Test
+    void differentSeedOrInputIsDetected() {
+        LockstepSimulation a = new LockstepSimulation(SEED, ROSTER, WORLD, WORLD);
+        LockstepSimulation otherSeed = new LockstepSimulation(SEED + 1, ROSTER, WORLD, WORLD);
+        assertNotEquals(a.checksum(), otherSeed.checksum());
+        
+        LockstepSimulation b = new LockstepSimulation(SEED, ROSTER, WORLD, WORLD);
+        int[] inputs = new int[ROSTER.length];
+        a.step(inputs);
+        inputs[2] = LockstepInput.encode(true, false, false, false, false, 0);
+        b.step(inputs);
+        assertNotEquals(a.checksum(), b.checksum());
+    }
+    
+    private static void randomInputs(Random script, int[] inputs) {
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = LockstepInput.encode(script.nextInt(4) == 0, script.nextInt(4) == 0,
+                script.nextInt(4) == 0, script.nextInt(4) == 0, script.nextInt(3) == 0, script.nextInt(256));
+        }
+    }
+    
+    private static int totalScore(LockstepSimulation simulation) {
+        int total = 0;
+        for (int i = 0; i < simulation.getPlayerCount(); i++) {
+            total += simulation.getPlayer(i).score;
+        }
+        return total;
+    }
+}
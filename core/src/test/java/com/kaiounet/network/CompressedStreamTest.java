@@ -0,0 +1,80 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import org.junit.jupiter.api.Test;
+
+class CompressedStreamTest {
+    static final int WORLD = 4000;
+    private static final int MIN_COMPRESS_BYTES = 64;
+    
+    @Test
+    void roundTripsRawAndDeflatedFrames() throws IOException {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        CompressedOutputStream compressor = new CompressedOutputStream(wire, Deflater.BEST_SPEED, MIN_COMPRESS_BYTES);
+        MessageWriter writer = new MessageWriter(compressor, new GameMessageCodec(WORLD, WORLD));
+        
+        int sent = 0;
+        for (int tick = 0; tick < 50; tick++) {
+            int players = tick % 2 == 0 ? 1 : 40; // Alternate raw and deflated frames
+            for (GameMessage message : moveSnapshots(tick, players)) {
+                writer.writeMessage(message);
+                sent++;
+            }
+            writer.flush();
+        }
+        
+        MessageReader reader = new MessageReader(new CompressedInputStream(
+            new ByteArrayInputStream(wire.toByteArray())), new GameMessageCodec(WORLD, WORLD));
+        for (int tick = 0; tick < 50; tick++) {
+            for (GameMessage expected : moveSnapshots(tick, tick % 2 == 0 ? 1 : 40)) {
+                GameMessage actual = reader.readMessage();
+                assertEquals(expected.playerId, actual.playerId);
+                assertEquals(expected.x, actual.x, 0.1f);
+                assertEquals(expected.y, actual.y, 0.1f);
+                sent--;
+            }
+        }
+        assertEquals(0, sent);
+        assertEquals(writer.getBytesWritten(), compressor.getPayloadBytes());
+    }
+    
+    @Test
+    void smallFramesAreSentRawAndLargeOnesShrink() throws IOException {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        CompressedOutputStream compressor = new CompressedOutputStream(wire, Deflater.BEST_SPEED, MIN_COMPRESS_BYTES);
+        MessageWriter writer = new MessageWriter(compressor, new GameMessageCodec(WORLD, WORLD));
+        
+        writer.writeMessage(moveSnapshots(0, 1)[0]);
+        writer.flush();
+        assertEquals(CompressedOutputStream.FRAME_RAW, wire.toByteArray()[0]);
+        assertEquals(0, compressor.getCompressNanos());
+        
+        for (int tick = 1; tick <= 100; tick++) {
+            for (GameMessage message : moveSnapshots(tick, 64)) {
+                writer.writeMessage(message);
+            }
+            writer.flush();
+        }
+        assertTrue(compressor.getWireBytes() < compressor.getPayloadBytes(),
+            compressor.getWireBytes() + " wire bytes for " + compressor.getPayloadBytes() + " payload bytes");
+    }
+    
+    /**
+     * One tick of position snapshots for players walking in circles
+     */
+    static GameMessage[] moveSnapshots(int tick, int players) {
+        GameMessage[] messages = new GameMessage[players];
+        for (int id = 0; id < players; id++) {
+            double angle = (tick + id * 17) * 0.05;
+            float x = (float) (WORLD / 2 + Math.cos(angle) * (200 + id * 20));
+            float y = (float) (WORLD / 2 + Math.sin(angle) * (200 + id * 20));
+            messages[id] = new GameMessage(GameMessage.MessageType.PLAYER_MOVE, id + 1, x, y, 0);
+        }
+        return messages;
+    }
+}
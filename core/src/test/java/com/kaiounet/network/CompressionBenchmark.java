@@ -0,0 +1,54 @@
+package com.kaiounet.network;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Bytes saved against deflate CPU per frame for typical server ticks, by
+ * compression level and players per frame. Run with {@code ./gradlew :core:benchmark}.
+ */
+@Tag("benchmark")
+class CompressionBenchmark {
+    private static final int TICKS = 2_000;
+    private static final int[] LEVELS = {Deflater.BEST_SPEED, 3, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION};
+    private static final int[] PLAYERS = {4, 16, 64, 256};
+    private static final int MIN_COMPRESS_BYTES = 64;
+    
+    @Test
+    void bytesAgainstCpuPerLevel() throws IOException {
+        run(Deflater.BEST_SPEED, 64); // Warm-up
+        System.out.printf("%-8s %8s %12s %12s %8s %12s %14s%n",
+            "level", "players", "payload B", "wire B", "ratio", "deflate us", "ns/byte saved");
+        for (int players : PLAYERS) {
+            for (int level : LEVELS) {
+                CompressedOutputStream stream = run(level, players);
+                long saved = stream.getPayloadBytes() - stream.getWireBytes();
+                System.out.printf("%-8d %8d %12d %12d %7.2fx %12.1f %14s%n",
+                    level, players, stream.getPayloadBytes() / TICKS, stream.getWireBytes() / TICKS,
+                    (double) stream.getPayloadBytes() / stream.getWireBytes(),
+                    stream.getCompressNanos() / 1000.0 / TICKS,
+                    saved > 0 ? String.format("%.1f", (double) stream.getCompressNanos() / saved) : "-");
+            }
+        }
+    }
+    
+    /**
+     * Encode TICKS frames of position snapshots, one flush per tick
+     */
+    private static CompressedOutputStream run(int level, int players) throws IOException {
+        CompressedOutputStream stream = new CompressedOutputStream(OutputStream.nullOutputStream(),
+            level, MIN_COMPRESS_BYTES);
+        MessageWriter writer = new MessageWriter(stream, new GameMessageCodec(CompressedStreamTest.WORLD,
+            CompressedStreamTest.WORLD));
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (GameMessage message : CompressedStreamTest.moveSnapshots(tick, players)) {
+                writer.writeMessage(message);
+            }
+            writer.flush();
+        }
+        return stream;
+    }
+}
@@ -0,0 +1,142 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kaiounet.config.TuningConfig;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Outbound overflow: reliable messages are rejected or delivered in order,
+ * only moves are coalesced.
+ */
+class GameClientOutboundTest {
+    private static final int WORLD = 4000;
+    
+    private final TuningConfig previous = TuningConfig.current();
+    
+    @AfterEach
+    void restoreTuning() {
+        TuningConfig.publish(previous);
+    }
+    
+    @Test
+    void dropOldestIsRefused() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new GameClient("127.0.0.1", 1, RingBuffer.OverflowPolicy.DROP_OLDEST));
+    }
+    
+    @Test
+    void failRejectsReliableMessagesButNeverLosesQueuedOnes() throws Exception {
+        TuningConfig.publish(TuningConfig.fromMap(Map.of(
+            TuningConfig.OUTBOUND_QUEUE_CAPACITY, "16",
+            TuningConfig.COMPRESSION_ENABLED, "0")));
+        
+        try (ServerSocket listener = new ServerSocket()) {
+            listener.setReceiveBufferSize(4096); // Inherited by accepted sockets
+            listener.bind(new InetSocketAddress("127.0.0.1", 0));
+            CountDownLatch startReading = new CountDownLatch(1);
+            List<GameMessage> received = new ArrayList<>();
+            Thread sink = new Thread(() -> drain(listener, startReading, received), "sink");
+            sink.start();
+            
+            GameClient client = new GameClient("127.0.0.1", listener.getLocalPort(),
+                RingBuffer.OverflowPolicy.FAIL);
+            assertTrue(client.connect());
+            
+            // The sink is not reading: socket buffers fill, then the ring, then sends fail
+            int accepted = 0;
+            boolean rejected = false;
+            for (int i = 0; i < 1_000_000 && !rejected; i++) {
+                if (client.sendMessage(beam(accepted))) {
+                    accepted++;
+                } else {
+                    rejected = true;
+                }
+            }
+            assertTrue(rejected, "a full ring should reject reliable messages under FAIL");
+            assertEquals(1, client.getDroppedOutboundCount());
+            
+            // Moves are still taken, and all but the newest are coalesced away
+            for (int i = 0; i < 100; i++) {
+                assertTrue(client.sendMessage(move(i)));
+            }
+            assertTrue(client.getCoalescedMoveCount() >= 99);
+            
+            startReading.countDown();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline) {
+                synchronized (received) {
+                    if (Math.abs(lastMoveX(received) - 99f) < 0.1f) {
+                        break;
+                    }
+                }
+                Thread.sleep(10);
+            }
+            client.disconnect();
+            sink.join(5_000);
+            
+            synchronized (received) {
+                int nextBeam = 0;
+                for (GameMessage message : received) {
+                    if (message.type == GameMessage.MessageType.BEAM_FIRE) {
+                        assertEquals(nextBeam++, message.beamId, "reliable messages out of order or lost");
+                    }
+                }
+                assertTrue(nextBeam >= accepted, "only " + nextBeam + " of " + accepted + " beams arrived");
+                assertEquals(99f, lastMoveX(received), 0.1f, "the newest move must be sent");
+            }
+        }
+    }
+    
+    private static float lastMoveX(List<GameMessage> received) {
+        for (int i = received.size() - 1; i >= 0; i--) {
+            if (received.get(i).type == GameMessage.MessageType.PLAYER_MOVE) {
+                return received.get(i).x;
+            }
+        }
+        return -1;
+    }
+    
+    private static GameMessage beam(int id) {
+        GameMessage message = new GameMessage(GameMessage.MessageType.BEAM_FIRE, 1, 10, 10, 0);
+        message.beamId = id;
+        message.vx = 1;
+        return message;
+    }
+    
+    private static GameMessage move(int i) {
+        return new GameMessage(GameMessage.MessageType.PLAYER_MOVE, 1, i, 10, 0);
+    }
+    
+    /**
+     * Accept one client, answer its handshake, then read nothing until released
+     */
+    private static void drain(ServerSocket listener, CountDownLatch startReading, List<GameMessage> received) {
+        try (Socket socket = listener.accept()) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            Handshake.readHello(in);
+            Handshake.writeReply(socket.getOutputStream(), 0, WORLD, WORLD, 1L);
+            startReading.await();
+            MessageReader reader = new MessageReader(in, new GameMessageCodec(WORLD, WORLD));
+            while (true) {
+                GameMessage message = reader.readMessage();
+                synchronized (received) {
+                    received.add(message);
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // Client disconnected
+        }
+    }
+}
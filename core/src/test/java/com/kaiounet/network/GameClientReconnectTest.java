@@ -0,0 +1,214 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kaiounet.config.TuningConfig;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reconnecting off the caller's thread, what a failed handshake or a dead
+ * session leaves behind, and pings answered while the outbound ring is full.
+ * The server side is scripted over a plain socket.
+ */
+class GameClientReconnectTest {
+    private static final int WORLD = 4000;
+    private static final long TOKEN = 7;
+    
+    private final TuningConfig previous = TuningConfig.current();
+    
+    @BeforeEach
+    void tuning() {
+        TuningConfig.publish(TuningConfig.fromMap(Map.of(
+            TuningConfig.OUTBOUND_QUEUE_CAPACITY, "16",
+            TuningConfig.PING_INTERVAL_MS, "60000",
+            TuningConfig.COMPRESSION_ENABLED, "0")));
+    }
+    
+    @AfterEach
+    void restoreTuning() {
+        TuningConfig.publish(previous);
+    }
+    
+    @Test
+    void failedHandshakeClosesTheSocket() throws Exception {
+        try (ServerSocket listener = listen()) {
+            CompletableFuture<Integer> peerRead = CompletableFuture.supplyAsync(() -> {
+                try (Socket socket = listener.accept()) {
+                    Handshake.readHello(new BufferedInputStream(socket.getInputStream()));
+                    socket.getOutputStream().write(new byte[16]); // Not a reply
+                    socket.setSoTimeout(5_000);
+                    return socket.getInputStream().read();
+                } catch (SocketTimeoutException e) {
+                    return 0; // Still open
+                } catch (IOException e) {
+                    return -1;
+                }
+            });
+            GameClient client = new GameClient("127.0.0.1", listener.getLocalPort());
+            assertFalse(client.connect());
+            assertEquals(-1, peerRead.get(10, TimeUnit.SECONDS), "client left the socket open");
+            assertEquals(GameClient.ConnectionState.DISCONNECTED, client.getConnectionState());
+        }
+    }
+    
+    @Test
+    void reconnectRunsInTheBackgroundAndDropsTheDeadSession() throws Exception {
+        try (ServerSocket listener = listen()) {
+            GameClient client = new GameClient("127.0.0.1", listener.getLocalPort());
+            CompletableFuture<Socket> first = CompletableFuture.supplyAsync(() -> accept(listener, 0));
+            assertTrue(client.connect());
+            try (Socket session = first.get(5, TimeUnit.SECONDS)) {
+                MessageWriter out = writer(session);
+                for (int i = 0; i < 3; i++) {
+                    out.writeMessage(join(100 + i));
+                }
+                out.flush();
+                await(() -> client.getInboundDepth() == 3, "messages before the drop");
+            }
+            await(() -> !client.isConnected(), "drop noticed");
+            
+            CompletableFuture<Socket> second = CompletableFuture.supplyAsync(() -> accept(listener, Handshake.FLAG_RESUMED));
+            long start = System.nanoTime();
+            assertTrue(client.startReconnect());
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100), "startReconnect blocked");
+            assertEquals(GameClient.ConnectionState.RECONNECTING, client.getConnectionState());
+            assertFalse(client.startReconnect(), "already reconnecting");
+            
+            try (Socket session = second.get(5, TimeUnit.SECONDS)) {
+                MessageWriter out = writer(session);
+                out.writeMessage(join(42));
+                out.flush();
+                await(() -> client.getConnectionState() == GameClient.ConnectionState.CONNECTED, "reconnected");
+                assertTrue(client.isResumed());
+                await(client::hasMessages, "message from the new session");
+                assertEquals(42, client.pollMessage().playerId, "messages from the dead session were kept");
+                assertNull(client.pollMessage());
+            } finally {
+                client.disconnect();
+            }
+        }
+    }
+    
+    @Test
+    void disconnectCancelsAReconnect() throws Exception {
+        try (ServerSocket listener = listen()) {
+            GameClient client = new GameClient("127.0.0.1", listener.getLocalPort());
+            CompletableFuture<Socket> first = CompletableFuture.supplyAsync(() -> accept(listener, 0));
+            assertTrue(client.connect());
+            first.get(5, TimeUnit.SECONDS).close();
+            await(() -> !client.isConnected(), "drop noticed");
+            
+            assertTrue(client.startReconnect());
+            client.disconnect();
+            await(() -> client.getConnectionState() == GameClient.ConnectionState.DISCONNECTED, "reconnect stopped");
+            listener.setSoTimeout(1_000);
+            assertThrows(SocketTimeoutException.class, listener::accept, "cancelled reconnect still dialed");
+        }
+    }
+    
+    @Test
+    void pingIsAnsweredWithoutWaitingForRoom() throws Exception {
+        try (ServerSocket listener = listen()) {
+            GameClient client = new GameClient("127.0.0.1", listener.getLocalPort(), RingBuffer.OverflowPolicy.BLOCK);
+            CompletableFuture<Socket> accepted = CompletableFuture.supplyAsync(() -> accept(listener, 0));
+            assertTrue(client.connect());
+            try (Socket session = accepted.get(5, TimeUnit.SECONDS)) {
+                // The server reads nothing: socket buffers fill, then the ring, then the sender waits
+                AtomicInteger sent = new AtomicInteger();
+                Thread filler = new Thread(() -> {
+                    while (sent.get() < 10_000_000 && client.sendMessage(beam(sent.get()))) {
+                        sent.incrementAndGet();
+                    }
+                }, "filler");
+                filler.start();
+                int[] lastSent = {-1};
+                await(() -> {
+                    int now = sent.get();
+                    boolean stuck = now == lastSent[0];
+                    lastSent[0] = now;
+                    return stuck;
+                }, 200, "outbound ring full");
+                
+                MessageWriter out = writer(session);
+                out.writeMessage(new GameMessage(GameMessage.MessageType.PING, 0, 0, 0, 0));
+                out.writeMessage(join(42));
+                out.flush();
+                await(client::hasMessages, "reader stuck answering the ping");
+                assertEquals(42, client.pollMessage().playerId);
+                
+                client.disconnect();
+                filler.join(5_000);
+                assertFalse(filler.isAlive(), "waiting sender not released by disconnect");
+            } finally {
+                client.disconnect();
+            }
+        }
+    }
+    
+    private static ServerSocket listen() throws IOException {
+        ServerSocket listener = new ServerSocket();
+        listener.setReceiveBufferSize(4096); // Inherited by accepted sockets
+        listener.bind(new InetSocketAddress("127.0.0.1", 0));
+        return listener;
+    }
+    
+    /**
+     * Accept one client and answer its handshake
+     */
+    private static Socket accept(ServerSocket listener, int flags) {
+        try {
+            Socket socket = listener.accept();
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            Handshake hello = Handshake.readHello(in);
+            if ((flags & Handshake.FLAG_RESUMED) != 0) {
+                assertEquals(TOKEN, hello.sessionToken, "reconnect must present the session token");
+            }
+            Handshake.writeReply(socket.getOutputStream(), flags, WORLD, WORLD, TOKEN);
+            return socket;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    private static MessageWriter writer(Socket socket) throws IOException {
+        return new MessageWriter(new BufferedOutputStream(socket.getOutputStream()), new GameMessageCodec(WORLD, WORLD));
+    }
+    
+    private static GameMessage join(int playerId) {
+        return new GameMessage(GameMessage.MessageType.PLAYER_JOIN, playerId, 10, 10, 0);
+    }
+    
+    private static GameMessage beam(int id) {
+        GameMessage message = new GameMessage(GameMessage.MessageType.BEAM_FIRE, 1, 10, 10, 0);
+        message.beamId = id;
+        message.vx = 1;
+        return message;
+    }
+    
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        await(condition, 5, what);
+    }
+    
+    private static void await(BooleanSupplier condition, long pollMillis, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out: " + what);
+            Thread.sleep(pollMillis);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.kaiounet.network;
+
+import com.kaiounet.config.TuningConfig;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Send-to-receive latency of the outbound path: the ring buffer with one writer
+ * thread against the original design, one executor task per message that
+ * locks the stream, writes and flushes. Run with {@code ./gradlew :core:benchmark}.
+ */
+@Tag("benchmark")
+class GameClientWriterBenchmark {
+    private static final int WORLD = 4000;
+    private static final int FRAMES = 2_000;
+    private static final int BURST = 16;         // Messages the game thread sends per frame
+    private static final long FRAME_NANOS = 1_000_000;
+    private static final int PROBE_ID = 7;       // Tells our messages from the client's own pings
+    private static final int BUCKETS = 24;       // log2 microseconds
+    
+    @Test
+    void ringWriterAgainstExecutorPerMessage() throws Exception {
+        TuningConfig previous = TuningConfig.current();
+        TuningConfig.publish(TuningConfig.fromMap(Map.of(TuningConfig.COMPRESSION_ENABLED, "0")));
+        try {
+            run("executor per message", this::sendWithExecutor); // Warm-up
+            run("ring + writer", this::sendWithRing);
+            long[] executor = run("executor per message", this::sendWithExecutor);
+            long[] ring = run("ring + writer", this::sendWithRing);
+            print("executor per message (old)", executor);
+            print("ring + single writer", ring);
+        } finally {
+            TuningConfig.publish(previous);
+        }
+    }
+    
+    private interface Sender {
+        void send(int port) throws Exception;
+    }
+    
+    private long[] run(String name, Sender sender) throws Exception {
+        try (ServerSocket listener = new ServerSocket()) {
+            listener.bind(new InetSocketAddress("127.0.0.1", 0));
+            long[] latencies = new long[FRAMES * BURST];
+            CountDownLatch done = new CountDownLatch(1);
+            Thread sink = new Thread(() -> receive(listener, latencies, done), "sink");
+            sink.start();
+            sender.send(listener.getLocalPort());
+            if (!done.await(60, TimeUnit.SECONDS)) {
+                throw new IllegalStateException(name + ": not every message arrived");
+            }
+            sink.join();
+            return latencies;
+        }
+    }
+    
+    private void sendWithRing(int port) throws Exception {
+        GameClient client = new GameClient("127.0.0.1", port);
+        if (!client.connect()) {
+            throw new IOException("connect failed");
+        }
+        try {
+            sendFrames(client::sendMessage);
+        } finally {
+            client.disconnect();
+        }
+    }
+    
+    private void sendWithExecutor(int port) throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            Handshake.writeHello(socket.getOutputStream(), 0, 0, 0);
+            Handshake.readReply(new BufferedInputStream(socket.getInputStream()));
+            MessageWriter out = new MessageWriter(new BufferedOutputStream(socket.getOutputStream()),
+                new GameMessageCodec(WORLD, WORLD));
+            sendFrames(message -> {
+                executor.execute(() -> {
+                    synchronized (out) {
+                        try {
+                            out.writeMessage(message);
+                            out.flush();
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                });
+                return true;
+            });
+            executor.shutdown();
+            executor.awaitTermination(60, TimeUnit.SECONDS);
+        }
+    }
+    
+    private interface Send {
+        boolean send(GameMessage message);
+    }
+    
+    private static void sendFrames(Send send) {
+        long next = System.nanoTime();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            for (int i = 0; i < BURST; i++) {
+                GameMessage message = new GameMessage(GameMessage.MessageType.PING, PROBE_ID, 0, 0, 0);
+                message.timestamp = RttEstimator.nowMicros();
+                send.send(message);
+            }
+            next += FRAME_NANOS;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+    }
+    
+    private static void receive(ServerSocket listener, long[] latencies, CountDownLatch done) {
+        try (Socket socket = listener.accept()) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            Handshake.readHello(in);
+            Handshake.writeReply(socket.getOutputStream(), 0, WORLD, WORLD, 1L);
+            MessageReader reader = new MessageReader(in, new GameMessageCodec(WORLD, WORLD));
+            int count = 0;
+            while (count < latencies.length) {
+                GameMessage message = reader.readMessage();
+                if (message.type == GameMessage.MessageType.PING && message.playerId == PROBE_ID) {
+                    latencies[count++] = RttEstimator.nowMicros() - message.timestamp;
+                }
+            }
+            done.countDown();
+        } catch (IOException e) {
+            // Sender gave up; run() reports the missing messages
+        }
+    }
+    
+    private static void print(String name, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        int[] buckets = new int[BUCKETS];
+        for (long micros : sorted) {
+            int bucket = 64 - Long.numberOfLeadingZeros(Math.max(micros, 1)) - 1;
+            buckets[Math.min(bucket, BUCKETS - 1)]++;
+        }
+        System.out.printf("%s: p50 %d us, p90 %d us, p99 %d us, max %d us%n", name,
+            percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+            sorted[sorted.length - 1]);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (buckets[i] > 0) {
+                System.out.printf("  %8d us %7d %s%n", 1L << i, buckets[i],
+                    "#".repeat((int) Math.ceil(50.0 * buckets[i] / sorted.length)));
+            }
+        }
+    }
+    
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+}
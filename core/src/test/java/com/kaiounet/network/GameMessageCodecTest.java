@@ -0,0 +1,314 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kaiounet.game.Player;
+import java.util.EnumSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Round trips for every message type, and the error bounds the codec's
+ * javadoc promises for positions and directions.
+ */
+class GameMessageCodecTest {
+    private static final int WORLD_WIDTH = 4000;
+    private static final int WORLD_HEIGHT = 3000;
+    private static final float MAX_DIRECTION_ERROR_DEGREES = 0.71f;
+    
+    private final GameMessageCodec codec = new GameMessageCodec(WORLD_WIDTH, WORLD_HEIGHT);
+    private final BitWriter writer = new BitWriter();
+    private final BitReader reader = new BitReader();
+    
+    @Test
+    void everyMessageTypeRoundTrips() {
+        Set<GameMessage.MessageType> covered = EnumSet.noneOf(GameMessage.MessageType.class);
+        for (int id : new int[] {0, 1, 300, Integer.MAX_VALUE}) {
+            for (GameMessage.MessageType type : GameMessage.MessageType.values()) {
+                GameMessage sent = sample(type, id);
+                assertRoundTrip(sent, roundTrip(sent));
+                covered.add(type);
+            }
+        }
+        assertEquals(EnumSet.allOf(GameMessage.MessageType.class), covered);
+    }
+    
+    @Test
+    void positionErrorStaysWithinBoundAcrossTheWorld() {
+        float boundX = WORLD_WIDTH / 131070f;
+        float boundY = WORLD_HEIGHT / 131070f;
+        for (int i = 0; i <= 100_000; i++) {
+            float x = WORLD_WIDTH * i / 100_000f;
+            float y = WORLD_HEIGHT * (100_000 - i) / 100_000f;
+            GameMessage received = roundTrip(new GameMessage(GameMessage.MessageType.PLAYER_MOVE, 1, x, y, 0));
+            // Plus the decoded float's own rounding
+            assertEquals(x, received.x, boundX + Math.ulp(x), "x " + x);
+            assertEquals(y, received.y, boundY + Math.ulp(y), "y " + y);
+        }
+    }
+    
+    @Test
+    void positionsAtAndBeyondTheEdgesAreClamped() {
+        assertPosition(0, 0, 0, 0);
+        assertPosition(WORLD_WIDTH, WORLD_HEIGHT, WORLD_WIDTH, WORLD_HEIGHT);
+        assertPosition(-0.01f, -0.01f, 0, 0);
+        assertPosition(-5000, -1e9f, 0, 0);
+        assertPosition(WORLD_WIDTH + 0.01f, WORLD_HEIGHT * 2, WORLD_WIDTH, WORLD_HEIGHT);
+        assertPosition(Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, WORLD_WIDTH, 0);
+        assertPosition(Float.NaN, Float.NaN, 0, 0);
+        
+        // Roster deltas use the same rule
+        GameMessage delta = rosterDelta(7);
+        delta.joinedX[0] = -1;
+        delta.joinedY[0] = WORLD_HEIGHT + 1;
+        GameMessage received = roundTrip(delta);
+        assertEquals(0, received.joinedX[0]);
+        assertEquals(WORLD_HEIGHT, received.joinedY[0]);
+    }
+    
+    @Test
+    void directionErrorStaysWithinBoundInEveryQuadrant() {
+        for (int i = 0; i < 3600; i++) {
+            double angle = Math.toRadians(i / 10.0) - Math.PI; // -180 .. 180, negative components included
+            for (float speed : new float[] {0.001f, 1, 8, 1e6f}) {
+                float vx = (float) (Math.cos(angle) * speed);
+                float vy = (float) (Math.sin(angle) * speed);
+                GameMessage received = roundTrip(beam(1, 100, 100, vx, vy));
+                
+                assertEquals(1, Math.hypot(received.vx, received.vy), 1e-6, "unit vector");
+                double error = Math.toDegrees(Math.abs(Math.IEEEremainder(
+                    Math.atan2(received.vy, received.vx) - angle, 2 * Math.PI)));
+                assertTrue(error <= MAX_DIRECTION_ERROR_DEGREES, "off by " + error + " degrees at " + i / 10.0);
+            }
+        }
+    }
+    
+    @Test
+    void quantizedDirectionsSurviveExactly() {
+        float[] snapped = new float[2];
+        for (int i = 0; i < 1000; i++) {
+            double angle = i * 0.0137 - 7;
+            GameMessageCodec.quantizeDirection((float) Math.cos(angle), (float) Math.sin(angle), snapped);
+            GameMessage received = roundTrip(beam(1, 0, 0, snapped[0], snapped[1]));
+            assertEquals(snapped[0], received.vx);
+            assertEquals(snapped[1], received.vy);
+        }
+        GameMessage still = roundTrip(beam(1, 0, 0, 0, 0));
+        assertEquals(1, still.vx);
+        assertEquals(0, still.vy, 1e-7);
+    }
+    
+    @Test
+    void healthAndDamageClampToSevenBits() {
+        GameMessage hit = sample(GameMessage.MessageType.PLAYER_HIT, 1);
+        hit.damage = -20;
+        hit.health = 500;
+        GameMessage received = roundTrip(hit);
+        assertEquals(0, received.damage);
+        assertEquals(127, received.health);
+    }
+    
+    @Test
+    void negativeAndExtremeScalarsAreExact() {
+        GameMessage respawn = sample(GameMessage.MessageType.PLAYER_RESPAWN, 1);
+        respawn.score = Integer.MIN_VALUE;
+        assertEquals(Integer.MIN_VALUE, roundTrip(respawn).score);
+        
+        GameMessage leaderboard = sample(GameMessage.MessageType.LEADERBOARD_UPDATE, 1);
+        leaderboard.rank = -1;
+        leaderboard.rankedScores = new int[] {Integer.MAX_VALUE, 0, -3};
+        assertRoundTrip(leaderboard, roundTrip(leaderboard));
+        leaderboard.rankedIds = null;
+        assertNull(roundTrip(leaderboard).rankedIds);
+        
+        GameMessage ping = sample(GameMessage.MessageType.PONG, 1);
+        ping.timestamp = Long.MIN_VALUE;
+        ping.peerTime = -1;
+        assertRoundTrip(ping, roundTrip(ping));
+        
+        GameMessage input = sample(GameMessage.MessageType.LOCKSTEP_INPUT, 1);
+        input.input = 0xFFFF;
+        assertEquals(0xFFFF, roundTrip(input).input);
+    }
+    
+    @Test
+    void colorsOutsideThePaletteAreExact() {
+        GameMessage join = sample(GameMessage.MessageType.PLAYER_JOIN, 1);
+        join.color = 0x12345678;
+        assertEquals(0x12345678, roundTrip(join).color);
+        join.color = -1;
+        assertEquals(-1, roundTrip(join).color);
+    }
+    
+    private GameMessage roundTrip(GameMessage message) {
+        writer.reset();
+        codec.encode(message, writer);
+        reader.reset(writer.getBuffer(), writer.byteLength());
+        GameMessage received = codec.decode(reader);
+        assertTrue(reader.bitsRemaining() < 8, "decoder left " + reader.bitsRemaining() + " bits");
+        return received;
+    }
+    
+    private void assertPosition(float x, float y, float expectedX, float expectedY) {
+        GameMessage received = roundTrip(new GameMessage(GameMessage.MessageType.PLAYER_MOVE, 1, x, y, 0));
+        assertEquals(expectedX, received.x, "x " + x);
+        assertEquals(expectedY, received.y, "y " + y);
+    }
+    
+    /**
+     * A message of the given type with every field it carries set away from defaults
+     */
+    private static GameMessage sample(GameMessage.MessageType type, int id) {
+        GameMessage message = new GameMessage(type, id, 1234.5f, 678.25f, Player.paletteColor(id), 87, -4);
+        switch (type) {
+            case BEAM_FIRE:
+                return beam(id, 1234.5f, 678.25f, -0.6f, -0.8f);
+            case PLAYER_HIT:
+                message.targetPlayerId = id + 1;
+                message.beamId = 99;
+                message.damage = 25;
+                break;
+            case PLAYER_RESPAWN:
+                message.killerId = id + 2;
+                break;
+            case LEADERBOARD_UPDATE:
+                message.rank = 3;
+                message.rankedTotal = 40;
+                message.rankedIds = new int[] {id, 5, 9};
+                message.rankedScores = new int[] {12, 7, -1};
+                break;
+            case LOCKSTEP_INPUT:
+                message.tick = 1_000_000;
+                message.input = 0xA5C3;
+                break;
+            case LOCKSTEP_CHECKSUM:
+                message.tick = 30;
+                message.checksum = 0x8000_0000_dead_beefL;
+                break;
+            case LOCKSTEP_START:
+                message.tick = 12;
+                message.checksum = -42;
+                message.joinedIds = new int[] {id, id + 3};
+                break;
+            case PING:
+                message.timestamp = 123_456_789_012L;
+                break;
+            case PONG:
+                message.timestamp = 123_456_789_012L;
+                message.peerTime = -987_654_321L;
+                break;
+            case ROSTER_DELTA:
+                return rosterDelta(id);
+            default:
+                break;
+        }
+        return message;
+    }
+    
+    private static GameMessage beam(int id, float x, float y, float vx, float vy) {
+        GameMessage message = new GameMessage(GameMessage.MessageType.BEAM_FIRE, id, x, y, Player.paletteColor(2));
+        message.beamId = 77;
+        message.vx = vx;
+        message.vy = vy;
+        return message;
+    }
+    
+    private static GameMessage rosterDelta(int id) {
+        GameMessage message = new GameMessage(GameMessage.MessageType.ROSTER_DELTA, id, 0, 0, 0);
+        message.tick = 5;
+        message.leftIds = new int[] {3, 4};
+        message.joinedIds = new int[] {id, 8};
+        message.joinedX = new float[] {0, WORLD_WIDTH};
+        message.joinedY = new float[] {WORLD_HEIGHT, 1500};
+        message.joinedColors = new int[] {Player.paletteColor(0), 0x01020304};
+        message.joinedHealth = new int[] {100, 0};
+        message.joinedScores = new int[] {-2, 30};
+        return message;
+    }
+    
+    /**
+     * Compare the fields the type carries; positions to the quantization bound
+     */
+    private static void assertRoundTrip(GameMessage sent, GameMessage received) {
+        float bound = Math.max(WORLD_WIDTH, WORLD_HEIGHT) / 131070f + Math.ulp((float) WORLD_WIDTH);
+        assertEquals(sent.type, received.type);
+        assertEquals(sent.playerId, received.playerId);
+        switch (sent.type) {
+            case PLAYER_JOIN:
+            case PLAYER_RESPAWN:
+            case PLAYER_HIT:
+            case BEAM_FIRE:
+                assertEquals(sent.color, received.color);
+                assertEquals(sent.x, received.x, bound);
+                assertEquals(sent.y, received.y, bound);
+                break;
+            case PLAYER_MOVE:
+                assertEquals(sent.x, received.x, bound);
+                assertEquals(sent.y, received.y, bound);
+                break;
+            default:
+                break;
+        }
+        switch (sent.type) {
+            case PLAYER_JOIN:
+                assertEquals(sent.health, received.health);
+                assertEquals(sent.score, received.score);
+                break;
+            case BEAM_FIRE:
+                assertEquals(sent.beamId, received.beamId);
+                assertEquals(sent.vx, received.vx, 0.013f);
+                assertEquals(sent.vy, received.vy, 0.013f);
+                break;
+            case PLAYER_HIT:
+                assertEquals(sent.targetPlayerId, received.targetPlayerId);
+                assertEquals(sent.beamId, received.beamId);
+                assertEquals(sent.damage, received.damage);
+                assertEquals(sent.health, received.health);
+                assertEquals(sent.score, received.score);
+                break;
+            case PLAYER_RESPAWN:
+                assertEquals(sent.health, received.health);
+                assertEquals(sent.score, received.score);
+                assertEquals(sent.killerId, received.killerId);
+                break;
+            case LEADERBOARD_UPDATE:
+                assertEquals(sent.rank, received.rank);
+                assertEquals(sent.rankedTotal, received.rankedTotal);
+                assertArrayEquals(sent.rankedIds, received.rankedIds);
+                assertArrayEquals(sent.rankedScores, received.rankedScores);
+                break;
+            case LOCKSTEP_INPUT:
+                assertEquals(sent.tick, received.tick);
+                assertEquals(sent.input, received.input);
+                break;
+            case LOCKSTEP_CHECKSUM:
+                assertEquals(sent.tick, received.tick);
+                assertEquals(sent.checksum, received.checksum);
+                break;
+            case LOCKSTEP_START:
+                assertEquals(sent.tick, received.tick);
+                assertEquals(sent.checksum, received.checksum);
+                assertArrayEquals(sent.joinedIds, received.joinedIds);
+                break;
+            case PING:
+                assertEquals(sent.timestamp, received.timestamp);
+                break;
+            case PONG:
+                assertEquals(sent.timestamp, received.timestamp);
+                assertEquals(sent.peerTime, received.peerTime);
+                break;
+            case ROSTER_DELTA:
+                assertEquals(sent.tick, received.tick);
+                assertArrayEquals(sent.leftIds, received.leftIds);
+                assertArrayEquals(sent.joinedIds, received.joinedIds);
+                assertArrayEquals(sent.joinedX, received.joinedX, bound);
+                assertArrayEquals(sent.joinedY, received.joinedY, bound);
+                assertArrayEquals(sent.joinedColors, received.joinedColors);
+                assertArrayEquals(sent.joinedHealth, received.joinedHealth);
+                assertArrayEquals(sent.joinedScores, received.joinedScores);
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * FIFO order across wraparound, each overflow policy, and no loss or
+ * duplication with several producers on a ring that keeps filling up.
+ */
+class RingBufferTest {
+    
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(8, new RingBuffer<Integer>(5, RingBuffer.OverflowPolicy.FAIL).capacity());
+        assertEquals(8, new RingBuffer<Integer>(8, RingBuffer.OverflowPolicy.FAIL).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<Integer>(1, RingBuffer.OverflowPolicy.FAIL));
+        assertThrows(NullPointerException.class,
+            () -> new RingBuffer<Integer>(4, RingBuffer.OverflowPolicy.FAIL).offer(null));
+    }
+    
+    @Test
+    void staysInOrderAcrossWraparound() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4, RingBuffer.OverflowPolicy.FAIL);
+        int next = 0;
+        int expected = 0;
+        // Uneven batches so head and tail wrap at different points
+        for (int round = 0; round < 50; round++) {
+            int batch = 1 + round % 4;
+            for (int i = 0; i < batch; i++) {
+                assertTrue(ring.offer(next++));
+            }
+            assertEquals(batch, ring.size());
+            assertEquals(expected, ring.peek());
+            for (int i = 0; i < batch; i++) {
+                assertEquals(expected++, ring.poll());
+            }
+            assertTrue(ring.isEmpty());
+            assertNull(ring.poll());
+            assertNull(ring.peek());
+        }
+        assertEquals(0, ring.getDroppedCount());
+        assertEquals(4, ring.getHighWaterMark());
+    }
+    
+    @Test
+    void drainToRespectsMaxAndOrder() {
+        RingBuffer<Integer> ring = new RingBuffer<>(8, RingBuffer.OverflowPolicy.FAIL);
+        for (int i = 0; i < 6; i++) {
+            ring.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, ring.drainTo(drained::add, 4));
+        assertEquals(List.of(0, 1, 2, 3), drained);
+        assertEquals(2, ring.drainTo(drained::add, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), drained);
+        assertEquals(0, ring.drainTo(drained::add, 10));
+    }
+    
+    @Test
+    void failRejectsAndCountsWhenFull() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4, RingBuffer.OverflowPolicy.FAIL);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertFalse(ring.offer(5));
+        assertEquals(2, ring.getDroppedCount());
+        assertFalse(ring.tryOffer(6));
+        assertEquals(2, ring.getDroppedCount(), "tryOffer never counts");
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(7));
+        List<Integer> drained = new ArrayList<>();
+        ring.drainTo(drained::add, 10);
+        assertEquals(List.of(1, 2, 3, 7), drained);
+    }
+    
+    @Test
+    void dropOldestKeepsTheNewestAndCounts() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4, RingBuffer.OverflowPolicy.DROP_OLDEST);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertEquals(6, ring.getDroppedCount());
+        List<Integer> drained = new ArrayList<>();
+        ring.drainTo(drained::add, 10);
+        assertEquals(List.of(6, 7, 8, 9), drained);
+    }
+    
+    @Test
+    void blockWaitsForAConsumerAndGivesUpWhenInterrupted() throws Exception {
+        RingBuffer<Integer> ring = new RingBuffer<>(2, RingBuffer.OverflowPolicy.BLOCK);
+        ring.offer(0);
+        ring.offer(1);
+        CountDownLatch offered = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            ring.offer(2);
+            offered.countDown();
+        });
+        producer.start();
+        assertFalse(offered.await(50, TimeUnit.MILLISECONDS), "offer returned while the ring was full");
+        assertEquals(0, ring.poll());
+        assertTrue(offered.await(5, TimeUnit.SECONDS));
+        producer.join();
+        
+        AtomicBoolean result = new AtomicBoolean(true);
+        Thread interrupted = new Thread(() -> {
+            Thread.currentThread().interrupt();
+            result.set(ring.offer(3));
+        });
+        interrupted.start();
+        interrupted.join();
+        assertFalse(result.get());
+        assertEquals(1, ring.getDroppedCount());
+        List<Integer> drained = new ArrayList<>();
+        ring.drainTo(drained::add, 10);
+        assertEquals(List.of(1, 2), drained);
+    }
+    
+    @Test
+    void blockLosesAndDuplicatesNothingUnderContention() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        RingBuffer<Integer> ring = new RingBuffer<>(64, RingBuffer.OverflowPolicy.BLOCK);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    assertTrue(ring.offer(base + i));
+                }
+            }, "producer-" + p);
+            threads.add(producer);
+            producer.start();
+        }
+        
+        // Each producer's values arrive in its own order, every value exactly once
+        int[] lastSeen = new int[producers];
+        Arrays.fill(lastSeen, -1);
+        boolean[] seen = new boolean[producers * perProducer];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < seen.length && System.nanoTime() < deadline) {
+            Integer value = ring.poll();
+            if (value == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertFalse(seen[value], "duplicate " + value);
+            seen[value] = true;
+            int producer = value / perProducer;
+            assertTrue(value > lastSeen[producer], "producer " + producer + " reordered");
+            lastSeen[producer] = value;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(seen.length, received);
+        assertNull(ring.poll());
+        assertEquals(0, ring.getDroppedCount());
+    }
+}
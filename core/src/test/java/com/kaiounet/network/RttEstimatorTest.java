@@ -0,0 +1,84 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * RFC 6298 smoothing on a known sample sequence, worked out by hand.
+ */
+class RttEstimatorTest {
+    private static final double EPSILON = 1e-9;
+    // The peer's clock runs this far ahead of ours
+    private static final long OFFSET_MICROS = 1_000_000_000;
+    
+    private final RttEstimator rtt = new RttEstimator();
+    private long now = 5_000_000;
+    
+    @Test
+    void firstSampleInitializesEstimates() {
+        assertFalse(rtt.hasSample());
+        exchange(100_000);
+        assertTrue(rtt.hasSample());
+        assertEquals(100, rtt.getRoundTripMillis(), EPSILON);
+        assertEquals(50, rtt.getJitterMillis(), EPSILON); // RTT / 2
+        assertEquals(300, rtt.getTimeoutMillis(), EPSILON);
+        assertEquals(100, rtt.getMinRoundTripMillis(), EPSILON);
+        assertEquals(OFFSET_MICROS / 1000.0, rtt.getClockOffsetMillis(), EPSILON);
+    }
+    
+    @Test
+    void laterSamplesAreSmoothed() {
+        exchange(100_000);
+        exchange(120_000);
+        // RTTVAR = 50 + (|100 - 120| - 50) / 4, SRTT = 100 + (120 - 100) / 8
+        assertEquals(42.5, rtt.getJitterMillis(), EPSILON);
+        assertEquals(102.5, rtt.getRoundTripMillis(), EPSILON);
+        assertEquals(272.5, rtt.getTimeoutMillis(), EPSILON);
+        
+        exchange(80_000);
+        assertEquals(37.5, rtt.getJitterMillis(), EPSILON);
+        assertEquals(99.6875, rtt.getRoundTripMillis(), EPSILON);
+        assertEquals(249.6875, rtt.getTimeoutMillis(), EPSILON);
+        assertEquals(80, rtt.getMinRoundTripMillis(), EPSILON);
+        assertEquals(OFFSET_MICROS / 1000.0, rtt.getClockOffsetMillis(), EPSILON);
+        assertEquals(3, rtt.getSampleCount());
+    }
+    
+    @Test
+    void outlierMovesRttButNotClockOffset() {
+        exchange(100_000);
+        exchange(120_000);
+        exchange(80_000);
+        
+        // A 1 s exchange whose delay was all on the way back: the symmetric
+        // estimate would put the peer's clock 490 ms further ahead
+        long sent = now;
+        now += 1_000_000;
+        rtt.onPong(sent, sent + 990_000 + OFFSET_MICROS, now);
+        
+        assertEquals(253.203125, rtt.getJitterMillis(), EPSILON);
+        assertEquals(212.2265625, rtt.getRoundTripMillis(), EPSILON);
+        assertEquals(1225.0390625, rtt.getTimeoutMillis(), EPSILON);
+        assertEquals(80, rtt.getMinRoundTripMillis(), EPSILON);
+        assertEquals(OFFSET_MICROS / 1000.0, rtt.getClockOffsetMillis(), EPSILON, "outlier skewed the offset");
+        assertEquals(now + OFFSET_MICROS, rtt.toPeerMicros(now));
+    }
+    
+    @Test
+    void foreignTimestampIsIgnored() {
+        exchange(100_000);
+        rtt.onPong(now + 1, now, now); // Sent after it arrived
+        assertEquals(1, rtt.getSampleCount());
+        assertEquals(100, rtt.getRoundTripMillis(), EPSILON);
+    }
+    
+    /**
+     * One ping/pong taking rttMicros, answered halfway by the peer
+     */
+    private void exchange(long rttMicros) {
+        long sent = now;
+        now += rttMicros;
+        rtt.onPong(sent, sent + rttMicros / 2 + OFFSET_MICROS, now);
+    }
+}
@@ -0,0 +1,110 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reference counting and pooling of shared frames, and their bytes against
+ * what a writer encoding the message itself would send.
+ */
+class SharedFrameTest {
+    private static final GameMessageCodec CODEC = new GameMessageCodec(4000, 4000);
+    
+    @Test
+    void bytesMatchAWriterEncodingTheMessage() throws IOException {
+        for (GameMessage message : new GameMessage[] {move(1, 10), delta(200)}) {
+            ByteArrayOutputStream direct = new ByteArrayOutputStream();
+            new MessageWriter(direct, CODEC).writeMessage(message);
+            
+            SharedFrame frame = SharedFrame.encode(CODEC, message);
+            ByteArrayOutputStream shared = new ByteArrayOutputStream();
+            MessageWriter writer = new MessageWriter(shared, CODEC);
+            writer.writeFrame(frame);
+            assertArrayEquals(direct.toByteArray(), shared.toByteArray(), message.type + " frame");
+            assertEquals(direct.size(), frame.length());
+            assertEquals(frame.length(), writer.getBytesWritten());
+            assertTrue(frame.encodedWith(CODEC));
+            assertFalse(frame.encodedWith(new GameMessageCodec(4000, 4000)));
+            frame.release();
+        }
+    }
+    
+    @Test
+    void lastReleaseReturnsTheFrameToThePool() {
+        SharedFrame frame = SharedFrame.encode(CODEC, move(1, 10));
+        frame.retain();
+        frame.retain();
+        int pooled = SharedFrame.pooledCount();
+        frame.release();
+        frame.release();
+        assertEquals(pooled, SharedFrame.pooledCount(), "pooled while a holder still had it");
+        frame.release();
+        assertEquals(pooled + 1, SharedFrame.pooledCount());
+    }
+    
+    @Test
+    void releasingTooOftenIsAnError() {
+        SharedFrame frame = SharedFrame.encode(CODEC, move(1, 10));
+        frame.release();
+        assertThrows(IllegalStateException.class, frame::release);
+        assertThrows(IllegalStateException.class, frame::retain);
+    }
+    
+    @Test
+    void pooledFrameIsReusedForTheNextSmallMessage() throws IOException {
+        // Empty the pool, so the next release is the only frame in it
+        List<SharedFrame> held = new ArrayList<>();
+        while (SharedFrame.pooledCount() > 0) {
+            held.add(SharedFrame.encode(CODEC, move(2, 0)));
+        }
+        SharedFrame first = SharedFrame.encode(CODEC, move(1, 10));
+        first.release();
+        SharedFrame second = SharedFrame.encode(CODEC, move(3, 20));
+        assertSame(first, second);
+        
+        ByteArrayOutputStream direct = new ByteArrayOutputStream();
+        new MessageWriter(direct, CODEC).writeMessage(move(3, 20));
+        ByteArrayOutputStream shared = new ByteArrayOutputStream();
+        second.writeTo(shared);
+        assertArrayEquals(direct.toByteArray(), shared.toByteArray(), "reused frame kept old bytes");
+        second.release();
+        held.forEach(SharedFrame::release);
+    }
+    
+    @Test
+    void largeFramesAreNotPooled() {
+        SharedFrame frame = SharedFrame.encode(CODEC, delta(20));
+        assertTrue(frame.length() > 64);
+        int pooled = SharedFrame.pooledCount();
+        frame.release();
+        assertEquals(pooled, SharedFrame.pooledCount());
+    }
+    
+    private static GameMessage move(int playerId, float x) {
+        return new GameMessage(GameMessage.MessageType.PLAYER_MOVE, playerId, x, 100, 0);
+    }
+    
+    private static GameMessage delta(int joined) {
+        GameMessage delta = new GameMessage(GameMessage.MessageType.ROSTER_DELTA, 0, 0, 0, 0);
+        delta.leftIds = new int[] {5};
+        delta.joinedIds = new int[joined];
+        delta.joinedX = new float[joined];
+        delta.joinedY = new float[joined];
+        delta.joinedColors = new int[joined];
+        delta.joinedHealth = new int[joined];
+        delta.joinedScores = new int[joined];
+        for (int i = 0; i < joined; i++) {
+            delta.joinedIds[i] = 1000 + i;
+            delta.joinedX[i] = i * 10;
+            delta.joinedY[i] = i * 20;
+            delta.joinedHealth[i] = 100;
+            delta.joinedScores[i] = i;
+        }
+        return delta;
+    }
+}
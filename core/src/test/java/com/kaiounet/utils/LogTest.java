@@ -0,0 +1,107 @@
+package com.kaiounet.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Level parsing and gating, and what the writer prints: which stream, the
+ * drop count of a full queue, and the stack trace of a trailing Throwable.
+ */
+class LogTest {
+    private final ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+    private final PrintStream out = new PrintStream(outBytes, true, StandardCharsets.UTF_8);
+    private final PrintStream err = new PrintStream(errBytes, true, StandardCharsets.UTF_8);
+    
+    @Test
+    void levelIsParsedLeniently() {
+        assertEquals(Log.Level.INFO, Log.parseLevel(null));
+        assertEquals(Log.Level.INFO, Log.parseLevel("  "));
+        assertEquals(Log.Level.WARN, Log.parseLevel(" warn "));
+        assertEquals(Log.Level.OFF, Log.parseLevel("Off"));
+        assertEquals(Log.Level.INFO, Log.parseLevel("loud"), "unknown level falls back to INFO");
+    }
+    
+    @Test
+    void callsBelowTheThresholdAreDisabled() {
+        Log.Level[] calls = {Log.Level.DEBUG, Log.Level.INFO, Log.Level.WARN, Log.Level.ERROR};
+        for (Log.Level threshold : Log.Level.values()) {
+            for (Log.Level call : calls) {
+                assertEquals(call.ordinal() >= threshold.ordinal(), Log.isEnabled(threshold, call),
+                    call + " at " + threshold);
+            }
+            assertFalse(Log.isEnabled(threshold, Log.Level.OFF));
+        }
+        assertFalse(Log.isEnabled(Log.Level.OFF, Log.Level.ERROR), "OFF silences everything");
+        
+        // The constants callers branch on follow the configured level
+        assertEquals(Log.isEnabled(Log.LEVEL, Log.Level.DEBUG), Log.DEBUG);
+        assertEquals(Log.isEnabled(Log.LEVEL, Log.Level.INFO), Log.INFO);
+        assertEquals(Log.isEnabled(Log.LEVEL, Log.Level.WARN), Log.WARN);
+        assertEquals(Log.isEnabled(Log.LEVEL, Log.Level.ERROR), Log.ERROR);
+    }
+    
+    @Test
+    void warningsAndErrorsGoToStderr() {
+        Log.Sink sink = new Log.Sink(8, out, err);
+        sink.offer(Log.Level.DEBUG, "tick %d", new Object[] {1});
+        sink.offer(Log.Level.INFO, "joined %s", new Object[] {"ana"});
+        sink.offer(Log.Level.WARN, "slow client", null);
+        sink.offer(Log.Level.ERROR, "value %d", new Object[] {"not a number"});
+        assertEquals(4, sink.drain());
+        assertEquals(lines("tick 1", "joined ana"), text(outBytes));
+        String errors = text(errBytes);
+        assertTrue(errors.startsWith(lines("slow client") + "value %d (bad log format: "), errors);
+    }
+    
+    @Test
+    void fullQueueDropsAndReportsTheCountOnce() {
+        Log.Sink sink = new Log.Sink(4, out, err);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i < 4, sink.offer(Log.Level.INFO, "entry %d", new Object[] {i}));
+        }
+        assertEquals(2, sink.getDroppedCount());
+        assertEquals(4, sink.drain());
+        assertEquals(lines("entry 0", "entry 1", "entry 2", "entry 3"), text(outBytes));
+        assertEquals(lines("✗ Log queue full: 2 messages dropped"), text(errBytes));
+        
+        errBytes.reset();
+        assertEquals(0, sink.drain());
+        assertEquals("", text(errBytes), "drops already reported");
+        for (int i = 0; i < 5; i++) {
+            sink.offer(Log.Level.INFO, "again", null);
+        }
+        sink.drain();
+        assertEquals(lines("✗ Log queue full: 1 messages dropped"), text(errBytes), "only the new drops");
+        assertEquals(3, sink.getDroppedCount());
+    }
+    
+    @Test
+    void trailingThrowablePrintsItsStackTrace() {
+        Log.Sink sink = new Log.Sink(8, out, err);
+        IOException failure = new IOException("connection reset");
+        sink.offer(Log.Level.ERROR, "✗ Client %d failed: %s", new Object[] {7, failure.getMessage(), failure});
+        sink.offer(Log.Level.INFO, "cause was %s", new Object[] {failure, "then"});
+        sink.drain();
+        
+        String errors = text(errBytes);
+        assertTrue(errors.startsWith(lines("✗ Client 7 failed: connection reset", "java.io.IOException: connection reset")),
+            errors);
+        assertTrue(errors.contains("\tat " + LogTest.class.getName()), "stack trace missing: " + errors);
+        // Not the last argument: formatted like any other value
+        assertEquals(lines("cause was java.io.IOException: connection reset"), text(outBytes));
+    }
+    
+    private static String text(ByteArrayOutputStream bytes) {
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+    
+    private static String lines(String... lines) {
+        return String.join(System.lineSeparator(), lines) + System.lineSeparator();
+    }
+}
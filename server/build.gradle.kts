@@ -0,0 +1,101 @@
+plugins {
+    application
+}
+
+dependencies {
+    implementation(project(":core"))
+}
+
+application {
+    mainClass.set("com.kaiounet.GameServerApp")
+}
+
+tasks.named<JavaExec>("run") {
+    workingDir = rootProject.projectDir // .env lives at the repository root
+}
+
+tasks.register<JavaExec>("runRelay") {
+    group = "application"
+    description = "Runs the spectator relay (--args=\"<server host> <server port>\")"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("com.kaiounet.SpectatorRelayApp")
+    workingDir = rootProject.projectDir
+}
+
+// AppCDS: record the classes the server loads while starting, so later room
+// or shard processes map them from the archive instead of loading and
+// verifying them again. Only classes from jars are archived, and the archive
+// is only valid with the same classpath, so every task below uses the jars.
+val cdsDir = layout.buildDirectory.dir("cds")
+val cdsArchive = layout.buildDirectory.file("cds/server.jsa")
+val serverJars = files(tasks.jar) + configurations.runtimeClasspath.get()
+val exitAfterStart = "kaiounet.exitAfterStart"
+
+// Startup probes run here, on an ephemeral loopback port, so they never clash with a running server
+val writeProbeEnv = tasks.register("writeProbeEnv") {
+    val env = cdsDir.map { it.file(".env") }
+    outputs.file(env)
+    doLast {
+        env.get().asFile.writeText("SERVER_HOST=127.0.0.1\nSERVER_PORT=0\n")
+    }
+}
+
+tasks.register<JavaExec>("serverCdsArchive") {
+    group = "build"
+    description = "Creates an AppCDS archive of the classes loaded during server startup"
+    dependsOn(writeProbeEnv)
+    classpath = serverJars
+    mainClass.set(application.mainClass)
+    workingDir(cdsDir)
+    systemProperty(exitAfterStart, "true")
+    jvmArgs("-XX:ArchiveClassesAtExit=${cdsArchive.get().asFile}")
+    inputs.files(serverJars)
+    outputs.file(cdsArchive)
+}
+
+tasks.register<JavaExec>("runWithCds") {
+    group = "application"
+    description = "Runs the server with the AppCDS archive"
+    dependsOn("serverCdsArchive")
+    classpath = serverJars
+    mainClass.set(application.mainClass)
+    workingDir = rootProject.projectDir
+    jvmArgs("-XX:SharedArchiveFile=${cdsArchive.get().asFile}")
+}
+
+// Launches the server jars with and without the archive and fails if the
+// archive is not used or startup regresses (ServerStartupTest, tag "startup")
+val startupTest = tasks.register<Test>("startupTest") {
+    group = "verification"
+    description = "Checks server startup time with and without the AppCDS archive"
+    dependsOn("serverCdsArchive")
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("startup")
+    }
+    val jars = serverJars
+    val archive = cdsArchive
+    val probeDir = cdsDir
+    jvmArgumentProviders.add(CommandLineArgumentProvider {
+        listOf(
+            "-Dkaiounet.startup.classpath=${jars.asPath}",
+            "-Dkaiounet.startup.archive=${archive.get().asFile}",
+            "-Dkaiounet.startup.workingDir=${probeDir.get().asFile}"
+        )
+    })
+    testLogging {
+        showStandardStreams = true
+    }
+    outputs.upToDateWhen { false }
+}
+
+tasks.named<Test>("test") {
+    useJUnitPlatform {
+        excludeTags("benchmark", "startup")
+    }
+}
+
+tasks.named("check") {
+    dependsOn(startupTest)
+}
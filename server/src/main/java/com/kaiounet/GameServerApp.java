@@ -0,0 +1,72 @@
+package com.kaiounet;
+
+import com.kaiounet.config.Config;
+import com.kaiounet.config.ConfigWatcher;
+import com.kaiounet.network.GameServer;
+import com.kaiounet.utils.Log;
+import java.io.IOException;
+import java.net.InetAddress;
+
+public class GameServerApp {
+    /** System property: exit as soon as the server is listening */
+    public static final String EXIT_AFTER_START = "kaiounet.exitAfterStart";
+    
+    public static void main(String[] args) {
+        // Load configuration from .env file
+        Config.load();
+        
+        // Tuning values in .env are hot-reloaded while the server runs
+        try {
+            ConfigWatcher.start(".env");
+        } catch (IOException e) {
+            Log.warn("✗ Config hot-reload disabled: %s", e.getMessage());
+        }
+        
+        String host = Config.getServerHost();
+        int port = Config.getServerPort();
+        
+        try {
+            GameServer server = new GameServer(host, port);
+            server.start();
+            
+            // Startup probe: the AppCDS training run and startup measurements stop here
+            if (Boolean.getBoolean(EXIT_AFTER_START)) {
+                server.stop();
+                System.exit(0);
+            }
+            
+            // Get the actual server address
+            String serverAddress = host.equals("0.0.0.0") ? 
+                InetAddress.getLocalHost().getHostAddress() : host;
+            
+            // One entry, so server log lines cannot land inside the box
+            Log.info("%n╔════════════════════════════════════════╗%n"
+                + "║         MULTIPLAYER GAME SERVER        ║%n"
+                + "╠════════════════════════════════════════╣%n"
+                + "║ Server Address: %-22s ║%n"
+                + "║ Port: %-32d ║%n"
+                + "║ Listening: %-26s ║%n"
+                + "╠════════════════════════════════════════╣%n"
+                + "║ Waiting for clients...                 ║%n"
+                + "║ Press Ctrl+C to stop                   ║%n"
+                + "╚════════════════════════════════════════╝%n", serverAddress, port, host + ":" + port);
+            
+            // Keep server running. The shutdown banner prints directly: it runs
+            // alongside Log's own flush hook, so a queued entry could be lost
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                System.out.println("\n╔════════════════════════════════════════╗");
+                System.out.println("║     Shutting down server...            ║");
+                System.out.println("╚════════════════════════════════════════╝");
+                server.stop();
+            }));
+            
+            // Block main thread
+            Thread.currentThread().join();
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            if (Boolean.getBoolean(EXIT_AFTER_START)) {
+                System.exit(1); // A probe that could not start must not look like a fast start
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.kaiounet;
+
+import com.kaiounet.config.Config;
+import com.kaiounet.network.SpectatorRelay;
+import com.kaiounet.utils.Log;
+import java.io.IOException;
+
+/**
+ * Spectator relay entry point.
+ *
+ * Usage: SpectatorRelayApp [game server host] [game server port]
+ * (defaults: localhost and SERVER_PORT). Spectators connect to RELAY_PORT.
+ */
+public class SpectatorRelayApp {
+    public static void main(String[] args) {
+        Config.load();
+        
+        String upstreamHost = args.length > 0 ? args[0] : "localhost";
+        int upstreamPort = Config.getServerPort();
+        if (args.length > 1) {
+            try {
+                upstreamPort = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                System.err.println("✗ Invalid port " + args[1] + ", using " + upstreamPort);
+            }
+        }
+        String host = Config.getServerHost();
+        int port = Config.getRelayPort();
+        long delayMs = Config.getRelayDelayMs();
+        
+        SpectatorRelay relay = new SpectatorRelay(upstreamHost, upstreamPort, host, port, delayMs,
+            Config.getRelayMaxDelayedFrames());
+        try {
+            relay.start();
+        } catch (IOException e) {
+            System.err.println("✗ Failed to reach game server at " + upstreamHost + ":" + upstreamPort
+                + ": " + e.getMessage());
+            System.exit(1);
+        }
+        
+        Log.info("%n╔════════════════════════════════════════╗%n"
+            + "║          SPECTATOR RELAY               ║%n"
+            + "╠════════════════════════════════════════╣%n"
+            + "║ Game server: %-26s ║%n"
+            + "║ Spectators: %-26s ║%n"
+            + "║ Delay: %-31s ║%n"
+            + "╚════════════════════════════════════════╝%n",
+            upstreamHost + ":" + upstreamPort, host + ":" + port, delayMs + " ms");
+        
+        Runtime.getRuntime().addShutdownHook(new Thread(relay::stop));
+        
+        // Exit when the game server goes away
+        try {
+            while (relay.isRunning()) {
+                Thread.sleep(1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
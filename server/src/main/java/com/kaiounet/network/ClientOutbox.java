@@ -0,0 +1,240 @@
+package com.kaiounet.network;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded per-client send queue with latest-wins movement.
+ *
+ * Reliable messages (everything except PLAYER_MOVE) go through a fixed-size
+ * FIFO and are delivered in order. PLAYER_MOVE messages are coalesced into
+ * one slot per player, so a slow client gets the newest position for each
+ * player instead of every stale one. A pending move is written after the
+ * reliable messages queued before it became pending and before those queued
+ * after, so a player's JOIN always precedes its moves and a steady stream of
+ * reliable messages cannot hold moves back; a newer position takes over the
+ * pending move's place. A LEAVE or RESPAWN discards the player's pending
+ * move. Memory is bounded by the FIFO capacity plus one slot per player.
+ *
+ * A message may come with a {@link SharedFrame} already encoded for it. The
+ * outbox holds one reference per queued entry, hands it to the writer with
+ * the message, and releases it if the entry is coalesced or discarded.
+ *
+ * Any thread may offer; a single writer thread drains.
+ */
+public class ClientOutbox {
+    
+    private static class MoveSlot {
+        GameMessage message;
+        SharedFrame frame;
+        boolean queued;
+        // Reliable messages offered before this move became pending, and when it did
+        long reliableBefore;
+        long pendingSince;
+    }
+    
+    private final GameMessage[] reliable;
+    private final SharedFrame[] reliableFrames;
+    private final long[] enqueuedAt;
+    private int head = 0;
+    private int size = 0;
+    private long reliableOffered = 0;
+    private long reliableTaken = 0;
+    
+    private final Map<Integer, MoveSlot> moveSlots = new HashMap<>();
+    // Pending moves, oldest first
+    private final ArrayDeque<MoveSlot> dirtyMoves = new ArrayDeque<>();
+    
+    private long coalesced = 0;
+    private int highWater = 0;
+    private boolean closed = false;
+    
+    /**
+     * @param capacity reliable messages that may wait before the client is considered stuck
+     */
+    public ClientOutbox(int capacity) {
+        this.reliable = new GameMessage[capacity];
+        this.reliableFrames = new SharedFrame[capacity];
+        this.enqueuedAt = new long[capacity];
+    }
+    
+    /**
+     * Queue a message for the writer.
+     *
+     * @return false if the reliable FIFO is full (the client should be evicted)
+     */
+    public boolean offer(GameMessage message, long nowNanos) {
+        return offer(message, null, nowNanos);
+    }
+    
+    /**
+     * Queue a message together with its pre-encoded frame (may be null);
+     * the outbox takes its own reference to the frame
+     *
+     * @return false if the reliable FIFO is full (the client should be evicted)
+     */
+    public synchronized boolean offer(GameMessage message, SharedFrame frame, long nowNanos) {
+        if (closed) {
+            return true; // Connection is going away; nothing left to deliver to
+        }
+        if (message.type == GameMessage.MessageType.PLAYER_MOVE) {
+            MoveSlot slot = moveSlots.computeIfAbsent(message.playerId, id -> new MoveSlot());
+            if (slot.queued) {
+                coalesced++;
+                release(slot.frame);
+            } else {
+                slot.queued = true;
+                slot.reliableBefore = reliableOffered;
+                slot.pendingSince = nowNanos;
+                dirtyMoves.addLast(slot);
+            }
+            slot.message = message;
+            slot.frame = retain(frame);
+        } else {
+            if (size == reliable.length) {
+                return false;
+            }
+            if (message.type == GameMessage.MessageType.PLAYER_LEAVE
+                    || message.type == GameMessage.MessageType.PLAYER_RESPAWN) {
+                dropMove(message.playerId); // A queued position would undo the leave or the respawn
+            } else if (message.type == GameMessage.MessageType.ROSTER_DELTA && message.leftIds != null) {
+                for (int id : message.leftIds) {
+                    dropMove(id);
+                }
+            }
+            int tail = (head + size) % reliable.length;
+            reliable[tail] = message;
+            reliableFrames[tail] = retain(frame);
+            enqueuedAt[tail] = nowNanos;
+            size++;
+            reliableOffered++;
+            highWater = Math.max(highWater, size);
+        }
+        notifyAll();
+        return true;
+    }
+    
+    private void dropMove(int playerId) {
+        MoveSlot slot = moveSlots.remove(playerId);
+        if (slot != null && slot.queued) {
+            dirtyMoves.remove(slot);
+            release(slot.frame);
+            slot.frame = null;
+        }
+    }
+    
+    private static SharedFrame retain(SharedFrame frame) {
+        if (frame != null) {
+            frame.retain();
+        }
+        return frame;
+    }
+    
+    private static void release(SharedFrame frame) {
+        if (frame != null) {
+            frame.release();
+        }
+    }
+    
+    /**
+     * Wait for work and move up to batch.length messages into batch, reliable
+     * messages and the latest move per player in the order they became
+     * pending. Each message's frame (or null) goes to the same index of
+     * frames, and the caller takes over its reference.
+     *
+     * @return number of messages written to batch; 0 once closed
+     */
+    public synchronized int take(GameMessage[] batch, SharedFrame[] frames) throws InterruptedException {
+        while (!closed && size == 0 && dirtyMoves.isEmpty()) {
+            wait();
+        }
+        if (closed) {
+            return 0;
+        }
+        int count = 0;
+        while (count < batch.length) {
+            MoveSlot slot = dirtyMoves.peekFirst();
+            if (slot != null && slot.reliableBefore <= reliableTaken) {
+                // The reliable messages queued before this move are out
+                dirtyMoves.pollFirst();
+                slot.queued = false;
+                frames[count] = slot.frame;
+                batch[count++] = slot.message;
+                slot.message = null;
+                slot.frame = null;
+            } else if (size > 0) {
+                frames[count] = reliableFrames[head];
+                batch[count++] = reliable[head];
+                reliable[head] = null;
+                reliableFrames[head] = null;
+                head = (head + 1) % reliable.length;
+                size--;
+                reliableTaken++;
+            } else {
+                break;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * How long the oldest undelivered message has been waiting
+     */
+    public synchronized long oldestAgeNanos(long nowNanos) {
+        long oldest = nowNanos;
+        if (size > 0) {
+            oldest = enqueuedAt[head];
+        }
+        MoveSlot move = dirtyMoves.peekFirst();
+        if (move != null && move.pendingSince - oldest < 0) {
+            oldest = move.pendingSince;
+        }
+        return nowNanos - oldest;
+    }
+    
+    /**
+     * Wake the writer and stop accepting messages
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (; size > 0; size--) {
+            release(reliableFrames[head]);
+            reliable[head] = null;
+            reliableFrames[head] = null;
+            head = (head + 1) % reliable.length;
+        }
+        for (MoveSlot slot : dirtyMoves) {
+            release(slot.frame);
+            slot.frame = null;
+        }
+        dirtyMoves.clear();
+        notifyAll();
+    }
+    
+    public synchronized int getReliableDepth() {
+        return size;
+    }
+    
+    public synchronized int getPendingMoves() {
+        return dirtyMoves.size();
+    }
+    
+    public synchronized int getHighWaterMark() {
+        return highWater;
+    }
+    
+    public int capacity() {
+        return reliable.length;
+    }
+    
+    /**
+     * Stale moves replaced by a newer one before they were sent
+     */
+    public synchronized long getCoalescedCount() {
+        return coalesced;
+    }
+}
@@ -0,0 +1,280 @@
+package com.kaiounet.network;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Server player state in fixed-size records outside the Java heap.
+ *
+ * All records live in one direct buffer allocated up front, so a large arena
+ * adds no per-player objects for the GC to trace. Free records are linked
+ * through the records themselves, and ids map to slots through a fixed-size
+ * open-addressing table of ints. Positions are written by the player's own
+ * reader thread through its slot; health and score are changed by id under
+ * the allocation lock, so they can never land in a record that was freed and
+ * reused. x and y are separate writes, so a reader may see them from
+ * consecutive moves, as it could with plain fields.
+ */
+public class EntityStore {
+    public static final int RECORD_BYTES = 32;
+    /** Id of a record that is not in use */
+    public static final int FREE = -1;
+    
+    // Record layout (byte offsets)
+    private static final int ID = 0;
+    private static final int X = 4;
+    private static final int Y = 8;
+    private static final int HEALTH = 12;
+    private static final int SCORE = 16;
+    private static final int NEXT_FREE = 20;
+    private static final int VERSION = 24;
+    
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle FLOAT = MethodHandles.byteBufferViewVarHandle(float[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    
+    private final ByteBuffer records;
+    private final int capacity;
+    // id -> slot, linear probing; sized so it never fills (guarded by this)
+    private final int[] indexIds;
+    private final int[] indexSlots;
+    private final int indexMask;
+    private int size = 0;
+    private int freeHead = -1;
+    // Slots below this have been handed out at least once
+    private volatile int highWater = 0;
+    
+    public EntityStore(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.records = ByteBuffer.allocateDirect(capacity * RECORD_BYTES).order(ByteOrder.nativeOrder());
+        int tableSize = Integer.highestOneBit(capacity) << 2;
+        this.indexIds = new int[tableSize];
+        this.indexSlots = new int[tableSize];
+        this.indexMask = tableSize - 1;
+        Arrays.fill(indexIds, FREE);
+    }
+    
+    /**
+     * Store a new player
+     *
+     * @return the player's slot, or -1 if every record is in use
+     */
+    public synchronized int allocate(int playerId, float x, float y, int health, int score) {
+        if (playerId == FREE || slotOf(playerId) >= 0) {
+            throw new IllegalArgumentException("player id already stored or reserved: " + playerId);
+        }
+        int slot;
+        if (freeHead >= 0) {
+            slot = freeHead;
+            freeHead = (int) INT.get(records, offset(slot, NEXT_FREE));
+        } else if (highWater < capacity) {
+            slot = highWater;
+        } else {
+            return -1;
+        }
+        int base = slot * RECORD_BYTES;
+        FLOAT.set(records, base + X, x);
+        FLOAT.set(records, base + Y, y);
+        INT.set(records, base + HEALTH, health);
+        INT.set(records, base + SCORE, score);
+        LONG.setVolatile(records, base + VERSION, 0L);
+        INT.setRelease(records, base + ID, playerId);
+        if (slot == highWater) {
+            highWater = slot + 1;
+        }
+        int i = hash(playerId);
+        while (indexIds[i] != FREE) {
+            i = (i + 1) & indexMask;
+        }
+        indexIds[i] = playerId;
+        indexSlots[i] = slot;
+        size++;
+        return slot;
+    }
+    
+    /**
+     * @return true if the player was stored
+     */
+    public synchronized boolean free(int playerId) {
+        int i = find(playerId);
+        if (i < 0) {
+            return false;
+        }
+        int slot = indexSlots[i];
+        removeIndex(i);
+        size--;
+        INT.setRelease(records, offset(slot, ID), FREE);
+        INT.set(records, offset(slot, NEXT_FREE), freeHead);
+        freeHead = slot;
+        return true;
+    }
+    
+    /**
+     * @return the player's slot, or -1 if not stored
+     */
+    public synchronized int slotOf(int playerId) {
+        int i = find(playerId);
+        return i >= 0 ? indexSlots[i] : -1;
+    }
+    
+    /**
+     * Ids of all stored players, as one consistent snapshot (a concurrent
+     * allocate could otherwise fill the array before the scan reaches the end)
+     */
+    public synchronized int[] ids() {
+        int[] ids = new int[size()];
+        int count = 0;
+        for (int slot = 0, end = highWater; slot < end && count < ids.length; slot++) {
+            int id = idAt(slot);
+            if (id != FREE) {
+                ids[count++] = id;
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+    
+    /**
+     * Slots [0, highWater) may be in use; check {@link #idAt} for each
+     */
+    public int getHighWater() {
+        return highWater;
+    }
+    
+    /**
+     * @return the id stored in the slot, or {@link #FREE}
+     */
+    public int idAt(int slot) {
+        return (int) INT.getAcquire(records, offset(slot, ID));
+    }
+    
+    public float getX(int slot) {
+        return (float) FLOAT.get(records, offset(slot, X));
+    }
+    
+    public float getY(int slot) {
+        return (float) FLOAT.get(records, offset(slot, Y));
+    }
+    
+    public int getHealth(int slot) {
+        return (int) INT.get(records, offset(slot, HEALTH));
+    }
+    
+    public int getScore(int slot) {
+        return (int) INT.get(records, offset(slot, SCORE));
+    }
+    
+    /**
+     * Incremented on every position change
+     */
+    public long getVersion(int slot) {
+        return (long) LONG.getVolatile(records, offset(slot, VERSION));
+    }
+    
+    /**
+     * Move a player. Only the thread that owns the slot's player may call this.
+     */
+    public void setPosition(int slot, float x, float y) {
+        int base = slot * RECORD_BYTES;
+        FLOAT.set(records, base + X, x);
+        FLOAT.set(records, base + Y, y);
+        LONG.getAndAdd(records, base + VERSION, 1L);
+    }
+    
+    /**
+     * @return false if the player is not stored
+     */
+    public synchronized boolean setHealth(int playerId, int health) {
+        int slot = slotOf(playerId);
+        if (slot < 0) {
+            return false;
+        }
+        INT.set(records, offset(slot, HEALTH), health);
+        return true;
+    }
+    
+    /**
+     * Subtract damage from a player's health, stopping at zero
+     *
+     * @return the new health, or -1 if the player is not stored
+     */
+    public synchronized int applyDamage(int playerId, int damage) {
+        int slot = slotOf(playerId);
+        if (slot < 0) {
+            return -1;
+        }
+        int health = Math.max(0, getHealth(slot) - damage);
+        INT.set(records, offset(slot, HEALTH), health);
+        return health;
+    }
+    
+    /**
+     * @return false if the player is not stored
+     */
+    public synchronized boolean setScore(int playerId, int score) {
+        int slot = slotOf(playerId);
+        if (slot < 0) {
+            return false;
+        }
+        INT.set(records, offset(slot, SCORE), score);
+        return true;
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+    
+    /** Bytes reserved outside the heap */
+    public long getOffHeapBytes() {
+        return (long) capacity * RECORD_BYTES;
+    }
+    
+    private int hash(int playerId) {
+        return (playerId * 0x9E3779B9) >>> 7 & indexMask;
+    }
+    
+    private int find(int playerId) {
+        for (int i = hash(playerId); indexIds[i] != FREE; i = (i + 1) & indexMask) {
+            if (indexIds[i] == playerId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Delete an index entry, shifting later entries of its probe run back so
+     * lookups never need tombstones
+     */
+    private void removeIndex(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & indexMask;
+            int id = indexIds[i];
+            if (id == FREE) {
+                break;
+            }
+            // Move the entry back unless its home lies cyclically within (hole, i]
+            int home = hash(id);
+            if (((i - home) & indexMask) >= ((i - hole) & indexMask)) {
+                indexIds[hole] = id;
+                indexSlots[hole] = indexSlots[i];
+                hole = i;
+            }
+        }
+        indexIds[hole] = FREE;
+    }
+    
+    private static int offset(int slot, int field) {
+        return slot * RECORD_BYTES + field;
+    }
+}
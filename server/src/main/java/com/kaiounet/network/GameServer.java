@@ -0,0 +1,1367 @@
+package com.kaiounet.network;
+
+import com.kaiounet.config.TuningConfig;
+import com.kaiounet.game.Beam;
+import com.kaiounet.game.Player;
+import com.kaiounet.utils.Log;
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+public class GameServer {
+    private final String host;
+    private final int port;
+    private ServerSocket serverSocket;
+    private final Map<Integer, ClientHandler> clients = new ConcurrentHashMap<>();
+    // Player state lives off-heap; snapshots are tick-thread only, indexed by record slot
+    private final EntityStore entities;
+    private final GameMessage[] snapshots;
+    private final SharedFrame[] snapshotFrames;
+    private final long[] snapshotVersions;
+    // Broadcasts are encoded once with the codec all clients of this world size share
+    private GameMessageCodec sharedCodec;
+    private final LagCompensator lagCompensator;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService pingScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "GameServer-ping");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger nextPlayerId = new AtomicInteger(1);
+    // Dropped players wait here for a reconnect (SESSION_GRACE_MS)
+    private final SessionRegistry sessions = new SessionRegistry();
+    // Players waiting for or playing a lockstep match (guarded by itself)
+    private final LockstepLobby lockstepLobby = new LockstepLobby();
+    
+    // Fire cooldowns, respawn delays, beam lifetimes and idle kicks, in milliseconds;
+    // advanced by the tick loop, guarded by itself
+    private static final int TIMER_FIRE_COOLDOWN = 0;
+    private static final int TIMER_RESPAWN = 1;
+    private static final int TIMER_BEAM_EXPIRY = 2;
+    private static final int TIMER_IDLE_KICK = 3;
+    private final TimerWheel timers = new TimerWheel(nowMillis(), 1024);
+    private final TimerWheel.Expiry timerExpiry = this::onTimer;
+    // Pending respawns by record slot, and who made each kill (guarded by timers)
+    private final long[] respawnTimers;
+    private final int[] respawnKillers;
+    
+    // Server-side ranking; clients only receive the top K (LEADERBOARD_TOP_K) plus their own rank
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final int[] topIds = new int[TuningConfig.MAX_LEADERBOARD_TOP_K];
+    private final int[] topScores = new int[TuningConfig.MAX_LEADERBOARD_TOP_K];
+    private final int[] lastTopIds = new int[TuningConfig.MAX_LEADERBOARD_TOP_K];
+    private final int[] lastTopScores = new int[TuningConfig.MAX_LEADERBOARD_TOP_K];
+    private int lastTopCount = 0;
+    private volatile boolean running = true;
+    
+    // State updates are sent from the tick loop, ranked per client within a byte budget
+    private static final float PRIORITY_DISTANCE_SCALE = 500f;
+    private static final float PLAYER_UPDATE_WEIGHT = 1f;
+    private EntityView[] candidates = new EntityView[64];
+    private final Comparator<EntityView> byPriority = (a, b) -> Float.compare(b.priority, a.priority);
+    private final AllocationTracker tickAllocations = new AllocationTracker();
+    private long lastAllocReport = System.nanoTime();
+    
+    // Joins and leaves since the last tick, announced together in one ROSTER_DELTA
+    private final Object rosterLock = new Object();
+    private final Set<Integer> pendingJoins = new LinkedHashSet<>();
+    private final Set<Integer> pendingLeaves = new LinkedHashSet<>();
+    // Published changes by epoch, kept for the grace period so resumed sessions can catch up
+    private static final int MAX_ROSTER_HISTORY = 8192;
+    private final ArrayDeque<RosterChange> rosterHistory = new ArrayDeque<>();
+    private int rosterEpoch = 0;
+    // Changes after this epoch are all still in the history
+    private int rosterHistoryFloor = 0;
+    
+    private static class RosterChange {
+        final int epoch;
+        final int playerId;
+        final boolean joined;
+        final long atNanos;
+        
+        RosterChange(int epoch, int playerId, boolean joined, long atNanos) {
+            this.epoch = epoch;
+            this.playerId = playerId;
+            this.joined = joined;
+            this.atNanos = atNanos;
+        }
+    }
+    
+    /**
+     * What one client has been sent about one entity (tick thread only)
+     */
+    private static class EntityView {
+        int entityId = EntityStore.FREE;
+        long sentVersion;
+        float priority;
+        GameMessage pending;
+        SharedFrame pendingFrame;
+    }
+    
+    public GameServer(int port) {
+        this("0.0.0.0", port);
+    }
+    
+    public GameServer(String host, int port) {
+        this.host = host;
+        this.port = port;
+        int maxPlayers = TuningConfig.current().serverMaxPlayers;
+        this.entities = new EntityStore(maxPlayers);
+        this.lagCompensator = new LagCompensator(maxPlayers);
+        this.snapshots = new GameMessage[maxPlayers];
+        this.snapshotFrames = new SharedFrame[maxPlayers];
+        this.snapshotVersions = new long[maxPlayers];
+        this.respawnTimers = new long[maxPlayers];
+        this.respawnKillers = new int[maxPlayers];
+        Arrays.fill(respawnTimers, TimerWheel.NONE);
+    }
+    
+    public void start() throws IOException {
+        // Bind to specific host/port
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        serverSocket = new ServerSocket();
+        serverSocket.bind(address);
+        
+        executor.execute(() -> {
+            while (running) {
+                try {
+                    Socket clientSocket = serverSocket.accept();
+                    // The player id is settled by the handshake (new player or resumed session)
+                    executor.execute(new ClientHandler(clientSocket, this));
+                
+                } catch (IOException e) {
+                    if (running) Log.error("Accept failed", e);
+                }
+            }
+        });
+        schedulePing();
+        
+        Thread tickThread = new Thread(this::runTickLoop, "GameServer-tick");
+        tickThread.setDaemon(true);
+        tickThread.start();
+    }
+    
+    /**
+     * Fixed-rate server tick (TICK_RATE per second)
+     */
+    private void runTickLoop() {
+        long nextTick = System.nanoTime();
+        while (running) {
+            TuningConfig tuning = TuningConfig.current();
+            GameEvents.ServerTick event = new GameEvents.ServerTick();
+            event.begin();
+            tickAllocations.begin();
+            tick(tuning);
+            long allocated = tickAllocations.end();
+            if (event.shouldCommit()) {
+                event.clients = clients.size();
+                event.players = entities.size();
+                event.allocatedBytes = allocated;
+                event.commit();
+            }
+            reportTickAllocations(tuning);
+            nextTick += 1_000_000_000L / tuning.tickRate;
+            long sleep = nextTick - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+            } else if (sleep < -1_000_000_000L) {
+                nextTick = System.nanoTime(); // Fell far behind; don't try to catch up
+            }
+        }
+    }
+    
+    /**
+     * Log heap bytes allocated per tick every ALLOC_REPORT_SECONDS (tick thread only)
+     */
+    private void reportTickAllocations(TuningConfig tuning) {
+        long now = System.nanoTime();
+        if (tuning.allocReportSeconds == 0 || !AllocationTracker.isSupported()
+                || now - lastAllocReport < tuning.allocReportSeconds * 1_000_000_000L) {
+            return;
+        }
+        lastAllocReport = now;
+        Log.info("Tick allocation: avg %d B, peak %d B over %d ticks (%d clients)",
+            tickAllocations.getAverageBytes(), tickAllocations.getPeakBytes(),
+            tickAllocations.getSampleCount(), clients.size());
+        tickAllocations.reset();
+    }
+    
+    private void tick(TuningConfig tuning) {
+        synchronized (timers) {
+            timers.advance(nowMillis(), timerExpiry);
+        }
+        publishRosterDelta();
+        
+        // One shared snapshot per entity that moved since the last tick, read straight from its record
+        for (int slot = 0, end = entities.getHighWater(); slot < end; slot++) {
+            int id = entities.idAt(slot);
+            if (id == EntityStore.FREE) {
+                snapshots[slot] = null;
+                releaseSnapshotFrame(slot);
+                continue;
+            }
+            long version = entities.getVersion(slot);
+            GameMessage snapshot = snapshots[slot];
+            if (snapshot == null || snapshot.playerId != id || snapshotVersions[slot] != version) {
+                snapshot = new GameMessage(GameMessage.MessageType.PLAYER_MOVE,
+                    id, entities.getX(slot), entities.getY(slot), 0);
+                snapshots[slot] = snapshot;
+                snapshotVersions[slot] = version;
+                // Encoded once here; every client that is sent this version writes the same bytes
+                releaseSnapshotFrame(slot);
+                snapshotFrames[slot] = SharedFrame.encode(codecFor(tuning), snapshot);
+            }
+        }
+        
+        long bytesPerTick = Math.max(1, tuning.clientBytesPerSecond / tuning.tickRate);
+        for (ClientHandler handler : clients.values()) {
+            sendStateUpdates(handler, bytesPerTick);
+        }
+    }
+    
+    private void releaseSnapshotFrame(int slot) {
+        if (snapshotFrames[slot] != null) {
+            snapshotFrames[slot].release();
+            snapshotFrames[slot] = null;
+        }
+    }
+    
+    /**
+     * The codec for the current world size, one instance shared by every
+     * connection and every frame encoded for that size
+     */
+    private synchronized GameMessageCodec codecFor(TuningConfig tuning) {
+        if (sharedCodec == null || !sharedCodec.hasWorldSize(tuning.worldWidth, tuning.worldHeight)) {
+            sharedCodec = new GameMessageCodec(tuning.worldWidth, tuning.worldHeight);
+        }
+        return sharedCodec;
+    }
+    
+    /**
+     * Record a membership change for the next roster delta
+     */
+    private void queueRosterChange(int playerId, boolean joined) {
+        synchronized (rosterLock) {
+            if (joined) {
+                pendingJoins.add(playerId);
+            } else {
+                pendingJoins.remove(playerId);
+                pendingLeaves.add(playerId);
+            }
+        }
+    }
+    
+    /**
+     * Send every client one message with all joins and leaves since the last tick
+     */
+    private void publishRosterDelta() {
+        int[] joined;
+        int[] left;
+        int epoch;
+        synchronized (rosterLock) {
+            if (pendingJoins.isEmpty() && pendingLeaves.isEmpty()) {
+                return;
+            }
+            joined = toArray(pendingJoins);
+            left = toArray(pendingLeaves);
+            pendingJoins.clear();
+            pendingLeaves.clear();
+            epoch = ++rosterEpoch;
+            recordRosterHistory(epoch, joined, left);
+        }
+        GameMessage delta = new GameMessage(GameMessage.MessageType.ROSTER_DELTA, 0, 0, 0, 0);
+        delta.tick = epoch;
+        delta.leftIds = left;
+        fillRoster(delta, joined);
+        GameEvents.Broadcast event = new GameEvents.Broadcast();
+        event.begin();
+        SharedFrame frame = SharedFrame.encode(codecFor(TuningConfig.current()), delta);
+        int recipients = 0;
+        for (ClientHandler handler : clients.values()) {
+            handler.sendMessage(delta, frame);
+            recipients++;
+        }
+        frame.release();
+        commitBroadcast(event, delta, recipients);
+    }
+    
+    /**
+     * Append one epoch's changes and drop those older than the grace period (holds rosterLock)
+     */
+    private void recordRosterHistory(int epoch, int[] joined, int[] left) {
+        long now = System.nanoTime();
+        long graceNanos = TuningConfig.current().sessionGraceMs * 1_000_000L;
+        if (graceNanos > 0) {
+            for (int id : left) {
+                rosterHistory.addLast(new RosterChange(epoch, id, false, now));
+            }
+            for (int id : joined) {
+                rosterHistory.addLast(new RosterChange(epoch, id, true, now));
+            }
+        }
+        while (!rosterHistory.isEmpty() && (rosterHistory.size() > MAX_ROSTER_HISTORY
+                || now - rosterHistory.peekFirst().atNanos > graceNanos)) {
+            rosterHistoryFloor = rosterHistory.pollFirst().epoch;
+        }
+        if (rosterHistory.isEmpty()) {
+            rosterHistoryFloor = epoch;
+        }
+    }
+    
+    /**
+     * Build the ROSTER_DELTA a resumed player missed: every player whose
+     * membership changed after the given epoch, by its latest change.
+     *
+     * @return the delta, or null if the history no longer reaches back that far
+     */
+    private GameMessage rosterSince(int epoch, int playerId) {
+        Map<Integer, Boolean> latest = new LinkedHashMap<>();
+        int current;
+        synchronized (rosterLock) {
+            if (epoch < rosterHistoryFloor || epoch > rosterEpoch) {
+                return null;
+            }
+            for (RosterChange change : rosterHistory) {
+                if (change.epoch > epoch && change.playerId != playerId) {
+                    latest.put(change.playerId, change.joined);
+                }
+            }
+            current = rosterEpoch;
+        }
+        int[] joined = new int[latest.size()];
+        int[] left = new int[latest.size()];
+        int joinCount = 0;
+        int leftCount = 0;
+        for (Map.Entry<Integer, Boolean> entry : latest.entrySet()) {
+            if (entry.getValue()) {
+                joined[joinCount++] = entry.getKey();
+            } else {
+                left[leftCount++] = entry.getKey();
+            }
+        }
+        GameMessage delta = new GameMessage(GameMessage.MessageType.ROSTER_DELTA, 0, 0, 0, 0);
+        delta.tick = current;
+        delta.leftIds = Arrays.copyOf(left, leftCount);
+        fillRoster(delta, Arrays.copyOf(joined, joinCount));
+        return delta;
+    }
+    
+    private int currentRosterEpoch() {
+        synchronized (rosterLock) {
+            return rosterEpoch;
+        }
+    }
+    
+    private static int[] toArray(Collection<Integer> ids) {
+        int[] result = new int[ids.size()];
+        int i = 0;
+        for (int id : ids) {
+            result[i++] = id;
+        }
+        return result;
+    }
+    
+    /**
+     * Fill the join arrays of a roster message from current player state,
+     * skipping players that are already gone
+     */
+    private void fillRoster(GameMessage message, int[] ids) {
+        int count = 0;
+        message.joinedIds = new int[ids.length];
+        message.joinedX = new float[ids.length];
+        message.joinedY = new float[ids.length];
+        message.joinedColors = new int[ids.length];
+        message.joinedHealth = new int[ids.length];
+        message.joinedScores = new int[ids.length];
+        for (int id : ids) {
+            int slot = entities.slotOf(id);
+            if (slot < 0) {
+                continue;
+            }
+            message.joinedIds[count] = id;
+            message.joinedX[count] = entities.getX(slot);
+            message.joinedY[count] = entities.getY(slot);
+            message.joinedColors[count] = getPlayerColor(id);
+            message.joinedHealth[count] = entities.getHealth(slot);
+            message.joinedScores[count] = entities.getScore(slot);
+            count++;
+        }
+        if (count < ids.length) {
+            message.joinedIds = Arrays.copyOf(message.joinedIds, count);
+            message.joinedX = Arrays.copyOf(message.joinedX, count);
+            message.joinedY = Arrays.copyOf(message.joinedY, count);
+            message.joinedColors = Arrays.copyOf(message.joinedColors, count);
+            message.joinedHealth = Arrays.copyOf(message.joinedHealth, count);
+            message.joinedScores = Arrays.copyOf(message.joinedScores, count);
+        }
+    }
+    
+    /**
+     * Send a client the entity updates it is missing, highest priority first,
+     * until its byte budget for this tick runs out. Priority grows every tick an
+     * update waits (staleness), scaled by entity type and falling off with
+     * distance from the client's player; it resets when the update is sent.
+     */
+    private void sendStateUpdates(ClientHandler handler, long bytesPerTick) {
+        MessageWriter writer = handler.out;
+        if (writer == null) {
+            return; // Registered but still handshaking; what is queued waits for the writer
+        }
+        // Everything written since the last tick (events included) is charged against the budget
+        long written = writer.getBytesWritten();
+        handler.allowance = Math.min(handler.allowance + bytesPerTick - (written - handler.lastBytesWritten),
+            bytesPerTick);
+        handler.lastBytesWritten = written;
+        
+        int viewer = handler.entitySlot;
+        float viewerX = viewer >= 0 ? entities.getX(viewer) : 0;
+        float viewerY = viewer >= 0 ? entities.getY(viewer) : 0;
+        int count = 0;
+        for (int slot = 0, end = entities.getHighWater(); slot < end; slot++) {
+            GameMessage snapshot = snapshots[slot];
+            if (snapshot == null || slot == viewer) {
+                continue; // Clients predict their own movement
+            }
+            int entityId = snapshot.playerId;
+            EntityView view = handler.views[slot];
+            if (view == null) {
+                view = new EntityView();
+                handler.views[slot] = view;
+            }
+            if (view.entityId != entityId) {
+                // The slot holds another player now; nothing was sent about this one
+                view.entityId = entityId;
+                view.sentVersion = 0;
+                view.priority = 0;
+                view.pending = null;
+            }
+            if (view.sentVersion == snapshotVersions[slot] && view.pending == null) {
+                continue;
+            }
+            float distance = viewer >= 0 ? (float) Math.hypot(snapshot.x - viewerX, snapshot.y - viewerY) : 0;
+            view.priority += PLAYER_UPDATE_WEIGHT / (1 + distance / PRIORITY_DISTANCE_SCALE);
+            view.pending = snapshot;
+            view.pendingFrame = snapshotFrames[slot];
+            view.sentVersion = snapshotVersions[slot];
+            if (count == candidates.length) {
+                candidates = Arrays.copyOf(candidates, count * 2);
+            }
+            candidates[count++] = view;
+        }
+        
+        Arrays.sort(candidates, 0, count, byPriority);
+        int sent = 0;
+        for (; sent < count; sent++) {
+            EntityView view = candidates[sent];
+            int cost = view.pendingFrame.length();
+            if (handler.allowance < cost) {
+                break;
+            }
+            handler.allowance -= cost;
+            handler.sendMessage(view.pending, view.pendingFrame);
+            view.pending = null;
+            view.priority = 0;
+        }
+        handler.updatesSent += sent;
+        handler.updatesDeferred += count - sent;
+        for (int i = 0; i < count; i++) {
+            candidates[i].pendingFrame = null; // Only valid during this tick
+            candidates[i] = null;
+        }
+    }
+    
+    /**
+     * A timer came due (tick thread, holding timers)
+     */
+    private void onTimer(int kind, int playerId, int arg) {
+        switch (kind) {
+            case TIMER_RESPAWN:
+                respawn(playerId, arg);
+                break;
+            case TIMER_BEAM_EXPIRY:
+                lagCompensator.expireBeam(entities.slotOf(playerId), playerId, arg);
+                break;
+            case TIMER_IDLE_KICK: {
+                ClientHandler handler = clients.get(playerId);
+                if (handler != null) {
+                    handler.checkIdle(nowMillis());
+                }
+                break;
+            }
+            default:
+                break; // Cooldowns only need to be pending
+        }
+    }
+    
+    /**
+     * Start the shooter's fire cooldown and its beam's lifetime, unless the
+     * previous shot is still cooling down
+     *
+     * @return false if the shot came too soon and must be dropped
+     */
+    private boolean scheduleShot(ClientHandler shooter, int beamId) {
+        TuningConfig tuning = TuningConfig.current();
+        long now = nowMillis();
+        synchronized (timers) {
+            if (timers.isPending(shooter.fireCooldown)) {
+                return false;
+            }
+            // Shots arrive with network jitter; allow the same slack as hit reports
+            long cooldown = tuning.fireCooldownMs - LagCompensator.TIMING_TOLERANCE_MS;
+            shooter.fireCooldown = cooldown > 0
+                ? timers.schedule(now + cooldown, TIMER_FIRE_COOLDOWN, shooter.playerId, 0)
+                : TimerWheel.NONE;
+            if (tuning.beamLifetimeMs > 0) {
+                // Hits the shooter saw before the end are reported up to a rewind later
+                timers.schedule(now + tuning.beamLifetimeMs + LagCompensator.MAX_REWIND_MS,
+                    TIMER_BEAM_EXPIRY, shooter.playerId, beamId);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Bring a killed player back after RESPAWN_DELAY_MS
+     *
+     * @return false if a respawn is already pending for the player, so the
+     *         kill was already credited
+     */
+    private boolean scheduleRespawn(int slot, int playerId, int killerId) {
+        synchronized (timers) {
+            if (timers.isPending(respawnTimers[slot])) {
+                return false;
+            }
+            respawnKillers[slot] = killerId;
+            respawnTimers[slot] = timers.schedule(nowMillis() + TuningConfig.current().respawnDelayMs,
+                TIMER_RESPAWN, playerId, slot);
+        }
+        return true;
+    }
+    
+    private void respawn(int playerId, int slot) {
+        respawnTimers[slot] = TimerWheel.NONE;
+        if (entities.slotOf(playerId) != slot) {
+            return;
+        }
+        // Where it died: its moves were dropped since, so every client has this position
+        GameMessage message = new GameMessage(GameMessage.MessageType.PLAYER_RESPAWN, playerId,
+            entities.getX(slot), entities.getY(slot), 0, Player.MAX_HEALTH, 0);
+        message.killerId = respawnKillers[slot];
+        // The killer's score may have moved on since the kill
+        int killerSlot = entities.slotOf(message.killerId);
+        if (killerSlot >= 0) {
+            message.score = entities.getScore(killerSlot);
+        }
+        entities.setHealth(playerId, Player.MAX_HEALTH);
+        broadcastMessage(message);
+    }
+    
+    private void cancelRespawn(int playerId) {
+        int slot = entities.slotOf(playerId);
+        if (slot < 0) {
+            return;
+        }
+        synchronized (timers) {
+            timers.cancel(respawnTimers[slot]);
+            respawnTimers[slot] = TimerWheel.NONE;
+        }
+    }
+    
+    /**
+     * Probe every client's RTT and catch stuck writers; rescheduled each time so
+     * PING_INTERVAL_MS reloads apply
+     */
+    private void schedulePing() {
+        if (!running) {
+            return;
+        }
+        pingScheduler.schedule(() -> {
+            long now = System.nanoTime();
+            for (ClientHandler handler : clients.values()) {
+                handler.checkOutbox(now);
+                handler.sendPing();
+            }
+            sessions.expire(now, TuningConfig.current().sessionGraceMs * 1_000_000L, this::removeClient);
+            schedulePing();
+        }, TuningConfig.current().pingIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Smoothed round-trip time to a client, or 0 if unknown
+     */
+    public double getRoundTripMillis(int playerId) {
+        ClientHandler handler = clients.get(playerId);
+        return handler != null ? handler.rtt.getRoundTripMillis() : 0;
+    }
+    
+    public double getJitterMillis(int playerId) {
+        ClientHandler handler = clients.get(playerId);
+        return handler != null ? handler.rtt.getJitterMillis() : 0;
+    }
+    
+    public void broadcastMessage(GameMessage message) {
+        // Track player state for new joiners
+        if (message.type == GameMessage.MessageType.PLAYER_MOVE) {
+            trackPosition(message);
+        }
+        
+        GameEvents.Broadcast event = new GameEvents.Broadcast();
+        event.begin();
+        SharedFrame frame = SharedFrame.encode(codecFor(TuningConfig.current()), message);
+        int recipients = 0;
+        for (ClientHandler handler : clients.values()) {
+            handler.sendMessage(message, frame);
+            recipients++;
+        }
+        frame.release();
+        commitBroadcast(event, message, recipients);
+    }
+    
+    public void broadcastMessageExcept(GameMessage message, int excludePlayerId) {
+        // Track player state for new joiners
+        if (message.type == GameMessage.MessageType.PLAYER_MOVE) {
+            trackPosition(message);
+        }
+        
+        GameEvents.Broadcast event = new GameEvents.Broadcast();
+        event.begin();
+        SharedFrame frame = SharedFrame.encode(codecFor(TuningConfig.current()), message);
+        int recipients = 0;
+        for (ClientHandler handler : clients.values()) {
+            if (handler.playerId != excludePlayerId) {
+                handler.sendMessage(message, frame);
+                recipients++;
+            }
+        }
+        frame.release();
+        commitBroadcast(event, message, recipients);
+    }
+    
+    private static void commitBroadcast(GameEvents.Broadcast event, GameMessage message, int recipients) {
+        if (event.shouldCommit()) {
+            event.messageType = message.type.name();
+            event.recipients = recipients;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Positions come from the moving client; health and score stay server-owned
+     */
+    private void trackPosition(GameMessage message) {
+        int slot = entities.slotOf(message.playerId);
+        if (slot >= 0) {
+            entities.setPosition(slot, message.x, message.y);
+        }
+    }
+    
+    /**
+     * Monotonic server clock used for lag compensation
+     */
+    static long nowMillis() {
+        return System.nanoTime() / 1_000_000;
+    }
+    
+    /**
+     * Queue the player for a lockstep match; once the match fills, every member
+     * gets LOCKSTEP_START with the same roster and seed
+     */
+    private void joinLockstep(ClientHandler handler) {
+        synchronized (lockstepLobby) {
+            LockstepLobby.Match match = lockstepLobby.join(handler.playerId,
+                TuningConfig.current().lockstepMatchSize);
+            if (match == null) {
+                Log.info("Player %d waiting for a lockstep match (%d waiting)",
+                    handler.playerId, lockstepLobby.getWaitingCount());
+                return;
+            }
+            GameMessage start = new GameMessage(GameMessage.MessageType.LOCKSTEP_START, 0, 0, 0, 0);
+            start.tick = match.id;
+            start.checksum = match.seed;
+            start.joinedIds = match.roster;
+            for (int id : match.roster) {
+                ClientHandler member = clients.get(id);
+                if (member != null) {
+                    member.lockstepMatch = match;
+                    member.sendMessage(start);
+                }
+            }
+            Log.info("Lockstep match %d started with players %s", match.id, Arrays.toString(match.roster));
+        }
+    }
+    
+    /**
+     * Take a departing player out of the lobby; a match it was in ends, and the
+     * other members get LOCKSTEP_START with an empty roster
+     */
+    private void leaveLockstep(int playerId) {
+        synchronized (lockstepLobby) {
+            LockstepLobby.Match match = lockstepLobby.leave(playerId);
+            if (match == null) {
+                return;
+            }
+            GameMessage end = new GameMessage(GameMessage.MessageType.LOCKSTEP_START, 0, 0, 0, 0);
+            end.tick = match.id;
+            end.joinedIds = new int[0];
+            for (int id : match.roster) {
+                ClientHandler member = clients.get(id);
+                if (member != null && member.lockstepMatch == match) {
+                    member.lockstepMatch = null;
+                    if (id != playerId) {
+                        member.sendMessage(end);
+                    }
+                }
+            }
+            Log.info("Lockstep match %d ended: player %d left", match.id, playerId);
+        }
+    }
+    
+    /**
+     * Forward a lockstep input or checksum to the sender's match, encoded once
+     */
+    private void relayLockstep(ClientHandler sender, GameMessage message) {
+        LockstepLobby.Match match = sender.lockstepMatch;
+        if (match == null) {
+            return; // Not in a match; nobody simulates these inputs
+        }
+        SharedFrame frame = SharedFrame.encode(codecFor(TuningConfig.current()), message);
+        for (int id : match.roster) {
+            ClientHandler member = id != sender.playerId ? clients.get(id) : null;
+            if (member != null) {
+                member.sendMessage(message, frame);
+            }
+        }
+        frame.release();
+    }
+    
+    public void sendMessageToClient(int playerId, GameMessage message) {
+        ClientHandler handler = clients.get(playerId);
+        if (handler != null) {
+            handler.sendMessage(message);
+        }
+    }
+    
+    public Map<Integer, ClientHandler> getClients() {
+        return clients;
+    }
+    
+    /**
+     * Hold a dropped player's state for a reconnect within SESSION_GRACE_MS,
+     * or remove the player if sessions are off
+     */
+    private void dropClient(int playerId) {
+        long graceMs = TuningConfig.current().sessionGraceMs;
+        if (graceMs > 0 && sessions.detach(playerId, System.nanoTime())) {
+            Log.info("Client dropped: %d (session held for %d ms)", playerId, graceMs);
+            return;
+        }
+        removeClient(playerId);
+    }
+    
+    public void removeClient(int playerId) {
+        clients.remove(playerId);
+        sessions.remove(playerId);
+        cancelRespawn(playerId);
+        lagCompensator.removePlayer(entities.slotOf(playerId), playerId);
+        entities.free(playerId);
+        synchronized (leaderboard) {
+            leaderboard.remove(playerId);
+        }
+        queueRosterChange(playerId, false);
+        Log.info("Client disconnected: %d", playerId);
+        publishLeaderboard();
+    }
+    
+    /**
+     * Record a player's score in the ranking (O(log n))
+     */
+    public void updateScore(int playerId, int score) {
+        entities.setScore(playerId, score);
+        synchronized (leaderboard) {
+            if (leaderboard.contains(playerId) && leaderboard.scoreOf(playerId) == score) {
+                return;
+            }
+            leaderboard.update(playerId, score);
+        }
+        publishLeaderboard();
+    }
+    
+    /**
+     * Add one kill to the player's server-side score
+     *
+     * @return the new score, or 0 if the player is gone
+     */
+    public int creditKill(int playerId) {
+        int score;
+        synchronized (leaderboard) {
+            int slot = entities.slotOf(playerId);
+            if (slot < 0) {
+                return 0;
+            }
+            score = entities.getScore(slot) + 1;
+            updateScore(playerId, score);
+        }
+        return score;
+    }
+    
+    /**
+     * @return 1-based rank of the player, or -1 if unknown
+     */
+    public int getRank(int playerId) {
+        synchronized (leaderboard) {
+            return leaderboard.rankOf(playerId);
+        }
+    }
+    
+    /**
+     * Send the top K to everyone if it changed, and each client its own rank if that changed
+     */
+    private void publishLeaderboard() {
+        synchronized (leaderboard) {
+            int count = leaderboard.topK(TuningConfig.current().leaderboardTopK, topIds, topScores);
+            boolean topChanged = count != lastTopCount;
+            for (int i = 0; i < count && !topChanged; i++) {
+                topChanged = topIds[i] != lastTopIds[i] || topScores[i] != lastTopScores[i];
+            }
+            if (topChanged) {
+                System.arraycopy(topIds, 0, lastTopIds, 0, count);
+                System.arraycopy(topScores, 0, lastTopScores, 0, count);
+                lastTopCount = count;
+            }
+            // One immutable copy of the top K, shared by every recipient that needs it
+            int[] sharedIds = null;
+            int[] sharedScores = null;
+            
+            int total = leaderboard.size();
+            for (ClientHandler handler : clients.values()) {
+                int rank = leaderboard.rankOf(handler.playerId);
+                boolean sendTop = topChanged || !handler.hasTop;
+                if (!sendTop && rank == handler.lastSentRank && total == handler.lastSentTotal) {
+                    continue;
+                }
+                GameMessage update = new GameMessage(
+                    GameMessage.MessageType.LEADERBOARD_UPDATE, handler.playerId, 0, 0, 0);
+                if (sendTop) {
+                    if (sharedIds == null) {
+                        sharedIds = Arrays.copyOf(lastTopIds, lastTopCount);
+                        sharedScores = Arrays.copyOf(lastTopScores, lastTopCount);
+                    }
+                    update.rankedIds = sharedIds;
+                    update.rankedScores = sharedScores;
+                    handler.hasTop = true;
+                }
+                update.rank = rank;
+                update.rankedTotal = total;
+                handler.lastSentRank = rank;
+                handler.lastSentTotal = total;
+                handler.sendMessage(update);
+            }
+        }
+    }
+    
+    public int getPlayerColor(int playerId) {
+        return Player.paletteColor(playerId);
+    }
+    
+    /**
+     * Heap bytes allocated by the tick thread, per tick
+     */
+    AllocationTracker getTickAllocations() {
+        return tickAllocations;
+    }
+    
+    /**
+     * Port the server is listening on (useful after binding port 0)
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+    
+    public void stop() {
+        running = false;
+        pingScheduler.shutdownNow();
+        executor.shutdown();
+        try {
+            if (serverSocket != null && !serverSocket.isClosed()) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            Log.error("Error closing server socket", e);
+        }
+    }
+    
+    // Inner class for handling individual clients
+    private static class ClientHandler implements Runnable {
+        // Settled by the handshake, before the handler is published in clients
+        private int playerId = -1;
+        // Read-only: gets every update but has no record, session or roster entry
+        private boolean spectator = false;
+        private final Socket socket;
+        private final GameServer server;
+        // Volatile: the tick thread checks it before metering a handler that is still handshaking
+        private volatile MessageWriter out;
+        private MessageReader in;
+        private CompressedOutputStream compressor;
+        private final RttEstimator rtt = new RttEstimator();
+        // Outbound path: any thread -> outbox -> this client's writer thread
+        private volatile ClientOutbox outbox;
+        private volatile boolean evicted = false;
+        private GameMessageCodec codec;
+        // Record in server.entities; fixed once the handshake settles the player
+        private volatile int entitySlot = -1;
+        // Bandwidth budget (tick thread only)
+        // Indexed by EntityStore slot, created the first time the slot has something to send
+        private final EntityView[] views;
+        private long allowance = 0;
+        private long lastBytesWritten = 0;
+        private long updatesSent = 0;
+        private long updatesDeferred = 0;
+        private int lastSentRank = -1;
+        private int lastSentTotal = -1;
+        private boolean hasTop = false;
+        // Last PLAYER_MOVE or BEAM_FIRE, checked against IDLE_TIMEOUT_MS
+        private volatile long lastActivityMillis;
+        // Timer handles (guarded by server.timers); no new timers once closed
+        private long fireCooldown = TimerWheel.NONE;
+        private long idleTimer = TimerWheel.NONE;
+        private boolean timersClosed = false;
+        // Lockstep match this player is in (guarded by server.lockstepLobby for writes)
+        private volatile LockstepLobby.Match lockstepMatch;
+        
+        public ClientHandler(Socket socket, GameServer server) {
+            this.socket = socket;
+            this.server = server;
+            this.views = new EntityView[server.entities.capacity()];
+        }
+        
+        @Override
+        public void run() {
+            try {
+                InputStream rawIn = new BufferedInputStream(socket.getInputStream());
+                OutputStream rawOut = new BufferedOutputStream(socket.getOutputStream());
+                
+                // Only server -> client traffic is compressed; that is where broadcasts fan out
+                TuningConfig tuning = TuningConfig.current();
+                Handshake hello = Handshake.readHello(rawIn);
+                int accepted = tuning.compressionEnabled ? hello.flags & Handshake.FLAG_COMPRESSION : 0;
+                
+                // A held session's token takes its player back; everyone else joins as a new player
+                spectator = hello.has(Handshake.FLAG_SPECTATOR);
+                boolean resumed = false;
+                int resumedId = tuning.sessionGraceMs > 0 && !spectator
+                    ? server.sessions.resume(hello.sessionToken) : -1;
+                if (resumedId >= 0) {
+                    entitySlot = server.entities.slotOf(resumedId);
+                    resumed = entitySlot >= 0 && register(resumedId, true, hello.rosterEpoch);
+                    if (!resumed) {
+                        Log.info("Player %d missed too many roster changes, rejoining as new", resumedId);
+                        server.removeClient(resumedId);
+                        entitySlot = -1;
+                    }
+                }
+                long token = hello.sessionToken;
+                if (resumed) {
+                    accepted |= Handshake.FLAG_RESUMED;
+                } else if (spectator) {
+                    register(server.nextPlayerId.getAndIncrement(), false, 0);
+                    accepted |= Handshake.FLAG_SPECTATOR;
+                    token = 0;
+                } else {
+                    int id = server.nextPlayerId.getAndIncrement();
+                    float startX = 100 + (id * 50);
+                    float startY = 100 + (id * 50);
+                    entitySlot = server.entities.allocate(id, startX, startY, 100, 0);
+                    if (entitySlot < 0) {
+                        Log.warn("✗ Server full (%d players), refusing player %d",
+                            server.entities.capacity(), id);
+                        return;
+                    }
+                    token = tuning.sessionGraceMs > 0 ? server.sessions.open(id) : 0;
+                    server.lagCompensator.addPlayer(entitySlot, id, nowMillis(), startX, startY);
+                    register(id, false, 0);
+                }
+                Log.info(resumed ? "Client resumed session with ID: %d"
+                    : spectator ? "Spectator connected with ID: %d" : "New client connected with ID: %d", playerId);
+                
+                Handshake.writeReply(rawOut, accepted, tuning.worldWidth, tuning.worldHeight, token);
+                if ((accepted & Handshake.FLAG_COMPRESSION) != 0) {
+                    compressor = new CompressedOutputStream(rawOut, tuning.compressionLevel,
+                        tuning.compressionMinBytes);
+                    rawOut = compressor;
+                }
+                
+                codec = server.codecFor(tuning);
+                in = new MessageReader(rawIn, codec);
+                out = new MessageWriter(rawOut, codec);
+                
+                // Sends what register queued, the player's own JOIN first
+                Thread writer = new Thread(this::writeMessages, "GameServer-writer-" + playerId);
+                writer.setDaemon(true);
+                writer.start();
+                
+                if (!spectator) {
+                    lastActivityMillis = nowMillis();
+                    checkIdle(lastActivityMillis);
+                }
+                
+                if (!resumed && !spectator) {
+                    // Rank the new player and send it the current top K
+                    synchronized (server.leaderboard) {
+                        server.leaderboard.update(playerId, 0);
+                    }
+                }
+                server.publishLeaderboard();
+                
+                while (true) {
+                    try {
+                        GameMessage message = in.readMessage();
+                        GameMessage.MessageType type = message.type;
+                        if (spectator && type != GameMessage.MessageType.PING
+                                && type != GameMessage.MessageType.PONG) {
+                            continue; // Spectators only watch
+                        }
+                        GameEvents.MessageHandled handled = new GameEvents.MessageHandled();
+                        handled.begin();
+                        
+                        switch (type) {
+                            case PING:
+                                message.type = GameMessage.MessageType.PONG;
+                                message.peerTime = RttEstimator.nowMicros();
+                                sendMessage(message);
+                                break;
+                            
+                            case PONG:
+                                rtt.onPong(message.timestamp, message.peerTime, RttEstimator.nowMicros());
+                                server.lagCompensator.setRoundTripMillis(entitySlot, Math.round(rtt.getRoundTripMillis()));
+                                break;
+                            
+                            case PLAYER_MOVE:
+                                if (isDead()) {
+                                    break; // Stays where it died until the respawn
+                                }
+                                message.playerId = playerId;
+                                lastActivityMillis = nowMillis();
+                                server.lagCompensator.recordPosition(entitySlot, nowMillis(), message.x, message.y);
+                                server.entities.setPosition(entitySlot, message.x, message.y); // Sent to others by the tick loop
+                                
+                                break;
+                            
+                            case BEAM_FIRE:
+                                message.playerId = playerId;
+                                lastActivityMillis = nowMillis();
+                                if (isDead() || !server.scheduleShot(this, message.beamId)) {
+                                    break; // Dead, or faster than FIRE_COOLDOWN_MS allows
+                                }
+                                server.lagCompensator.recordBeam(entitySlot, message.beamId, nowMillis(),
+                                    message.x, message.y, message.vx, message.vy);
+                                server.broadcastMessageExcept(message, playerId);
+                                break;
+                            
+                            case PLAYER_HIT: {
+                                // Only the shooter's report counts, checked against the target's
+                                // position rewound to what the shooter saw; each beam hits once
+                                int targetSlot = server.entities.slotOf(message.targetPlayerId);
+                                if (message.playerId != playerId || isDead() || !server.lagCompensator.validateHit(entitySlot,
+                                        message.beamId, targetSlot, nowMillis())) {
+                                    break;
+                                }
+                                int health = server.entities.applyDamage(message.targetPlayerId, Beam.DAMAGE);
+                                if (health >= 0) {
+                                    message.health = health;
+                                }
+                                // The hit that empties the target's health is the kill; when two
+                                // land together, only the one that schedules the respawn is credited
+                                if (health == 0 && server.scheduleRespawn(targetSlot, message.targetPlayerId, playerId)) {
+                                    server.creditKill(playerId);
+                                }
+                                message.damage = Beam.DAMAGE;
+                                server.broadcastMessage(message);
+                                break;
+                            }
+                            
+                            case PLAYER_RESPAWN:
+                                // Deaths are found from accepted hits and respawns scheduled
+                                // then; a client's report of a kill it predicted is ignored
+                                break;
+                            
+                            case LOCKSTEP_START:
+                                server.joinLockstep(this);
+                                break;
+                            
+                            case LOCKSTEP_INPUT:
+                            case LOCKSTEP_CHECKSUM:
+                                // Lockstep peers simulate locally; the server only relays within the match
+                                message.playerId = playerId;
+                                lastActivityMillis = nowMillis();
+                                server.relayLockstep(this, message);
+                                break;
+                            
+                            default:
+                                break;
+                        }
+                        
+                        if (handled.shouldCommit()) {
+                            handled.messageType = type.name();
+                            handled.playerId = playerId;
+                            handled.commit();
+                        }
+                    } catch (EOFException e) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                Log.info("Client handler error for player %d: %s", playerId, e.getMessage());
+            } finally {
+                closeTimers();
+                if (outbox != null) {
+                    outbox.close();
+                }
+                logConnectionStats();
+                closeSocket();
+                if (playerId >= 0 && server.clients.remove(playerId, this)) {
+                    if (spectator) {
+                        Log.info("Spectator disconnected: %d", playerId);
+                    } else {
+                        server.leaveLockstep(playerId); // Peers cannot wait out a reconnect
+                        server.dropClient(playerId);
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Create the outbox, queue the player's JOIN (not for spectators) and its
+         * roster, and publish the handler in clients. All under the lock that
+         * publishes roster deltas, so the roster and every later delta reach
+         * the client, in that order, and no delta falls between them.
+         *
+         * @param resuming    take back a held player; it gets only the roster
+         *                    changes since rosterEpoch, and nobody else hears
+         *                    that it was gone
+         * @return false if a resuming player missed more changes than the history keeps
+         */
+        private boolean register(int id, boolean resuming, int rosterEpoch) {
+            synchronized (server.rosterLock) {
+                GameMessage roster;
+                if (resuming) {
+                    roster = server.rosterSince(rosterEpoch, id);
+                    if (roster == null) {
+                        return false;
+                    }
+                } else {
+                    // Everyone already here in one message; others hear about this player on the next tick
+                    roster = new GameMessage(GameMessage.MessageType.ROSTER_DELTA, 0, 0, 0, 0);
+                    roster.tick = server.currentRosterEpoch();
+                    int[] others = server.entities.ids();
+                    int count = 0;
+                    for (int other : others) {
+                        if (other != id) {
+                            others[count++] = other;
+                        }
+                    }
+                    server.fillRoster(roster, Arrays.copyOf(others, count));
+                }
+                
+                playerId = id;
+                outbox = new ClientOutbox(TuningConfig.current().outboxCapacity);
+                if (!spectator) {
+                    sendMessage(new GameMessage(
+                        GameMessage.MessageType.PLAYER_JOIN,
+                        id,
+                        server.entities.getX(entitySlot),
+                        server.entities.getY(entitySlot),
+                        server.getPlayerColor(id),
+                        server.entities.getHealth(entitySlot),
+                        server.entities.getScore(entitySlot)
+                    ));
+                }
+                sendMessage(roster);
+                server.clients.put(id, this);
+                if (!resuming && !spectator) {
+                    server.queueRosterChange(id, true);
+                }
+                return true;
+            }
+        }
+        
+        private synchronized void logConnectionStats() {
+            if (rtt.hasSample()) {
+                Log.info("Player %d RTT: %.1f ms (min %.1f, jitter %.1f, timeout %.1f, %d samples)",
+                    playerId, rtt.getRoundTripMillis(), rtt.getMinRoundTripMillis(),
+                    rtt.getJitterMillis(), rtt.getTimeoutMillis(), rtt.getSampleCount());
+            }
+            if (outbox != null) {
+                Log.info("Player %d outbox: peak %d / %d, %d stale moves coalesced, "
+                        + "%d updates sent, %d deferred by bandwidth budget",
+                    playerId, outbox.getHighWaterMark(), outbox.capacity(), outbox.getCoalescedCount(),
+                    updatesSent, updatesDeferred);
+            }
+            if (compressor == null || compressor.getPayloadBytes() == 0) {
+                return;
+            }
+            double ratio = (double) compressor.getWireBytes() / compressor.getPayloadBytes();
+            Log.info("Player %d compression: %d -> %d bytes (%.0f%%, %.1f ms deflate)",
+                playerId, compressor.getPayloadBytes(), compressor.getWireBytes(),
+                ratio * 100, compressor.getCompressNanos() / 1e6);
+        }
+        
+        /**
+         * Killed and waiting for its respawn: moves, shots and hit reports are dropped
+         */
+        private boolean isDead() {
+            return server.entities.getHealth(entitySlot) <= 0;
+        }
+        
+        /**
+         * Kick the player if it has been idle for IDLE_TIMEOUT_MS, otherwise
+         * check again when it would be; moves only update a timestamp
+         */
+        void checkIdle(long nowMillis) {
+            synchronized (server.timers) {
+                idleTimer = TimerWheel.NONE;
+                long timeoutMs = TuningConfig.current().idleTimeoutMs;
+                if (timersClosed || timeoutMs == 0) {
+                    return;
+                }
+                long idleMs = nowMillis - lastActivityMillis;
+                if (idleMs >= timeoutMs) {
+                    evict("idle for " + idleMs + " ms");
+                    return;
+                }
+                idleTimer = server.timers.schedule(lastActivityMillis + timeoutMs,
+                    TIMER_IDLE_KICK, playerId, 0);
+            }
+        }
+        
+        private void closeTimers() {
+            synchronized (server.timers) {
+                timersClosed = true;
+                server.timers.cancel(fireCooldown);
+                server.timers.cancel(idleTimer);
+            }
+        }
+        
+        void sendPing() {
+            GameMessage ping = new GameMessage(GameMessage.MessageType.PING, 0, 0, 0, 0);
+            ping.timestamp = RttEstimator.nowMicros();
+            sendMessage(ping);
+        }
+        
+        /**
+         * Queue a message for this client's writer. Never blocks on the socket.
+         */
+        public void sendMessage(GameMessage message) {
+            sendMessage(message, null);
+        }
+        
+        /**
+         * Queue a message with a frame already encoded for it (or null); the
+         * outbox takes its own reference, the caller keeps its own
+         */
+        void sendMessage(GameMessage message, SharedFrame frame) {
+            ClientOutbox box = outbox;
+            if (box == null) {
+                return; // Streams not set up yet
+            }
+            long now = System.nanoTime();
+            if (!box.offer(message, frame, now)) {
+                evict("outbox full (" + box.capacity() + " messages)");
+                return;
+            }
+            checkOutbox(now);
+        }
+        
+        /**
+         * Evict the client if its oldest undelivered message is too old
+         */
+        void checkOutbox(long nowNanos) {
+            ClientOutbox box = outbox;
+            if (box == null) {
+                return;
+            }
+            long maxAgeMs = TuningConfig.current().outboxMaxAgeMs;
+            long ageMs = box.oldestAgeNanos(nowNanos) / 1_000_000;
+            if (ageMs > maxAgeMs) {
+                evict("oldest message waited " + ageMs + " ms");
+            }
+        }
+        
+        /**
+         * Drop a client that cannot keep up; closing the socket ends its reader
+         * and writer, and the reader's cleanup removes the player
+         */
+        private void evict(String reason) {
+            if (evicted) {
+                return;
+            }
+            evicted = true;
+            Log.warn("✗ Evicting player %d: %s", playerId, reason);
+            outbox.close();
+            closeSocket();
+        }
+        
+        private void closeSocket() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                Log.error("Error closing socket for player %d", playerId, e);
+            }
+        }
+        
+        private void writeMessages() {
+            GameMessage[] batch = new GameMessage[TuningConfig.current().writeBatchSize];
+            SharedFrame[] frames = new SharedFrame[batch.length];
+            try {
+                int count;
+                while ((count = outbox.take(batch, frames)) > 0) {
+                    GameEvents.ClientWrite event = new GameEvents.ClientWrite();
+                    event.begin();
+                    long bytesBefore = out.getBytesWritten();
+                    for (int i = 0; i < count; i++) {
+                        SharedFrame frame = frames[i];
+                        if (frame != null && frame.encodedWith(codec)) {
+                            out.writeFrame(frame); // Encoded once by the broadcaster
+                        } else {
+                            out.writeMessage(batch[i]);
+                        }
+                        if (frame != null) {
+                            frame.release();
+                            frames[i] = null;
+                        }
+                        batch[i] = null;
+                    }
+                    long flushStart = System.nanoTime();
+                    out.flush();
+                    if (event.shouldCommit()) {
+                        event.playerId = playerId;
+                        event.messages = count;
+                        event.bytes = out.getBytesWritten() - bytesBefore;
+                        event.flushNanos = System.nanoTime() - flushStart;
+                        event.commit();
+                    }
+                }
+            } catch (IOException e) {
+                if (!evicted && !socket.isClosed()) {
+                    Log.warn("Error sending message to player %d: %s", playerId, e.getMessage());
+                    closeSocket();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        GameServer server = new GameServer(5555);
+        server.start();
+        System.out.println("Server is running. Press Ctrl+C to stop.");
+        
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Shutting down server...");
+            server.stop();
+        }));
+    }
+}
@@ -0,0 +1,196 @@
+package com.kaiounet.network;
+
+import com.kaiounet.game.Beam;
+import com.kaiounet.game.Collision;
+import com.kaiounet.game.Player;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Server-side hit validation against positions rewound to the shooter's view.
+ *
+ * Every player gets a preallocated {@link PositionHistory} and a small ring of
+ * recently fired beams when they join, stored at the player's EntityStore slot
+ * so lookups neither hash nor box ids. A reported hit is accepted only if the
+ * beam, advanced from its fire time to the hit time, sweeps through the
+ * target's box as it was when the shooter saw it (report time minus the
+ * shooter's round trip). Each beam can hit once, so duplicate reports are
+ * dropped. Checks touch one history and one beam slot, so their cost does not
+ * depend on the number of players.
+ */
+public class LagCompensator {
+    public static final int HISTORY_CAPACITY = 128;    // ~2 s of moves at 60 Hz
+    public static final int BEAM_CAPACITY = 32;        // Beams in flight per shooter
+    public static final long MAX_REWIND_MS = 250;
+    public static final long TIMING_TOLERANCE_MS = 50;  // Jitter between fire and hit reports
+    public static final float POSITION_TOLERANCE = 8f;
+    // Beams move Beam.SPEED per client frame at 60 fps
+    private static final float BEAM_SPEED_PER_MS = Beam.SPEED * 60f / 1000f;
+    
+    // Indexed by entity slot; null while the slot is free
+    private final AtomicReferenceArray<PlayerTrack> tracks;
+    
+    /**
+     * Per-player preallocated state
+     */
+    private static class PlayerTrack {
+        final int playerId;
+        final PositionHistory history = new PositionHistory(HISTORY_CAPACITY);
+        final int[] beamIds = new int[BEAM_CAPACITY];
+        final long[] beamTimes = new long[BEAM_CAPACITY];
+        final float[] beamX = new float[BEAM_CAPACITY];
+        final float[] beamY = new float[BEAM_CAPACITY];
+        final float[] beamVx = new float[BEAM_CAPACITY];
+        final float[] beamVy = new float[BEAM_CAPACITY];
+        final boolean[] beamLive = new boolean[BEAM_CAPACITY];
+        int nextBeam = 0;
+        volatile long roundTripMillis = 0;
+        
+        PlayerTrack(int playerId) {
+            this.playerId = playerId;
+        }
+    }
+    
+    /**
+     * @param capacity number of entity slots
+     */
+    public LagCompensator(int capacity) {
+        this.tracks = new AtomicReferenceArray<>(capacity);
+    }
+    
+    public void addPlayer(int slot, int playerId, long timeMillis, float x, float y) {
+        PlayerTrack track = new PlayerTrack(playerId);
+        track.history.record(timeMillis, x, y);
+        tracks.set(slot, track);
+    }
+    
+    /**
+     * Drop the player's state unless the slot already belongs to someone else
+     */
+    public void removePlayer(int slot, int playerId) {
+        PlayerTrack track = track(slot);
+        if (track != null && track.playerId == playerId) {
+            tracks.compareAndSet(slot, track, null);
+        }
+    }
+    
+    public void recordPosition(int slot, long timeMillis, float x, float y) {
+        PlayerTrack track = track(slot);
+        if (track != null) {
+            track.history.record(timeMillis, x, y);
+        }
+    }
+    
+    /**
+     * Latest round-trip estimate for the player, used to rewind its hits
+     */
+    public void setRoundTripMillis(int slot, long roundTripMillis) {
+        PlayerTrack track = track(slot);
+        if (track != null) {
+            track.roundTripMillis = roundTripMillis;
+        }
+    }
+    
+    public void recordBeam(int shooterSlot, int beamId, long timeMillis, float x, float y, float vx, float vy) {
+        PlayerTrack track = track(shooterSlot);
+        if (track == null) {
+            return;
+        }
+        synchronized (track) {
+            int slot = track.nextBeam;
+            track.nextBeam = (slot + 1) % BEAM_CAPACITY;
+            track.beamIds[slot] = beamId;
+            track.beamTimes[slot] = timeMillis;
+            track.beamX[slot] = x;
+            track.beamY[slot] = y;
+            track.beamVx[slot] = vx;
+            track.beamVy[slot] = vy;
+            track.beamLive[slot] = true;
+        }
+    }
+    
+    /**
+     * Validate a hit reported by the shooter at hitTimeMillis (server clock).
+     * An accepted hit consumes the beam.
+     *
+     * @return true if the beam plausibly hit the target from the shooter's view
+     */
+    public boolean validateHit(int shooterSlot, int beamId, int targetSlot, long hitTimeMillis) {
+        PlayerTrack shooter = track(shooterSlot);
+        PlayerTrack target = track(targetSlot);
+        if (shooter == null || target == null || shooter == target) {
+            return false;
+        }
+        
+        synchronized (shooter) {
+            int slot = findBeam(shooter, beamId);
+            if (slot < 0) {
+                return false; // Unknown, expired, or already used
+            }
+            
+            // Where the target was when the shooter saw the hit
+            long rewind = Math.min(shooter.roundTripMillis, MAX_REWIND_MS);
+            long viewTime = hitTimeMillis - rewind;
+            float targetX;
+            float targetY;
+            synchronized (target.history) {
+                if (!target.history.rewind(viewTime)) {
+                    return false;
+                }
+                targetX = target.history.getRewoundX();
+                targetY = target.history.getRewoundY();
+            }
+            
+            // Beam travel window around the reported hit, widened for report jitter
+            long elapsed = hitTimeMillis - shooter.beamTimes[slot];
+            float fromDistance = Math.max(0, elapsed - TIMING_TOLERANCE_MS) * BEAM_SPEED_PER_MS;
+            float toDistance = (elapsed + TIMING_TOLERANCE_MS) * BEAM_SPEED_PER_MS;
+            float vx = shooter.beamVx[slot];
+            float vy = shooter.beamVy[slot];
+            float x0 = shooter.beamX[slot] + vx * fromDistance;
+            float y0 = shooter.beamY[slot] + vy * fromDistance;
+            float x1 = shooter.beamX[slot] + vx * toDistance;
+            float y1 = shooter.beamY[slot] + vy * toDistance;
+            
+            // Beam box swept against the target box (Minkowski-expanded)
+            float toi = Collision.segmentVsBox(x0, y0, x1, y1,
+                targetX - Beam.WIDTH - POSITION_TOLERANCE,
+                targetY - Beam.HEIGHT - POSITION_TOLERANCE,
+                targetX + Player.SIZE + POSITION_TOLERANCE,
+                targetY + Player.SIZE + POSITION_TOLERANCE);
+            if (toi < 0) {
+                return false;
+            }
+            shooter.beamLive[slot] = false;
+            return true;
+        }
+    }
+    
+    /**
+     * Retire a beam at the end of its lifetime; later hit reports for it are rejected
+     */
+    public void expireBeam(int shooterSlot, int shooterId, int beamId) {
+        PlayerTrack track = track(shooterSlot);
+        if (track == null || track.playerId != shooterId) {
+            return;
+        }
+        synchronized (track) {
+            int slot = findBeam(track, beamId);
+            if (slot >= 0) {
+                track.beamLive[slot] = false;
+            }
+        }
+    }
+    
+    private PlayerTrack track(int slot) {
+        return slot >= 0 && slot < tracks.length() ? tracks.get(slot) : null;
+    }
+    
+    private static int findBeam(PlayerTrack track, int beamId) {
+        for (int i = 0; i < BEAM_CAPACITY; i++) {
+            if (track.beamLive[i] && track.beamIds[i] == beamId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,201 @@
+package com.kaiounet.network;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Incrementally maintained score ranking (indexable skip list).
+ *
+ * Entries are ordered by score descending, then player id ascending, so ties
+ * have a stable order. Score updates, removals and rank lookups are
+ * O(log n); top-K queries are O(log n + k). Not thread-safe.
+ */
+public class Leaderboard {
+    private static final int MAX_LEVEL = 24;
+    private static final float LEVEL_PROBABILITY = 0.25f;
+    
+    private static class Node {
+        final int playerId;
+        final int score;
+        final Node[] next;
+        final int[] span;
+        
+        Node(int playerId, int score, int level) {
+            this.playerId = playerId;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+    
+    private final Node head = new Node(-1, Integer.MAX_VALUE, MAX_LEVEL);
+    private final Map<Integer, Node> nodes = new HashMap<>();
+    private final Random random = new Random(0x5EED);
+    // Scratch arrays reused by insert/delete (callers must not share an instance across threads)
+    private final Node[] update = new Node[MAX_LEVEL];
+    private final int[] rankAt = new int[MAX_LEVEL];
+    private int level = 1;
+    private int size = 0;
+    
+    /**
+     * Set a player's score, inserting the player if not ranked yet
+     */
+    public void update(int playerId, int score) {
+        Node existing = nodes.get(playerId);
+        if (existing != null) {
+            if (existing.score == score) {
+                return;
+            }
+            delete(existing);
+        }
+        nodes.put(playerId, insert(playerId, score));
+    }
+    
+    /**
+     * @return true if the player was ranked
+     */
+    public boolean remove(int playerId) {
+        Node node = nodes.remove(playerId);
+        if (node == null) {
+            return false;
+        }
+        delete(node);
+        return true;
+    }
+    
+    public boolean contains(int playerId) {
+        return nodes.containsKey(playerId);
+    }
+    
+    /**
+     * @return the player's score, or 0 if not ranked
+     */
+    public int scoreOf(int playerId) {
+        Node node = nodes.get(playerId);
+        return node != null ? node.score : 0;
+    }
+    
+    /**
+     * @return 1-based rank, or -1 if the player is not ranked
+     */
+    public int rankOf(int playerId) {
+        Node node = nodes.get(playerId);
+        if (node == null) {
+            return -1;
+        }
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && !before(node.score, node.playerId, x.next[i])) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x == node) {
+                return rank;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Copy the k best entries (best first) into the output arrays.
+     *
+     * @return number of entries written, min(k, size, array length)
+     */
+    public int topK(int k, int[] idsOut, int[] scoresOut) {
+        int limit = Math.min(Math.min(k, size), Math.min(idsOut.length, scoresOut.length));
+        Node x = head.next[0];
+        int count = 0;
+        while (x != null && count < limit) {
+            idsOut[count] = x.playerId;
+            scoresOut[count] = x.score;
+            count++;
+            x = x.next[0];
+        }
+        return count;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * True if node n sorts strictly before the key (score, playerId)
+     */
+    private static boolean before(Node n, int score, int playerId) {
+        return n.score > score || (n.score == score && n.playerId < playerId);
+    }
+    
+    /**
+     * True if the key (score, playerId) sorts strictly before node n
+     */
+    private static boolean before(int score, int playerId, Node n) {
+        return score > n.score || (score == n.score && playerId < n.playerId);
+    }
+    
+    private Node insert(int playerId, int score) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rankAt[i] = (i == level - 1) ? 0 : rankAt[i + 1];
+            while (x.next[i] != null && before(x.next[i], score, playerId)) {
+                rankAt[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rankAt[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+        
+        Node node = new Node(playerId, score, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rankAt[0] - rankAt[i]);
+            update[i].span[i] = (rankAt[0] - rankAt[i]) + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+        return node;
+    }
+    
+    private void delete(Node node) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && before(x.next[i], node.score, node.playerId)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+    }
+    
+    private int randomLevel() {
+        int lvl = 1;
+        while (lvl < MAX_LEVEL && random.nextFloat() < LEVEL_PROBABILITY) {
+            lvl++;
+        }
+        return lvl;
+    }
+}
@@ -0,0 +1,116 @@
+package com.kaiounet.network;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Groups players who asked for lockstep play into matches.
+ *
+ * A match starts as soon as enough players are waiting. The server fixes the
+ * roster (ascending ids) and the seed, so every peer builds the same
+ * {@link com.kaiounet.game.LockstepSimulation}; it then relays inputs and
+ * checksums only among the match's members. A match ends when any member
+ * leaves, since the others cannot advance without that member's inputs.
+ *
+ * Not thread-safe; callers synchronize on the lobby.
+ */
+public class LockstepLobby {
+    /**
+     * Players who play one lockstep simulation together
+     */
+    public static final class Match {
+        public final int id;
+        public final long seed;
+        /** Member ids in simulation order */
+        public final int[] roster;
+        
+        Match(int id, long seed, int[] roster) {
+            this.id = id;
+            this.seed = seed;
+            this.roster = roster;
+        }
+        
+        public boolean contains(int playerId) {
+            return Arrays.binarySearch(roster, playerId) >= 0;
+        }
+    }
+    
+    private final SecureRandom random = new SecureRandom();
+    private int[] waiting = new int[16];
+    private int waitingCount = 0;
+    private final Map<Integer, Match> matches = new HashMap<>();
+    private int nextMatchId = 1;
+    
+    /**
+     * Queue a player for the next match
+     *
+     * @param matchSize players per match
+     * @return the match this player completed, or null if it has to wait
+     *         (also if it is already waiting or playing)
+     */
+    public Match join(int playerId, int matchSize) {
+        if (matches.containsKey(playerId) || isWaiting(playerId)) {
+            return null;
+        }
+        if (waitingCount == waiting.length) {
+            waiting = Arrays.copyOf(waiting, waiting.length * 2);
+        }
+        waiting[waitingCount++] = playerId;
+        if (waitingCount < matchSize) {
+            return null;
+        }
+        
+        int[] roster = Arrays.copyOf(waiting, matchSize);
+        Arrays.sort(roster);
+        System.arraycopy(waiting, matchSize, waiting, 0, waitingCount - matchSize);
+        waitingCount -= matchSize;
+        Match match = new Match(nextMatchId++, random.nextLong(), roster);
+        for (int id : roster) {
+            matches.put(id, match);
+        }
+        return match;
+    }
+    
+    /**
+     * Take a player out of the lobby or its match. Ending a match frees the
+     * other members to join a new one.
+     *
+     * @return the match that ended because of this, or null
+     */
+    public Match leave(int playerId) {
+        for (int i = 0; i < waitingCount; i++) {
+            if (waiting[i] == playerId) {
+                System.arraycopy(waiting, i + 1, waiting, i, waitingCount - i - 1);
+                waitingCount--;
+                return null;
+            }
+        }
+        Match match = matches.get(playerId);
+        if (match == null) {
+            return null;
+        }
+        for (int id : match.roster) {
+            matches.remove(id);
+        }
+        return match;
+    }
+    
+    public Match matchOf(int playerId) {
+        return matches.get(playerId);
+    }
+    
+    public int getWaitingCount() {
+        return waitingCount;
+    }
+    
+    private boolean isWaiting(int playerId) {
+        for (int i = 0; i < waitingCount; i++) {
+            if (waiting[i] == playerId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,109 @@
+package com.kaiounet.network;
+
+/**
+ * Fixed-size ring of recent (time, x, y) samples for one player.
+ *
+ * All storage is allocated in the constructor; recording and rewinding do not
+ * allocate. Samples must be recorded in non-decreasing time order.
+ */
+public class PositionHistory {
+    private final long[] times;
+    private final float[] xs;
+    private final float[] ys;
+    private final int mask;
+    private int head = 0;   // Next slot to write
+    private int count = 0;
+    
+    // Result of the last rewind() call
+    private float rewoundX;
+    private float rewoundY;
+    
+    /**
+     * @param capacity number of samples kept, rounded up to a power of two
+     */
+    public PositionHistory(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.times = new long[size];
+        this.xs = new float[size];
+        this.ys = new float[size];
+        this.mask = size - 1;
+    }
+    
+    public synchronized void record(long timeMillis, float x, float y) {
+        if (count > 0) {
+            long last = times[(head - 1) & mask];
+            if (timeMillis < last) {
+                timeMillis = last; // Clock must not go backwards within the ring
+            }
+        }
+        times[head] = timeMillis;
+        xs[head] = x;
+        ys[head] = y;
+        head = (head + 1) & mask;
+        if (count < times.length) {
+            count++;
+        }
+    }
+    
+    /**
+     * Compute the position at the given time, interpolating between the two
+     * surrounding samples. Times before the oldest sample clamp to it, times
+     * after the newest clamp to the newest. Read the result with
+     * {@link #getRewoundX()} / {@link #getRewoundY()} while holding this
+     * object's monitor.
+     *
+     * @return false if no samples have been recorded
+     */
+    public synchronized boolean rewind(long timeMillis) {
+        if (count == 0) {
+            return false;
+        }
+        int oldest = (head - count) & mask;
+        int newest = (head - 1) & mask;
+        if (timeMillis <= times[oldest]) {
+            rewoundX = xs[oldest];
+            rewoundY = ys[oldest];
+            return true;
+        }
+        if (timeMillis >= times[newest]) {
+            rewoundX = xs[newest];
+            rewoundY = ys[newest];
+            return true;
+        }
+        
+        // Binary search for the last sample at or before timeMillis
+        int lo = 0;
+        int hi = count - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (times[(oldest + mid) & mask] <= timeMillis) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int a = (oldest + lo) & mask;
+        int b = (a + 1) & mask;
+        long span = times[b] - times[a];
+        float t = span > 0 ? (float) (timeMillis - times[a]) / span : 0f;
+        rewoundX = xs[a] + (xs[b] - xs[a]) * t;
+        rewoundY = ys[a] + (ys[b] - ys[a]) * t;
+        return true;
+    }
+    
+    public float getRewoundX() {
+        return rewoundX;
+    }
+    
+    public float getRewoundY() {
+        return rewoundY;
+    }
+    
+    public synchronized int size() {
+        return count;
+    }
+    
+    public int capacity() {
+        return times.length;
+    }
+}
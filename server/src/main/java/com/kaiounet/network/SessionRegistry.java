@@ -0,0 +1,122 @@
+package com.kaiounet.network;
+
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Resumable sessions: one secret token per player, issued on join.
+ *
+ * When a connection drops, the player's session is detached instead of being
+ * removed, and a reconnect that presents the token within the grace period
+ * takes the same player id back. Sessions still detached after the grace
+ * period expire. Thread-safe.
+ */
+public class SessionRegistry {
+    private static final class Session {
+        final long token;
+        final int playerId;
+        boolean attached = true;
+        long detachedAt;
+        
+        Session(long token, int playerId) {
+            this.token = token;
+            this.playerId = playerId;
+        }
+    }
+    
+    private final SecureRandom random = new SecureRandom();
+    private final Map<Long, Session> byToken = new HashMap<>();
+    private final Map<Integer, Session> byPlayer = new HashMap<>();
+    
+    /**
+     * Start an attached session for a newly joined player
+     *
+     * @return the token the client presents to resume (never 0)
+     */
+    public synchronized long open(int playerId) {
+        long token;
+        do {
+            token = random.nextLong();
+        } while (token == 0 || byToken.containsKey(token));
+        Session session = new Session(token, playerId);
+        byToken.put(token, session);
+        byPlayer.put(playerId, session);
+        return token;
+    }
+    
+    /**
+     * Reattach a detached session
+     *
+     * @return the session's player id, or -1 if the token is unknown, expired or attached
+     */
+    public synchronized int resume(long token) {
+        Session session = token != 0 ? byToken.get(token) : null;
+        if (session == null || session.attached) {
+            return -1;
+        }
+        session.attached = true;
+        return session.playerId;
+    }
+    
+    /**
+     * Hold a player's session after its connection dropped
+     *
+     * @return false if the player has no session
+     */
+    public synchronized boolean detach(int playerId, long nowNanos) {
+        Session session = byPlayer.get(playerId);
+        if (session == null) {
+            return false;
+        }
+        session.attached = false;
+        session.detachedAt = nowNanos;
+        return true;
+    }
+    
+    public synchronized void remove(int playerId) {
+        Session session = byPlayer.remove(playerId);
+        if (session != null) {
+            byToken.remove(session.token);
+        }
+    }
+    
+    /**
+     * Drop sessions detached for longer than the grace period, reporting each
+     * player id (outside the registry lock)
+     */
+    public void expire(long nowNanos, long graceNanos, IntConsumer onExpired) {
+        int[] expired;
+        int count = 0;
+        synchronized (this) {
+            expired = new int[byPlayer.size()];
+            Iterator<Session> it = byPlayer.values().iterator();
+            while (it.hasNext()) {
+                Session session = it.next();
+                if (!session.attached && nowNanos - session.detachedAt >= graceNanos) {
+                    it.remove();
+                    byToken.remove(session.token);
+                    expired[count++] = session.playerId;
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            onExpired.accept(expired[i]);
+        }
+    }
+    
+    /**
+     * Number of sessions waiting for a reconnect
+     */
+    public synchronized int getDetachedCount() {
+        int detached = 0;
+        for (Session session : byPlayer.values()) {
+            if (!session.attached) {
+                detached++;
+            }
+        }
+        return detached;
+    }
+}
@@ -0,0 +1,501 @@
+package com.kaiounet.network;
+
+import com.kaiounet.config.TuningConfig;
+import com.kaiounet.game.Player;
+import com.kaiounet.utils.Log;
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Read-only fan-out tier between one game server and many spectators.
+ *
+ * The relay holds a single spectator connection to the game server, so the
+ * server's load does not grow with the audience. Each message from upstream
+ * is encoded once into a frame, held for the configured delay, and the same
+ * byte array is queued to every spectator. Each spectator has a bounded queue
+ * and its own writer thread; one whose queue fills is dropped. At most
+ * maxDelayedFrames wait out the delay: beyond that, position updates are
+ * dropped and counted (a later one supersedes them) and other messages wait,
+ * holding back the upstream connection. The relay
+ * keeps the world as of the last released frame, so a late spectator starts
+ * from a full roster. Frames go out uncompressed, since shared bytes cannot
+ * pass through a per-connection deflater.
+ */
+public class SpectatorRelay {
+    private final String upstreamHost;
+    private final int upstreamPort;
+    private final String host;
+    private final int port;
+    private final long delayNanos;
+    private ServerSocket serverSocket;
+    private Socket upstream;
+    private GameMessageCodec codec;
+    private int worldWidth;
+    private int worldHeight;
+    private volatile boolean running = true;
+    
+    // Upstream reader -> release thread, in arrival order
+    private final ArrayBlockingQueue<Frame> delayed;
+    // Written by the upstream reader only
+    private volatile long droppedFrames = 0;
+    
+    // Fan-out state (guarded by this): the audience and the world as of the last released frame
+    private final List<Spectator> spectators = new ArrayList<>();
+    private final Map<Integer, PlayerView> world = new LinkedHashMap<>();
+    private GameMessage lastLeaderboard;
+    private int rosterEpoch = 0;
+    private long framesReleased = 0;
+    private long bytesReleased = 0;
+    private int nextSpectatorId = 1;
+    
+    /**
+     * One upstream message, encoded once and shared by every spectator
+     */
+    private static final class Frame {
+        final GameMessage message;
+        final byte[] bytes;
+        final long releaseAt;
+        
+        Frame(GameMessage message, byte[] bytes, long releaseAt) {
+            this.message = message;
+            this.bytes = bytes;
+            this.releaseAt = releaseAt;
+        }
+    }
+    
+    /**
+     * What a late spectator needs to know about a player
+     */
+    private static final class PlayerView {
+        float x;
+        float y;
+        int color;
+        int health;
+        int score;
+    }
+    
+    /**
+     * Encodes messages into standalone length-prefixed frames. Not thread-safe.
+     */
+    private final class FrameEncoder {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        private final MessageWriter writer = new MessageWriter(bytes, codec);
+        
+        byte[] encode(GameMessage message) {
+            bytes.reset();
+            try {
+                writer.writeMessage(message);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // In-memory stream
+            }
+            return bytes.toByteArray();
+        }
+    }
+    
+    /**
+     * @param delayMs          how long frames are held before spectators see them
+     * @param maxDelayedFrames frames held at once
+     */
+    public SpectatorRelay(String upstreamHost, int upstreamPort, String host, int port, long delayMs,
+                          int maxDelayedFrames) {
+        this.upstreamHost = upstreamHost;
+        this.upstreamPort = upstreamPort;
+        this.host = host;
+        this.port = port;
+        this.delayNanos = delayMs * 1_000_000L;
+        this.delayed = new ArrayBlockingQueue<>(maxDelayedFrames);
+    }
+    
+    /**
+     * Join the game server as a spectator, then accept spectators
+     */
+    public void start() throws IOException {
+        upstream = new Socket(upstreamHost, upstreamPort);
+        upstream.setTcpNoDelay(true);
+        InputStream rawIn = new BufferedInputStream(upstream.getInputStream());
+        OutputStream rawOut = upstream.getOutputStream();
+        int requested = Handshake.FLAG_SPECTATOR
+            | (TuningConfig.current().compressionEnabled ? Handshake.FLAG_COMPRESSION : 0);
+        Handshake.writeHello(rawOut, requested, 0, 0);
+        Handshake reply = Handshake.readReply(rawIn);
+        if (!reply.has(Handshake.FLAG_SPECTATOR)) {
+            upstream.close();
+            throw new IOException("Upstream server does not accept spectators");
+        }
+        worldWidth = reply.worldWidth;
+        worldHeight = reply.worldHeight;
+        codec = new GameMessageCodec(worldWidth, worldHeight);
+        MessageReader in = new MessageReader(
+            reply.has(Handshake.FLAG_COMPRESSION) ? new CompressedInputStream(rawIn) : rawIn, codec);
+        MessageWriter out = new MessageWriter(new BufferedOutputStream(rawOut), codec);
+        
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(host, port));
+        
+        startThread("SpectatorRelay-upstream", () -> readUpstream(in, out));
+        startThread("SpectatorRelay-release", this::releaseFrames);
+        startThread("SpectatorRelay-accept", this::acceptSpectators);
+        Log.info("✓ Relaying %s:%d to spectators on %s:%d (delay %d ms)",
+            upstreamHost, upstreamPort, host, port, delayNanos / 1_000_000);
+    }
+    
+    private static void startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Encode each upstream message once and hand it to the release thread
+     */
+    private void readUpstream(MessageReader in, MessageWriter out) {
+        FrameEncoder encoder = new FrameEncoder();
+        try {
+            while (running) {
+                GameMessage message = in.readMessage();
+                switch (message.type) {
+                    case PING:
+                        message.type = GameMessage.MessageType.PONG;
+                        message.peerTime = RttEstimator.nowMicros();
+                        out.writeMessage(message);
+                        out.flush();
+                        break;
+                    case PONG:
+                        break;
+                    default:
+                        hold(new Frame(message, encoder.encode(message), System.nanoTime() + delayNanos));
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                Log.error("✗ Lost upstream server %s:%d: %s", upstreamHost, upstreamPort, e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stop();
+        }
+    }
+    
+    /**
+     * Queue a frame for release; when the queue is full, drop a position update
+     * or wait for room for anything else
+     */
+    private void hold(Frame frame) throws InterruptedException {
+        if (delayed.offer(frame)) {
+            return;
+        }
+        if (frame.message.type == GameMessage.MessageType.PLAYER_MOVE) {
+            if (droppedFrames++ == 0) {
+                Log.warn("✗ Relay delay queue full (%d frames), dropping position updates", delayed.size());
+            }
+            return;
+        }
+        delayed.put(frame);
+    }
+    
+    /**
+     * Release frames once their delay is over, in order
+     */
+    private void releaseFrames() {
+        try {
+            while (running) {
+                Frame frame = delayed.take();
+                long wait;
+                while ((wait = frame.releaseAt - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(this, wait);
+                }
+                release(frame);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Apply a frame to the relay's world and queue its bytes to every spectator
+     */
+    private synchronized void release(Frame frame) {
+        apply(frame.message);
+        framesReleased++;
+        bytesReleased += frame.bytes.length;
+        Iterator<Spectator> it = spectators.iterator();
+        while (it.hasNext()) {
+            Spectator spectator = it.next();
+            if (!spectator.queue.offer(frame.bytes)) {
+                it.remove();
+                spectator.close("queue full (" + spectator.queue.size() + " frames)");
+            }
+        }
+    }
+    
+    private void apply(GameMessage message) {
+        PlayerView view;
+        switch (message.type) {
+            case ROSTER_DELTA:
+                rosterEpoch = message.tick;
+                for (int id : message.leftIds) {
+                    world.remove(id);
+                }
+                for (int i = 0; i < message.joinedIds.length; i++) {
+                    if (world.containsKey(message.joinedIds[i])) {
+                        continue;
+                    }
+                    view = new PlayerView();
+                    view.x = message.joinedX[i];
+                    view.y = message.joinedY[i];
+                    view.color = message.joinedColors[i];
+                    view.health = message.joinedHealth[i];
+                    view.score = message.joinedScores[i];
+                    world.put(message.joinedIds[i], view);
+                }
+                break;
+            case PLAYER_LEAVE:
+                world.remove(message.playerId);
+                break;
+            case PLAYER_MOVE:
+                view = world.get(message.playerId);
+                if (view != null) {
+                    view.x = message.x;
+                    view.y = message.y;
+                }
+                break;
+            case PLAYER_HIT:
+                view = world.get(message.targetPlayerId);
+                if (view != null) {
+                    view.health = message.health;
+                }
+                break;
+            case PLAYER_RESPAWN:
+                view = world.get(message.playerId);
+                if (view != null) {
+                    view.health = Player.MAX_HEALTH;
+                }
+                view = world.get(message.killerId);
+                if (view != null) {
+                    view.score = message.score;
+                }
+                break;
+            case LEADERBOARD_UPDATE:
+                lastLeaderboard = message;
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Everyone in the relay's (delayed) world, as one ROSTER_DELTA
+     */
+    private GameMessage rosterSnapshot() {
+        int count = world.size();
+        GameMessage roster = new GameMessage(GameMessage.MessageType.ROSTER_DELTA, 0, 0, 0, 0);
+        roster.tick = rosterEpoch;
+        roster.joinedIds = new int[count];
+        roster.joinedX = new float[count];
+        roster.joinedY = new float[count];
+        roster.joinedColors = new int[count];
+        roster.joinedHealth = new int[count];
+        roster.joinedScores = new int[count];
+        int i = 0;
+        for (Map.Entry<Integer, PlayerView> entry : world.entrySet()) {
+            PlayerView view = entry.getValue();
+            roster.joinedIds[i] = entry.getKey();
+            roster.joinedX[i] = view.x;
+            roster.joinedY[i] = view.y;
+            roster.joinedColors[i] = view.color;
+            roster.joinedHealth[i] = view.health;
+            roster.joinedScores[i] = view.score;
+            i++;
+        }
+        return roster;
+    }
+    
+    private void acceptSpectators() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                startThread("SpectatorRelay-join", () -> join(socket));
+            } catch (IOException e) {
+                if (running) {
+                    Log.error("Accept failed", e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Handshake with a new spectator, then subscribe it starting from the current world
+     */
+    private void join(Socket socket) {
+        Spectator spectator;
+        try {
+            socket.setTcpNoDelay(true);
+            InputStream rawIn = new BufferedInputStream(socket.getInputStream());
+            OutputStream rawOut = new BufferedOutputStream(socket.getOutputStream());
+            Handshake.readHello(rawIn);
+            Handshake.writeReply(rawOut, Handshake.FLAG_SPECTATOR, worldWidth, worldHeight, 0);
+            spectator = new Spectator(socket, rawIn, rawOut, TuningConfig.current().outboxCapacity);
+        } catch (IOException e) {
+            Log.warn("Spectator handshake failed: %s", e.getMessage());
+            closeQuietly(socket);
+            return;
+        }
+        // Under the fan-out lock, so the snapshot and the first shared frame line up
+        synchronized (this) {
+            if (!running) {
+                spectator.close("relay stopped");
+                return;
+            }
+            spectator.id = nextSpectatorId++;
+            spectator.queue.add(spectator.encoder.encode(rosterSnapshot()));
+            if (lastLeaderboard != null) {
+                spectator.queue.add(spectator.encoder.encode(lastLeaderboard));
+            }
+            spectators.add(spectator);
+            Log.info("Spectator %d connected (%d watching)", spectator.id, spectators.size());
+        }
+        spectator.start();
+    }
+    
+    /**
+     * False once the upstream connection is gone or stop() was called
+     */
+    public boolean isRunning() {
+        return running;
+    }
+    
+    public synchronized int getSpectatorCount() {
+        return spectators.size();
+    }
+    
+    public synchronized long getFramesReleased() {
+        return framesReleased;
+    }
+    
+    /** Position updates dropped because the delay queue was full */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+    
+    /** Encoded bytes released, counted once per frame however many spectators receive it */
+    public synchronized long getBytesReleased() {
+        return bytesReleased;
+    }
+    
+    public void stop() {
+        running = false;
+        closeQuietly(upstream);
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            Log.error("Error closing relay socket", e);
+        }
+        List<Spectator> remaining;
+        synchronized (this) {
+            remaining = new ArrayList<>(spectators);
+            spectators.clear();
+        }
+        for (Spectator spectator : remaining) {
+            spectator.close("relay stopped");
+        }
+    }
+    
+    private static void closeQuietly(Socket socket) {
+        try {
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+    
+    /**
+     * One read-only downstream connection: a writer draining shared frames,
+     * and a reader that answers pings and notices the disconnect
+     */
+    private final class Spectator {
+        int id;
+        final Socket socket;
+        final InputStream in;
+        final OutputStream out;
+        final ArrayBlockingQueue<byte[]> queue;
+        // The join snapshot, then ping replies on the reader thread; shared frames are already encoded
+        final FrameEncoder encoder = new FrameEncoder();
+        private volatile boolean closed = false;
+        private long framesWritten = 0;
+        private Thread writer;
+        
+        Spectator(Socket socket, InputStream in, OutputStream out, int capacity) {
+            this.socket = socket;
+            this.in = in;
+            this.out = out;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+        
+        void start() {
+            writer = new Thread(this::writeFrames, "SpectatorRelay-writer-" + id);
+            writer.setDaemon(true);
+            writer.start();
+            startThread("SpectatorRelay-reader-" + id, this::readInput);
+        }
+        
+        private void writeFrames() {
+            try {
+                while (!closed) {
+                    byte[] frame = queue.take();
+                    do {
+                        out.write(frame);
+                        framesWritten++;
+                    } while ((frame = queue.poll()) != null);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                close(e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        private void readInput() {
+            MessageReader reader = new MessageReader(in, codec);
+            try {
+                while (!closed) {
+                    GameMessage message = reader.readMessage();
+                    if (message.type == GameMessage.MessageType.PING) {
+                        message.type = GameMessage.MessageType.PONG;
+                        message.peerTime = RttEstimator.nowMicros();
+                        queue.offer(encoder.encode(message));
+                    }
+                    // Anything else is ignored: spectators only watch
+                }
+            } catch (EOFException e) {
+                close("disconnected");
+            } catch (IOException e) {
+                close(e.getMessage());
+            }
+        }
+        
+        void close(String reason) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            synchronized (SpectatorRelay.this) {
+                spectators.remove(this);
+            }
+            closeQuietly(socket);
+            if (writer != null) {
+                writer.interrupt();
+            }
+            Log.info("Spectator %d left: %s (%d frames written)", id, reason, framesWritten);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.kaiounet.network;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel for server-side timers, advanced by the tick loop.
+ *
+ * Four levels of 256 slots cover 2^32 time units (milliseconds on the server,
+ * about 49 days); a level n slot is 256^n units wide. A timer waits in the
+ * level that spans its remaining time and moves down one level each time the
+ * level below wraps, so it is touched at most four times before it fires.
+ * Timers are doubly linked nodes in parallel arrays, recycled through a free
+ * list: scheduling and cancelling are O(1) and allocate nothing once the arrays
+ * have grown. Handles carry a generation, so cancelling a timer that already
+ * fired, or whose node was reused, does nothing.
+ *
+ * Not thread-safe; callers synchronize on the wheel.
+ */
+public class TimerWheel {
+    /** Handle that never refers to a pending timer */
+    public static final long NONE = -1;
+    
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+    private static final int NIL = -1;
+    
+    /**
+     * Called for each timer that fires, with the values it was scheduled with
+     */
+    public interface Expiry {
+        void onExpire(int kind, int a, int b);
+    }
+    
+    // First node of each slot, level by level
+    private final int[] heads = new int[LEVELS * SLOTS];
+    // Node fields, indexed by node; bucket is -1 while the node is free
+    private int[] next;
+    private int[] prev;
+    private int[] bucket;
+    private int[] generation;
+    private long[] deadline;
+    private int[] kind;
+    private int[] argA;
+    private int[] argB;
+    private int freeHead = NIL;
+    private int highWater = 0;
+    private int size = 0;
+    private long now;
+    
+    /**
+     * @param now      current time; deadlines and {@link #advance} use the same unit
+     * @param capacity nodes allocated up front (grows as needed)
+     */
+    public TimerWheel(long now, int capacity) {
+        this.now = now;
+        Arrays.fill(heads, NIL);
+        allocateNodes(Math.max(16, capacity));
+    }
+    
+    /**
+     * Schedule a timer. Deadlines not after the current time fire on the next
+     * advance; deadlines beyond the wheel's span are clamped to it.
+     *
+     * @return handle for {@link #cancel} and {@link #isPending}
+     */
+    public long schedule(long deadline, int kind, int a, int b) {
+        int node = allocate();
+        this.deadline[node] = Math.min(Math.max(deadline, now + 1), now + MAX_DELAY);
+        this.kind[node] = kind;
+        argA[node] = a;
+        argB[node] = b;
+        insert(node);
+        size++;
+        return ((long) generation[node] << 32) | node;
+    }
+    
+    /**
+     * @return true if the timer was pending and will no longer fire
+     */
+    public boolean cancel(long handle) {
+        int node = nodeOf(handle);
+        if (node == NIL) {
+            return false;
+        }
+        unlink(node);
+        free(node);
+        return true;
+    }
+    
+    public boolean isPending(long handle) {
+        return nodeOf(handle) != NIL;
+    }
+    
+    /**
+     * Move the wheel forward to time, firing every timer due on the way.
+     * Timers scheduled by the expiry callback never fire within the same step.
+     *
+     * @return number of timers fired
+     */
+    public int advance(long time, Expiry expiry) {
+        if (size == 0) {
+            now = Math.max(now, time); // Nothing to cascade or fire
+            return 0;
+        }
+        int fired = 0;
+        while (now < time) {
+            now++;
+            int index = (int) now & SLOT_MASK;
+            if (index == 0) {
+                cascade(1);
+            }
+            int node;
+            while ((node = heads[index]) != NIL) {
+                unlink(node);
+                int timerKind = kind[node];
+                int a = argA[node];
+                int b = argB[node];
+                free(node);
+                fired++;
+                expiry.onExpire(timerKind, a, b);
+            }
+        }
+        return fired;
+    }
+    
+    public long now() {
+        return now;
+    }
+    
+    /**
+     * Pending timers
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Nodes allocated (pending plus free)
+     */
+    public int capacity() {
+        return next.length;
+    }
+    
+    /**
+     * Re-file the slot of this level that the wheel has just reached, after
+     * the level above if this level wrapped too
+     */
+    private void cascade(int level) {
+        int index = (int) (now >>> (SLOT_BITS * level)) & SLOT_MASK;
+        if (index == 0 && level + 1 < LEVELS) {
+            cascade(level + 1);
+        }
+        int slot = level * SLOTS + index;
+        int node;
+        while ((node = heads[slot]) != NIL) {
+            unlink(node);
+            insert(node);
+        }
+    }
+    
+    private void insert(int node) {
+        long when = deadline[node];
+        long delay = when - now;
+        int level = 0;
+        while (level + 1 < LEVELS && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = level * SLOTS + ((int) (when >>> (SLOT_BITS * level)) & SLOT_MASK);
+        int head = heads[slot];
+        next[node] = head;
+        prev[node] = NIL;
+        if (head != NIL) {
+            prev[head] = node;
+        }
+        heads[slot] = node;
+        bucket[node] = slot;
+    }
+    
+    private void unlink(int node) {
+        int before = prev[node];
+        int after = next[node];
+        if (before != NIL) {
+            next[before] = after;
+        } else {
+            heads[bucket[node]] = after;
+        }
+        if (after != NIL) {
+            prev[after] = before;
+        }
+    }
+    
+    private int nodeOf(long handle) {
+        int node = (int) handle;
+        if (handle < 0 || node >= highWater || bucket[node] < 0
+                || generation[node] != (int) (handle >>> 32)) {
+            return NIL;
+        }
+        return node;
+    }
+    
+    private int allocate() {
+        if (freeHead != NIL) {
+            int node = freeHead;
+            freeHead = next[node];
+            return node;
+        }
+        if (highWater == next.length) {
+            allocateNodes(next.length * 2);
+        }
+        return highWater++;
+    }
+    
+    private void free(int node) {
+        bucket[node] = -1;
+        generation[node] = (generation[node] + 1) & Integer.MAX_VALUE;
+        next[node] = freeHead;
+        freeHead = node;
+        size--;
+    }
+    
+    private void allocateNodes(int capacity) {
+        int old = next == null ? 0 : next.length;
+        next = next == null ? new int[capacity] : Arrays.copyOf(next, capacity);
+        prev = prev == null ? new int[capacity] : Arrays.copyOf(prev, capacity);
+        bucket = bucket == null ? new int[capacity] : Arrays.copyOf(bucket, capacity);
+        generation = generation == null ? new int[capacity] : Arrays.copyOf(generation, capacity);
+        deadline = deadline == null ? new long[capacity] : Arrays.copyOf(deadline, capacity);
+        kind = kind == null ? new int[capacity] : Arrays.copyOf(kind, capacity);
+        argA = argA == null ? new int[capacity] : Arrays.copyOf(argA, capacity);
+        argB = argB == null ? new int[capacity] : Arrays.copyOf(argB, capacity);
+        Arrays.fill(bucket, old, capacity, -1);
+    }
+}
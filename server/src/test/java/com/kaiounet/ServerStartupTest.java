@@ -0,0 +1,99 @@
+package com.kaiounet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Launches the server jars until they are listening, with and without the
+ * AppCDS archive. Run by {@code ./gradlew :server:startupTest} (part of
+ * {@code check}), which builds the archive and passes the jars and paths.
+ */
+@Tag("startup")
+class ServerStartupTest {
+    private static final int RUNS = 5;
+    // Startup with the archive may not be slower than without it by more than this
+    private static final double MAX_SLOWDOWN = 1.10;
+    
+    private final String classpath = System.getProperty("kaiounet.startup.classpath");
+    private final String archive = System.getProperty("kaiounet.startup.archive");
+    private final File workingDir = new File(System.getProperty("kaiounet.startup.workingDir", "."));
+    
+    @Test
+    void archiveCoversServerClassesAndDoesNotSlowStartup() throws Exception {
+        assumeTrue(classpath != null && archive != null, "run through :server:startupTest");
+        
+        // -Xshare:on refuses to start if the archive cannot be mapped (stale jars, other JDK)
+        List<String> loaded = probe("-Xshare:on", "-XX:SharedArchiveFile=" + archive, "-Xlog:class+load");
+        List<String> notArchived = new ArrayList<>();
+        int archived = 0;
+        for (String line : loaded) {
+            if (!line.contains(" com.kaiounet.")) {
+                continue;
+            }
+            if (line.contains("source: shared objects file")) {
+                archived++;
+            } else if (!line.contains("GameEvents$")) { // CDS never archives JFR event classes
+                notArchived.add(line);
+            }
+        }
+        assertTrue(archived > 0, "no server classes were loaded from the archive");
+        assertEquals(List.of(), notArchived, "server classes loaded outside the archive");
+        
+        long baseline = medianStartupMillis("-Xshare:auto");
+        long withCds = medianStartupMillis("-Xshare:on", "-XX:SharedArchiveFile=" + archive);
+        System.out.printf("Server startup (median of %d): %d ms without AppCDS, %d ms with AppCDS "
+            + "(%d server classes archived)%n", RUNS, baseline, withCds, archived);
+        assertTrue(withCds <= baseline * MAX_SLOWDOWN,
+            "startup with AppCDS (" + withCds + " ms) is slower than without (" + baseline + " ms)");
+    }
+    
+    private long medianStartupMillis(String... jvmArgs) throws Exception {
+        long[] times = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            probe(jvmArgs);
+            times[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+    
+    /**
+     * Start the server with exitAfterStart and wait for it to exit
+     *
+     * @return everything it printed
+     */
+    private List<String> probe(String... jvmArgs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(Arrays.asList(jvmArgs));
+        command.add("-D" + GameServerApp.EXIT_AFTER_START + "=true");
+        command.add("-cp");
+        command.add(classpath);
+        command.add(GameServerApp.class.getName());
+        Process process = new ProcessBuilder(command)
+            .directory(workingDir)
+            .redirectErrorStream(true)
+            .start();
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.add(line);
+            }
+        }
+        int exit = process.waitFor();
+        assertEquals(0, exit, "server probe failed:\n" + String.join("\n", output));
+        return output;
+    }
+}
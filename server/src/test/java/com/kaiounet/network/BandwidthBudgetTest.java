@@ -0,0 +1,129 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kaiounet.config.TuningConfig;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A client whose byte budget fits one position update per tick, watching
+ * players that all move every tick: nearer players are updated more often,
+ * and the farthest still get through as their updates go stale.
+ */
+class BandwidthBudgetTest {
+    private static final int TICK_RATE = 100;
+    private static final float VIEWER_X = 100;
+    private static final float Y = 100;
+    private static final float[] DISTANCES = {50, 1000, 3000};
+    private static final long SETTLE_MILLIS = 1_000;
+    private static final long MEASURE_MILLIS = 2_000;
+    
+    @Test
+    void nearerPlayersGetMoreOfTheBudget() throws Exception {
+        GameMessage probe = new GameMessage(GameMessage.MessageType.PLAYER_MOVE, DISTANCES.length + 1,
+            VIEWER_X + DISTANCES[DISTANCES.length - 1], Y, 0);
+        SharedFrame frame = SharedFrame.encode(new GameMessageCodec(4000, 4000), probe);
+        int cost = frame.length();
+        frame.release();
+        
+        TuningConfig previous = TuningConfig.current();
+        TuningConfig.publish(TuningConfig.fromMap(Map.of(
+            TuningConfig.TICK_RATE, String.valueOf(TICK_RATE),
+            // One and a half updates per tick: never two, since unspent budget is capped at one tick's
+            TuningConfig.CLIENT_BYTES_PER_SECOND, String.valueOf(Math.max(1024, cost * 3 / 2 * TICK_RATE)),
+            TuningConfig.WORLD_WIDTH, "4000",
+            TuningConfig.WORLD_HEIGHT, "4000",
+            TuningConfig.PING_INTERVAL_MS, "60000",
+            TuningConfig.COMPRESSION_ENABLED, "0")));
+        GameServer server = new GameServer("127.0.0.1", 0);
+        server.start();
+        GameClient viewer = new GameClient("127.0.0.1", server.getPort());
+        List<GameClient> movers = new ArrayList<>();
+        AtomicBoolean moving = new AtomicBoolean(true);
+        Thread driver = null;
+        try {
+            assertTrue(viewer.connect());
+            viewer.sendMessage(new GameMessage(GameMessage.MessageType.PLAYER_MOVE, 0, VIEWER_X, Y, 0));
+            int[] ids = new int[DISTANCES.length];
+            for (int i = 0; i < DISTANCES.length; i++) {
+                GameClient mover = new GameClient("127.0.0.1", server.getPort());
+                assertTrue(mover.connect());
+                movers.add(mover);
+                ids[i] = awaitJoin(mover);
+            }
+            
+            // Every mover changes position more often than the server ticks
+            driver = new Thread(() -> {
+                for (int step = 0; moving.get(); step++) {
+                    for (int i = 0; i < movers.size(); i++) {
+                        float x = VIEWER_X + DISTANCES[i] + (step & 1);
+                        movers.get(i).sendMessage(new GameMessage(GameMessage.MessageType.PLAYER_MOVE, 0, x, Y, 0));
+                        movers.get(i).drainMessages(message -> { }, Integer.MAX_VALUE);
+                    }
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "movers");
+            driver.start();
+            
+            // Let the join traffic's debt against the budget pay off
+            Thread.sleep(SETTLE_MILLIS);
+            viewer.drainMessages(message -> { }, Integer.MAX_VALUE);
+            
+            int[] updates = new int[DISTANCES.length];
+            long end = System.currentTimeMillis() + MEASURE_MILLIS;
+            while (System.currentTimeMillis() < end) {
+                viewer.drainMessages(message -> {
+                    if (message.type == GameMessage.MessageType.PLAYER_MOVE) {
+                        for (int i = 0; i < ids.length; i++) {
+                            if (message.playerId == ids[i]) {
+                                updates[i]++;
+                            }
+                        }
+                    }
+                }, Integer.MAX_VALUE);
+                Thread.sleep(5);
+            }
+            
+            int total = Arrays.stream(updates).sum();
+            System.out.printf("Updates per mover at distances %s: %s (%d ticks)%n",
+                Arrays.toString(DISTANCES), Arrays.toString(updates), MEASURE_MILLIS * TICK_RATE / 1000);
+            assertTrue(total <= MEASURE_MILLIS * TICK_RATE / 1000 + 10, "budget exceeded: " + total + " updates");
+            for (int i = 1; i < updates.length; i++) {
+                assertTrue(updates[i - 1] > updates[i], "nearer player got fewer updates: " + Arrays.toString(updates));
+            }
+            assertTrue(updates[updates.length - 1] > 0, "farthest player starved: " + Arrays.toString(updates));
+        } finally {
+            moving.set(false);
+            if (driver != null) {
+                driver.join();
+            }
+            viewer.disconnect();
+            movers.forEach(GameClient::disconnect);
+            server.stop();
+            TuningConfig.publish(previous);
+        }
+    }
+    
+    private static int awaitJoin(GameClient client) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            GameMessage message = client.pollMessage();
+            if (message == null) {
+                Thread.sleep(1);
+            } else if (message.type == GameMessage.MessageType.PLAYER_JOIN) {
+                return message.playerId;
+            }
+        }
+        fail("no JOIN");
+        return -1;
+    }
+}
@@ -0,0 +1,87 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Broadcasting a tick's position updates: every client's writer encoding
+ * each message itself, against one {@link SharedFrame} per message that the
+ * writers copy out. Both send the same bytes; the table reports the cost per
+ * message delivered to one client.
+ * Run with {@code ./gradlew :server:benchmark}.
+ */
+@Tag("benchmark")
+class BroadcastEncodeBenchmark {
+    private static final int[] CLIENT_COUNTS = {10, 100, 1000};
+    private static final int MESSAGES_PER_TICK = 200;
+    private static final long DELIVERIES = 20_000_000;
+    private static final int WORLD = 4000;
+    
+    @Test
+    void encodeOnceAgainstEncodePerClient() throws IOException {
+        GameMessageCodec codec = new GameMessageCodec(WORLD, WORLD);
+        GameMessage[] messages = new GameMessage[MESSAGES_PER_TICK];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = new GameMessage(GameMessage.MessageType.PLAYER_MOVE, i + 1,
+                i * 17 % WORLD, i * 31 % WORLD, 0);
+        }
+        for (int round = 0; round < 2; round++) { // First round warms up
+            if (round == 1) {
+                System.out.printf("%8s %16s %16s%n", "clients", "per-client ns", "shared ns");
+            }
+            for (int clients : CLIENT_COUNTS) {
+                MessageWriter[] perClient = writers(clients, codec);
+                MessageWriter[] shared = writers(clients, codec);
+                int ticks = (int) (DELIVERIES / ((long) clients * MESSAGES_PER_TICK));
+                
+                long start = System.nanoTime();
+                for (int tick = 0; tick < ticks; tick++) {
+                    for (MessageWriter writer : perClient) {
+                        for (GameMessage message : messages) {
+                            writer.writeMessage(message);
+                        }
+                    }
+                }
+                long perClientNanos = System.nanoTime() - start;
+                
+                start = System.nanoTime();
+                for (int tick = 0; tick < ticks; tick++) {
+                    for (GameMessage message : messages) {
+                        SharedFrame frame = SharedFrame.encode(codec, message);
+                        for (int c = 1; c < clients; c++) {
+                            frame.retain();
+                        }
+                        for (MessageWriter writer : shared) {
+                            writer.writeFrame(frame);
+                            frame.release();
+                        }
+                    }
+                }
+                long sharedNanos = System.nanoTime() - start;
+                
+                for (int c = 0; c < clients; c++) {
+                    assertEquals(perClient[c].getBytesWritten(), shared[c].getBytesWritten());
+                }
+                if (round == 1) {
+                    double delivered = (double) ticks * clients * MESSAGES_PER_TICK;
+                    System.out.printf("%8d %16.1f %16.1f%n",
+                        clients, perClientNanos / delivered, sharedNanos / delivered);
+                }
+            }
+        }
+    }
+    
+    private static MessageWriter[] writers(int clients, GameMessageCodec codec) {
+        MessageWriter[] writers = new MessageWriter[clients];
+        for (int c = 0; c < clients; c++) {
+            // Buffered like a connection's stream, but the bytes go nowhere
+            writers[c] = new MessageWriter(new BufferedOutputStream(OutputStream.nullOutputStream()), codec);
+        }
+        return writers;
+    }
+}
@@ -0,0 +1,140 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Order between reliable messages and coalesced moves, and the age the
+ * server's slow-consumer eviction reads.
+ */
+class ClientOutboxTest {
+    private static final long MILLI = 1_000_000;
+    
+    @Test
+    void movesFollowTheReliableMessagesQueuedBeforeThem() throws Exception {
+        ClientOutbox outbox = new ClientOutbox(16);
+        outbox.offer(message(GameMessage.MessageType.PLAYER_JOIN, 1), 0);
+        outbox.offer(move(1, 10), 0);
+        outbox.offer(message(GameMessage.MessageType.LEADERBOARD_UPDATE, 0), 0);
+        outbox.offer(move(2, 20), 0);
+        assertEquals(List.of("PLAYER_JOIN 1", "PLAYER_MOVE 1", "LEADERBOARD_UPDATE 0", "PLAYER_MOVE 2"),
+            describe(takeAll(outbox, 16)));
+    }
+    
+    @Test
+    void newerMovesReplaceThePendingOne() throws Exception {
+        ClientOutbox outbox = new ClientOutbox(16);
+        outbox.offer(move(1, 10), 0);
+        outbox.offer(move(2, 20), 0);
+        outbox.offer(move(1, 11), 0);
+        outbox.offer(move(1, 12), 0);
+        List<GameMessage> sent = takeAll(outbox, 16);
+        assertEquals(List.of("PLAYER_MOVE 1", "PLAYER_MOVE 2"), describe(sent));
+        assertEquals(12, sent.get(0).x, "latest position wins");
+        assertEquals(2, outbox.getCoalescedCount());
+        assertEquals(0, outbox.getPendingMoves());
+    }
+    
+    @Test
+    void steadyReliableTrafficDoesNotStarveMoves() throws Exception {
+        ClientOutbox outbox = new ClientOutbox(256);
+        GameMessage[] batch = new GameMessage[1];
+        SharedFrame[] frames = new SharedFrame[1];
+        int movesSent = 0;
+        long now = 0;
+        // Every millisecond a reliable message and a position arrive, but the
+        // writer only manages one message: it is not keeping up
+        for (int round = 0; round < 100; round++) {
+            now = round * MILLI;
+            outbox.offer(message(GameMessage.MessageType.LEADERBOARD_UPDATE, 0), now);
+            outbox.offer(move(1, round), now);
+            assertEquals(1, outbox.take(batch, frames));
+            if (batch[0].type == GameMessage.MessageType.PLAYER_MOVE) {
+                movesSent++;
+            }
+        }
+        // Positions still go out, and the growing backlog shows up as age
+        // for the slow-consumer eviction instead of hiding behind progress
+        assertTrue(movesSent >= 10, "only " + movesSent + " of 100 rounds sent a move");
+        assertTrue(outbox.oldestAgeNanos(now) >= 10 * MILLI, "backlog not visible to eviction");
+    }
+    
+    @Test
+    void pendingMoveAgesUntilItIsSent() throws Exception {
+        ClientOutbox outbox = new ClientOutbox(16);
+        GameMessage[] batch = new GameMessage[1];
+        SharedFrame[] frames = new SharedFrame[1];
+        outbox.offer(message(GameMessage.MessageType.LEADERBOARD_UPDATE, 0), 0);
+        outbox.offer(move(1, 0), 5 * MILLI);
+        outbox.offer(message(GameMessage.MessageType.LEADERBOARD_UPDATE, 0), 6 * MILLI);
+        outbox.take(batch, frames); // A reliable message goes out, the move does not
+        
+        // The move has waited since 5 ms, even though a message was just written
+        assertEquals(95 * MILLI, outbox.oldestAgeNanos(100 * MILLI));
+        outbox.offer(move(1, 1), 50 * MILLI);
+        assertEquals(95 * MILLI, outbox.oldestAgeNanos(100 * MILLI), "coalescing is not progress");
+        
+        outbox.take(batch, frames);
+        assertEquals(GameMessage.MessageType.PLAYER_MOVE, batch[0].type);
+        assertEquals(94 * MILLI, outbox.oldestAgeNanos(100 * MILLI), "now the reliable message is oldest");
+        outbox.take(batch, frames);
+        assertEquals(0, outbox.oldestAgeNanos(100 * MILLI));
+    }
+    
+    @Test
+    void fullFifoAsksForEviction() {
+        ClientOutbox outbox = new ClientOutbox(2);
+        assertTrue(outbox.offer(message(GameMessage.MessageType.LEADERBOARD_UPDATE, 0), 0));
+        assertTrue(outbox.offer(message(GameMessage.MessageType.LEADERBOARD_UPDATE, 0), 0));
+        assertTrue(outbox.offer(move(1, 0), 0), "moves never fill the FIFO");
+        assertFalse(outbox.offer(message(GameMessage.MessageType.LEADERBOARD_UPDATE, 0), 0));
+    }
+    
+    @Test
+    void respawnAndLeaveDiscardPendingMoves() throws Exception {
+        ClientOutbox outbox = new ClientOutbox(16);
+        outbox.offer(move(1, 10), 0);
+        outbox.offer(move(2, 20), 0);
+        outbox.offer(move(3, 30), 0);
+        outbox.offer(message(GameMessage.MessageType.PLAYER_RESPAWN, 1), 0);
+        outbox.offer(message(GameMessage.MessageType.PLAYER_LEAVE, 2), 0);
+        GameMessage delta = message(GameMessage.MessageType.ROSTER_DELTA, 0);
+        delta.leftIds = new int[] {3};
+        outbox.offer(delta, 0);
+        // A position from before the respawn would put the player back where it died
+        assertEquals(List.of("PLAYER_RESPAWN 1", "PLAYER_LEAVE 2", "ROSTER_DELTA 0"),
+            describe(takeAll(outbox, 16)));
+    }
+    
+    private static GameMessage message(GameMessage.MessageType type, int playerId) {
+        return new GameMessage(type, playerId, 0, 0, 0);
+    }
+    
+    private static GameMessage move(int playerId, float x) {
+        return new GameMessage(GameMessage.MessageType.PLAYER_MOVE, playerId, x, 0, 0);
+    }
+    
+    private static List<GameMessage> takeAll(ClientOutbox outbox, int batchSize) throws InterruptedException {
+        List<GameMessage> sent = new ArrayList<>();
+        GameMessage[] batch = new GameMessage[batchSize];
+        SharedFrame[] frames = new SharedFrame[batchSize];
+        while (outbox.getReliableDepth() > 0 || outbox.getPendingMoves() > 0) {
+            int count = outbox.take(batch, frames);
+            for (int i = 0; i < count; i++) {
+                sent.add(batch[i]);
+            }
+        }
+        return sent;
+    }
+    
+    private static List<String> describe(List<GameMessage> messages) {
+        List<String> described = new ArrayList<>();
+        for (GameMessage message : messages) {
+            described.add(message.type + " " + message.playerId);
+        }
+        return described;
+    }
+}
@@ -0,0 +1,244 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kaiounet.config.TuningConfig;
+import com.kaiounet.game.Beam;
+import com.kaiounet.game.Player;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The hit that empties a player's health kills it on the server, which
+ * credits the kill and announces the respawn itself. Until then the dead
+ * player can neither move, shoot nor report hits.
+ */
+class DeadPlayerTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+    // Long enough for a beam from the shooter to reach the target (~50 px at 0.48 px/ms)
+    private static final long FLIGHT_MILLIS = 100;
+    private static final long RESPAWN_DELAY_MILLIS = 1_000;
+    private static final int KILLING_HITS = Player.MAX_HEALTH / Beam.DAMAGE;
+    
+    private final TuningConfig previous = TuningConfig.current();
+    private GameServer server;
+    
+    @BeforeEach
+    void startServer() throws Exception {
+        TuningConfig.publish(TuningConfig.fromMap(Map.of(
+            TuningConfig.FIRE_COOLDOWN_MS, "0",
+            TuningConfig.RESPAWN_DELAY_MS, String.valueOf(RESPAWN_DELAY_MILLIS),
+            TuningConfig.COMPRESSION_ENABLED, "0")));
+        server = new GameServer("127.0.0.1", 0);
+        server.start();
+    }
+    
+    @AfterEach
+    void stopServer() {
+        server.stop();
+        TuningConfig.publish(previous);
+    }
+    
+    @Test
+    void deadPlayerIsIgnoredUntilRespawn() throws Exception {
+        GameClient shooter = new GameClient("127.0.0.1", server.getPort());
+        GameClient target = new GameClient("127.0.0.1", server.getPort());
+        try {
+            assertTrue(shooter.connect());
+            assertTrue(target.connect());
+            int shooterId = await(shooter, m -> m.type == GameMessage.MessageType.PLAYER_JOIN).playerId;
+            int targetId = await(target, m -> m.type == GameMessage.MessageType.PLAYER_JOIN).playerId;
+            
+            shooter.sendMessage(move(100, 100));
+            target.sendMessage(move(160, 100));
+            Thread.sleep(200);
+            
+            // Ten lag-compensated hits from the left take the target's health to zero
+            for (int beamId = 1; beamId <= KILLING_HITS; beamId++) {
+                shooter.sendMessage(fire(beamId, 110, 110, 1));
+                Thread.sleep(FLIGHT_MILLIS);
+                shooter.sendMessage(hit(shooterId, beamId, targetId));
+            }
+            assertNotNull(await(target, m -> m.type == GameMessage.MessageType.PLAYER_HIT
+                && m.targetPlayerId == targetId && m.health == 0), "target was not killed");
+            drain(shooter);
+            
+            // Dead: a move, a shot at the shooter and a report of that shot hitting
+            target.sendMessage(move(600, 600));
+            target.sendMessage(fire(1, 150, 110, -1));
+            Thread.sleep(FLIGHT_MILLIS);
+            target.sendMessage(hit(targetId, 1, shooterId));
+            Thread.sleep(300);
+            for (GameMessage message : drain(shooter)) {
+                boolean fromTarget = message.playerId == targetId;
+                assertFalse(message.type == GameMessage.MessageType.BEAM_FIRE && fromTarget,
+                    "dead player's shot was relayed");
+                assertFalse(message.type == GameMessage.MessageType.PLAYER_HIT && fromTarget,
+                    "dead player's hit was accepted");
+                assertFalse(message.type == GameMessage.MessageType.PLAYER_MOVE && fromTarget
+                    && near(message.x, 600), "dead player's move was applied");
+            }
+            
+            // Nobody reports the kill: the server respawns the target on its own
+            GameMessage respawn = await(target, m -> m.type == GameMessage.MessageType.PLAYER_RESPAWN
+                && m.playerId == targetId);
+            assertNotNull(respawn, "respawn was not announced");
+            assertEquals(shooterId, respawn.killerId);
+            assertEquals(1, respawn.score, "kill not credited");
+            assertEquals(Player.MAX_HEALTH, respawn.health);
+            
+            // Alive again: moves and shots go through
+            target.sendMessage(fire(2, 170, 110, -1));
+            assertNotNull(await(shooter, m -> m.type == GameMessage.MessageType.BEAM_FIRE
+                && m.playerId == targetId), "respawned player's shot was dropped");
+            target.sendMessage(move(600, 600));
+            assertNotNull(await(shooter, m -> m.type == GameMessage.MessageType.PLAYER_MOVE
+                && m.playerId == targetId && near(m.x, 600)), "respawned player's move was dropped");
+        } finally {
+            shooter.disconnect();
+            target.disconnect();
+        }
+    }
+    
+    @Test
+    void killSharedByTwoShootersIsCreditedOnce() throws Exception {
+        GameClient left = new GameClient("127.0.0.1", server.getPort());
+        GameClient right = new GameClient("127.0.0.1", server.getPort());
+        GameClient target = new GameClient("127.0.0.1", server.getPort());
+        try {
+            assertTrue(left.connect());
+            assertTrue(right.connect());
+            assertTrue(target.connect());
+            int leftId = await(left, m -> m.type == GameMessage.MessageType.PLAYER_JOIN).playerId;
+            int rightId = await(right, m -> m.type == GameMessage.MessageType.PLAYER_JOIN).playerId;
+            int targetId = await(target, m -> m.type == GameMessage.MessageType.PLAYER_JOIN).playerId;
+            
+            left.sendMessage(move(100, 100));
+            right.sendMessage(move(220, 100));
+            target.sendMessage(move(160, 100));
+            Thread.sleep(200);
+            
+            // Five hits each, from either side; the right shooter's lands last
+            for (int beamId = 1; beamId <= KILLING_HITS / 2; beamId++) {
+                left.sendMessage(fire(beamId, 110, 110, 1));
+                right.sendMessage(fire(beamId, 210, 110, -1));
+                Thread.sleep(FLIGHT_MILLIS);
+                left.sendMessage(hit(leftId, beamId, targetId));
+                Thread.sleep(20);
+                right.sendMessage(hit(rightId, beamId, targetId));
+            }
+            
+            GameMessage respawn = await(target, m -> m.type == GameMessage.MessageType.PLAYER_RESPAWN
+                && m.playerId == targetId);
+            assertNotNull(respawn, "respawn was not announced");
+            assertEquals(rightId, respawn.killerId, "kill credited to a shooter who did not land the last hit");
+            assertEquals(1, respawn.score);
+            assertNull(await(target, m -> m.type == GameMessage.MessageType.PLAYER_RESPAWN,
+                RESPAWN_DELAY_MILLIS + 300), "respawned twice");
+        } finally {
+            left.disconnect();
+            right.disconnect();
+            target.disconnect();
+        }
+    }
+    
+    @Test
+    void killTheServerRejectedIsNotRespawned() throws Exception {
+        GameClient shooter = new GameClient("127.0.0.1", server.getPort());
+        GameClient target = new GameClient("127.0.0.1", server.getPort());
+        try {
+            assertTrue(shooter.connect());
+            assertTrue(target.connect());
+            int shooterId = await(shooter, m -> m.type == GameMessage.MessageType.PLAYER_JOIN).playerId;
+            int targetId = await(target, m -> m.type == GameMessage.MessageType.PLAYER_JOIN).playerId;
+            
+            shooter.sendMessage(move(100, 100));
+            target.sendMessage(move(160, 100));
+            Thread.sleep(200);
+            
+            for (int beamId = 1; beamId < KILLING_HITS; beamId++) {
+                shooter.sendMessage(fire(beamId, 110, 110, 1));
+                Thread.sleep(FLIGHT_MILLIS);
+                shooter.sendMessage(hit(shooterId, beamId, targetId));
+            }
+            // The last beam flies well below the target, but the shooter predicted a kill
+            shooter.sendMessage(fire(KILLING_HITS, 110, 300, 1));
+            Thread.sleep(FLIGHT_MILLIS);
+            shooter.sendMessage(hit(shooterId, KILLING_HITS, targetId));
+            GameMessage respawn = new GameMessage(GameMessage.MessageType.PLAYER_RESPAWN,
+                targetId, 160, 100, 0, Player.MAX_HEALTH, 0);
+            respawn.killerId = shooterId;
+            shooter.sendMessage(respawn);
+            
+            assertNotNull(await(target, m -> m.type == GameMessage.MessageType.PLAYER_HIT
+                && m.targetPlayerId == targetId && m.health == Beam.DAMAGE), "valid hits were not applied");
+            target.sendMessage(move(600, 600));
+            assertNotNull(await(shooter, m -> m.type == GameMessage.MessageType.PLAYER_MOVE
+                && m.playerId == targetId && near(m.x, 600)), "target treated as dead");
+            assertNull(await(target, m -> m.type == GameMessage.MessageType.PLAYER_RESPAWN
+                || (m.type == GameMessage.MessageType.PLAYER_HIT && m.health == 0),
+                RESPAWN_DELAY_MILLIS + 300), "rejected kill went through");
+        } finally {
+            shooter.disconnect();
+            target.disconnect();
+        }
+    }
+    
+    private static GameMessage move(float x, float y) {
+        return new GameMessage(GameMessage.MessageType.PLAYER_MOVE, 0, x, y, 0);
+    }
+    
+    private static GameMessage fire(int beamId, float x, float y, float vx) {
+        GameMessage message = new GameMessage(GameMessage.MessageType.BEAM_FIRE, 0, x, y, 0);
+        message.beamId = beamId;
+        message.vx = vx;
+        message.vy = 0;
+        return message;
+    }
+    
+    private static GameMessage hit(int shooterId, int beamId, int targetId) {
+        GameMessage message = new GameMessage(GameMessage.MessageType.PLAYER_HIT, shooterId, 0, 0, 0);
+        message.beamId = beamId;
+        message.targetPlayerId = targetId;
+        return message;
+    }
+    
+    /**
+     * Positions are quantized on the wire
+     */
+    private static boolean near(float value, float expected) {
+        return Math.abs(value - expected) < 1;
+    }
+    
+    /**
+     * First message matching the condition, skipping the others
+     */
+    private static GameMessage await(GameClient client, Predicate<GameMessage> condition) throws InterruptedException {
+        return await(client, condition, TIMEOUT_MILLIS);
+    }
+    
+    private static GameMessage await(GameClient client, Predicate<GameMessage> condition, long timeoutMillis)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            GameMessage message = client.pollMessage();
+            if (message == null) {
+                Thread.sleep(1);
+            } else if (condition.test(message)) {
+                return message;
+            }
+        }
+        return null;
+    }
+    
+    private static List<GameMessage> drain(GameClient client) {
+        List<GameMessage> messages = new ArrayList<>();
+        client.drainMessages(messages::add, Integer.MAX_VALUE);
+        return messages;
+    }
+}
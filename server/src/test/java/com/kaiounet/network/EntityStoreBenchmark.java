@@ -0,0 +1,143 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * GC cost of a large arena: one object per player in a map, each holding its
+ * latest snapshot message (how the server kept players before EntityStore),
+ * against off-heap records with snapshots in a slot-indexed array. Reports
+ * the live heap after setup, the time of a full collection, and the
+ * collections during ticks of moves that allocate fresh snapshots.
+ * Run with {@code ./gradlew :server:benchmark}.
+ */
+@Tag("benchmark")
+class EntityStoreBenchmark {
+    private static final int PLAYERS = 500_000;
+    private static final int TICKS = 600;
+    private static final int MOVES_PER_TICK = 50_000;
+    
+    private static class PlayerState {
+        int health;
+        int score;
+        float x;
+        float y;
+        volatile long version;
+        GameMessage snapshot;
+        
+        PlayerState(float x, float y, int health, int score) {
+            this.x = x;
+            this.y = y;
+            this.health = health;
+            this.score = score;
+        }
+    }
+    
+    @Test
+    void gcCostOfALargeArena() {
+        System.out.printf("%-14s %10s %10s %12s %12s%n", "layout", "heap MB", "full GC ms", "tick GCs", "tick GC ms");
+        for (int round = 0; round < 2; round++) { // First round warms up
+            report(round == 1, "objects", objects());
+            report(round == 1, "EntityStore", records());
+        }
+    }
+    
+    private static void report(boolean print, String layout, long[] result) {
+        if (print) {
+            System.out.printf("%-14s %10.1f %10d %12d %12d%n",
+                layout, result[0] / 1e6, result[1], result[2], result[3]);
+        }
+    }
+    
+    /**
+     * @return {heap bytes after setup, full GC ms, collections during ticks, their ms}
+     */
+    private static long[] objects() {
+        long[] result = new long[4];
+        Map<Integer, PlayerState> players = new ConcurrentHashMap<>();
+        for (int id = 1; id <= PLAYERS; id++) {
+            players.put(id, new PlayerState(id, id, 100, 0));
+        }
+        settle(result);
+        
+        SplittableRandom random = new SplittableRandom(42);
+        long[] before = gcTotals();
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (int i = 0; i < MOVES_PER_TICK; i++) {
+                int id = 1 + random.nextInt(PLAYERS);
+                PlayerState state = players.get(id);
+                state.x += 1;
+                state.version++;
+                state.snapshot = new GameMessage(GameMessage.MessageType.PLAYER_MOVE, id, state.x, state.y, 0);
+            }
+        }
+        measureTicks(result, before);
+        assertEquals(PLAYERS, players.size());
+        return result;
+    }
+    
+    private static long[] records() {
+        long[] result = new long[4];
+        EntityStore store = new EntityStore(PLAYERS);
+        for (int id = 1; id <= PLAYERS; id++) {
+            store.allocate(id, id, id, 100, 0);
+        }
+        GameMessage[] snapshots = new GameMessage[PLAYERS];
+        settle(result);
+        
+        SplittableRandom random = new SplittableRandom(42);
+        long[] before = gcTotals();
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (int i = 0; i < MOVES_PER_TICK; i++) {
+                int id = 1 + random.nextInt(PLAYERS);
+                int slot = store.slotOf(id);
+                store.setPosition(slot, store.getX(slot) + 1, store.getY(slot));
+                snapshots[slot] = new GameMessage(GameMessage.MessageType.PLAYER_MOVE, id,
+                    store.getX(slot), store.getY(slot), 0);
+            }
+        }
+        measureTicks(result, before);
+        assertEquals(PLAYERS, store.size());
+        return result;
+    }
+    
+    /**
+     * Time a full collection and record the live heap it leaves
+     */
+    private static void settle(long[] result) {
+        System.gc();
+        long start = System.nanoTime();
+        System.gc();
+        result[1] = (System.nanoTime() - start) / 1_000_000;
+        Runtime runtime = Runtime.getRuntime();
+        result[0] = runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    private static void measureTicks(long[] result, long[] before) {
+        long[] after = gcTotals();
+        result[2] = after[0] - before[0];
+        result[3] = after[1] - before[1];
+    }
+    
+    /**
+     * @return {collections, milliseconds} summed over every collector
+     */
+    private static long[] gcTotals() {
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[] {count, millis};
+    }
+}
@@ -0,0 +1,198 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Allocation, lookup and freeing against a map of id to slot, including the
+ * probe runs of the id index that wrap past the end of its table.
+ */
+class EntityStoreTest {
+    
+    @Test
+    void matchesMapModelThroughRandomAllocateAndFree() {
+        Random random = new Random(42);
+        // Small enough to fill up often; ids drawn from a narrow range collide in the index
+        EntityStore store = new EntityStore(12);
+        Map<Integer, Integer> model = new HashMap<>();
+        for (int step = 0; step < 50_000; step++) {
+            int id = random.nextInt(10) == 0 ? random.nextInt() : random.nextInt(40);
+            if (id == EntityStore.FREE) {
+                continue;
+            }
+            int action = random.nextInt(3);
+            if (action == 0) {
+                if (model.containsKey(id)) {
+                    int taken = id;
+                    assertThrows(IllegalArgumentException.class, () -> store.allocate(taken, 0, 0, 0, 0));
+                } else {
+                    int slot = store.allocate(id, step, -step, id & 0xff, step & 0xff);
+                    if (model.size() == store.capacity()) {
+                        assertEquals(-1, slot, "store is full");
+                    } else {
+                        assertTrue(slot >= 0 && slot < store.capacity(), "slot " + slot);
+                        assertFalse(model.containsValue(slot), "slot " + slot + " handed out twice");
+                        model.put(id, slot);
+                        assertEquals(step, store.getX(slot));
+                        assertEquals(-step, store.getY(slot));
+                        assertEquals(id & 0xff, store.getHealth(slot));
+                        assertEquals(step & 0xff, store.getScore(slot));
+                        assertEquals(0, store.getVersion(slot));
+                    }
+                }
+            } else if (action == 1) {
+                assertEquals(model.remove(id) != null, store.free(id));
+            } else {
+                assertEquals(model.getOrDefault(id, -1), store.slotOf(id));
+            }
+            if (step % 100 == 0) {
+                check(store, model);
+            }
+        }
+        check(store, model);
+    }
+    
+    @Test
+    void collidingIdsThatWrapTheTableSurviveAnyRemovalOrder() {
+        // 8 records index into a 32-entry table: these ids all hash to its
+        // last entry or its first, so their probe runs cross the end
+        int mask = 31;
+        List<Integer> ids = new ArrayList<>();
+        ids.addAll(idsWithHome(31, mask, 4));
+        ids.addAll(idsWithHome(0, mask, 2));
+        ids.addAll(idsWithHome(1, mask, 2));
+        Random random = new Random(7);
+        for (int order = 0; order < 200; order++) {
+            EntityStore store = new EntityStore(8);
+            Map<Integer, Integer> model = new HashMap<>();
+            List<Integer> shuffled = new ArrayList<>(ids);
+            Collections.shuffle(shuffled, random);
+            for (int id : shuffled) {
+                model.put(id, store.allocate(id, 0, 0, 100, 0));
+            }
+            check(store, model);
+            Collections.shuffle(shuffled, random);
+            for (int id : shuffled) {
+                assertTrue(store.free(id));
+                model.remove(id);
+                check(store, model);
+                assertEquals(-1, store.slotOf(id));
+            }
+        }
+    }
+    
+    @Test
+    void freedSlotIsReusedWithFreshState() {
+        EntityStore store = new EntityStore(4);
+        store.allocate(1, 1, 1, 100, 0);
+        int slot = store.allocate(2, 2, 2, 100, 0);
+        store.allocate(3, 3, 3, 100, 0);
+        store.setPosition(slot, 50, 60);
+        store.setScore(2, 9);
+        assertEquals(1, store.getVersion(slot));
+        
+        assertTrue(store.free(2));
+        assertFalse(store.free(2));
+        assertEquals(EntityStore.FREE, store.idAt(slot));
+        assertEquals(slot, store.allocate(4, 7, 8, 90, 0), "freed record reused before a new one");
+        assertEquals(3, store.getHighWater());
+        assertEquals(4, store.idAt(slot));
+        assertEquals(7, store.getX(slot));
+        assertEquals(8, store.getY(slot));
+        assertEquals(90, store.getHealth(slot));
+        assertEquals(0, store.getScore(slot));
+        assertEquals(0, store.getVersion(slot));
+        
+        // Changes by id cannot reach the record's previous owner
+        assertFalse(store.setHealth(2, 1));
+        assertEquals(-1, store.applyDamage(2, 10));
+        assertEquals(80, store.applyDamage(4, 10));
+        assertEquals(0, store.applyDamage(4, 500), "health stops at zero");
+    }
+    
+    @Test
+    void fullStoreRefusesUntilARecordIsFreed() {
+        EntityStore store = new EntityStore(3);
+        for (int id = 1; id <= 3; id++) {
+            assertEquals(id - 1, store.allocate(id, 0, 0, 100, 0));
+        }
+        assertEquals(-1, store.allocate(4, 0, 0, 100, 0));
+        assertEquals(-1, store.slotOf(4), "refused player left in the index");
+        assertEquals(3, store.size());
+        
+        assertTrue(store.free(1));
+        assertEquals(0, store.allocate(4, 0, 0, 100, 0));
+        assertEquals(-1, store.allocate(5, 0, 0, 100, 0));
+        assertThrows(IllegalArgumentException.class, () -> store.allocate(EntityStore.FREE, 0, 0, 100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new EntityStore(0));
+    }
+    
+    @Test
+    void idsSkipFreedRecords() {
+        EntityStore store = new EntityStore(8);
+        for (int id = 1; id <= 5; id++) {
+            store.allocate(id, 0, 0, 100, 0);
+        }
+        store.free(2);
+        store.free(4);
+        assertArrayEquals(new int[] {1, 3, 5}, sorted(store.ids()));
+        store.free(5);
+        assertArrayEquals(new int[] {1, 3}, sorted(store.ids()));
+        store.allocate(6, 0, 0, 100, 0);
+        assertArrayEquals(new int[] {1, 3, 6}, sorted(store.ids()));
+        store.free(1);
+        store.free(3);
+        store.free(6);
+        assertEquals(0, store.ids().length);
+        assertEquals(0, store.size());
+    }
+    
+    private static void check(EntityStore store, Map<Integer, Integer> model) {
+        assertEquals(model.size(), store.size());
+        for (Map.Entry<Integer, Integer> entry : model.entrySet()) {
+            assertEquals(entry.getValue(), store.slotOf(entry.getKey()), "slot of " + entry.getKey());
+            assertEquals(entry.getKey(), store.idAt(entry.getValue()));
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (int id : store.ids()) {
+            assertTrue(ids.add(id), "id listed twice: " + id);
+        }
+        assertEquals(model.keySet(), ids);
+        int used = 0;
+        for (int slot = 0; slot < store.getHighWater(); slot++) {
+            if (store.idAt(slot) != EntityStore.FREE) {
+                used++;
+            }
+        }
+        assertEquals(model.size(), used);
+    }
+    
+    /**
+     * Ids whose index probe starts at home; mirrors EntityStore's hash
+     */
+    private static List<Integer> idsWithHome(int home, int mask, int count) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; ids.size() < count; id++) {
+            if (((id * 0x9E3779B9) >>> 7 & mask) == home) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+    
+    private static int[] sorted(int[] ids) {
+        int[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
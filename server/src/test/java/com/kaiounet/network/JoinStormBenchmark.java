@@ -0,0 +1,120 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kaiounet.config.TuningConfig;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Join storm: clients connect at once and we time how long it takes every
+ * client to see the full roster, and count the roster messages each one
+ * received. Per-event broadcasting sent every client one PLAYER_JOIN per
+ * other player; batching sends about one ROSTER_DELTA per tick of the storm.
+ * Run with {@code ./gradlew :server:benchmark}.
+ */
+@Tag("benchmark")
+class JoinStormBenchmark {
+    private static final int[] CLIENT_COUNTS = {25, 100, 200};
+    private static final int CONNECT_THREADS = 16;
+    private static final long TIMEOUT_MILLIS = 60_000;
+    
+    @Test
+    void rosterAgreementUnderAJoinStorm() throws Exception {
+        TuningConfig previous = TuningConfig.current();
+        TuningConfig.publish(TuningConfig.fromMap(Map.of(TuningConfig.COMPRESSION_ENABLED, "0")));
+        try {
+            storm(CLIENT_COUNTS[0]); // Warm-up
+            System.out.printf("%8s %14s %22s %24s%n",
+                "clients", "agreement ms", "roster msgs/client", "per-event equivalent");
+            for (int clients : CLIENT_COUNTS) {
+                long[] result = storm(clients);
+                System.out.printf("%8d %14d %22.1f %24d%n",
+                    clients, result[0], result[1] / (double) clients, clients - 1);
+            }
+        } finally {
+            TuningConfig.publish(previous);
+        }
+    }
+    
+    /**
+     * @return {milliseconds until every client knew every player, roster messages received in total}
+     */
+    private static long[] storm(int count) throws Exception {
+        GameServer server = new GameServer("127.0.0.1", 0);
+        server.start();
+        ExecutorService connectors = Executors.newFixedThreadPool(CONNECT_THREADS);
+        List<GameClient> clients = new ArrayList<>();
+        try {
+            long start = System.nanoTime();
+            List<Future<GameClient>> connecting = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                connecting.add(connectors.submit(() -> {
+                    GameClient client = new GameClient("127.0.0.1", server.getPort());
+                    assertTrue(client.connect());
+                    return client;
+                }));
+            }
+            for (Future<GameClient> future : connecting) {
+                clients.add(future.get());
+            }
+            
+            List<Set<Integer>> rosters = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                rosters.add(new HashSet<>());
+            }
+            long[] rosterMessages = new long[1];
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            int agreed = 0;
+            while (agreed < count) {
+                assertTrue(System.currentTimeMillis() < deadline, agreed + "/" + count + " clients agreed");
+                agreed = 0;
+                for (int i = 0; i < count; i++) {
+                    Set<Integer> roster = rosters.get(i);
+                    clients.get(i).drainMessages(message -> apply(message, roster, rosterMessages), Integer.MAX_VALUE);
+                    if (roster.size() == count) {
+                        agreed++;
+                    }
+                }
+                Thread.sleep(1);
+            }
+            return new long[] {(System.nanoTime() - start) / 1_000_000, rosterMessages[0]};
+        } finally {
+            connectors.shutdownNow();
+            clients.forEach(GameClient::disconnect);
+            server.stop();
+        }
+    }
+    
+    private static void apply(GameMessage message, Set<Integer> roster, long[] rosterMessages) {
+        switch (message.type) {
+            case PLAYER_JOIN:
+                roster.add(message.playerId);
+                rosterMessages[0]++;
+                break;
+            case PLAYER_LEAVE:
+                roster.remove(message.playerId);
+                rosterMessages[0]++;
+                break;
+            case ROSTER_DELTA:
+                for (int id : message.leftIds) {
+                    roster.remove(id);
+                }
+                for (int id : message.joinedIds) {
+                    roster.add(id);
+                }
+                rosterMessages[0]++;
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Cost of one hit validation as the arena fills up; it should stay flat.
+ * Run with {@code ./gradlew :server:benchmark}.
+ */
+@Tag("benchmark")
+class LagCompensatorBenchmark {
+    private static final int[] PLAYER_COUNTS = {16, 256, 4096};
+    private static final int CHECKS = 2_000_000;
+    private static final long FIRED = 1_000_000;
+    
+    @Test
+    void hitValidationAgainstPlayerCount() {
+        for (int round = 0; round < 2; round++) { // First round warms up
+            for (int players : PLAYER_COUNTS) {
+                double nanos = measure(players);
+                if (round == 1) {
+                    System.out.printf("%5d players: %6.1f ns per beam recorded and hit checked%n", players, nanos);
+                }
+            }
+        }
+    }
+    
+    private static double measure(int players) {
+        LagCompensator lag = new LagCompensator(players);
+        for (int slot = 0; slot < players; slot++) {
+            float y = slot * 40;
+            lag.addPlayer(slot, slot + 1, FIRED - 2000, 300, y);
+            // A full history ring, so every rewind searches the whole buffer
+            for (int i = 1; i < LagCompensator.HISTORY_CAPACITY; i++) {
+                lag.recordPosition(slot, FIRED - 2000 + i * 16, 300, y);
+            }
+            lag.setRoundTripMillis(slot, 80);
+        }
+        
+        int accepted = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < CHECKS; i++) {
+            // Shooter i fires at its neighbour, which the beam reaches ~400 ms later
+            int shooter = i % players;
+            int target = (shooter + 1) % players;
+            int beamId = i / players;
+            float targetY = target * 40;
+            lag.recordBeam(shooter, beamId, FIRED, 100, targetY + 10, 1, 0);
+            if (lag.validateHit(shooter, beamId, target, FIRED + 420)) {
+                accepted++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(accepted > CHECKS / 2, "benchmark beams should mostly hit");
+        return (double) elapsed / CHECKS;
+    }
+}
@@ -0,0 +1,109 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * A beam fired at t=1000 from (100, 100) to the right reaches a target box at
+ * x=300 about 400 ms later; the target leaves that spot at 1340.
+ */
+class LagCompensatorTest {
+    private static final int SHOOTER = 0;
+    private static final int TARGET = 1;
+    private static final int BEAM = 7;
+    private static final long FIRED = 1000;
+    private static final long HIT = 1420;
+    
+    private final LagCompensator lag = new LagCompensator(4);
+    
+    private void setUp(long roundTripMillis) {
+        lag.addPlayer(SHOOTER, 11, FIRED, 100, 100);
+        lag.addPlayer(TARGET, 22, 990, 900, 95);
+        lag.recordPosition(TARGET, 1290, 900, 95);
+        lag.recordPosition(TARGET, 1300, 300, 95);
+        lag.recordPosition(TARGET, 1340, 300, 95);
+        lag.recordPosition(TARGET, 1350, 900, 95);
+        lag.setRoundTripMillis(SHOOTER, roundTripMillis);
+        lag.recordBeam(SHOOTER, BEAM, FIRED, 100, 100, 1, 0);
+    }
+    
+    @Test
+    void acceptsHitOnTheRewoundPosition() {
+        setUp(100); // The shooter saw the target at 1320
+        assertTrue(lag.validateHit(SHOOTER, BEAM, TARGET, HIT));
+    }
+    
+    @Test
+    void rejectsHitWhereTheTargetIsNow() {
+        setUp(0); // At 1420 the target is back at x=900
+        assertFalse(lag.validateHit(SHOOTER, BEAM, TARGET, HIT));
+    }
+    
+    @Test
+    void capsTheRewind() {
+        lag.addPlayer(SHOOTER, 11, FIRED, 100, 100);
+        lag.addPlayer(TARGET, 22, 990, 900, 95);
+        lag.recordPosition(TARGET, 1160, 900, 95);
+        lag.recordPosition(TARGET, 1165, 300, 95);
+        lag.recordPosition(TARGET, 1175, 300, 95);
+        lag.recordPosition(TARGET, 1180, 900, 95);
+        lag.setRoundTripMillis(SHOOTER, LagCompensator.MAX_REWIND_MS + 300);
+        lag.recordBeam(SHOOTER, BEAM, FIRED, 100, 100, 1, 0);
+        // Rewinding the full round trip would look at 870; the cap looks at 1170
+        assertTrue(lag.validateHit(SHOOTER, BEAM, TARGET, HIT));
+    }
+    
+    @Test
+    void acceptsReportsUpToTheTimingToleranceEarly() {
+        lag.addPlayer(SHOOTER, 11, FIRED, 100, 100);
+        lag.addPlayer(TARGET, 22, FIRED, 300, 95); // Standing still
+        lag.recordBeam(SHOOTER, BEAM, FIRED, 100, 100, 1, 0);
+        // The beam's front reaches the widened box (x=282) after ~379 ms
+        assertFalse(lag.validateHit(SHOOTER, BEAM, TARGET, FIRED + 320));
+        assertTrue(lag.validateHit(SHOOTER, BEAM, TARGET, FIRED + 340));
+    }
+    
+    @Test
+    void rejectsLateReportsForABeamThatFlewPast() {
+        setUp(100);
+        assertFalse(lag.validateHit(SHOOTER, BEAM, TARGET, HIT + 400));
+    }
+    
+    @Test
+    void rejectsDuplicateReports() {
+        setUp(100);
+        assertTrue(lag.validateHit(SHOOTER, BEAM, TARGET, HIT));
+        assertFalse(lag.validateHit(SHOOTER, BEAM, TARGET, HIT));
+    }
+    
+    @Test
+    void rejectsExpiredBeams() {
+        setUp(100);
+        lag.expireBeam(SHOOTER, 11, BEAM);
+        assertFalse(lag.validateHit(SHOOTER, BEAM, TARGET, HIT));
+    }
+    
+    @Test
+    void rejectsUnknownBeamsSelfHitsAndFreeSlots() {
+        setUp(100);
+        assertFalse(lag.validateHit(SHOOTER, BEAM + 1, TARGET, HIT));
+        assertFalse(lag.validateHit(SHOOTER, BEAM, SHOOTER, HIT));
+        assertFalse(lag.validateHit(SHOOTER, BEAM, 2, HIT));
+        assertFalse(lag.validateHit(SHOOTER, BEAM, -1, HIT));
+        assertTrue(lag.validateHit(SHOOTER, BEAM, TARGET, HIT));
+    }
+    
+    @Test
+    void ignoresCallsForThePreviousOwnerOfASlot() {
+        setUp(100);
+        lag.removePlayer(SHOOTER, 11);
+        lag.addPlayer(SHOOTER, 33, FIRED, 100, 100);
+        lag.setRoundTripMillis(SHOOTER, 100);
+        lag.recordBeam(SHOOTER, BEAM, FIRED, 100, 100, 1, 0);
+        
+        lag.expireBeam(SHOOTER, 11, BEAM);
+        lag.removePlayer(SHOOTER, 11);
+        assertTrue(lag.validateHit(SHOOTER, BEAM, TARGET, HIT));
+    }
+}
@@ -0,0 +1,95 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ranks and top-K of the skip list against a sorted list of every entry.
+ */
+class LeaderboardTest {
+    // Score descending, then id ascending, as the leaderboard orders ties
+    private static final Comparator<Map.Entry<Integer, Integer>> ORDER =
+        Comparator.<Map.Entry<Integer, Integer>>comparingInt(e -> -e.getValue())
+            .thenComparingInt(Map.Entry::getKey);
+    
+    @Test
+    void tiesAreOrderedById() {
+        Leaderboard board = new Leaderboard();
+        board.update(7, 10);
+        board.update(3, 10);
+        board.update(5, 20);
+        board.update(9, 10);
+        assertEquals(1, board.rankOf(5));
+        assertEquals(2, board.rankOf(3));
+        assertEquals(3, board.rankOf(7));
+        assertEquals(4, board.rankOf(9));
+        assertEquals(-1, board.rankOf(4));
+        assertEquals(0, board.scoreOf(4));
+        
+        int[] ids = new int[2];
+        int[] scores = new int[2];
+        assertEquals(2, board.topK(10, ids, scores), "limited by the array length");
+        assertArrayEquals(new int[] {5, 3}, ids);
+        assertArrayEquals(new int[] {20, 10}, scores);
+    }
+    
+    @Test
+    void matchesSortedModelThroughRandomUpdates() {
+        Random random = new Random(29);
+        Leaderboard board = new Leaderboard();
+        Map<Integer, Integer> model = new HashMap<>();
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(300);
+            int action = random.nextInt(10);
+            if (action < 2) {
+                assertEquals(model.remove(id) != null, board.remove(id));
+            } else {
+                // A narrow score range, so ties are common
+                int score = action < 5 && model.containsKey(id)
+                    ? model.get(id) + random.nextInt(3)
+                    : random.nextInt(50);
+                model.put(id, score);
+                board.update(id, score);
+            }
+            if (step % 500 == 0) {
+                check(board, model);
+            }
+        }
+        check(board, model);
+        
+        for (int id : new ArrayList<>(model.keySet())) {
+            assertTrue(board.remove(id));
+        }
+        assertEquals(0, board.size());
+        assertEquals(0, board.topK(10, new int[10], new int[10]));
+    }
+    
+    private static void check(Leaderboard board, Map<Integer, Integer> model) {
+        List<Map.Entry<Integer, Integer>> sorted = new ArrayList<>(model.entrySet());
+        sorted.sort(ORDER);
+        assertEquals(sorted.size(), board.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            int id = sorted.get(i).getKey();
+            assertTrue(board.contains(id));
+            assertEquals(i + 1, board.rankOf(id), "rank of " + id);
+            assertEquals(sorted.get(i).getValue(), board.scoreOf(id));
+        }
+        for (int k : new int[] {0, 1, 10, sorted.size() + 5}) {
+            int[] ids = new int[k];
+            int[] scores = new int[k];
+            int count = board.topK(k, ids, scores);
+            assertEquals(Math.min(k, sorted.size()), count);
+            for (int i = 0; i < count; i++) {
+                assertEquals(sorted.get(i).getKey(), ids[i], "top " + k + " at " + i);
+                assertEquals(sorted.get(i).getValue(), scores[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LockstepLobbyTest {
+    private final LockstepLobby lobby = new LockstepLobby();
+    
+    @Test
+    void startsAMatchWhenFullWithASortedRoster() {
+        assertNull(lobby.join(9, 3));
+        assertNull(lobby.join(2, 3));
+        assertNull(lobby.join(2, 3)); // Already waiting
+        LockstepLobby.Match match = lobby.join(5, 3);
+        
+        assertNotNull(match);
+        assertArrayEquals(new int[] {2, 5, 9}, match.roster);
+        assertSame(match, lobby.matchOf(2));
+        assertSame(match, lobby.matchOf(9));
+        assertEquals(0, lobby.getWaitingCount());
+        assertNull(lobby.join(5, 3), "a player in a match cannot queue again");
+    }
+    
+    @Test
+    void leavingTheLobbyOnlyRemovesTheWaitingPlayer() {
+        lobby.join(1, 3);
+        lobby.join(2, 3);
+        assertNull(lobby.leave(1));
+        assertEquals(1, lobby.getWaitingCount());
+        assertNull(lobby.join(3, 3));
+        assertArrayEquals(new int[] {2, 3, 4}, lobby.join(4, 3).roster);
+    }
+    
+    @Test
+    void leavingAMatchEndsItForEveryone() {
+        lobby.join(1, 2);
+        LockstepLobby.Match first = lobby.join(2, 2);
+        
+        assertSame(first, lobby.leave(2));
+        assertNull(lobby.matchOf(1));
+        assertNull(lobby.leave(2));
+        
+        // The remaining member can queue for a new match with a new id and seed
+        lobby.join(1, 2);
+        LockstepLobby.Match second = lobby.join(3, 2);
+        assertNotEquals(first.id, second.id);
+        assertTrue(second.contains(1) && second.contains(3) && !second.contains(2));
+    }
+}
@@ -0,0 +1,142 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kaiounet.config.TuningConfig;
+import com.kaiounet.game.LockstepInput;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Two clients queue for a lockstep match on a real server, get the same
+ * roster and seed, and step their simulations to identical checksums.
+ */
+class LockstepMatchTest {
+    private static final int TICKS = 300;
+    private static final int INPUT_DELAY = 3;
+    private static final long TIMEOUT_MILLIS = 10_000;
+    
+    private final TuningConfig previous = TuningConfig.current();
+    private final List<GameClient> clients = new ArrayList<>();
+    private GameServer server;
+    
+    @BeforeEach
+    void startServer() throws Exception {
+        TuningConfig.publish(TuningConfig.fromMap(Map.of(
+            TuningConfig.LOCKSTEP_MATCH_SIZE, "2",
+            TuningConfig.COMPRESSION_ENABLED, "0")));
+        server = new GameServer("127.0.0.1", 0);
+        server.start();
+    }
+    
+    @AfterEach
+    void stopServer() {
+        clients.forEach(GameClient::disconnect);
+        server.stop();
+        TuningConfig.publish(previous);
+    }
+    
+    @Test
+    void matchedPeersAgreeOnRosterSeedAndState() throws Exception {
+        GameClient a = connect();
+        GameClient b = connect();
+        int idA = awaitMessage(a, m -> m.type == GameMessage.MessageType.PLAYER_JOIN, null).playerId;
+        int idB = awaitMessage(b, m -> m.type == GameMessage.MessageType.PLAYER_JOIN, null).playerId;
+        GameClient outsider = connect();
+        
+        a.sendMessage(new GameMessage(GameMessage.MessageType.LOCKSTEP_START, idA, 0, 0, 0));
+        b.sendMessage(new GameMessage(GameMessage.MessageType.LOCKSTEP_START, idB, 0, 0, 0));
+        GameMessage startA = awaitMessage(a, LockstepMatchTest::isStart, null);
+        GameMessage startB = awaitMessage(b, LockstepMatchTest::isStart, null);
+        assertEquals(startA.tick, startB.tick);
+        assertEquals(startA.checksum, startB.checksum);
+        assertArrayEquals(startA.joinedIds, startB.joinedIds);
+        assertArrayEquals(new int[] {Math.min(idA, idB), Math.max(idA, idB)}, startA.joinedIds);
+        
+        LockstepSession sessionA = session(a, idA, startA);
+        LockstepSession sessionB = session(b, idB, startB);
+        for (int tick = 0; tick < TICKS; tick++) {
+            assertTrue(sessionA.submitLocalInput(scriptedInput(idA, tick)));
+            assertTrue(sessionB.submitLocalInput(scriptedInput(idB, tick)));
+            pump(a, sessionA);
+            pump(b, sessionB);
+        }
+        
+        // Both peers submitted the same number of ticks, so both confirm up to the same one
+        int lastTick = TICKS + INPUT_DELAY;
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (sessionA.getConfirmed().getTick() < lastTick || sessionB.getConfirmed().getTick() < lastTick) {
+            assertTrue(System.currentTimeMillis() < deadline, "inputs were not relayed");
+            pump(a, sessionA);
+            pump(b, sessionB);
+            Thread.sleep(1);
+        }
+        assertEquals(lastTick, sessionA.getConfirmed().getTick());
+        assertEquals(sessionA.getConfirmed().checksum(), sessionB.getConfirmed().checksum());
+        assertFalse(sessionA.isDesynced() || sessionB.isDesynced());
+        
+        // Inputs stay within the match
+        outsider.drainMessages(m -> assertFalse(m.type == GameMessage.MessageType.LOCKSTEP_INPUT
+            || m.type == GameMessage.MessageType.LOCKSTEP_CHECKSUM, "outsider got " + m.type), Integer.MAX_VALUE);
+        
+        // A leaving peer ends the match for the other
+        b.disconnect();
+        GameMessage end = awaitMessage(a, m -> m.type == GameMessage.MessageType.LOCKSTEP_START, sessionA);
+        assertEquals(startA.tick, end.tick);
+        assertEquals(0, end.joinedIds.length);
+    }
+    
+    private GameClient connect() {
+        GameClient client = new GameClient("127.0.0.1", server.getPort());
+        assertTrue(client.connect());
+        clients.add(client);
+        return client;
+    }
+    
+    private static LockstepSession session(GameClient client, int playerId, GameMessage start) {
+        return new LockstepSession(client, playerId, start.joinedIds, start.checksum,
+            client.getWorldWidth(), client.getWorldHeight(), INPUT_DELAY);
+    }
+    
+    private static boolean isStart(GameMessage message) {
+        return message.type == GameMessage.MessageType.LOCKSTEP_START && message.joinedIds.length > 0;
+    }
+    
+    /**
+     * Walk toward the other player and fire now and then, differently per player
+     */
+    private static int scriptedInput(int playerId, int tick) {
+        boolean fire = (tick + playerId) % 20 == 0;
+        return LockstepInput.encode(playerId % 2 == 0, playerId % 2 != 0, tick % 50 < 25, tick % 50 >= 25,
+            fire, (tick * 7 + playerId * 31) & 0xFF);
+    }
+    
+    private static void pump(GameClient client, LockstepSession session) {
+        client.drainMessages(session::onMessage, Integer.MAX_VALUE);
+        session.advance();
+    }
+    
+    /**
+     * Poll until a message matches, passing the others to the session (if any)
+     */
+    private static GameMessage awaitMessage(GameClient client, Predicate<GameMessage> match,
+                                            LockstepSession session) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            GameMessage message = client.pollMessage();
+            if (message == null) {
+                Thread.sleep(1);
+            } else if (match.test(message)) {
+                return message;
+            } else if (session != null) {
+                session.onMessage(message);
+            }
+        }
+        return fail("timed out waiting for a message");
+    }
+}
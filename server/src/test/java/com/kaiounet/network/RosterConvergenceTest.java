@@ -0,0 +1,105 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kaiounet.config.TuningConfig;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Clients joining while others join and leave must all end up with the same
+ * roster: none may miss a delta published while it was registering.
+ */
+class RosterConvergenceTest {
+    private static final int STAYERS = 24;
+    private static final int LEAVERS = 12;
+    private static final long TIMEOUT_MILLIS = 20_000;
+    
+    @Test
+    void concurrentJoinsAndLeavesConverge() throws Exception {
+        TuningConfig previous = TuningConfig.current();
+        TuningConfig.publish(TuningConfig.fromMap(Map.of(
+            TuningConfig.SESSION_GRACE_MS, "0", // Leaves take effect at once
+            TuningConfig.COMPRESSION_ENABLED, "0")));
+        GameServer server = new GameServer("127.0.0.1", 0);
+        ExecutorService connectors = Executors.newFixedThreadPool(8);
+        List<GameClient> stayers = new ArrayList<>();
+        try {
+            server.start();
+            List<Future<GameClient>> connecting = new ArrayList<>();
+            for (int i = 0; i < STAYERS + LEAVERS; i++) {
+                boolean leaves = i % 3 == 2;
+                connecting.add(connectors.submit(() -> {
+                    GameClient client = new GameClient("127.0.0.1", server.getPort());
+                    assertTrue(client.connect());
+                    if (leaves) {
+                        Thread.sleep(ThreadLocalRandom.current().nextInt(20));
+                        client.disconnect();
+                        return null;
+                    }
+                    return client;
+                }));
+            }
+            for (Future<GameClient> future : connecting) {
+                GameClient client = future.get();
+                if (client != null) {
+                    stayers.add(client);
+                }
+            }
+            
+            List<Set<Integer>> rosters = new ArrayList<>();
+            Set<Integer> expected = new HashSet<>();
+            for (GameClient client : stayers) {
+                GameMessage join = client.pollMessage();
+                long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+                while (join == null && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                    join = client.pollMessage();
+                }
+                assertNotNull(join);
+                assertEquals(GameMessage.MessageType.PLAYER_JOIN, join.type, "own JOIN comes first");
+                expected.add(join.playerId);
+                rosters.add(new HashSet<>(Set.of(join.playerId)));
+            }
+            
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            boolean converged = false;
+            while (!converged && System.currentTimeMillis() < deadline) {
+                converged = true;
+                for (int i = 0; i < stayers.size(); i++) {
+                    Set<Integer> roster = rosters.get(i);
+                    stayers.get(i).drainMessages(message -> apply(message, roster), Integer.MAX_VALUE);
+                    converged &= roster.equals(expected);
+                }
+                Thread.sleep(5);
+            }
+            for (Set<Integer> roster : rosters) {
+                assertEquals(expected, roster);
+            }
+        } finally {
+            connectors.shutdownNow();
+            stayers.forEach(GameClient::disconnect);
+            server.stop();
+            TuningConfig.publish(previous);
+        }
+    }
+    
+    private static void apply(GameMessage message, Set<Integer> roster) {
+        if (message.type == GameMessage.MessageType.ROSTER_DELTA) {
+            for (int id : message.leftIds) {
+                roster.remove(id);
+            }
+            for (int id : message.joinedIds) {
+                roster.add(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.kaiounet.GameServerApp;
+import com.kaiounet.SpectatorRelayApp;
+import com.kaiounet.config.TuningConfig;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A game server and a relay in their own JVMs, with a player and several
+ * spectators in this one: spectators see every update in order, no sooner
+ * than RELAY_DELAY_MS after the player sent it.
+ */
+class SpectatorRelayTest {
+    private static final long DELAY_MS = 400;
+    private static final long SLACK_MS = 1_500;   // Ticks, bandwidth budget and a busy single core
+    private static final int SPECTATORS = 3;
+    private static final int MOVES = 400;
+    private static final long MOVE_INTERVAL_MILLIS = 5;
+    private static final long TIMEOUT_SECONDS = 30;
+    
+    @TempDir
+    Path workingDir;
+    private final List<Process> processes = new ArrayList<>();
+    private final List<GameClient> clients = new ArrayList<>();
+    private final TuningConfig previous = TuningConfig.current();
+    
+    @AfterEach
+    void cleanUp() throws InterruptedException {
+        clients.forEach(GameClient::disconnect);
+        for (Process process : processes) {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+        TuningConfig.publish(previous);
+    }
+    
+    @Test
+    void spectatorsSeeDelayedUpdatesInOrder() throws Exception {
+        int serverPort = freePort();
+        int relayPort = freePort();
+        Files.writeString(workingDir.resolve(".env"), String.join("\n",
+            "SERVER_HOST=127.0.0.1",
+            "SERVER_PORT=" + serverPort,
+            "RELAY_PORT=" + relayPort,
+            "RELAY_DELAY_MS=" + DELAY_MS,
+            "COMPRESSION_ENABLED=0",
+            ""));
+        launch(GameServerApp.class, "Waiting for clients");
+        launch(SpectatorRelayApp.class, "SPECTATOR RELAY", "127.0.0.1", String.valueOf(serverPort));
+        
+        TuningConfig.publish(TuningConfig.fromMap(Map.of(TuningConfig.COMPRESSION_ENABLED, "0")));
+        GameClient player = connect(serverPort, false);
+        int playerId = awaitJoin(player);
+        List<GameClient> spectators = new ArrayList<>();
+        for (int i = 0; i < SPECTATORS; i++) {
+            spectators.add(connect(relayPort, true));
+        }
+        
+        // Step x by 2 px per move so each position names the move that produced it
+        long[] sentAt = new long[MOVES];
+        for (int seq = 0; seq < MOVES; seq++) {
+            sentAt[seq] = System.nanoTime();
+            player.sendMessage(new GameMessage(GameMessage.MessageType.PLAYER_MOVE, playerId, 100 + seq * 2, 500, 0));
+            player.drainMessages(message -> { }, Integer.MAX_VALUE);
+            for (GameClient spectator : spectators) {
+                spectator.drainMessages(message -> { }, Integer.MAX_VALUE); // Before the delay is up
+            }
+            Thread.sleep(MOVE_INTERVAL_MILLIS);
+        }
+        
+        // Then watch until each spectator has seen the last move
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        for (GameClient spectator : spectators) {
+            int last = -1;
+            int seen = 0;
+            while (last < MOVES - 1) {
+                assertTrue(System.nanoTime() < deadline, "spectator stopped at move " + last);
+                GameMessage message = spectator.pollMessage();
+                long now = System.nanoTime();
+                if (message == null) {
+                    Thread.sleep(1);
+                    continue;
+                }
+                if (message.type != GameMessage.MessageType.PLAYER_MOVE || message.playerId != playerId) {
+                    continue;
+                }
+                int seq = Math.round((message.x - 100) / 2);
+                long delayMs = (now - sentAt[seq]) / 1_000_000;
+                assertTrue(seq > last, "move " + seq + " arrived after move " + last);
+                assertTrue(delayMs >= DELAY_MS, "move " + seq + " arrived after only " + delayMs + " ms");
+                assertTrue(delayMs <= DELAY_MS + SLACK_MS, "move " + seq + " took " + delayMs + " ms");
+                last = seq;
+                seen++;
+            }
+            assertTrue(seen >= 10, "only " + seen + " updates relayed");
+        }
+    }
+    
+    private GameClient connect(int port, boolean spectator) {
+        GameClient client = new GameClient("127.0.0.1", port);
+        client.setSpectator(spectator);
+        assertTrue(client.connect());
+        clients.add(client);
+        return client;
+    }
+    
+    private static int awaitJoin(GameClient client) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            GameMessage message = client.pollMessage();
+            if (message != null && message.type == GameMessage.MessageType.PLAYER_JOIN) {
+                return message.playerId;
+            }
+            Thread.sleep(1);
+        }
+        return fail("no PLAYER_JOIN");
+    }
+    
+    /**
+     * Start a main class in its own JVM and wait until it prints the marker
+     */
+    private void launch(Class<?> mainClass, String marker, String... args) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command)
+            .directory(workingDir.toFile())
+            .redirectErrorStream(true)
+            .start();
+        processes.add(process);
+        
+        CountDownLatch ready = new CountDownLatch(1);
+        List<String> output = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader lines = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    synchronized (output) {
+                        output.add(line);
+                    }
+                    if (line.contains(marker)) {
+                        ready.countDown();
+                    }
+                }
+            } catch (IOException e) {
+                // Process ended
+            }
+        }, mainClass.getSimpleName() + "-output");
+        reader.setDaemon(true);
+        reader.start();
+        if (!ready.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            synchronized (output) {
+                fail(mainClass.getSimpleName() + " did not start:\n" + String.join("\n", output));
+            }
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.kaiounet.config.TuningConfig;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Allocation budget of the server tick, which relays every moved player's
+ * position to every client: one snapshot per moved player, nothing per
+ * recipient.
+ */
+class TickAllocationTest {
+    private static final int CLIENTS = 10;
+    private static final long WARMUP_MILLIS = 2_000;
+    private static final long MEASURE_MILLIS = 3_000;
+    private static final long FRAME_MILLIS = 16;
+    // Snapshot message and its shared frame, per player that moved
+    private static final long MAX_BYTES_PER_MOVED_PLAYER = 256;
+    private static final long MAX_FIXED_BYTES = 512;
+    
+    @Test
+    void tickAllocatesPerMovedPlayerNotPerRecipient() throws Exception {
+        assumeTrue(AllocationTracker.isSupported(), "JVM has no per-thread allocation counter");
+        TuningConfig previous = TuningConfig.current();
+        TuningConfig.publish(TuningConfig.fromMap(Map.of(
+            TuningConfig.ALLOC_REPORT_SECONDS, "0", // Never reset the tracker
+            TuningConfig.COMPRESSION_ENABLED, "0")));
+        GameServer server = new GameServer("127.0.0.1", 0);
+        List<GameClient> clients = new ArrayList<>();
+        try {
+            server.start();
+            for (int i = 0; i < CLIENTS; i++) {
+                GameClient client = new GameClient("127.0.0.1", server.getPort());
+                assertTrue(client.connect());
+                clients.add(client);
+            }
+            
+            drive(clients, WARMUP_MILLIS, 0);
+            AllocationTracker tracker = server.getTickAllocations();
+            long bytesBefore = tracker.getTotalBytes();
+            long ticksBefore = tracker.getSampleCount();
+            drive(clients, MEASURE_MILLIS, 1);
+            long ticks = tracker.getSampleCount() - ticksBefore;
+            long perTick = (tracker.getTotalBytes() - bytesBefore) / Math.max(1, ticks);
+            
+            long budget = MAX_FIXED_BYTES + CLIENTS * MAX_BYTES_PER_MOVED_PLAYER;
+            System.out.printf("Server tick with %d moving clients: %d B per tick over %d ticks (budget %d B)%n",
+                CLIENTS, perTick, ticks, budget);
+            assertTrue(ticks > 0);
+            assertTrue(perTick <= budget, perTick + " B per tick, budget " + budget + " B");
+        } finally {
+            clients.forEach(GameClient::disconnect);
+            server.stop();
+            TuningConfig.publish(previous);
+        }
+    }
+    
+    /**
+     * Every client walks a little each frame and drains what the server sends
+     */
+    private static void drive(List<GameClient> clients, long millis, int phase) throws InterruptedException {
+        long end = System.currentTimeMillis() + millis;
+        for (int frame = 0; System.currentTimeMillis() < end; frame++) {
+            for (int i = 0; i < clients.size(); i++) {
+                GameClient client = clients.get(i);
+                float x = 500 + i * 100 + (frame % 200);
+                float y = 500 + phase * 100 + (frame % 100);
+                client.sendMessage(new GameMessage(GameMessage.MessageType.PLAYER_MOVE, 0, x, y, 0));
+                client.drainMessages(message -> { }, Integer.MAX_VALUE);
+            }
+            Thread.sleep(FRAME_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scheduling, cancelling and firing with a million pending timers.
+ * Run with {@code ./gradlew :server:benchmark}.
+ */
+@Tag("benchmark")
+class TimerWheelBenchmark {
+    private static final int PENDING = 1_000_000;
+    private static final int CHURN = 2_000_000;
+    // Deadlines spread over ten minutes of server time, so every level is used
+    private static final long SPAN_MS = 600_000;
+    private static final long START = 1_000_000;
+    
+    @Test
+    void millionPendingTimers() {
+        for (int round = 0; round < 3; round++) { // First rounds warm up
+            run(round == 2);
+        }
+    }
+    
+    private static void run(boolean report) {
+        SplittableRandom random = new SplittableRandom(42);
+        TimerWheel wheel = new TimerWheel(START, PENDING);
+        long[] handles = new long[PENDING];
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < PENDING; i++) {
+            handles[i] = wheel.schedule(START + 1 + random.nextLong(SPAN_MS), i & 3, i, 0);
+        }
+        long scheduleNanos = System.nanoTime() - start;
+        assertEquals(PENDING, wheel.size());
+        
+        // Steady state: a cooldown cancelled and rescheduled, with the wheel full
+        int capacity = wheel.capacity();
+        start = System.nanoTime();
+        for (int i = 0; i < CHURN; i++) {
+            int index = random.nextInt(PENDING);
+            wheel.cancel(handles[index]);
+            handles[index] = wheel.schedule(START + 1 + random.nextLong(SPAN_MS), 0, index, 0);
+        }
+        long churnNanos = System.nanoTime() - start;
+        assertEquals(PENDING, wheel.size());
+        assertEquals(capacity, wheel.capacity(), "recycled nodes should cover the churn");
+        
+        int[] fired = new int[1];
+        start = System.nanoTime();
+        for (long now = START; now < START + SPAN_MS; now += 16) { // One server tick at a time
+            wheel.advance(now + 16, (kind, a, b) -> fired[0]++);
+        }
+        long advanceNanos = System.nanoTime() - start;
+        assertEquals(PENDING, fired[0]);
+        assertEquals(0, wheel.size());
+        
+        if (report) {
+            System.out.printf("%,d pending timers: schedule %.1f ns, cancel + reschedule %.1f ns, "
+                + "fire %.1f ns per timer (%.1f ms to advance %d s of ticks)%n",
+                PENDING, (double) scheduleNanos / PENDING, (double) churnNanos / CHURN,
+                (double) advanceNanos / PENDING, advanceNanos / 1e6, SPAN_MS / 1000);
+        }
+    }
+}
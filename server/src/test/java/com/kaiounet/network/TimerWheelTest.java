@@ -0,0 +1,122 @@
+package com.kaiounet.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Timers fire at exactly their deadline whichever level they wait in, and
+ * stale handles or timers scheduled while firing cannot misfire.
+ */
+class TimerWheelTest {
+    // Not aligned to any slot boundary
+    private static final long START = 123_457;
+    
+    @Test
+    void timersFireAtTheirDeadlineAcrossLevels() {
+        TimerWheel wheel = new TimerWheel(START, 16);
+        List<Long> delays = new ArrayList<>(Arrays.asList(1L, 2L, 255L, 256L, 257L, 511L, 65_535L, 65_536L,
+            65_537L, 16_777_215L, 16_777_216L, 16_777_217L + 300));
+        Random random = new Random(11);
+        for (int i = 0; i < 2_000; i++) {
+            // Spread over every level, most in the lower ones
+            delays.add(1 + (long) (random.nextDouble() * random.nextDouble() * (1 << 25)));
+        }
+        long[] deadlines = new long[delays.size()];
+        long[] firedAt = new long[delays.size()];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = START + delays.get(i);
+            wheel.schedule(deadlines[i], 0, i, 0);
+        }
+        assertEquals(deadlines.length, wheel.size());
+        
+        long end = Arrays.stream(deadlines).max().getAsLong();
+        int fired = 0;
+        while (wheel.now() < end) {
+            // Uneven steps, like ticks that run late
+            long step = 1 + random.nextInt(random.nextBoolean() ? 20 : 70_000);
+            fired += wheel.advance(wheel.now() + step, (kind, a, b) -> {
+                assertEquals(0, firedAt[a], "timer " + a + " fired twice");
+                firedAt[a] = wheel.now();
+            });
+        }
+        assertEquals(deadlines.length, fired);
+        assertArrayEquals(deadlines, firedAt);
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void pastAndOutOfRangeDeadlinesAreClamped() {
+        TimerWheel wheel = new TimerWheel(START, 16);
+        List<Long> firedAt = new ArrayList<>();
+        wheel.schedule(START - 50, 0, 0, 0);
+        wheel.schedule(START + (1L << 40), 0, 1, 0);
+        assertEquals(1, wheel.advance(START + 1, (kind, a, b) -> firedAt.add(wheel.now())));
+        assertEquals(List.of(START + 1), firedAt, "a past deadline fires on the next advance");
+        assertEquals(1, wheel.size(), "a far deadline waits at the end of the span");
+    }
+    
+    @Test
+    void cancelStopsOnlyThePendingTimerItNames() {
+        TimerWheel wheel = new TimerWheel(START, 16);
+        List<Integer> fired = new ArrayList<>();
+        TimerWheel.Expiry record = (kind, a, b) -> fired.add(a);
+        
+        long cancelled = wheel.schedule(START + 300, 0, 1, 0);
+        long kept = wheel.schedule(START + 300, 0, 2, 0);
+        assertTrue(wheel.isPending(cancelled));
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.isPending(cancelled));
+        assertFalse(wheel.cancel(cancelled), "cancelled twice");
+        assertFalse(wheel.cancel(TimerWheel.NONE));
+        
+        // The freed node is reused, under a new generation
+        long reused = wheel.schedule(START + 100, 0, 3, 0);
+        assertEquals((int) cancelled, (int) reused, "expected the freed node back");
+        assertFalse(wheel.cancel(cancelled), "stale handle cancelled the node's new timer");
+        assertTrue(wheel.isPending(reused));
+        
+        wheel.advance(START + 1_000, record);
+        assertEquals(List.of(3, 2), fired);
+        assertFalse(wheel.isPending(kept));
+        assertFalse(wheel.cancel(kept), "already fired");
+        assertFalse(wheel.cancel(reused), "already fired");
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void timersScheduledWhileFiringWaitForALaterStep() {
+        TimerWheel wheel = new TimerWheel(START, 16);
+        List<Long> firedAt = new ArrayList<>();
+        // Each firing schedules the next one for "now", like an immediate retry
+        TimerWheel.Expiry retry = (kind, a, b) -> {
+            firedAt.add(wheel.now());
+            if (a < 3) {
+                wheel.schedule(wheel.now(), kind, a + 1, 0);
+            }
+        };
+        wheel.schedule(START + 10, 0, 0, 0);
+        assertEquals(1, wheel.advance(START + 10, retry));
+        assertEquals(1, wheel.size(), "rescheduled timer fired in the step that scheduled it");
+        
+        assertEquals(3, wheel.advance(START + 20, retry));
+        assertEquals(List.of(START + 10, START + 11, START + 12, START + 13), firedAt);
+        
+        // A callback rescheduling its own cooldown keeps an exact period
+        firedAt.clear();
+        long[] handle = new long[1];
+        TimerWheel.Expiry periodic = (kind, a, b) -> {
+            firedAt.add(wheel.now());
+            handle[0] = wheel.schedule(wheel.now() + 300, kind, a, b);
+        };
+        wheel.schedule(START + 300, 1, 0, 0);
+        wheel.advance(START + 1_500, periodic);
+        assertEquals(List.of(START + 300, START + 600, START + 900, START + 1_200, START + 1_500), firedAt);
+        assertTrue(wheel.cancel(handle[0]));
+        assertEquals(0, wheel.size());
+    }
+}
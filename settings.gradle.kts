@@ -1 +1,5 @@
-rootProject.name = "Jaylib101"
\ No newline at end of file
+rootProject.name = "Jaylib101"
+
+// core: protocol, config and game rules; server and client build on it.
+// Only the client depends on jaylib (raylib natives).
+include("core", "server", "client")